@@ -0,0 +1,357 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot paths of Polynomial: addTerm, evaluate, add, subtract, multiply, divide and
+ * toString. Every operation is run over a grid of degrees, densities and coefficient
+ * distributions. Each benchmark is warmed up and then timed for a fixed period. It reports the
+ * average time per operation and the bytes allocated per operation, taken from the thread
+ * allocation counter the way the JMH GC profiler does. As in JMH, each series of degrees runs
+ * in a forked JVM, so one benchmark cannot skew the JIT profile of the next. A fork that stops
+ * reporting for too long is killed and its remaining degrees are marked as timed out.
+ * <p>
+ * Only the original public API of Polynomial and Term is needed, so the same class can be
+ * compiled against an older tree to produce a baseline. The file
+ * benchmarks/baseline-linkedlist.txt holds such a run of the LinkedList implementation. Pass it
+ * with --baseline to print the speed-up of the current tree next to each result.
+ * <p>
+ * The harness is the benchmarks module, kept apart from the library sources in src so that it
+ * is not shipped with them; it depends on the library module and is compiled after it, for
+ * instance with {@code javac -d out src/*.java} and then
+ * {@code javac -cp out -d out benchmarks/src/*.java}.
+ * <p>
+ * Usage: {@code PolynomialBenchmark [--degrees 10,100] [--ops multiply,divide] [--time ms]
+ * [--cap ms] [--baseline file] [--out file]}
+ */
+public class PolynomialBenchmark {
+    private static final String END_OF_SERIES = "end"; // last line written by a fork
+    private static final double EVALUATE_AT = 0.999; // value used by the evaluate benchmark
+    private static volatile double sink; // consumes results so the JIT cannot drop the work
+
+    private final Random random = new Random(42);
+    private final Method fromCoefficients = findFromCoefficients();
+
+    /**
+     * The shapes of the generated polynomials.
+     */
+    public enum Density {
+        DENSE, SPARSE, RANDOM_GAPS
+    }
+
+    /**
+     * The distributions of the generated coefficients.
+     */
+    public enum Coefficients {
+        INTEGER, UNIFORM, WIDE
+    }
+
+    /**
+     * The measured operations.
+     */
+    public enum Operation {
+        ADD_TERM, EVALUATE, ADD, SUBTRACT, MULTIPLY, DIVIDE, TO_STRING
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] degrees = {10, 100, 1000, 10000, 100000};
+        List<Operation> operations = new ArrayList<>(Arrays.asList(Operation.values()));
+        long timeMillis = 200;
+        long capMillis = 2000;
+        String baselinePath = null;
+        String outPath = null;
+        String[] fork = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--fork" -> fork = args[i + 1].split(","); // internal: runs one series in this JVM
+                case "--degrees" -> degrees = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--ops" -> {
+                    operations.clear();
+                    for (String name : args[i + 1].split(",")) operations.add(Operation.valueOf(name.toUpperCase()));
+                }
+                case "--time" -> timeMillis = Long.parseLong(args[i + 1]);
+                case "--cap" -> capMillis = Long.parseLong(args[i + 1]);
+                case "--baseline" -> baselinePath = args[i + 1];
+                case "--out" -> outPath = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        if (fork != null) {
+            new PolynomialBenchmark().runSeries(Operation.valueOf(fork[0]), Density.valueOf(fork[1]),
+                    Coefficients.valueOf(fork[2]), degrees, timeMillis * 1_000_000, capMillis * 1_000_000);
+            return;
+        }
+
+        Map<String, Double> baseline = baselinePath == null ? new HashMap<>() : readResults(baselinePath);
+        PrintWriter out = outPath == null ? new PrintWriter(System.out, true) : new PrintWriter(new FileWriter(outPath));
+        out.printf("%-10s %7s %-12s %-8s %14s %14s%s%n", "operation", "degree", "density", "coefs",
+                "ns/op", "bytes/op", baseline.isEmpty() ? "" : "   speed-up");
+        String[] options = {"--degrees", Arrays.stream(degrees).mapToObj(Integer::toString).reduce((a, b) -> a + "," + b).orElse(""),
+                "--time", Long.toString(timeMillis), "--cap", Long.toString(capMillis)};
+        long patienceMillis = 2 * timeMillis + 4 * capMillis + 10_000;
+        for (Operation operation : operations) {
+            for (Density density : Density.values()) {
+                for (Coefficients coefficients : Coefficients.values()) {
+                    runFork(operation, density, coefficients, degrees, options, patienceMillis, baseline, out);
+                }
+            }
+        }
+        out.flush();
+        if (outPath != null) out.close();
+    }
+
+    /**
+     * Runs one series of degrees in a forked JVM and copies its results to the report, adding
+     * the speed-up over the baseline when one is known.
+     *
+     * @param operation      The operation.
+     * @param density        The shape of the operands.
+     * @param coefficients   The coefficient distribution.
+     * @param degrees        The degrees to run.
+     * @param options        The options passed on to the fork.
+     * @param patienceMillis The longest wait for the next result line.
+     * @param baseline       Earlier results keyed by benchmark name, possibly empty.
+     * @param out            The writer receiving the report.
+     * @throws IOException If the fork cannot be started.
+     */
+    private static void runFork(Operation operation, Density density, Coefficients coefficients, int[] degrees,
+                                String[] options, long patienceMillis, Map<String, Double> baseline,
+                                PrintWriter out) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+                System.getProperty("java.home") + "/bin/java", "-cp", System.getProperty("java.class.path"),
+                "PolynomialBenchmark", "--fork", operation + "," + density + "," + coefficients));
+        command.addAll(Arrays.asList(options));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = in.readLine()) != null) lines.add(line);
+            } catch (IOException e) {
+                // the fork was killed
+            }
+            lines.add(END_OF_SERIES);
+        });
+        reader.setDaemon(true);
+        reader.start();
+
+        int reported = 0;
+        try {
+            while (true) {
+                String line = lines.poll(patienceMillis, TimeUnit.MILLISECONDS);
+                if (line == null || line.equals(END_OF_SERIES)) break;
+                String[] fields = line.trim().split("\\s+");
+                String key = fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3];
+                if (fields.length >= 6 && baseline.containsKey(key) && !fields[4].equals("skipped")) {
+                    line += String.format(Locale.ROOT, " %10.1fx", baseline.get(key) / Double.parseDouble(fields[4]));
+                }
+                out.println(line);
+                reported++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        process.destroyForcibly();
+        for (int i = reported; i < degrees.length; i++) {
+            out.printf("%-10s %7d %-12s %-8s %14s %14s%n", operation, degrees[i], density, coefficients, "timeout", "-");
+        }
+        out.flush();
+    }
+
+    /**
+     * Runs one operation, density and coefficient distribution over every degree and prints a
+     * line per degree. A degree is skipped once the previous one took so long that, growing
+     * quadratically, a single call would exceed the cap.
+     *
+     * @param operation    The operation.
+     * @param density      The shape of the operands.
+     * @param coefficients The coefficient distribution.
+     * @param degrees      The degrees to run.
+     * @param timeNanos    The warm-up and measurement period of each benchmark.
+     * @param capNanos     The longest single call allowed.
+     */
+    private void runSeries(Operation operation, Density density, Coefficients coefficients, int[] degrees,
+                           long timeNanos, long capNanos) {
+        double previous = 0;
+        int previousDegree = 1;
+        for (int degree : degrees) {
+            double growth = Math.pow((double) degree / previousDegree, 2);
+            if (previous * growth > capNanos) {
+                System.out.printf("%-10s %7d %-12s %-8s %14s %14s%n", operation, degree, density, coefficients,
+                        "skipped", "-");
+                continue;
+            }
+            double[] result = measure(operation, degree, density, coefficients, timeNanos);
+            previous = result[0];
+            previousDegree = degree;
+            System.out.printf(Locale.ROOT, "%-10s %7d %-12s %-8s %14.1f %14.0f%n", operation, degree, density,
+                    coefficients, result[0], result[1]);
+        }
+        System.out.flush();
+    }
+
+    /**
+     * Warms up and times one benchmark.
+     *
+     * @param operation    The operation.
+     * @param degree       The degree of the operands.
+     * @param density      The shape of the operands.
+     * @param coefficients The coefficient distribution.
+     * @param timeNanos    The warm-up and measurement period.
+     * @return The nanoseconds and bytes allocated per operation.
+     */
+    private double[] measure(Operation operation, int degree, Density density, Coefficients coefficients, long timeNanos) {
+        Polynomial first = generate(degree, density, coefficients);
+        Polynomial second = generate(degree, density, coefficients);
+        Polynomial divisor = generate(Math.max(degree / 2, 1), density, coefficients);
+        run(operation, first, second, divisor, degree, timeNanos); // warm-up
+        return run(operation, first, second, divisor, degree, timeNanos);
+    }
+
+    /**
+     * Repeats an operation for a period and reports its average cost.
+     *
+     * @param operation The operation.
+     * @param first     The first operand.
+     * @param second    The second operand.
+     * @param divisor   The divisor used by the divide benchmark.
+     * @param degree    The degree of the operands.
+     * @param timeNanos The period.
+     * @return The nanoseconds and bytes allocated per operation.
+     */
+    private static double[] run(Operation operation, Polynomial first, Polynomial second, Polynomial divisor,
+                                int degree, long timeNanos) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long elapsed;
+        long count = 0;
+        double result = 0;
+        do {
+            switch (operation) {
+                case ADD_TERM -> { // add and take back a term so the operand keeps its shape
+                    first.addTerm(new Term(1, 'x', degree / 2 + 1));
+                    first.addTerm(new Term(-1, 'x', degree / 2 + 1));
+                    result += degree;
+                }
+                case EVALUATE -> result += first.evaluate(EVALUATE_AT);
+                case ADD -> result += first.add(second).hashCode();
+                case SUBTRACT -> result += first.subtract(second).hashCode();
+                case MULTIPLY -> result += first.multiply(second).hashCode();
+                case DIVIDE -> result += first.divide(divisor).hashCode();
+                case TO_STRING -> result += first.toString().length();
+            }
+            count++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < timeNanos);
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        sink = result;
+        return new double[]{(double) elapsed / count, (double) bytes / count};
+    }
+
+    /**
+     * Generates a polynomial of a given degree, shape and coefficient distribution.
+     *
+     * @param degree       The degree.
+     * @param density      The shape.
+     * @param coefficients The coefficient distribution.
+     * @return The polynomial.
+     */
+    private Polynomial generate(int degree, Density density, Coefficients coefficients) {
+        double[] values = new double[degree + 1];
+        int sparseTerms = Math.max(degree / 64, 2);
+        for (int i = 0; i <= degree; i++) {
+            boolean present = switch (density) {
+                case DENSE -> true;
+                case SPARSE -> random.nextInt(degree + 1) < sparseTerms;
+                case RANDOM_GAPS -> random.nextBoolean();
+            };
+            if (present || i == degree) values[i] = coefficient(coefficients);
+        }
+        if (fromCoefficients != null) { // let a tree with a dense form choose its representation
+            try {
+                return (Polynomial) fromCoefficients.invoke(null, values, 'x');
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        LinkedList<Term> terms = new LinkedList<>();
+        for (int i = degree; i >= 0; i--) {
+            if (values[i] != 0) terms.add(new Term(values[i], 'x', i));
+        }
+        Polynomial p = new Polynomial();
+        p.setTerms(terms);
+        return p;
+    }
+
+    /**
+     * Draws a non-zero coefficient.
+     *
+     * @param coefficients The distribution.
+     * @return The coefficient.
+     */
+    private double coefficient(Coefficients coefficients) {
+        double sign = random.nextBoolean() ? 1 : -1;
+        return switch (coefficients) {
+            case INTEGER -> sign * (1 + random.nextInt(9));
+            case UNIFORM -> sign * (0.001 + random.nextDouble());
+            case WIDE -> sign * Math.pow(10, random.nextDouble() * 16 - 8);
+        };
+    }
+
+    /**
+     * Looks up Polynomial.fromCoefficients, which older trees do not have.
+     *
+     * @return The method, or null if it does not exist.
+     */
+    private static Method findFromCoefficients() {
+        try {
+            return Polynomial.class.getMethod("fromCoefficients", double[].class, char.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the ns/op column of an earlier report.
+     *
+     * @param path The report file.
+     * @return The times keyed by operation, degree, density and coefficients.
+     * @throws IOException If the file cannot be read.
+     */
+    private static Map<String, Double> readResults(String path) throws IOException {
+        Map<String, Double> results = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length < 6 || fields[0].startsWith("#") || fields[0].equals("operation")) continue;
+                try {
+                    results.put(fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3], Double.parseDouble(fields[4]));
+                } catch (NumberFormatException e) {
+                    // skipped benchmarks have no time
+                }
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,239 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Represents a polynomial in one variable with exact integer coefficients. It mirrors the
+ * operations of Polynomial, but products and quotients never lose precision. Products go
+ * through multi-modular number-theoretic transforms.
+ */
+public class ExactPolynomial {
+    private final BigInteger[] coefficients; // coefficient of degree i at index i, without leading zeros
+    private final char literal; // literal of the polynomial
+
+    /**
+     * Constructs an ExactPolynomial from coefficients indexed by degree.
+     *
+     * @param coefficients The coefficients, where index i holds the coefficient of degree i.
+     * @param literal      The literal of the polynomial.
+     */
+    public ExactPolynomial(BigInteger[] coefficients, char literal) {
+        int top = coefficients.length - 1;
+        while (top >= 0 && coefficients[top].signum() == 0) top--;
+        this.coefficients = Arrays.copyOf(coefficients, top + 1);
+        this.literal = literal;
+    }
+
+    /**
+     * Converts a Polynomial whose coefficients are all integers.
+     *
+     * @param polynomial The Polynomial to convert.
+     * @return The equivalent ExactPolynomial.
+     * @throws ArithmeticException If a coefficient is not an integer or a degree is negative.
+     */
+    public static ExactPolynomial fromPolynomial(Polynomial polynomial) {
+        if (!polynomial.isDenseCompatible()) throw new ArithmeticException("The polynomial has a term with a negative degree.");
+        double[] values = polynomial.getTermCount() == 0 ? new double[0] : polynomial.getCoefficients();
+        BigInteger[] result = new BigInteger[values.length];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != Math.rint(values[i]) || Double.isInfinite(values[i])) {
+                throw new ArithmeticException("The coefficient of degree " + i + " is not an integer.");
+            }
+            result[i] = new BigDecimal(values[i]).toBigInteger();
+        }
+        return new ExactPolynomial(result, polynomial.getLiteral());
+    }
+
+    /**
+     * Converts this ExactPolynomial to a Polynomial with double coefficients, rounding if needed.
+     *
+     * @return The equivalent Polynomial.
+     */
+    public Polynomial toPolynomial() {
+        double[] values = new double[coefficients.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = coefficients[i].doubleValue();
+        }
+        return Polynomial.fromCoefficients(values, literal);
+    }
+
+    /**
+     * Evaluates the polynomial for a given integer value using Horner's scheme.
+     *
+     * @param value The value at which to evaluate the polynomial.
+     * @return The exact result of the evaluation.
+     */
+    public BigInteger evaluate(BigInteger value) {
+        BigInteger sum = BigInteger.ZERO;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            sum = sum.multiply(value).add(coefficients[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Adds another ExactPolynomial to this one.
+     *
+     * @param other The ExactPolynomial to add.
+     * @return The sum.
+     */
+    public ExactPolynomial add(ExactPolynomial other) {
+        return combine(other, false);
+    }
+
+    /**
+     * Subtracts another ExactPolynomial from this one.
+     *
+     * @param other The ExactPolynomial to subtract.
+     * @return The difference.
+     */
+    public ExactPolynomial subtract(ExactPolynomial other) {
+        return combine(other, true);
+    }
+
+    /**
+     * Multiplies this ExactPolynomial by another.
+     *
+     * @param other The ExactPolynomial to multiply by.
+     * @return The exact product.
+     */
+    public ExactPolynomial multiply(ExactPolynomial other) {
+        if (coefficients.length == 0 || other.coefficients.length == 0) {
+            return new ExactPolynomial(new BigInteger[0], other.literal);
+        }
+        return new ExactPolynomial(NttMultiplier.multiply(coefficients, other.coefficients), other.literal);
+    }
+
+    /**
+     * Divides this ExactPolynomial by another and returns the quotient and remainder. Every
+     * quotient coefficient must be an integer, which always holds when the divisor is monic.
+     *
+     * @param divisor The ExactPolynomial to divide by.
+     * @return The quotient and remainder.
+     * @throws ArithmeticException If the divisor is zero or a quotient coefficient is not an integer.
+     */
+    public ExactQuotient divide(ExactPolynomial divisor) {
+        int divisorDegree = divisor.getDegree();
+        if (divisorDegree < 0) throw new ArithmeticException("Division by a zero polynomial.");
+        BigInteger lead = divisor.coefficients[divisorDegree];
+        BigInteger[] r = coefficients.clone(); // single remainder buffer, divided in place
+        BigInteger[] q = new BigInteger[Math.max(coefficients.length - divisorDegree, 0)];
+        for (int i = q.length - 1; i >= 0; i--) {
+            BigInteger[] division = r[i + divisorDegree].divideAndRemainder(lead);
+            if (division[1].signum() != 0) {
+                throw new ArithmeticException("The quotient has a coefficient that is not an integer.");
+            }
+            q[i] = division[0];
+            r[i + divisorDegree] = BigInteger.ZERO;
+            if (q[i].signum() == 0) continue;
+            for (int j = 0; j < divisorDegree; j++) {
+                r[i + j] = r[i + j].subtract(q[i].multiply(divisor.coefficients[j]));
+            }
+        }
+        return new ExactQuotient(new ExactPolynomial(q, literal), new ExactPolynomial(r, literal));
+    }
+
+    /**
+     * Returns the degree of the polynomial.
+     *
+     * @return The degree, or -1 for the zero polynomial.
+     */
+    public int getDegree() {
+        return coefficients.length - 1;
+    }
+
+    /**
+     * Returns the coefficient of a given degree.
+     *
+     * @param degree The degree.
+     * @return The coefficient, which is zero for degrees outside the polynomial.
+     */
+    public BigInteger getCoefficient(int degree) {
+        return degree >= 0 && degree < coefficients.length ? coefficients[degree] : BigInteger.ZERO;
+    }
+
+    /**
+     * Returns the coefficients indexed by degree.
+     *
+     * @return A copy of the coefficients.
+     */
+    public BigInteger[] getCoefficients() {
+        return coefficients.clone();
+    }
+
+    /**
+     * Returns the literal of the polynomial.
+     *
+     * @return The literal.
+     */
+    public char getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Compares this ExactPolynomial to another by literal and coefficients.
+     *
+     * @param other The object to compare to.
+     * @return true if both have the same literal and coefficients.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof ExactPolynomial)) return false;
+        ExactPolynomial that = (ExactPolynomial) other;
+        return literal == that.literal && Arrays.equals(coefficients, that.coefficients);
+    }
+
+    /**
+     * Returns a hash code consistent with equals.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(coefficients) + literal;
+    }
+
+    /**
+     * Returns a string representation in the same format as Polynomial, which is empty for the
+     * zero polynomial.
+     *
+     * @return A string representation of the polynomial.
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        boolean first = true;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            BigInteger coef = coefficients[i];
+            if (coef.signum() == 0) continue;
+            if (coef.signum() > 0) {
+                if (!first) s.append(" +");
+            } else {
+                s.append(" -");
+            }
+            if (!coef.equals(BigInteger.ONE) || i == 0) s.append(" ").append(coef.abs());
+            if (i == 1) {
+                s.append(literal);
+            } else if (i > 1) {
+                s.append(literal).append("^").append(i);
+            }
+            first = false;
+        }
+        return s.toString();
+    }
+
+    /**
+     * Adds or subtracts another ExactPolynomial coefficient by coefficient.
+     *
+     * @param other    The other operand.
+     * @param negate   Whether to subtract the other operand.
+     * @return The result.
+     */
+    private ExactPolynomial combine(ExactPolynomial other, boolean negate) {
+        BigInteger[] result = new BigInteger[Math.max(coefficients.length, other.coefficients.length)];
+        for (int i = 0; i < result.length; i++) {
+            BigInteger b = other.getCoefficient(i);
+            result[i] = getCoefficient(i).add(negate ? b.negate() : b);
+        }
+        return new ExactPolynomial(result, literal);
+    }
+}
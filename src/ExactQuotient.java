@@ -0,0 +1,45 @@
+/**
+ * Represents the quotient and remainder of an exact polynomial division operation.
+ */
+public class ExactQuotient {
+    private final ExactPolynomial quotientP;
+    private final ExactPolynomial remainderP;
+
+    /**
+     * Initializes an ExactQuotient with the given quotient and remainder.
+     *
+     * @param q The quotient.
+     * @param r The remainder.
+     */
+    public ExactQuotient(ExactPolynomial q, ExactPolynomial r) {
+        quotientP = q;
+        remainderP = r;
+    }
+
+    /**
+     * Gets the quotient.
+     *
+     * @return The quotient.
+     */
+    public ExactPolynomial getQuotientP() {
+        return quotientP;
+    }
+
+    /**
+     * Gets the remainder.
+     *
+     * @return The remainder.
+     */
+    public ExactPolynomial getRemainderP() {
+        return remainderP;
+    }
+
+    /**
+     * Returns a string representation of the ExactQuotient object, including the quotient and remainder.
+     *
+     * @return A string representation of the ExactQuotient object.
+     */
+    public String toString() {
+        return (" Quotient: " + quotientP.toString() + " Remainder: " + remainderP.toString());
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Represents the result of an extended greatest common divisor computation: the gcd g of two
+ * polynomials a and b together with cofactors s and t such that s * a + t * b = g.
+ */
+public class ExtendedGcd {
+    private final Polynomial gcd;
+    private final Polynomial s;
+    private final Polynomial t;
+
+    /**
+     * Initializes an ExtendedGcd with the given gcd and cofactors.
+     *
+     * @param gcd The greatest common divisor.
+     * @param s   The cofactor of the first polynomial.
+     * @param t   The cofactor of the second polynomial.
+     */
+    public ExtendedGcd(Polynomial gcd, Polynomial s, Polynomial t) {
+        this.gcd = gcd;
+        this.s = s;
+        this.t = t;
+    }
+
+    /**
+     * Gets the greatest common divisor.
+     *
+     * @return The gcd.
+     */
+    public Polynomial getGcd() {
+        return gcd;
+    }
+
+    /**
+     * Gets the cofactor of the first polynomial.
+     *
+     * @return The cofactor s.
+     */
+    public Polynomial getS() {
+        return s;
+    }
+
+    /**
+     * Gets the cofactor of the second polynomial.
+     *
+     * @return The cofactor t.
+     */
+    public Polynomial getT() {
+        return t;
+    }
+
+    /**
+     * Returns a string representation of the ExtendedGcd object, including the gcd and cofactors.
+     *
+     * @return A string representation of the ExtendedGcd object.
+     */
+    public String toString() {
+        return (" Gcd: " + gcd.toString() + " S: " + s.toString() + " T: " + t.toString());
+    }
+}
@@ -0,0 +1,298 @@
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Represents a polynomial that cannot change once created, so instances can be shared freely
+ * between threads without copying. The terms are kept in two packed arrays sorted by descending
+ * degree, without zero coefficients, which makes equals and hashCode value-based: two
+ * ImmutablePolynomials are equal when they have the same literal and the same terms.
+ * <p>
+ * The arithmetic is done by Polynomial on a temporary copy, so every algorithm Polynomial
+ * selects is used here too. intern returns a canonical instance per value, and a
+ * PolynomialCache can memoize results keyed by the identity of such instances.
+ */
+public final class ImmutablePolynomial {
+    private static final Map<ImmutablePolynomial, WeakReference<ImmutablePolynomial>> INTERNED =
+            Collections.synchronizedMap(new WeakHashMap<>()); // canonical instances, dropped when unused
+    private static final ImmutablePolynomial ZERO = new ImmutablePolynomial(new int[0], new double[0], 'x');
+
+    private final int[] degrees; // degrees of the terms, strictly descending
+    private final double[] coefs; // non-zero coefficients of the terms
+    private final char literal; // literal of the polynomial, 'x' for zero
+    private final int hash; // value-based hash code, computed once
+
+    /**
+     * Constructs an ImmutablePolynomial that takes ownership of canonical term arrays.
+     *
+     * @param degrees The degrees, strictly descending.
+     * @param coefs   The coefficients, none of them zero.
+     * @param literal The literal.
+     */
+    private ImmutablePolynomial(int[] degrees, double[] coefs, char literal) {
+        this.degrees = degrees;
+        this.coefs = coefs;
+        this.literal = degrees.length == 0 ? 'x' : literal;
+        this.hash = 31 * (31 * Arrays.hashCode(degrees) + Arrays.hashCode(coefs)) + this.literal;
+    }
+
+    /**
+     * Returns the zero polynomial.
+     *
+     * @return The zero polynomial.
+     */
+    public static ImmutablePolynomial zero() {
+        return ZERO;
+    }
+
+    /**
+     * Creates an ImmutablePolynomial with the same value as a Polynomial. Later changes to the
+     * Polynomial do not affect the result.
+     *
+     * @param polynomial The Polynomial to copy.
+     * @return The ImmutablePolynomial.
+     */
+    public static ImmutablePolynomial of(Polynomial polynomial) {
+        int n = polynomial.getTermCount();
+        int[] degrees = new int[n];
+        double[] coefs = new double[n];
+        polynomial.copyTerms(degrees, coefs);
+        for (int i = 1; i < n; i++) {
+            if (degrees[i] >= degrees[i - 1]) return of(normalize(polynomial)); // terms set out of order
+        }
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (coefs[i] == 0) continue;
+            degrees[count] = degrees[i];
+            coefs[count] = coefs[i];
+            count++;
+        }
+        if (count == 0) return ZERO;
+        return new ImmutablePolynomial(Arrays.copyOf(degrees, count), Arrays.copyOf(coefs, count),
+                polynomial.getLiteral());
+    }
+
+    /**
+     * Creates an ImmutablePolynomial from coefficients indexed by degree.
+     *
+     * @param coefficients The coefficients, where index i holds the coefficient of degree i.
+     * @param literal      The literal of the polynomial.
+     * @return The ImmutablePolynomial.
+     */
+    public static ImmutablePolynomial fromCoefficients(double[] coefficients, char literal) {
+        int count = 0;
+        for (double c : coefficients) {
+            if (c != 0) count++;
+        }
+        if (count == 0) return ZERO;
+        int[] degrees = new int[count];
+        double[] coefs = new double[count];
+        int index = 0;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            if (coefficients[i] == 0) continue;
+            degrees[index] = i;
+            coefs[index] = coefficients[i];
+            index++;
+        }
+        return new ImmutablePolynomial(degrees, coefs, literal);
+    }
+
+    /**
+     * Returns the canonical instance with the same value. Interned instances can be compared
+     * with == and make identity-keyed caches hit whenever the values are equal. Canonical
+     * instances that are no longer referenced elsewhere are released.
+     *
+     * @return The canonical instance.
+     */
+    public ImmutablePolynomial intern() {
+        synchronized (INTERNED) {
+            WeakReference<ImmutablePolynomial> existing = INTERNED.get(this);
+            ImmutablePolynomial canonical = existing == null ? null : existing.get();
+            if (canonical != null) return canonical;
+            INTERNED.put(this, new WeakReference<>(this));
+            return this;
+        }
+    }
+
+    /**
+     * Creates a mutable Polynomial with the same value.
+     *
+     * @return A new Polynomial.
+     */
+    public Polynomial toPolynomial() {
+        if (degrees.length == 0) return new Polynomial();
+        return Polynomial.fromSortedTerms(degrees, coefs, degrees.length, literal);
+    }
+
+    /**
+     * Evaluates the polynomial for a given value with Horner's scheme.
+     *
+     * @param value The value at which to evaluate the polynomial.
+     * @return The result of the evaluation.
+     */
+    public double evaluate(double value) {
+        if (degrees.length == 0) return 0;
+        double sum = 0;
+        int previousDegree = degrees[0];
+        for (int i = 0; i < degrees.length; i++) {
+            sum = sum * Polynomial.power(value, previousDegree - degrees[i]) + coefs[i];
+            previousDegree = degrees[i];
+        }
+        return sum * Polynomial.power(value, previousDegree);
+    }
+
+    /**
+     * Adds another ImmutablePolynomial to this one.
+     *
+     * @param other The ImmutablePolynomial to add.
+     * @return The sum.
+     */
+    public ImmutablePolynomial add(ImmutablePolynomial other) {
+        return of(toPolynomial().add(other.toPolynomial()));
+    }
+
+    /**
+     * Subtracts another ImmutablePolynomial from this one.
+     *
+     * @param other The ImmutablePolynomial to subtract.
+     * @return The difference.
+     */
+    public ImmutablePolynomial subtract(ImmutablePolynomial other) {
+        return of(toPolynomial().subtract(other.toPolynomial()));
+    }
+
+    /**
+     * Multiplies this ImmutablePolynomial by another.
+     *
+     * @param other The ImmutablePolynomial to multiply by.
+     * @return The product.
+     */
+    public ImmutablePolynomial multiply(ImmutablePolynomial other) {
+        return of(toPolynomial().multiply(other.toPolynomial()));
+    }
+
+    /**
+     * Divides this ImmutablePolynomial by another.
+     *
+     * @param divisor The ImmutablePolynomial to divide by.
+     * @return The quotient and remainder.
+     * @throws ArithmeticException If the divisor is zero.
+     */
+    public ImmutableQuotient divide(ImmutablePolynomial divisor) {
+        Quotient result = toPolynomial().divide(divisor.toPolynomial());
+        return new ImmutableQuotient(of(result.getQuotientP()), of(result.getRemainderP()));
+    }
+
+    /**
+     * Raises this ImmutablePolynomial to a non-negative integer power with Polynomial.pow.
+     *
+     * @param exponent The exponent.
+     * @return The power, which is the constant 1 for exponent 0.
+     * @throws IllegalArgumentException If the exponent is negative.
+     */
+    public ImmutablePolynomial pow(int exponent) {
+        return of(toPolynomial().pow(exponent));
+    }
+
+    /**
+     * Returns the highest degree of the polynomial.
+     *
+     * @return The degree, or -1 for the zero polynomial.
+     */
+    public int getDegree() {
+        return degrees.length == 0 ? -1 : degrees[0];
+    }
+
+    /**
+     * Returns the number of non-zero terms.
+     *
+     * @return The number of terms.
+     */
+    public int getTermCount() {
+        return degrees.length;
+    }
+
+    /**
+     * Returns the coefficient of a given degree.
+     *
+     * @param degree The degree.
+     * @return The coefficient, which is zero for degrees without a term.
+     */
+    public double getCoefficient(int degree) {
+        int low = 0;
+        int high = degrees.length - 1;
+        while (low <= high) { // binary search over descending degrees
+            int mid = (low + high) >>> 1;
+            if (degrees[mid] == degree) return coefs[mid];
+            if (degrees[mid] > degree) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the literal of the polynomial.
+     *
+     * @return The literal, which is 'x' for the zero polynomial.
+     */
+    public char getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Compares this ImmutablePolynomial to another by literal and terms.
+     *
+     * @param other The object to compare to.
+     * @return true if both have the same literal and terms.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof ImmutablePolynomial)) return false;
+        ImmutablePolynomial that = (ImmutablePolynomial) other;
+        return hash == that.hash && literal == that.literal && Arrays.equals(degrees, that.degrees)
+                && Arrays.equals(coefs, that.coefs);
+    }
+
+    /**
+     * Returns a hash code consistent with equals.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Returns a string representation in the same format as Polynomial.
+     *
+     * @return A string representation of the polynomial.
+     */
+    public String toString() {
+        return toPolynomial().toString();
+    }
+
+    /**
+     * Rebuilds a Polynomial whose terms are out of order with one sort-and-combine pass.
+     *
+     * @param polynomial The Polynomial.
+     * @return A Polynomial with the same value and sorted, combined terms.
+     */
+    private static Polynomial normalize(Polynomial polynomial) {
+        int n = polynomial.getTermCount();
+        int[] degrees = new int[n];
+        double[] coefs = new double[n];
+        polynomial.copyTerms(degrees, coefs);
+        PolynomialBuilder builder = new PolynomialBuilder(polynomial.getLiteral(), n);
+        for (int i = 0; i < n; i++) {
+            builder.addTerm(coefs[i], degrees[i]);
+        }
+        return builder.build();
+    }
+}
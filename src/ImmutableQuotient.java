@@ -0,0 +1,45 @@
+/**
+ * Represents the quotient and remainder of a division of immutable polynomials.
+ */
+public final class ImmutableQuotient {
+    private final ImmutablePolynomial quotientP;
+    private final ImmutablePolynomial remainderP;
+
+    /**
+     * Initializes an ImmutableQuotient with the given quotient and remainder.
+     *
+     * @param q The quotient.
+     * @param r The remainder.
+     */
+    public ImmutableQuotient(ImmutablePolynomial q, ImmutablePolynomial r) {
+        quotientP = q;
+        remainderP = r;
+    }
+
+    /**
+     * Gets the quotient.
+     *
+     * @return The quotient.
+     */
+    public ImmutablePolynomial getQuotientP() {
+        return quotientP;
+    }
+
+    /**
+     * Gets the remainder.
+     *
+     * @return The remainder.
+     */
+    public ImmutablePolynomial getRemainderP() {
+        return remainderP;
+    }
+
+    /**
+     * Returns a string representation of the ImmutableQuotient object, including the quotient and remainder.
+     *
+     * @return A string representation of the ImmutableQuotient object.
+     */
+    public String toString() {
+        return (" Quotient: " + quotientP.toString() + " Remainder: " + remainderP.toString());
+    }
+}
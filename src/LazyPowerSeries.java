@@ -0,0 +1,247 @@
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Represents a power series whose coefficients are computed on demand. Each coefficient is
+ * computed the first time it is asked for, from the lower coefficients of the series and of its
+ * operands, and is then kept, so asking for the coefficient of degree n computes the degrees
+ * up to n once and nothing beyond. Operations only record how their result depends on their
+ * operands, so series can be chained without choosing a precision first.
+ * <p>
+ * The inverse, square root, logarithm and exponential follow the recurrences obtained from
+ * f g = 1, g^2 = f, f g' = f' and g' = f' g, so the first n coefficients of a product or of one
+ * of these operations cost O(n^2) operations. PowerSeries computes a fixed precision with
+ * Newton iteration in O(M(n)), and should be preferred when the precision is known.
+ * A LazyPowerSeries is not thread-safe.
+ */
+public final class LazyPowerSeries {
+    private final Recurrence recurrence; // computes a coefficient from the ones below it
+    private final char literal; // literal used when converting to a Polynomial
+    private double[] known = new double[16]; // coefficients computed so far
+    private int count; // number of coefficients computed so far
+
+    /**
+     * Computes the coefficients of a series in increasing degree.
+     */
+    private interface Recurrence {
+        /**
+         * Computes a coefficient once every lower one of the series is known.
+         *
+         * @param self   The series being computed, to read its lower coefficients.
+         * @param degree The degree of the coefficient.
+         * @return The coefficient.
+         */
+        double next(LazyPowerSeries self, int degree);
+    }
+
+    /**
+     * Creates a series from its recurrence.
+     *
+     * @param recurrence The recurrence.
+     * @param literal    The literal.
+     */
+    private LazyPowerSeries(Recurrence recurrence, char literal) {
+        this.recurrence = recurrence;
+        this.literal = literal;
+    }
+
+    /**
+     * Creates the series of a Polynomial, whose coefficients past its degree are zero.
+     *
+     * @param polynomial The Polynomial.
+     * @return The series.
+     * @throws IllegalStateException If the Polynomial has a term with a negative degree.
+     */
+    public static LazyPowerSeries of(Polynomial polynomial) {
+        double[] coefficients = polynomial.getCoefficients();
+        return new LazyPowerSeries((self, n) -> n < coefficients.length ? coefficients[n] : 0, polynomial.getLiteral());
+    }
+
+    /**
+     * Creates a series from a function giving the coefficient of each degree.
+     *
+     * @param coefficients The function, called once per degree in increasing order.
+     * @param literal      The literal.
+     * @return The series.
+     */
+    public static LazyPowerSeries of(IntToDoubleFunction coefficients, char literal) {
+        return new LazyPowerSeries((self, n) -> coefficients.applyAsDouble(n), literal);
+    }
+
+    /**
+     * Returns a coefficient of the series, computing it and the lower ones if needed.
+     *
+     * @param degree The degree.
+     * @return The coefficient.
+     * @throws IllegalArgumentException If the degree is negative.
+     */
+    public double getCoefficient(int degree) {
+        if (degree < 0) throw new IllegalArgumentException("The degree must not be negative.");
+        while (count <= degree) {
+            if (count == known.length) known = Arrays.copyOf(known, 2 * count);
+            known[count] = recurrence.next(this, count);
+            count++;
+        }
+        return known[degree];
+    }
+
+    /**
+     * Returns the number of coefficients computed so far.
+     *
+     * @return The count.
+     */
+    public int getComputedCount() {
+        return count;
+    }
+
+    /**
+     * Returns the literal of the series.
+     *
+     * @return The literal.
+     */
+    public char getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Computes the first coefficients of the series.
+     *
+     * @param precision The number of coefficients.
+     * @return The series truncated to the precision.
+     */
+    public PowerSeries toPowerSeries(int precision) {
+        if (precision < 0) throw new IllegalArgumentException("The precision must not be negative.");
+        if (precision > 0) getCoefficient(precision - 1);
+        return PowerSeries.fromCoefficients(Arrays.copyOf(known, precision), literal);
+    }
+
+    /**
+     * Adds another series.
+     *
+     * @param other The other series.
+     * @return The sum.
+     */
+    public LazyPowerSeries add(LazyPowerSeries other) {
+        return new LazyPowerSeries((self, n) -> getCoefficient(n) + other.getCoefficient(n), literal);
+    }
+
+    /**
+     * Subtracts another series.
+     *
+     * @param other The other series.
+     * @return The difference.
+     */
+    public LazyPowerSeries subtract(LazyPowerSeries other) {
+        return new LazyPowerSeries((self, n) -> getCoefficient(n) - other.getCoefficient(n), literal);
+    }
+
+    /**
+     * Multiplies by another series.
+     *
+     * @param other The other series.
+     * @return The product.
+     */
+    public LazyPowerSeries multiply(LazyPowerSeries other) {
+        return new LazyPowerSeries((self, n) -> {
+            double sum = 0;
+            for (int i = 0; i <= n; i++) {
+                sum += getCoefficient(i) * other.getCoefficient(n - i);
+            }
+            return sum;
+        }, literal);
+    }
+
+    /**
+     * Returns the derivative of the series.
+     *
+     * @return The derivative.
+     */
+    public LazyPowerSeries derivative() {
+        return new LazyPowerSeries((self, n) -> (n + 1) * getCoefficient(n + 1), literal);
+    }
+
+    /**
+     * Returns the integral of the series with a zero constant term.
+     *
+     * @return The integral.
+     */
+    public LazyPowerSeries integral() {
+        return new LazyPowerSeries((self, n) -> n == 0 ? 0 : getCoefficient(n - 1) / n, literal);
+    }
+
+    /**
+     * Returns the multiplicative inverse of the series. The constant term is checked when the
+     * first coefficient is computed.
+     *
+     * @return The inverse.
+     * @throws ArithmeticException From getCoefficient, if the constant term is zero.
+     */
+    public LazyPowerSeries inverse() {
+        return new LazyPowerSeries((self, n) -> {
+            double f0 = getCoefficient(0);
+            if (f0 == 0) throw new ArithmeticException("The series has no inverse: its constant term is zero.");
+            if (n == 0) return 1 / f0;
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += getCoefficient(i) * self.getCoefficient(n - i);
+            }
+            return -sum / f0;
+        }, literal);
+    }
+
+    /**
+     * Returns the square root of the series with a positive constant term.
+     *
+     * @return The square root.
+     * @throws ArithmeticException From getCoefficient, if the constant term is not positive.
+     */
+    public LazyPowerSeries sqrt() {
+        return new LazyPowerSeries((self, n) -> {
+            if (n == 0) {
+                double f0 = getCoefficient(0);
+                if (!(f0 > 0)) throw new ArithmeticException("The square root needs a positive constant term.");
+                return Math.sqrt(f0);
+            }
+            double sum = 0;
+            for (int i = 1; i < n; i++) {
+                sum += self.getCoefficient(i) * self.getCoefficient(n - i);
+            }
+            return (getCoefficient(n) - sum) / (2 * self.getCoefficient(0));
+        }, literal);
+    }
+
+    /**
+     * Returns the natural logarithm of the series with a positive constant term.
+     *
+     * @return The logarithm.
+     * @throws ArithmeticException From getCoefficient, if the constant term is not positive.
+     */
+    public LazyPowerSeries log() {
+        return new LazyPowerSeries((self, n) -> {
+            double f0 = getCoefficient(0);
+            if (!(f0 > 0)) throw new ArithmeticException("The logarithm needs a positive constant term.");
+            if (n == 0) return Math.log(f0);
+            double sum = 0;
+            for (int k = 1; k < n; k++) {
+                sum += k * self.getCoefficient(k) * getCoefficient(n - k);
+            }
+            return (n * getCoefficient(n) - sum) / (n * f0);
+        }, literal);
+    }
+
+    /**
+     * Returns the exponential of the series.
+     *
+     * @return The exponential.
+     */
+    public LazyPowerSeries exp() {
+        return new LazyPowerSeries((self, n) -> {
+            if (n == 0) return Math.exp(getCoefficient(0));
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += k * getCoefficient(k) * self.getCoefficient(n - k);
+            }
+            return sum / n;
+        }, literal);
+    }
+}
@@ -0,0 +1,345 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Arithmetic on polynomials with coefficients modulo one of the primes of NttMultiplier. A
+ * polynomial is a long array indexed by degree without leading zeros, so the zero polynomial is
+ * the empty array. Products go through NttMultiplier, quotients of large operands through a
+ * Newton reciprocal, and greatest common divisors of large operands through the half-GCD
+ * algorithm, which replaces most Euclidean steps by products of 2x2 matrices of quotients.
+ */
+final class ModularPolynomials {
+    private static int halfGcdThreshold = 512; // degree from which the half-GCD algorithm is used
+    private static final int NEWTON_THRESHOLD = 256; // quotient and divisor length from which Newton division is used
+
+    private final int index; // index of the prime in NttMultiplier
+    private final long p; // the prime
+
+    /**
+     * Creates the arithmetic modulo one of the primes.
+     *
+     * @param index The index of the prime in NttMultiplier.
+     */
+    ModularPolynomials(int index) {
+        this.index = index;
+        this.p = NttMultiplier.prime(index);
+    }
+
+    /**
+     * Returns the degree from which the half-GCD algorithm is used.
+     *
+     * @return The half-GCD threshold.
+     */
+    static int getHalfGcdThreshold() {
+        return halfGcdThreshold;
+    }
+
+    /**
+     * Sets the degree from which the half-GCD algorithm is used.
+     *
+     * @param threshold The half-GCD threshold, at least 2.
+     */
+    static void setHalfGcdThreshold(int threshold) {
+        if (threshold < 2) throw new IllegalArgumentException("The half-GCD threshold must be at least 2.");
+        halfGcdThreshold = threshold;
+    }
+
+    /**
+     * Returns the prime.
+     *
+     * @return The prime.
+     */
+    long prime() {
+        return p;
+    }
+
+    /**
+     * Reduces integer coefficients modulo the prime.
+     *
+     * @param values The coefficients indexed by degree.
+     * @return The reduced polynomial.
+     */
+    long[] reduce(BigInteger[] values) {
+        long[] result = new long[values.length];
+        BigInteger modulus = BigInteger.valueOf(p);
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].mod(modulus).longValue();
+        }
+        return trim(result);
+    }
+
+    /**
+     * Returns the monic greatest common divisor of two polynomials.
+     *
+     * @param a The first polynomial.
+     * @param b The second polynomial.
+     * @return The monic gcd, or the zero polynomial if both are zero.
+     */
+    long[] gcd(long[] a, long[] b) {
+        if (a.length < b.length) {
+            long[] t = a; a = b; b = t;
+        }
+        while (b.length > 0) {
+            if (b.length - 1 >= halfGcdThreshold && a.length > b.length) {
+                long[][] m = halfGcd(a, b);
+                long[][] reduced = apply(m, a, b);
+                a = reduced[0];
+                b = reduced[1];
+                if (b.length == 0) break;
+            }
+            long[] r = divide(a, b)[1];
+            a = b;
+            b = r;
+        }
+        return monic(a);
+    }
+
+    /**
+     * Computes the half-GCD matrix of two polynomials with deg a > deg b. The matrix M maps (a, b)
+     * to two consecutive remainders (c, d) of their Euclidean sequence with
+     * deg c >= ceil(deg a / 2) > deg d.
+     *
+     * @param a The first polynomial.
+     * @param b The second polynomial, of lower degree.
+     * @return The matrix as {m00, m01, m10, m11}.
+     */
+    long[][] halfGcd(long[] a, long[] b) {
+        int n = a.length - 1;
+        int m = (n + 1) / 2;
+        if (b.length - 1 < m) return identity();
+        if (n < halfGcdThreshold) return euclidMatrix(a, b, m);
+        long[][] r = halfGcd(shift(a, m), shift(b, m));
+        long[][] reduced = apply(r, a, b);
+        long[] c = reduced[0];
+        long[] d = reduced[1];
+        if (d.length - 1 < m) return r;
+        long[][] division = divide(c, d);
+        long[] e = division[1];
+        long[][] q = {new long[0], new long[]{1}, new long[]{1}, negate(division[0])}; // (c, d) -> (d, c - q d)
+        r = multiply(q, r);
+        if (e.length - 1 < m) return r;
+        int k = 2 * m - (d.length - 1);
+        long[][] s = halfGcd(shift(d, k), shift(e, k));
+        return multiply(s, r);
+    }
+
+    /**
+     * Runs Euclidean steps until the second remainder falls below a degree, tracking the
+     * matrix of the steps. This is the base case of halfGcd.
+     *
+     * @param a     The first polynomial.
+     * @param b     The second polynomial, of lower degree.
+     * @param limit The degree below which the second remainder must fall.
+     * @return The matrix as {m00, m01, m10, m11}.
+     */
+    private long[][] euclidMatrix(long[] a, long[] b, int limit) {
+        long[][] m = identity();
+        while (b.length - 1 >= limit) {
+            long[][] division = divide(a, b);
+            long[] q = division[0];
+            m = new long[][]{m[2], m[3], // (row0, row1) -> (row1, row0 - q row1)
+                    subtract(m[0], NttMultiplier.multiplyModulo(q, m[2], index)),
+                    subtract(m[1], NttMultiplier.multiplyModulo(q, m[3], index))};
+            a = b;
+            b = division[1];
+        }
+        return m;
+    }
+
+    /**
+     * Divides two polynomials.
+     *
+     * @param a The dividend.
+     * @param b The divisor, not zero.
+     * @return The quotient and the remainder.
+     */
+    long[][] divide(long[] a, long[] b) {
+        if (a.length < b.length) return new long[][]{new long[0], a};
+        int lengthQ = a.length - b.length + 1;
+        if (Math.min(lengthQ, b.length) >= NEWTON_THRESHOLD) return newtonDivide(a, b);
+        long inverse = NttMultiplier.power(b[b.length - 1], p - 2, p);
+        long[] r = a.clone();
+        long[] q = new long[lengthQ];
+        int divisorDegree = b.length - 1;
+        for (int i = lengthQ - 1; i >= 0; i--) {
+            long coef = r[i + divisorDegree] * inverse % p;
+            q[i] = coef;
+            r[i + divisorDegree] = 0;
+            if (coef == 0) continue;
+            for (int j = 0; j < divisorDegree; j++) {
+                r[i + j] = (r[i + j] + (p - coef) * b[j]) % p;
+            }
+        }
+        return new long[][]{q, trim(Arrays.copyOf(r, divisorDegree))};
+    }
+
+    /**
+     * Divides through the reversed reciprocal of the divisor, as PolynomialDivider does for
+     * double coefficients.
+     *
+     * @param a The dividend.
+     * @param b The divisor, not longer than the dividend.
+     * @return The quotient and the remainder.
+     */
+    private long[][] newtonDivide(long[] a, long[] b) {
+        int k = a.length - b.length + 1;
+        long[] reversedB = new long[Math.min(b.length, k)];
+        for (int i = 0; i < reversedB.length; i++) {
+            reversedB[i] = b[b.length - 1 - i];
+        }
+        long[] reversedA = new long[k];
+        for (int i = 0; i < k; i++) {
+            reversedA[i] = a[a.length - 1 - i];
+        }
+        long[] reversedQ = NttMultiplier.multiplyModulo(reversedA, reciprocal(reversedB, k), index);
+        long[] q = new long[k];
+        for (int i = 0; i < k && i < reversedQ.length; i++) {
+            q[k - 1 - i] = reversedQ[i];
+        }
+        long[] r = subtract(a, NttMultiplier.multiplyModulo(q, b, index));
+        return new long[][]{trim(q), trim(Arrays.copyOf(r, Math.min(r.length, b.length - 1)))};
+    }
+
+    /**
+     * Computes the first n coefficients of the reciprocal of a series by Newton iteration.
+     *
+     * @param f The series, with a non-zero constant term.
+     * @param n The number of coefficients wanted.
+     * @return The first n coefficients of 1 / f.
+     */
+    private long[] reciprocal(long[] f, int n) {
+        long[] g = {NttMultiplier.power(f[0], p - 2, p)};
+        int length = 1;
+        while (length < n) {
+            length = Math.min(2 * length, n);
+            long[] fg = NttMultiplier.multiplyModulo(Arrays.copyOf(f, Math.min(f.length, length)), g, index);
+            long[] correction = new long[length]; // 2 - f * g, truncated
+            for (int i = 0; i < length && i < fg.length; i++) {
+                correction[i] = fg[i] == 0 ? 0 : p - fg[i];
+            }
+            correction[0] = (correction[0] + 2) % p;
+            g = Arrays.copyOf(NttMultiplier.multiplyModulo(g, correction, index), length);
+        }
+        return g;
+    }
+
+    /**
+     * Applies a 2x2 polynomial matrix to a pair of polynomials.
+     *
+     * @param m The matrix as {m00, m01, m10, m11}.
+     * @param a The first polynomial.
+     * @param b The second polynomial.
+     * @return The pair (m00 a + m01 b, m10 a + m11 b).
+     */
+    private long[][] apply(long[][] m, long[] a, long[] b) {
+        return new long[][]{
+                add(NttMultiplier.multiplyModulo(m[0], a, index), NttMultiplier.multiplyModulo(m[1], b, index)),
+                add(NttMultiplier.multiplyModulo(m[2], a, index), NttMultiplier.multiplyModulo(m[3], b, index))
+        };
+    }
+
+    /**
+     * Multiplies two 2x2 polynomial matrices.
+     *
+     * @param x The left matrix.
+     * @param y The right matrix.
+     * @return The product x y.
+     */
+    private long[][] multiply(long[][] x, long[][] y) {
+        return new long[][]{
+                add(NttMultiplier.multiplyModulo(x[0], y[0], index), NttMultiplier.multiplyModulo(x[1], y[2], index)),
+                add(NttMultiplier.multiplyModulo(x[0], y[1], index), NttMultiplier.multiplyModulo(x[1], y[3], index)),
+                add(NttMultiplier.multiplyModulo(x[2], y[0], index), NttMultiplier.multiplyModulo(x[3], y[2], index)),
+                add(NttMultiplier.multiplyModulo(x[2], y[1], index), NttMultiplier.multiplyModulo(x[3], y[3], index))
+        };
+    }
+
+    /**
+     * Returns the identity matrix.
+     *
+     * @return The matrix {1, 0, 0, 1}.
+     */
+    private static long[][] identity() {
+        return new long[][]{new long[]{1}, new long[0], new long[0], new long[]{1}};
+    }
+
+    /**
+     * Divides a polynomial by x^k, dropping the coefficients below degree k.
+     *
+     * @param a The polynomial.
+     * @param k The number of coefficients to drop.
+     * @return The shifted polynomial.
+     */
+    private static long[] shift(long[] a, int k) {
+        return k >= a.length ? new long[0] : Arrays.copyOfRange(a, k, a.length);
+    }
+
+    /**
+     * Adds two polynomials.
+     *
+     * @param a The first polynomial.
+     * @param b The second polynomial.
+     * @return The sum.
+     */
+    private long[] add(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            long sum = result[i] + b[i];
+            result[i] = sum >= p ? sum - p : sum;
+        }
+        return trim(result);
+    }
+
+    /**
+     * Subtracts a polynomial from another.
+     *
+     * @param a The first polynomial.
+     * @param b The polynomial to subtract.
+     * @return The difference.
+     */
+    private long[] subtract(long[] a, long[] b) {
+        return add(a, negate(b));
+    }
+
+    /**
+     * Negates a polynomial.
+     *
+     * @param a The polynomial.
+     * @return The negated polynomial.
+     */
+    private long[] negate(long[] a) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] == 0 ? 0 : p - a[i];
+        }
+        return result;
+    }
+
+    /**
+     * Divides a polynomial by its leading coefficient.
+     *
+     * @param a The polynomial.
+     * @return The monic polynomial, or the zero polynomial if a is zero.
+     */
+    long[] monic(long[] a) {
+        if (a.length == 0) return a;
+        long inverse = NttMultiplier.power(a[a.length - 1], p - 2, p);
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = a[i] * inverse % p;
+        }
+        return result;
+    }
+
+    /**
+     * Removes leading zero coefficients.
+     *
+     * @param a The polynomial.
+     * @return The polynomial without leading zeros, possibly a itself.
+     */
+    static long[] trim(long[] a) {
+        int top = a.length - 1;
+        while (top >= 0 && a[top] == 0) top--;
+        return top == a.length - 1 ? a : Arrays.copyOf(a, top + 1);
+    }
+}
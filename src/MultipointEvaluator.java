@@ -0,0 +1,850 @@
+import java.util.Arrays;
+
+/**
+ * Evaluates polynomials at a fixed set of real points in quasi-linear time. A polynomial p with
+ * n coefficients is first evaluated at the N-th roots of unity w_j with one FFT, N the power of
+ * two from n up. The barycentric formula of interpolation at the roots of unity then gives
+ * p(x) = (x^N - 1) * sum over j of c_j / (x - w_j), with c_j = w_j * p(w_j) / N, and the sum
+ * is computed for every point at once with a fast multipole method. The roots of unity lie on
+ * a circle and the points on the real line, so the sum is a Cauchy sum between two well
+ * separated curves everywhere except near 1 and -1, where the tree of the method refines.
+ * Points beyond [-1, 1] go through the reversed polynomial, x^(n - 1) * p*(1 / x), whose values
+ * on the circle are those of p conjugated and rotated, so one FFT serves every point.
+ * <p>
+ * The method works with values and not with remainders of a subproduct tree, because in
+ * floating point the remainders by products of many linear factors lose accuracy
+ * exponentially in the number of points. The barycentric sum is stable instead: its error is
+ * that of the FFT, about 1e-16 * log N times the sum of the absolute coefficients for a point
+ * in [-1, 1], and that times |x|^(n - 1) beyond, the same normwise bound as PolynomialComposer.
+ * The bound is close to Horner's scheme when the coefficients do not cancel at the point, but
+ * where p is much smaller than its coefficients, near a root for example, the error relative to
+ * the value can be larger than Horner's. The expansions of the multipole method are long enough
+ * for their truncation to stay within the same bound. A value that overflows is recomputed with
+ * Horner's scheme. Every evaluation is also compared with Horner's scheme at a sample of
+ * CHECKED_POINTS points, and falls back to it when the error there is beyond ERROR_TOLERANCE
+ * times the bound. The sample catches a gross failure of the method, but the other points are
+ * not checked one by one.
+ * <p>
+ * The fast method costs O((n + m) log n) for m points, against O(n * m) for Horner's scheme
+ * but with a much larger constant, so a polynomial is only densified and evaluated through it
+ * when its number of terms times the number of points is above the fast threshold times
+ * (N + m). Sparse polynomials of high degree, x^100000000 + 1 for example, are thus evaluated
+ * term by term without ever allocating their coefficients.
+ * <p>
+ * An evaluator is immutable, apart from a cache of the geometry of the last N used, so one
+ * instance can be shared between threads and reused for every polynomial evaluated at the same
+ * points.
+ */
+public class MultipointEvaluator {
+    static final double ERROR_TOLERANCE = 1e-9; // accepted error relative to the normwise bound
+    static final int CHECKED_POINTS = 8; // points at which each evaluation is checked
+    private static final int TERMS = 48; // terms of the multipole expansions of the roots of unity
+    private static final int NODES = 28; // Chebyshev nodes of the local expansions on the points
+    private static final int LEAF_SIZE = 64; // roots of unity or points per leaf
+    private static final int MAX_SIZE = 1 << 28; // longest transform the fast method runs
+    private static final double SEPARATION = 0.5; // radii over distance below which two nodes interact through expansions
+    private static final double[][] BINOMIALS = binomials(TERMS); // binomial coefficients, exact in double
+    private static final double[] CHEBYSHEV = chebyshevNodes(NODES); // Chebyshev points of the second kind in [-1, 1]
+    private static final double[] TRANSFORM = chebyshevTransform(NODES); // values at CHEBYSHEV to Chebyshev coefficients, row by row
+    private static volatile int fastThreshold = 4000; // Horner steps per unit of fast work from which the fast method is used
+
+    private final double[] points; // evaluation points, in the order given
+    private final int[] inner; // indices of the points within (-1, 1)
+    private final int[] outer; // indices of the points beyond [-1, 1]
+    private final Targets innerRight; // x - 1 over the inner points
+    private final Targets innerLeft; // -x - 1 over the inner points
+    private final Targets outerRight; // 1 / x - 1 over the outer points
+    private final Targets outerLeft; // -1 / x - 1 over the outer points
+    private volatile Sources sources; // geometry of the roots of unity for the last N used
+
+    /**
+     * Builds an evaluator over a set of points.
+     *
+     * @param points The evaluation points, copied.
+     * @throws IllegalArgumentException If a point is not finite.
+     */
+    public MultipointEvaluator(double[] points) {
+        this.points = points.clone();
+        int innerCount = 0;
+        int outerCount = 0;
+        for (double x : this.points) {
+            if (!Double.isFinite(x)) throw new IllegalArgumentException("The points must be finite.");
+            if (Math.abs(x) < 1) innerCount++;
+            else if (Math.abs(x) > 1) outerCount++;
+        }
+        inner = new int[innerCount];
+        outer = new int[outerCount];
+        innerCount = 0;
+        outerCount = 0;
+        for (int i = 0; i < this.points.length; i++) {
+            double x = this.points[i];
+            if (Math.abs(x) < 1) inner[innerCount++] = i;
+            else if (Math.abs(x) > 1) outer[outerCount++] = i;
+        }
+        double[] right = new double[inner.length];
+        double[] left = new double[inner.length];
+        for (int i = 0; i < inner.length; i++) {
+            double x = this.points[inner[i]];
+            right[i] = x - 1;
+            left[i] = -x - 1;
+        }
+        innerRight = new Targets(right);
+        innerLeft = new Targets(left);
+        right = new double[outer.length];
+        left = new double[outer.length];
+        for (int i = 0; i < outer.length; i++) {
+            double s = 1 / this.points[outer[i]];
+            right[i] = s - 1;
+            left[i] = -s - 1;
+        }
+        outerRight = new Targets(right);
+        outerLeft = new Targets(left);
+    }
+
+    /**
+     * Returns the number of Horner steps per unit of work of the fast method from which
+     * polynomials go through the fast method.
+     *
+     * @return The fast threshold.
+     */
+    public static int getFastThreshold() {
+        return fastThreshold;
+    }
+
+    /**
+     * Sets the number of Horner steps per unit of work of the fast method from which
+     * polynomials go through the fast method: a Polynomial with t terms is evaluated at m points
+     * through it when t * m is at least the threshold times (N + m).
+     *
+     * @param threshold The fast threshold, at least 1.
+     * @throws IllegalArgumentException If the threshold is below 1.
+     */
+    public static void setFastThreshold(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("The fast threshold must be at least 1.");
+        fastThreshold = threshold;
+    }
+
+    /**
+     * Returns the number of points.
+     *
+     * @return The number of points.
+     */
+    public int size() {
+        return points.length;
+    }
+
+    /**
+     * Returns the evaluation points.
+     *
+     * @return A copy of the points, in the order given.
+     */
+    public double[] getPoints() {
+        return points.clone();
+    }
+
+    /**
+     * Evaluates a Polynomial at every point. Terms of negative degree are evaluated directly
+     * with the rest of the Polynomial.
+     *
+     * @param p The Polynomial.
+     * @return The values, in the order of the points.
+     */
+    public double[] evaluate(Polynomial p) {
+        double[] results = new double[points.length];
+        int terms = p.getTermCount();
+        if (terms == 0 || points.length == 0) return results;
+        long size = transformSize(p.getDegree() + 1L);
+        if (p.isDenseCompatible() && size <= MAX_SIZE && (long) terms * points.length >= fastThreshold * (size + points.length)) {
+            double[] values = evaluateFast(p.getCoefficients());
+            if (values != null) return values;
+        }
+        p.evaluate(points, results);
+        return results;
+    }
+
+    /**
+     * Evaluates coefficients indexed by degree at every point.
+     *
+     * @param coefficients The coefficients, not modified.
+     * @return The values, in the order of the points.
+     */
+    public double[] evaluate(double[] coefficients) {
+        return evaluate(Polynomial.fromCoefficients(coefficients, 'x'));
+    }
+
+    /**
+     * Evaluates through the roots of unity and checks the results against Horner's scheme.
+     *
+     * @param coefs The coefficients indexed by degree, at least one.
+     * @return The values in the order of the points, or null if they failed the check.
+     */
+    double[] evaluateFast(double[] coefs) {
+        int n = coefs.length;
+        int size = (int) transformSize(n);
+        double[] re = Arrays.copyOf(coefs, size);
+        double[] im = new double[size];
+        PolynomialMultiplier.transform(re, im, true); // the values at the roots of unity e^(2 pi i j / N)
+
+        Sources geometry = sources;
+        if (geometry == null || geometry.size != size) {
+            geometry = new Sources(size);
+            sources = geometry;
+        }
+        double[] results = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] == 1) results[i] = re[0]; // the roots of unity 1 and -1 are nodes of the sum
+            else if (points[i] == -1) results[i] = re[size / 2];
+        }
+        if (inner.length > 0) {
+            double[] sums = sum(re, im, geometry, innerRight, innerLeft);
+            double first = re[0] / size;
+            double middle = -re[size / 2] / size;
+            for (int i = 0; i < inner.length; i++) {
+                double x = points[inner[i]];
+                double sum = first / (x - 1) + middle / (x + 1) + sums[i];
+                results[inner[i]] = nodePolynomial(x, size) * sum;
+            }
+        }
+        if (outer.length > 0) {
+            for (int j = 0; j < size; j++) { // the reversed polynomial takes w_j^(n - 1) * conj(p(w_j)) at w_j
+                im[j] = -im[j];
+            }
+            rotate(re, im, n - 1);
+            double[] sums = sum(re, im, geometry, outerRight, outerLeft);
+            double first = re[0] / size;
+            double middle = -re[size / 2] / size;
+            int half = (n - 1) / 2; // two powers, so that x^(n - 1) only overflows with the result
+            for (int i = 0; i < outer.length; i++) {
+                double x = points[outer[i]];
+                double s = 1 / x;
+                double sum = first / (s - 1) + middle / (s + 1) + sums[i];
+                double value = Math.pow(x, half) * (nodePolynomial(s, size) * sum) * Math.pow(x, n - 1 - half);
+                results[outer[i]] = Double.isFinite(value) ? value : horner(coefs, x);
+            }
+        }
+        return check(coefs, results, inner) && check(coefs, results, outer) ? results : null;
+    }
+
+    /**
+     * Computes the sum of c_j / (t - w_j) over the roots of unity other than 1 and -1 at every
+     * target t, with c_j = w_j * v_j / N. The values are those of a real polynomial, so the
+     * roots of the lower half contribute the conjugates of the upper half, and the sum is twice
+     * the real part of the sum over the upper half.
+     *
+     * @param re       The real parts of the values v_j at the roots of unity.
+     * @param im       The imaginary parts of the values v_j.
+     * @param geometry The roots of unity.
+     * @param right    The targets t - 1.
+     * @param left     The targets -t - 1, in the same order.
+     * @return The sums, in the order of the targets.
+     */
+    private static double[] sum(double[] re, double[] im, Sources geometry, Targets right, Targets left) {
+        int size = geometry.size;
+        int quarter = size / 4;
+        double[] chargeRe = new double[quarter];
+        double[] chargeIm = new double[quarter];
+        for (int j = 1; j <= quarter; j++) {
+            double wr = 1 + geometry.re[j - 1], wi = geometry.im[j - 1];
+            chargeRe[j - 1] = (wr * re[j] - wi * im[j]) / size;
+            chargeIm[j - 1] = (wr * im[j] + wi * re[j]) / size;
+        }
+        double[] sums = geometry.sum(right, chargeRe, chargeIm);
+        for (int j = 1; j < quarter; j++) { // w_(N/2 - j) = -conj(w_j), so its term at t is minus that of -conj(c) at -t
+            double wr = -(1 + geometry.re[j - 1]), wi = geometry.im[j - 1];
+            int k = size / 2 - j;
+            chargeRe[j - 1] = -(wr * re[k] - wi * im[k]) / size;
+            chargeIm[j - 1] = (wr * im[k] + wi * re[k]) / size;
+        }
+        chargeRe[quarter - 1] = 0; // the root i belongs to the right quarter
+        chargeIm[quarter - 1] = 0;
+        double[] mirrored = geometry.sum(left, chargeRe, chargeIm);
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = 2 * (sums[i] + mirrored[i]);
+        }
+        return sums;
+    }
+
+    /**
+     * Compares the results with Horner's scheme at a sample of some of the points.
+     *
+     * @param coefs   The coefficients indexed by degree.
+     * @param results The results to check.
+     * @param indices The indices of the points to sample.
+     * @return true if every sampled result is within the tolerance.
+     */
+    private boolean check(double[] coefs, double[] results, int[] indices) {
+        double norm = 0;
+        for (double c : coefs) {
+            norm += Math.abs(c);
+        }
+        int step = Math.max(indices.length / CHECKED_POINTS, 1);
+        for (int i = 0; i < indices.length; i += step) {
+            double x = points[indices[i]];
+            double expected = horner(coefs, x);
+            if (results[indices[i]] == expected) continue; // also infinities
+            double bound = Math.abs(x) > 1 ? norm * Math.pow(Math.abs(x), coefs.length - 1) : norm;
+            if (!(Math.abs(results[indices[i]] - expected) <= ERROR_TOLERANCE * bound)) return false; // also rejects NaN
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates coefficients at a point with Horner's scheme.
+     *
+     * @param coefs The coefficients indexed by degree.
+     * @param x     The point.
+     * @return The value.
+     */
+    private static double horner(double[] coefs, double x) {
+        double sum = 0;
+        for (int k = coefs.length - 1; k >= 0; k--) {
+            sum = sum * x + coefs[k];
+        }
+        return sum;
+    }
+
+    /**
+     * Multiplies the values at the roots of unity by w_j^power.
+     *
+     * @param re    The real parts, replaced.
+     * @param im    The imaginary parts, replaced.
+     * @param power The power, at least 0.
+     */
+    private static void rotate(double[] re, double[] im, int power) {
+        int size = re.length;
+        for (int j = 0; j < size; j++) {
+            long turn = (long) j * power % size; // exact, so the angle stays accurate for high powers
+            double angle = 2 * Math.PI * turn / size;
+            double c = Math.cos(angle), s = Math.sin(angle);
+            double r = re[j] * c - im[j] * s;
+            im[j] = re[j] * s + im[j] * c;
+            re[j] = r;
+        }
+    }
+
+    /**
+     * Computes t^N - 1 without cancellation when t is close to 1 or -1.
+     *
+     * @param t    The point, in (-1, 1).
+     * @param size N, even.
+     * @return t^N - 1.
+     */
+    private static double nodePolynomial(double t, int size) {
+        double a = Math.abs(t);
+        if (a < 0.5) return Math.pow(a, size) - 1;
+        return Math.expm1(size * Math.log1p(a - 1)); // a - 1 is exact here
+    }
+
+    /**
+     * Returns the length of the transform for a number of coefficients.
+     *
+     * @param n The number of coefficients, at least 1.
+     * @return The smallest power of two from n and from 16 up.
+     */
+    private static long transformSize(long n) {
+        return Math.max(16, n <= 1 ? 1 : Long.highestOneBit(n - 1) << 1);
+    }
+
+    /**
+     * Computes the binomial coefficients below a size.
+     *
+     * @param size The number of rows.
+     * @return The coefficients, C(k, l) at [k][l].
+     */
+    private static double[][] binomials(int size) {
+        double[][] table = new double[size][];
+        for (int k = 0; k < size; k++) {
+            table[k] = new double[k + 1];
+            table[k][0] = 1;
+            table[k][k] = 1;
+            for (int l = 1; l < k; l++) {
+                table[k][l] = table[k - 1][l - 1] + table[k - 1][l];
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Computes the Chebyshev points of the second kind.
+     *
+     * @param count The number of points, at least 2.
+     * @return cos(pi * k / (count - 1)) for k from 0.
+     */
+    private static double[] chebyshevNodes(int count) {
+        double[] nodes = new double[count];
+        for (int k = 0; k < count; k++) {
+            nodes[k] = Math.cos(Math.PI * k / (count - 1));
+        }
+        return nodes;
+    }
+
+    /**
+     * Computes the matrix taking values at the Chebyshev points of the second kind to the
+     * coefficients of the interpolant in the Chebyshev polynomials T_j.
+     *
+     * @param count The number of points, at least 2.
+     * @return The matrix, the coefficient j from the values in row j.
+     */
+    private static double[] chebyshevTransform(int count) {
+        int last = count - 1;
+        double[] matrix = new double[count * count];
+        for (int j = 0; j < count; j++) {
+            for (int k = 0; k < count; k++) {
+                double weight = 2.0 / last;
+                if (k == 0 || k == last) weight /= 2;
+                if (j == 0 || j == last) weight /= 2;
+                matrix[j * count + k] = weight * Math.cos(Math.PI * (j * k % (2 * last)) / last);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Maps a point of an interval to [-1, 1]. The differences are exact for close values, so
+     * the result stays accurate on intervals only a few ulps long, where the rounded middle of
+     * the interval would be off by a large part of its length; a point rounded just outside is
+     * clamped, which moves it by less than the sum can resolve.
+     *
+     * @param u    The point.
+     * @param low  The lower end of the interval.
+     * @param high The upper end of the interval, above low.
+     * @return The scaled point.
+     */
+    private static double scale(double u, double low, double high) {
+        double xi = ((u - low) - (high - u)) / (high - low);
+        return Math.max(-1, Math.min(1, xi));
+    }
+
+    /**
+     * Evaluates a Chebyshev series with Clenshaw's recurrence.
+     *
+     * @param coefficients The coefficients of T_0 to T_(NODES - 1).
+     * @param xi           The point, scaled to [-1, 1].
+     * @return The value of the series at the point.
+     */
+    private static double clenshaw(double[] coefficients, double xi) {
+        double b1 = 0, b2 = 0;
+        double twice = 2 * xi;
+        for (int j = NODES - 1; j > 0; j--) {
+            double b = coefficients[j] + twice * b1 - b2;
+            b2 = b1;
+            b1 = b;
+        }
+        return coefficients[0] + xi * b1 - b2;
+    }
+
+    /**
+     * A binary tree over real targets, in increasing order, each node an interval that can
+     * hold a local expansion of the sum as its values at the Chebyshev points of the interval.
+     */
+    private static final class Targets {
+        private final double[] sorted; // targets in increasing order
+        private final int[] order; // index of each sorted target in the array given
+        private int count; // number of nodes
+        private int[] start; // first sorted target of each node
+        private int[] end; // end of the sorted targets of each node, exclusive
+        private int[] left; // first child of each node, -1 for a leaf
+        private int[] right; // second child of each node, -1 for a leaf
+        private double[] low; // smallest target of each node
+        private double[] high; // largest target of each node
+        private double[] center; // middle of the interval of each node, rounded
+        private double[] half; // half the length of the interval of each node
+
+        /**
+         * Builds the tree.
+         *
+         * @param targets The targets.
+         */
+        Targets(double[] targets) {
+            sorted = targets.clone();
+            Arrays.sort(sorted);
+            order = new int[targets.length];
+            int[] taken = new int[targets.length]; // targets placed so far at each run of equal values
+            for (int i = 0; i < targets.length; i++) {
+                int first = Arrays.binarySearch(sorted, targets[i]);
+                while (first > 0 && sorted[first - 1] == targets[i]) first--; // binarySearch may land anywhere in a run
+                order[first + taken[first]++] = i;
+            }
+            int capacity = Math.max(1, 4 * (targets.length / LEAF_SIZE + 1));
+            start = new int[capacity];
+            end = new int[capacity];
+            left = new int[capacity];
+            right = new int[capacity];
+            low = new double[capacity];
+            high = new double[capacity];
+            center = new double[capacity];
+            half = new double[capacity];
+            if (targets.length > 0) build(0, targets.length);
+        }
+
+        /**
+         * Builds the node over a range of sorted targets and the nodes below it.
+         *
+         * @param first The first sorted target.
+         * @param last  The end of the sorted targets, exclusive.
+         * @return The index of the node.
+         */
+        private int build(int first, int last) {
+            int node = count++;
+            start[node] = first;
+            end[node] = last;
+            low[node] = sorted[first];
+            high[node] = sorted[last - 1];
+            half[node] = (high[node] - low[node]) / 2;
+            center[node] = low[node] + half[node];
+            left[node] = -1;
+            right[node] = -1;
+            if (last - first > LEAF_SIZE && half[node] > 0) {
+                int middle = (first + last) >>> 1;
+                int l = build(first, middle);
+                int r = build(middle, last);
+                left[node] = l;
+                right[node] = r;
+            }
+            return node;
+        }
+    }
+
+    /**
+     * The roots of unity w_j = e^(2 pi i j / N) of the upper right quarter, j from 1 to N/4, in
+     * the coordinate w - 1 so that the distances to points near 1 keep their accuracy, with a
+     * binary tree over them. Each node is a disk around an arc that can hold a multipole
+     * expansion, scaled by the radius so that its terms stay in range.
+     */
+    private static final class Sources {
+        private final int size; // N
+        private final double[] re; // real parts of w_j - 1, at j - 1
+        private final double[] im; // imaginary parts of w_j - 1, at j - 1
+        private int count; // number of nodes
+        private final int[] start; // first root of each node, as j - 1
+        private final int[] end; // end of the roots of each node, exclusive
+        private final int[] left; // first child of each node, -1 for a leaf
+        private final int[] right; // second child of each node, -1 for a leaf
+        private final double[] centerRe; // real part of the center of each node
+        private final double[] centerIm; // imaginary part of the center of each node
+        private final double[] radius; // radius of the disk of each node, holding the disks of its children
+
+        /**
+         * Computes the roots and builds the tree.
+         *
+         * @param size N, a power of two from 16 up.
+         */
+        Sources(int size) {
+            this.size = size;
+            int quarter = size / 4;
+            re = new double[quarter];
+            im = new double[quarter];
+            for (int j = 1; j <= quarter; j++) {
+                double angle = 2 * Math.PI * j / size;
+                double s = Math.sin(angle / 2);
+                re[j - 1] = -2 * s * s; // cos(angle) - 1 without cancellation
+                im[j - 1] = Math.sin(angle);
+            }
+            int capacity = 4 * (quarter / LEAF_SIZE + 1);
+            start = new int[capacity];
+            end = new int[capacity];
+            left = new int[capacity];
+            right = new int[capacity];
+            centerRe = new double[capacity];
+            centerIm = new double[capacity];
+            radius = new double[capacity];
+            build(0, quarter);
+        }
+
+        /**
+         * Builds the node over a range of roots and the nodes below it.
+         *
+         * @param first The first root, as j - 1.
+         * @param last  The end of the roots, exclusive.
+         * @return The index of the node.
+         */
+        private int build(int first, int last) {
+            int node = count++;
+            start[node] = first;
+            end[node] = last;
+            double from = 2 * Math.PI * (first + 1) / size;
+            double to = 2 * Math.PI * last / size;
+            double middle = (from + to) / 2;
+            double halfAngle = (to - from) / 2;
+            double a = Math.sin(halfAngle / 2), b = Math.sin(middle / 2);
+            centerRe[node] = -2 * a * a * Math.cos(middle) - 2 * b * b; // cos(halfAngle) * e^(i middle) - 1, on the chord
+            centerIm[node] = Math.cos(halfAngle) * Math.sin(middle);
+            left[node] = -1;
+            right[node] = -1;
+            double r = 0;
+            if (last - first > LEAF_SIZE) {
+                int split = (first + last) >>> 1;
+                int l = build(first, split);
+                int h = build(split, last);
+                left[node] = l;
+                right[node] = h;
+                for (int child : new int[]{l, h}) {
+                    r = Math.max(r, Math.hypot(centerRe[child] - centerRe[node], centerIm[child] - centerIm[node]) + radius[child]);
+                }
+            } else {
+                for (int j = first; j < last; j++) {
+                    r = Math.max(r, Math.hypot(re[j] - centerRe[node], im[j] - centerIm[node]));
+                }
+            }
+            radius[node] = Math.max(r, Double.MIN_NORMAL);
+            return node;
+        }
+
+        /**
+         * Computes the real part of the sum of c_j / (u - (w_j - 1)) at every target u.
+         *
+         * @param targets  The targets.
+         * @param chargeRe The real parts of the charges c_j, at j - 1.
+         * @param chargeIm The imaginary parts of the charges c_j, at j - 1.
+         * @return The sums, in the order the targets were given.
+         */
+        double[] sum(Targets targets, double[] chargeRe, double[] chargeIm) {
+            double[] sums = new double[targets.sorted.length];
+            if (sums.length == 0) return sums;
+            double[] multipoleRe = new double[count * TERMS];
+            double[] multipoleIm = new double[count * TERMS];
+            for (int node = count - 1; node >= 0; node--) { // children come after their parent
+                expand(node, chargeRe, chargeIm, multipoleRe, multipoleIm);
+            }
+            Interaction interaction = new Interaction(this, targets, chargeRe, chargeIm, multipoleRe, multipoleIm, sums);
+            interaction.interact(0, 0);
+            interaction.pass();
+            double[] results = new double[sums.length];
+            for (int i = 0; i < sums.length; i++) {
+                results[targets.order[i]] = sums[i];
+            }
+            return results;
+        }
+
+        /**
+         * Computes the multipole expansion of a node, from its roots for a leaf or from the
+         * expansions of its children, sum over its roots of c * ((w - 1 - center) / radius)^k.
+         *
+         * @param node        The node.
+         * @param chargeRe    The real parts of the charges.
+         * @param chargeIm    The imaginary parts of the charges.
+         * @param multipoleRe Receives the real parts of the expansion.
+         * @param multipoleIm Receives the imaginary parts of the expansion.
+         */
+        private void expand(int node, double[] chargeRe, double[] chargeIm, double[] multipoleRe, double[] multipoleIm) {
+            int base = node * TERMS;
+            double r = radius[node];
+            if (left[node] < 0) {
+                for (int j = start[node]; j < end[node]; j++) {
+                    double wr = (re[j] - centerRe[node]) / r, wi = (im[j] - centerIm[node]) / r;
+                    double pr = chargeRe[j], pi = chargeIm[j];
+                    for (int k = 0; k < TERMS; k++) {
+                        multipoleRe[base + k] += pr;
+                        multipoleIm[base + k] += pi;
+                        double t = pr * wr - pi * wi;
+                        pi = pr * wi + pi * wr;
+                        pr = t;
+                    }
+                }
+                return;
+            }
+            double[] scaledRe = new double[TERMS];
+            double[] scaledIm = new double[TERMS];
+            double[] shiftRe = new double[TERMS];
+            double[] shiftIm = new double[TERMS];
+            for (int child : new int[]{left[node], right[node]}) {
+                int from = child * TERMS;
+                double a = radius[child] / r; // (w - c_p) / r_p = a * (w - c_c) / r_c + b, with |a| + |b| <= 1
+                double br = (centerRe[child] - centerRe[node]) / r, bi = (centerIm[child] - centerIm[node]) / r;
+                double scale = 1;
+                shiftRe[0] = 1;
+                shiftIm[0] = 0;
+                for (int k = 0; k < TERMS; k++) {
+                    scaledRe[k] = multipoleRe[from + k] * scale;
+                    scaledIm[k] = multipoleIm[from + k] * scale;
+                    scale *= a;
+                    if (k > 0) {
+                        shiftRe[k] = shiftRe[k - 1] * br - shiftIm[k - 1] * bi;
+                        shiftIm[k] = shiftRe[k - 1] * bi + shiftIm[k - 1] * br;
+                    }
+                }
+                for (int k = 0; k < TERMS; k++) {
+                    double sr = 0, si = 0;
+                    double[] binomial = BINOMIALS[k];
+                    for (int l = 0; l <= k; l++) {
+                        double mr = scaledRe[l], mi = scaledIm[l];
+                        double hr = shiftRe[k - l], hi = shiftIm[k - l];
+                        sr += binomial[l] * (mr * hr - mi * hi);
+                        si += binomial[l] * (mr * hi + mi * hr);
+                    }
+                    multipoleRe[base + k] += sr;
+                    multipoleIm[base + k] += si;
+                }
+            }
+        }
+    }
+
+    /**
+     * One evaluation of the sum over the roots of unity at the targets, by a dual traversal
+     * of the two trees: pairs of nodes far enough apart interact through their expansions,
+     * and the leaves of the other pairs directly.
+     */
+    private static final class Interaction {
+        private final Sources sources; // the roots of unity
+        private final Targets targets; // the targets
+        private final double[] chargeRe; // real parts of the charges
+        private final double[] chargeIm; // imaginary parts of the charges
+        private final double[] multipoleRe; // real parts of the multipole expansions
+        private final double[] multipoleIm; // imaginary parts of the multipole expansions
+        private final double[] local; // local expansions, NODES values per target node
+        private final boolean[] hasLocal; // whether each target node received a local expansion
+        private final double[] sums; // sums at the sorted targets
+
+        Interaction(Sources sources, Targets targets, double[] chargeRe, double[] chargeIm,
+                    double[] multipoleRe, double[] multipoleIm, double[] sums) {
+            this.sources = sources;
+            this.targets = targets;
+            this.chargeRe = chargeRe;
+            this.chargeIm = chargeIm;
+            this.multipoleRe = multipoleRe;
+            this.multipoleIm = multipoleIm;
+            this.local = new double[targets.count * NODES];
+            this.hasLocal = new boolean[targets.count];
+            this.sums = sums;
+        }
+
+        /**
+         * Adds the contribution of the roots of a source node to the targets of a target node.
+         *
+         * @param a The target node.
+         * @param b The source node.
+         */
+        void interact(int a, int b) {
+            double h = targets.half[a];
+            double r = sources.radius[b];
+            double dr = targets.center[a] - sources.centerRe[b], di = sources.centerIm[b];
+            if (h + r <= SEPARATION * Math.sqrt(dr * dr + di * di)) {
+                far(a, b);
+                return;
+            }
+            boolean leafA = targets.left[a] < 0, leafB = sources.left[b] < 0;
+            if (leafA && leafB) {
+                for (int i = targets.start[a]; i < targets.end[a]; i++) {
+                    sums[i] += direct(b, targets.sorted[i]);
+                }
+            } else if (leafB || (!leafA && h >= r)) {
+                interact(targets.left[a], b);
+                interact(targets.right[a], b);
+            } else {
+                interact(a, sources.left[b]);
+                interact(a, sources.right[b]);
+            }
+        }
+
+        /**
+         * Adds the contribution of a well separated source node, at the targets themselves
+         * when there are fewer of them than Chebyshev points, and to the local expansion
+         * otherwise.
+         *
+         * @param a The target node.
+         * @param b The source node.
+         */
+        private void far(int a, int b) {
+            boolean expanded = sources.end[b] - sources.start[b] > TERMS;
+            if (targets.end[a] - targets.start[a] <= NODES) {
+                for (int i = targets.start[a]; i < targets.end[a]; i++) {
+                    double u = targets.sorted[i];
+                    sums[i] += expanded ? multipole(b, u) : direct(b, u);
+                }
+                return;
+            }
+            int base = a * NODES;
+            for (int k = 0; k < NODES; k++) {
+                double u = targets.center[a] + targets.half[a] * CHEBYSHEV[k];
+                local[base + k] += expanded ? multipole(b, u) : direct(b, u);
+            }
+            hasLocal[a] = true;
+        }
+
+        /**
+         * Sums the roots of a source node directly at a target.
+         *
+         * @param b The source node.
+         * @param u The target.
+         * @return The real part of the sum.
+         */
+        private double direct(int b, double u) {
+            double sum = 0;
+            double[] re = sources.re, im = sources.im;
+            for (int j = sources.start[b]; j < sources.end[b]; j++) {
+                double dr = u - re[j], di = -im[j];
+                sum += (chargeRe[j] * dr + chargeIm[j] * di) / (dr * dr + di * di);
+            }
+            return sum;
+        }
+
+        /**
+         * Evaluates the multipole expansion of a source node at a target.
+         *
+         * @param b The source node.
+         * @param u The target.
+         * @return The real part of the expansion.
+         */
+        private double multipole(int b, double u) {
+            double r = sources.radius[b];
+            double dr = u - sources.centerRe[b], di = -sources.centerIm[b];
+            double norm = dr * dr + di * di;
+            double rhoRe = r * dr / norm, rhoIm = -r * di / norm; // radius / (u - center)
+            int base = b * TERMS;
+            double sr = multipoleRe[base + TERMS - 1], si = multipoleIm[base + TERMS - 1];
+            for (int k = TERMS - 2; k >= 0; k--) {
+                double t = sr * rhoRe - si * rhoIm + multipoleRe[base + k];
+                si = sr * rhoIm + si * rhoRe + multipoleIm[base + k];
+                sr = t;
+            }
+            return (sr * rhoRe - si * rhoIm) / r;
+        }
+
+        /**
+         * Passes the local expansions down the target tree and adds them at the targets. Nodes
+         * with no more targets than Chebyshev points have no expansion of their own, so their
+         * parent's expansion is evaluated at their targets directly.
+         */
+        void pass() {
+            double[] coefficients = new double[NODES];
+            for (int a = 0; a < targets.count; a++) { // parents come before their children
+                if (!hasLocal[a]) continue;
+                int base = a * NODES;
+                double lo = targets.low[a], hi = targets.high[a];
+                if (lo == hi) { // a leaf of equal targets, where the expansion is constant
+                    for (int i = targets.start[a]; i < targets.end[a]; i++) {
+                        sums[i] += local[base];
+                    }
+                    continue;
+                }
+                for (int j = 0; j < NODES; j++) {
+                    double sum = 0;
+                    for (int k = 0; k < NODES; k++) {
+                        sum += TRANSFORM[j * NODES + k] * local[base + k];
+                    }
+                    coefficients[j] = sum;
+                }
+                if (targets.left[a] < 0) {
+                    for (int i = targets.start[a]; i < targets.end[a]; i++) {
+                        sums[i] += clenshaw(coefficients, scale(targets.sorted[i], lo, hi));
+                    }
+                    continue;
+                }
+                for (int child : new int[]{targets.left[a], targets.right[a]}) {
+                    if (targets.end[child] - targets.start[child] <= NODES) {
+                        for (int i = targets.start[child]; i < targets.end[child]; i++) {
+                            sums[i] += clenshaw(coefficients, scale(targets.sorted[i], lo, hi));
+                        }
+                        continue;
+                    }
+                    int to = child * NODES;
+                    for (int k = 0; k < NODES; k++) {
+                        double u = targets.center[child] + targets.half[child] * CHEBYSHEV[k];
+                        local[to + k] += clenshaw(coefficients, scale(u, lo, hi));
+                    }
+                    hasLocal[child] = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,733 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Represents an immutable sparse polynomial in several variables, such as "3x^2y - 2xz + 1".
+ * Each term's exponent vector is packed into one long monomial. The variables are sorted and
+ * each takes a field of the same width, the first variable in the most significant field, so
+ * comparing two monomials as longs compares them in lexicographic order and multiplying them
+ * adds the longs. The top bit of every field is a guard bit that stays clear: a carry into it
+ * reveals an overflow, and subtracting monomials reveals in one operation whether one divides
+ * the other. Terms are kept in descending monomial order with non-zero coefficients.
+ * <p>
+ * Products and quotients are computed with a binary heap that merges the streams of partial
+ * products in descending order, so the partial products are never all materialized at once
+ * and the heap holds at most one entry per term of the smaller operand, or per quotient term.
+ */
+public final class MultivariatePolynomial {
+    private static final MultivariatePolynomial ZERO = new MultivariatePolynomial("", 2, new long[0], new double[0], 0);
+
+    private final String variables; // the variables in ascending order, most significant field first
+    private final int width; // number of bits of each field, including its guard bit
+    private final long[] monomials; // packed exponent vectors in descending order
+    private final double[] coefs; // non-zero coefficients of the monomials
+    private final int maxExponent; // largest exponent of any variable
+
+    /**
+     * Creates a MultivariatePolynomial that takes ownership of its arrays.
+     *
+     * @param variables   The variables in ascending order.
+     * @param width       The width of each field.
+     * @param monomials   The packed monomials in descending order.
+     * @param coefs       The non-zero coefficients.
+     * @param maxExponent The largest exponent of any variable.
+     */
+    private MultivariatePolynomial(String variables, int width, long[] monomials, double[] coefs, int maxExponent) {
+        this.variables = variables;
+        this.width = width;
+        this.monomials = monomials;
+        this.coefs = coefs;
+        this.maxExponent = maxExponent;
+    }
+
+    /**
+     * Returns the zero polynomial.
+     *
+     * @return The zero polynomial, without variables.
+     */
+    public static MultivariatePolynomial zero() {
+        return ZERO;
+    }
+
+    /**
+     * Creates a constant polynomial.
+     *
+     * @param value The constant.
+     * @return The constant polynomial, without variables.
+     */
+    public static MultivariatePolynomial constant(double value) {
+        if (value == 0) return ZERO;
+        return new MultivariatePolynomial("", 2, new long[]{0}, new double[]{value}, 0);
+    }
+
+    /**
+     * Creates a polynomial with a single term, such as monomial(3, "xy", 2, 1) for 3x^2y.
+     *
+     * @param coef      The coefficient.
+     * @param variables The distinct variables of the term.
+     * @param exponents The non-negative exponent of each variable.
+     * @return The polynomial.
+     * @throws IllegalArgumentException If a variable repeats, an exponent is negative or the counts differ.
+     * @throws ArithmeticException      If the exponents are too large to pack.
+     */
+    public static MultivariatePolynomial monomial(double coef, String variables, int... exponents) {
+        if (variables.length() != exponents.length) {
+            throw new IllegalArgumentException("There must be one exponent per variable.");
+        }
+        char[] sorted = variables.toCharArray();
+        Arrays.sort(sorted);
+        int max = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i] == sorted[i - 1]) throw new IllegalArgumentException("The variable '" + sorted[i] + "' repeats.");
+        }
+        for (int e : exponents) {
+            if (e < 0) throw new IllegalArgumentException("The exponents must not be negative.");
+            max = Math.max(max, e);
+        }
+        if (coef == 0) return ZERO;
+        String names = new String(sorted);
+        int w = width(names.length(), max);
+        long monomial = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            monomial += (long) exponents[i] << shift(names.indexOf(variables.charAt(i)), names.length(), w);
+        }
+        return new MultivariatePolynomial(names, w, new long[]{monomial}, new double[]{coef}, max);
+    }
+
+    /**
+     * Creates a MultivariatePolynomial with the same value as a Polynomial in one variable.
+     *
+     * @param polynomial The Polynomial.
+     * @return The MultivariatePolynomial, with no variable if the Polynomial is constant.
+     * @throws IllegalArgumentException If the Polynomial has a term with a negative degree.
+     */
+    public static MultivariatePolynomial of(Polynomial polynomial) {
+        int n = polynomial.getTermCount();
+        int[] degrees = new int[n];
+        double[] values = new double[n];
+        polynomial.copyTerms(degrees, values);
+        int max = 0;
+        for (int d : degrees) {
+            if (d < 0) throw new IllegalArgumentException("The polynomial has a term with a negative degree.");
+            max = Math.max(max, d);
+        }
+        String names = max == 0 ? "" : String.valueOf(polynomial.getLiteral());
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = degrees[i];
+        }
+        return normalize(names, width(names.length(), max), packed, values, n);
+    }
+
+    /**
+     * Converts this polynomial to a Polynomial, if it has at most one variable.
+     *
+     * @return The equivalent Polynomial, in 'x' if the polynomial is constant.
+     * @throws IllegalStateException If the polynomial has several variables.
+     */
+    public Polynomial toPolynomial() {
+        if (variables.length() > 1) throw new IllegalStateException("The polynomial has several variables.");
+        char literal = variables.isEmpty() ? 'x' : variables.charAt(0);
+        if (monomials.length == 0) return new Polynomial();
+        double[] values = new double[(int) monomials[0] + 1];
+        for (int i = 0; i < monomials.length; i++) {
+            values[(int) monomials[i]] = coefs[i];
+        }
+        return Polynomial.fromCoefficients(values, literal);
+    }
+
+    /**
+     * Returns the variables the polynomial is expressed in.
+     *
+     * @return The variables in ascending order.
+     */
+    public String getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the number of non-zero terms.
+     *
+     * @return The number of terms.
+     */
+    public int getTermCount() {
+        return monomials.length;
+    }
+
+    /**
+     * Returns the total degree, the largest sum of exponents of a term.
+     *
+     * @return The total degree, or -1 for the zero polynomial.
+     */
+    public int getTotalDegree() {
+        int result = -1;
+        for (long monomial : monomials) {
+            int sum = 0;
+            for (int v = 0; v < variables.length(); v++) {
+                sum += exponent(monomial, v);
+            }
+            result = Math.max(result, sum);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the largest exponent of a variable.
+     *
+     * @param variable The variable.
+     * @return The degree in the variable, 0 if the polynomial does not involve it, or -1 for zero.
+     */
+    public int getDegree(char variable) {
+        if (monomials.length == 0) return -1;
+        int v = variables.indexOf(variable);
+        if (v < 0) return 0;
+        int result = 0;
+        for (long monomial : monomials) {
+            result = Math.max(result, exponent(monomial, v));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the coefficient of a monomial, such as getCoefficient("xy", 2, 1) for x^2y.
+     * Variables not listed have exponent 0.
+     *
+     * @param names     The distinct variables of the monomial.
+     * @param exponents The exponent of each variable.
+     * @return The coefficient, which is zero if the polynomial has no such term.
+     */
+    public double getCoefficient(String names, int... exponents) {
+        if (names.length() != exponents.length) throw new IllegalArgumentException("There must be one exponent per variable.");
+        long key = 0;
+        for (int i = 0; i < exponents.length; i++) {
+            if (exponents[i] == 0) continue;
+            int v = variables.indexOf(names.charAt(i));
+            if (v < 0 || exponents[i] < 0 || exponents[i] > maxExponent) return 0;
+            key += (long) exponents[i] << shift(v);
+        }
+        int low = 0;
+        int high = monomials.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (monomials[mid] > key) {
+                low = mid + 1;
+            } else if (monomials[mid] < key) {
+                high = mid - 1;
+            } else {
+                return coefs[mid];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Evaluates the polynomial, such as evaluate("xy", 2, 3) for x = 2 and y = 3.
+     *
+     * @param names  The variables given a value, including every variable of the polynomial.
+     * @param values The value of each variable.
+     * @return The value of the polynomial.
+     * @throws IllegalArgumentException If a variable of the polynomial has no value.
+     */
+    public double evaluate(String names, double... values) {
+        if (names.length() != values.length) throw new IllegalArgumentException("There must be one value per variable.");
+        int n = variables.length();
+        double[][] powers = new double[n][]; // powers[v][e] = value of variable v to the e
+        for (int v = 0; v < n; v++) {
+            int i = names.indexOf(variables.charAt(v));
+            if (i < 0) throw new IllegalArgumentException("The variable '" + variables.charAt(v) + "' has no value.");
+            powers[v] = new double[getDegree(variables.charAt(v)) + 1];
+            powers[v][0] = 1;
+            for (int e = 1; e < powers[v].length; e++) {
+                powers[v][e] = powers[v][e - 1] * values[i];
+            }
+        }
+        double result = 0;
+        for (int t = 0; t < monomials.length; t++) {
+            double term = coefs[t];
+            for (int v = 0; v < n; v++) {
+                term *= powers[v][exponent(monomials[t], v)];
+            }
+            result += term;
+        }
+        return result;
+    }
+
+    /**
+     * Adds another polynomial to this one by merging the two sorted term sequences.
+     *
+     * @param other The polynomial to add.
+     * @return The sum.
+     */
+    public MultivariatePolynomial add(MultivariatePolynomial other) {
+        return merge(other, 1);
+    }
+
+    /**
+     * Subtracts another polynomial from this one by merging the two sorted term sequences.
+     *
+     * @param other The polynomial to subtract.
+     * @return The difference.
+     */
+    public MultivariatePolynomial subtract(MultivariatePolynomial other) {
+        return merge(other, -1);
+    }
+
+    /**
+     * Multiplies this polynomial by another. The rows of the product, one per term of the
+     * smaller operand, are merged through a heap that holds the next product of each row that
+     * has been started; a row is started when the previous one yields its first product.
+     *
+     * @param other The polynomial to multiply by.
+     * @return The product.
+     * @throws ArithmeticException If the exponents of the product are too large to pack.
+     */
+    public MultivariatePolynomial multiply(MultivariatePolynomial other) {
+        if (monomials.length == 0 || other.monomials.length == 0) return ZERO;
+        String names = union(variables, other.variables);
+        int max = maxExponent + other.maxExponent;
+        int w = width(names.length(), max);
+        MultivariatePolynomial f = repack(names, w);
+        MultivariatePolynomial g = other.repack(names, w);
+        if (f.monomials.length > g.monomials.length) {
+            MultivariatePolynomial t = f; f = g; g = t;
+        }
+        int n = f.monomials.length;
+        int m = g.monomials.length;
+        ProductHeap heap = new ProductHeap(n);
+        TermBuffer result = new TermBuffer(n + m);
+        heap.push(f.monomials[0] + g.monomials[0], 0, 0);
+        while (heap.size() > 0) {
+            long monomial = heap.topKey();
+            double sum = 0;
+            do {
+                int i = heap.topRow();
+                int j = heap.topColumn();
+                heap.pop();
+                sum += f.coefs[i] * g.coefs[j];
+                if (j + 1 < m) heap.push(f.monomials[i] + g.monomials[j + 1], i, j + 1);
+                if (j == 0 && i + 1 < n) heap.push(f.monomials[i + 1] + g.monomials[0], i + 1, 0);
+            } while (heap.size() > 0 && heap.topKey() == monomial);
+            result.append(monomial, sum);
+        }
+        return result.toPolynomial(names, w);
+    }
+
+    /**
+     * Divides this polynomial by another with the multivariate division algorithm in
+     * lexicographic order: a term is moved to the quotient when the leading monomial of the
+     * divisor divides it, and to the remainder otherwise. The terms still to be subtracted,
+     * the products of each quotient term with the rest of the divisor, are merged through a
+     * heap with one entry per quotient term.
+     *
+     * @param divisor The polynomial to divide by.
+     * @return The quotient and remainder.
+     * @throws ArithmeticException If the divisor is zero or the exponents are too large to pack.
+     */
+    public MultivariateQuotient divide(MultivariatePolynomial divisor) {
+        if (divisor.monomials.length == 0) throw new ArithmeticException("Division by a zero polynomial.");
+        String names = union(variables, divisor.variables);
+        int max = maxExponent + divisor.maxExponent;
+        while (true) {
+            int w = width(names.length(), max);
+            MultivariateQuotient result = divide(repack(names, w), divisor.repack(names, w), names, w);
+            if (result != null) return result;
+            max = 2 * max + 1; // a product overflowed into a guard bit, so retry with wider fields
+        }
+    }
+
+    /**
+     * Divides two polynomials packed with the same layout.
+     *
+     * @param f     The dividend.
+     * @param g     The divisor.
+     * @param names The variables of the layout.
+     * @param w     The width of the layout.
+     * @return The quotient and remainder, or null if a monomial overflowed its fields.
+     */
+    private static MultivariateQuotient divide(MultivariatePolynomial f, MultivariatePolynomial g, String names, int w) {
+        long guards = guardMask(names.length(), w);
+        long lead = g.monomials[0];
+        double leadCoef = g.coefs[0];
+        int m = g.monomials.length;
+        TermBuffer quotient = new TermBuffer(16);
+        TermBuffer remainder = new TermBuffer(16);
+        ProductHeap heap = new ProductHeap(16);
+        int next = 0; // next dividend term
+        while (next < f.monomials.length || heap.size() > 0) {
+            long monomial;
+            if (heap.size() == 0 || (next < f.monomials.length && f.monomials[next] >= heap.topKey())) {
+                monomial = f.monomials[next];
+            } else {
+                monomial = heap.topKey();
+            }
+            double c = 0;
+            if (next < f.monomials.length && f.monomials[next] == monomial) {
+                c = f.coefs[next++];
+            }
+            while (heap.size() > 0 && heap.topKey() == monomial) {
+                int k = heap.topRow();
+                int j = heap.topColumn();
+                heap.pop();
+                c -= quotient.coefs[k] * g.coefs[j];
+                if (j + 1 < m) {
+                    long product = quotient.monomials[k] + g.monomials[j + 1];
+                    if ((product & guards) != 0) return null; // the monomial overflowed into a guard bit
+                    heap.push(product, k, j + 1);
+                }
+            }
+            if (c == 0) continue;
+            long difference = monomial - lead;
+            if ((difference & guards) == 0) { // every exponent of the monomial is at least the lead's
+                quotient.append(difference, c / leadCoef);
+                int k = quotient.count - 1;
+                if (m > 1) {
+                    long product = difference + g.monomials[1];
+                    if ((product & guards) != 0) return null; // the monomial overflowed into a guard bit
+                    heap.push(product, k, 1);
+                }
+            } else {
+                remainder.append(monomial, c);
+            }
+        }
+        return new MultivariateQuotient(quotient.toPolynomial(names, w), remainder.toPolynomial(names, w));
+    }
+
+    /**
+     * Adds or subtracts another polynomial by merging the sorted terms.
+     *
+     * @param other The other polynomial.
+     * @param sign  1 to add, -1 to subtract.
+     * @return The result.
+     */
+    private MultivariatePolynomial merge(MultivariatePolynomial other, double sign) {
+        String names = union(variables, other.variables);
+        int max = Math.max(maxExponent, other.maxExponent);
+        int w = width(names.length(), max);
+        MultivariatePolynomial f = repack(names, w);
+        MultivariatePolynomial g = other.repack(names, w);
+        TermBuffer result = new TermBuffer(f.monomials.length + g.monomials.length);
+        int i = 0;
+        int j = 0;
+        while (i < f.monomials.length || j < g.monomials.length) {
+            if (j == g.monomials.length || (i < f.monomials.length && f.monomials[i] > g.monomials[j])) {
+                result.append(f.monomials[i], f.coefs[i]);
+                i++;
+            } else if (i == f.monomials.length || g.monomials[j] > f.monomials[i]) {
+                result.append(g.monomials[j], sign * g.coefs[j]);
+                j++;
+            } else {
+                result.append(f.monomials[i], f.coefs[i] + sign * g.coefs[j]);
+                i++;
+                j++;
+            }
+        }
+        return result.toPolynomial(names, w);
+    }
+
+    /**
+     * Returns this polynomial packed with another layout. Adding or dropping unused variables
+     * and changing the width keep the lexicographic order, so the terms stay sorted.
+     *
+     * @param names The variables of the layout, including those this polynomial uses.
+     * @param w     The width of the layout, large enough for every exponent.
+     * @return The repacked polynomial, possibly this one.
+     */
+    private MultivariatePolynomial repack(String names, int w) {
+        if (names.equals(variables) && w == width) return this;
+        int n = variables.length();
+        int[] shifts = new int[n];
+        for (int v = 0; v < n; v++) {
+            int target = names.indexOf(variables.charAt(v));
+            shifts[v] = target < 0 ? -1 : shift(target, names.length(), w); // -1 for a dropped variable, always 0
+        }
+        long[] packed = new long[monomials.length];
+        for (int t = 0; t < monomials.length; t++) {
+            long monomial = 0;
+            for (int v = 0; v < n; v++) {
+                if (shifts[v] >= 0) monomial += (long) exponent(monomials[t], v) << shifts[v];
+            }
+            packed[t] = monomial;
+        }
+        return new MultivariatePolynomial(names, w, packed, coefs, maxExponent);
+    }
+
+    /**
+     * Sorts terms in descending order, combines equal monomials and drops zero coefficients.
+     *
+     * @param names  The variables.
+     * @param w      The width.
+     * @param packed The monomials.
+     * @param values The coefficients.
+     * @param n      The number of terms.
+     * @return The polynomial.
+     */
+    private static MultivariatePolynomial normalize(String names, int w, long[] packed, double[] values, int n) {
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++) {
+            sorted = packed[i] < packed[i - 1];
+        }
+        if (!sorted) {
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(packed[b], packed[a]));
+            long[] m = new long[n];
+            double[] c = new double[n];
+            for (int i = 0; i < n; i++) {
+                m[i] = packed[order[i]];
+                c[i] = values[order[i]];
+            }
+            return combine(names, w, m, c, n);
+        }
+        return combine(names, w, packed, values, n);
+    }
+
+    /**
+     * Combines equal adjacent monomials of sorted terms and drops zero coefficients.
+     *
+     * @param names  The variables.
+     * @param w      The width.
+     * @param packed The monomials in non-increasing order.
+     * @param values The coefficients.
+     * @param n      The number of terms.
+     * @return The polynomial.
+     */
+    private static MultivariatePolynomial combine(String names, int w, long[] packed, double[] values, int n) {
+        TermBuffer result = new TermBuffer(Math.max(n, 1));
+        int i = 0;
+        while (i < n) {
+            long monomial = packed[i];
+            double sum = 0;
+            while (i < n && packed[i] == monomial) sum += values[i++];
+            result.append(monomial, sum);
+        }
+        return result.toPolynomial(names, w);
+    }
+
+    /**
+     * Returns the exponent of a variable in a monomial of this layout.
+     *
+     * @param monomial The monomial.
+     * @param v        The index of the variable.
+     * @return The exponent.
+     */
+    private int exponent(long monomial, int v) {
+        return (int) ((monomial >>> shift(v)) & ((1L << (width - 1)) - 1));
+    }
+
+    /**
+     * Returns the position of a field in this layout.
+     *
+     * @param v The index of the variable.
+     * @return The shift of its field.
+     */
+    private int shift(int v) {
+        return shift(v, variables.length(), width);
+    }
+
+    /**
+     * Returns the position of a field, the first variable taking the most significant one.
+     *
+     * @param v The index of the variable.
+     * @param n The number of variables.
+     * @param w The width of each field.
+     * @return The shift of the field.
+     */
+    private static int shift(int v, int n, int w) {
+        return (n - 1 - v) * w;
+    }
+
+    /**
+     * Returns the field width holding exponents up to a maximum plus a guard bit.
+     *
+     * @param n   The number of variables.
+     * @param max The largest exponent.
+     * @return The width.
+     * @throws ArithmeticException If the fields do not fit in 63 bits.
+     */
+    private static int width(int n, int max) {
+        int w = Math.max(64 - Long.numberOfLeadingZeros(max), 1) + 1;
+        if ((long) n * w > 63) throw new ArithmeticException("The exponents are too large to pack " + n + " variables in a monomial.");
+        return w;
+    }
+
+    /**
+     * Returns the mask of the guard bits of a layout.
+     *
+     * @param n The number of variables.
+     * @param w The width of each field.
+     * @return The mask.
+     */
+    private static long guardMask(int n, int w) {
+        long mask = 0;
+        for (int v = 0; v < n; v++) {
+            mask |= 1L << (shift(v, n, w) + w - 1);
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the sorted union of two sorted sets of variables.
+     *
+     * @param a The first variables.
+     * @param b The second variables.
+     * @return The union.
+     */
+    private static String union(String a, String b) {
+        if (a.equals(b) || b.isEmpty()) return a;
+        if (a.isEmpty()) return b;
+        StringBuilder s = new StringBuilder(a.length() + b.length());
+        int i = 0;
+        int j = 0;
+        while (i < a.length() || j < b.length()) {
+            char c = j == b.length() || (i < a.length() && a.charAt(i) < b.charAt(j)) ? a.charAt(i++) : b.charAt(j++);
+            if (s.length() > 0 && s.charAt(s.length() - 1) == c) continue;
+            s.append(c);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Compares two polynomials by value, regardless of how they are packed.
+     *
+     * @param other The object to compare with.
+     * @return true if the other object is a MultivariatePolynomial with the same terms.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof MultivariatePolynomial)) return false;
+        MultivariatePolynomial that = (MultivariatePolynomial) other;
+        if (!variables.equals(that.variables) || monomials.length != that.monomials.length) return false;
+        MultivariatePolynomial a = repack(variables, Math.max(width, that.width));
+        MultivariatePolynomial b = that.repack(variables, Math.max(width, that.width));
+        return Arrays.equals(a.monomials, b.monomials) && Arrays.equals(coefs, that.coefs);
+    }
+
+    /**
+     * Returns a hash code consistent with equals.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        int hash = variables.hashCode();
+        for (int t = 0; t < monomials.length; t++) {
+            for (int v = 0; v < variables.length(); v++) {
+                hash = 31 * hash + exponent(monomials[t], v);
+            }
+            hash = 31 * hash + Double.hashCode(coefs[t]);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a string representation of the polynomial in the format of Polynomial, e.g.
+     * " 3.0x^2y - 2.0xz + 1.0".
+     *
+     * @return The string representation.
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        try {
+            appendTo(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringBuilder does not throw
+        }
+        return s.toString();
+    }
+
+    /**
+     * Writes the string representation of the polynomial to an Appendable, term by term.
+     *
+     * @param out The Appendable to write to.
+     * @throws IOException If the Appendable fails.
+     */
+    public void appendTo(Appendable out) throws IOException {
+        for (int t = 0; t < monomials.length; t++) {
+            double coef = coefs[t];
+            if (coef > 0) {
+                if (t > 0) out.append(" +");
+            } else {
+                out.append(" -");
+            }
+            if (coef != 1 || monomials[t] == 0) {
+                out.append(' ').append(Double.toString(Math.abs(coef)));
+            }
+            for (int v = 0; v < variables.length(); v++) {
+                int e = exponent(monomials[t], v);
+                if (e == 0) continue;
+                out.append(variables.charAt(v));
+                if (e > 1) out.append('^').append(Integer.toString(e));
+            }
+        }
+    }
+
+    /**
+     * A growable sequence of terms in descending order that skips zero coefficients.
+     */
+    private static final class TermBuffer {
+        private long[] monomials; // monomials appended so far
+        private double[] coefs; // their coefficients
+        private int count; // number of terms
+
+        /**
+         * Creates an empty buffer.
+         *
+         * @param capacity The initial capacity.
+         */
+        TermBuffer(int capacity) {
+            monomials = new long[Math.max(capacity, 1)];
+            coefs = new double[monomials.length];
+        }
+
+        /**
+         * Appends a term smaller than the previous ones, unless its coefficient is zero.
+         *
+         * @param monomial The monomial.
+         * @param coef     The coefficient.
+         */
+        void append(long monomial, double coef) {
+            if (coef == 0) return;
+            if (count == monomials.length) {
+                monomials = Arrays.copyOf(monomials, count * 2);
+                coefs = Arrays.copyOf(coefs, count * 2);
+            }
+            monomials[count] = monomial;
+            coefs[count] = coef;
+            count++;
+        }
+
+        /**
+         * Builds the polynomial of the buffered terms, dropping variables that no term uses and
+         * narrowing the fields to the largest exponent.
+         *
+         * @param names The variables of the layout.
+         * @param w     The width of the layout.
+         * @return The polynomial.
+         */
+        MultivariatePolynomial toPolynomial(String names, int w) {
+            if (count == 0) return ZERO;
+            int n = names.length();
+            long mask = (1L << (w - 1)) - 1;
+            int[] maxima = new int[n];
+            for (int t = 0; t < count; t++) {
+                for (int v = 0; v < n; v++) {
+                    maxima[v] = Math.max(maxima[v], (int) ((monomials[t] >>> shift(v, n, w)) & mask));
+                }
+            }
+            StringBuilder used = new StringBuilder(n);
+            int max = 0;
+            for (int v = 0; v < n; v++) {
+                if (maxima[v] > 0) used.append(names.charAt(v));
+                max = Math.max(max, maxima[v]);
+            }
+            long[] packed = Arrays.copyOf(monomials, count);
+            MultivariatePolynomial result = new MultivariatePolynomial(names, w, packed, Arrays.copyOf(coefs, count), max);
+            String kept = used.toString();
+            int narrow = width(kept.length(), max);
+            return kept.equals(names) && narrow == w ? result : result.repack(kept, narrow);
+        }
+    }
+}
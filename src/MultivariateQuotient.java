@@ -0,0 +1,67 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Represents the quotient and remainder of a division of multivariate polynomials.
+ */
+public final class MultivariateQuotient {
+    private final MultivariatePolynomial quotientP;
+    private final MultivariatePolynomial remainderP;
+
+    /**
+     * Initializes a MultivariateQuotient with the given quotient and remainder.
+     *
+     * @param q The quotient.
+     * @param r The remainder.
+     */
+    public MultivariateQuotient(MultivariatePolynomial q, MultivariatePolynomial r) {
+        quotientP = q;
+        remainderP = r;
+    }
+
+    /**
+     * Gets the quotient.
+     *
+     * @return The quotient.
+     */
+    public MultivariatePolynomial getQuotientP() {
+        return quotientP;
+    }
+
+    /**
+     * Gets the remainder.
+     *
+     * @return The remainder.
+     */
+    public MultivariatePolynomial getRemainderP() {
+        return remainderP;
+    }
+
+    /**
+     * Returns a string representation of the MultivariateQuotient object, including the quotient and remainder.
+     *
+     * @return A string representation of the MultivariateQuotient object.
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        try {
+            appendTo(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringBuilder does not throw
+        }
+        return s.toString();
+    }
+
+    /**
+     * Writes the string representation of the MultivariateQuotient object to an Appendable.
+     *
+     * @param out The Appendable to write to.
+     * @throws IOException If the Appendable fails.
+     */
+    public void appendTo(Appendable out) throws IOException {
+        out.append(" Quotient: ");
+        quotientP.appendTo(out);
+        out.append(" Remainder: ");
+        remainderP.appendTo(out);
+    }
+}
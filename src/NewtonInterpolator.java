@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+/**
+ * Builds an interpolating polynomial one sample at a time with Newton divided differences.
+ * Adding a sample updates the last diagonal of the divided-difference table in time linear in
+ * the number of samples, so a fit can be refined as samples arrive instead of being recomputed
+ * from scratch. The polynomial is kept in Newton form, which evaluate uses directly. toPolynomial
+ * converts it to coefficients by nested multiplication, in quadratic time.
+ * <p>
+ * The accuracy depends on the order of the samples: it is best when each new abscissa is far
+ * from the earlier ones, as in a Leja ordering, and worst when the abscissas arrive sorted.
+ */
+public class NewtonInterpolator {
+    private double[] xs = new double[16]; // sample abscissas in the order added
+    private double[] newton = new double[16]; // Newton coefficients f[x_0, ..., x_j]
+    private double[] diagonal = new double[16]; // divided differences f[x_j, ..., x_last]
+    private int count; // number of samples
+    private final char literal; // literal of the polynomials returned
+
+    /**
+     * Creates an interpolator without samples, for polynomials in x.
+     */
+    public NewtonInterpolator() {
+        this('x');
+    }
+
+    /**
+     * Creates an interpolator without samples, for polynomials in the given literal.
+     *
+     * @param literal The literal of the polynomials returned.
+     */
+    public NewtonInterpolator(char literal) {
+        this.literal = literal;
+    }
+
+    /**
+     * Adds a sample and updates the interpolating polynomial.
+     *
+     * @param x The abscissa, distinct from every earlier one.
+     * @param y The value at x.
+     * @throws IllegalArgumentException If x was already added or is not finite.
+     */
+    public void add(double x, double y) {
+        if (!Double.isFinite(x)) throw new IllegalArgumentException("The x values must be finite.");
+        for (int j = 0; j < count; j++) {
+            if (xs[j] == x) throw new IllegalArgumentException("The x values must be distinct.");
+        }
+        if (count == xs.length) {
+            xs = Arrays.copyOf(xs, 2 * count);
+            newton = Arrays.copyOf(newton, 2 * count);
+            diagonal = Arrays.copyOf(diagonal, 2 * count);
+        }
+        double next = y; // f[x_j, ..., x], from j = count down to 0
+        for (int j = count - 1; j >= 0; j--) {
+            double difference = (next - diagonal[j]) / (x - xs[j]);
+            diagonal[j + 1] = next;
+            next = difference;
+        }
+        diagonal[0] = next;
+        newton[count] = next;
+        xs[count] = x;
+        count++;
+    }
+
+    /**
+     * Returns the number of samples added.
+     *
+     * @return The number of samples.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Evaluates the interpolating polynomial in Newton form.
+     *
+     * @param x The value at which to evaluate.
+     * @return The value of the interpolating polynomial.
+     */
+    public double evaluate(double x) {
+        if (count == 0) return 0;
+        double sum = newton[count - 1];
+        for (int j = count - 2; j >= 0; j--) {
+            sum = sum * (x - xs[j]) + newton[j];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the interpolating polynomial of the samples added so far.
+     *
+     * @return A new Polynomial of degree below the number of samples.
+     */
+    public Polynomial toPolynomial() {
+        if (count == 0) return new Polynomial();
+        double[] coefs = new double[count];
+        coefs[0] = newton[count - 1];
+        for (int j = count - 2; j >= 0; j--) { // coefs = coefs * (x - x_j) + newton[j]
+            int degree = count - 2 - j;
+            for (int k = degree + 1; k > 0; k--) {
+                coefs[k] = coefs[k - 1] - xs[j] * coefs[k];
+            }
+            coefs[0] = newton[j] - xs[j] * coefs[0];
+        }
+        return Polynomial.fromCoefficients(coefs, literal);
+    }
+}
@@ -0,0 +1,337 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Multiplies polynomials with exact integer coefficients through number-theoretic transforms.
+ * The operands are reduced modulo several word-sized primes of the form m * 2^k + 1, each
+ * residue product is computed with an NTT, and the coefficients are recombined with the
+ * Chinese remainder theorem. Enough primes are used to cover the largest possible coefficient
+ * of the product, so the result is exact.
+ */
+public class NttMultiplier {
+    private static final int MAX_LOG_LENGTH = 22; // every prime supports transforms up to 2^22 points
+    private static final List<long[]> PRIMES = findPrimes(); // each entry holds a prime and a primitive root
+    private static int nttThreshold = 32; // shorter operand length from which the NTT is used
+
+    private NttMultiplier() {
+    }
+
+    /**
+     * Returns the shorter operand length from which the NTT is used.
+     *
+     * @return The NTT threshold.
+     */
+    public static int getNttThreshold() {
+        return nttThreshold;
+    }
+
+    /**
+     * Sets the shorter operand length from which the NTT is used.
+     *
+     * @param threshold The NTT threshold, at least 1.
+     */
+    public static void setNttThreshold(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("The NTT threshold must be at least 1.");
+        nttThreshold = threshold;
+    }
+
+    /**
+     * Multiplies two integer coefficient arrays indexed by degree. Small operands, and operands
+     * whose product would need more primes than are available, use schoolbook multiplication.
+     *
+     * @param a The first operand, non-empty.
+     * @param b The second operand, non-empty.
+     * @return The exact product, of length a.length + b.length - 1.
+     */
+    public static BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+        int resultLength = a.length + b.length - 1;
+        int shorter = Math.min(a.length, b.length);
+        // |c_k| <= shorter * max|a| * max|b|, and one more bit covers the sign
+        long bound = maxBits(a) + maxBits(b) + 64 - Long.numberOfLeadingZeros(shorter) + 1;
+        int primes = (int) (bound / 30) + 1; // every prime exceeds 2^30
+        if (shorter < nttThreshold || primes > PRIMES.size() || resultLength > (1 << MAX_LOG_LENGTH)) {
+            return schoolbook(a, b);
+        }
+
+        int size = 1;
+        while (size < resultLength) size <<= 1;
+        long[][] residues = new long[primes][];
+        for (int i = 0; i < primes; i++) {
+            long p = PRIMES.get(i)[0];
+            long root = PRIMES.get(i)[1];
+            long[] x = reduce(a, p, size);
+            long[] y = reduce(b, p, size);
+            transform(x, p, root, false);
+            transform(y, p, root, false);
+            for (int k = 0; k < size; k++) {
+                x[k] = x[k] * y[k] % p;
+            }
+            transform(x, p, root, true);
+            residues[i] = x;
+        }
+        return recombine(residues, primes, resultLength);
+    }
+
+    /**
+     * Returns the number of primes available for modular arithmetic.
+     *
+     * @return The number of primes.
+     */
+    static int primeCount() {
+        return PRIMES.size();
+    }
+
+    /**
+     * Returns one of the primes used for modular arithmetic. Every prime is below 2^31 and
+     * supports transforms of up to 2^22 points.
+     *
+     * @param index The index of the prime, below primeCount.
+     * @return The prime.
+     */
+    static long prime(int index) {
+        return PRIMES.get(index)[0];
+    }
+
+    /**
+     * Multiplies two polynomials with coefficients reduced modulo one of the primes.
+     *
+     * @param a     The first operand, with coefficients in [0, p).
+     * @param b     The second operand, with coefficients in [0, p).
+     * @param index The index of the prime p.
+     * @return The product modulo p, of length a.length + b.length - 1, or empty if an operand is.
+     */
+    static long[] multiplyModulo(long[] a, long[] b, int index) {
+        if (a.length == 0 || b.length == 0) return new long[0];
+        long p = PRIMES.get(index)[0];
+        int resultLength = a.length + b.length - 1;
+        if (Math.min(a.length, b.length) < nttThreshold || resultLength > (1 << MAX_LOG_LENGTH)) {
+            long[] product = new long[resultLength];
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] == 0) continue;
+                for (int j = 0; j < b.length; j++) {
+                    product[i + j] = (product[i + j] + a[i] * b[j]) % p;
+                }
+            }
+            return product;
+        }
+        int size = 1;
+        while (size < resultLength) size <<= 1;
+        long root = PRIMES.get(index)[1];
+        long[] x = Arrays.copyOf(a, size);
+        long[] y = Arrays.copyOf(b, size);
+        transform(x, p, root, false);
+        transform(y, p, root, false);
+        for (int k = 0; k < size; k++) {
+            x[k] = x[k] * y[k] % p;
+        }
+        transform(x, p, root, true);
+        return Arrays.copyOf(x, resultLength);
+    }
+
+    /**
+     * Multiplies two integer coefficient arrays with the nested loop.
+     *
+     * @param a The first operand.
+     * @param b The second operand.
+     * @return The exact product.
+     */
+    static BigInteger[] schoolbook(BigInteger[] a, BigInteger[] b) {
+        BigInteger[] product = new BigInteger[a.length + b.length - 1];
+        Arrays.fill(product, BigInteger.ZERO);
+        for (int i = 0; i < a.length; i++) {
+            if (a[i].signum() == 0) continue;
+            for (int j = 0; j < b.length; j++) {
+                product[i + j] = product[i + j].add(a[i].multiply(b[j]));
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Recombines residues with Garner's algorithm into coefficients in the symmetric range
+     * around zero.
+     *
+     * @param residues The residues of each coefficient for each prime.
+     * @param primes   The number of primes used.
+     * @param length   The number of coefficients.
+     * @return The coefficients.
+     */
+    private static BigInteger[] recombine(long[][] residues, int primes, int length) {
+        long[] p = new long[primes];
+        BigInteger modulus = BigInteger.ONE;
+        for (int i = 0; i < primes; i++) {
+            p[i] = PRIMES.get(i)[0];
+            modulus = modulus.multiply(BigInteger.valueOf(p[i]));
+        }
+        BigInteger half = modulus.shiftRight(1);
+        long[][] inverse = new long[primes][primes]; // inverse[j][i] = p_j^-1 mod p_i
+        for (int i = 0; i < primes; i++) {
+            for (int j = 0; j < i; j++) {
+                inverse[j][i] = power(p[j] % p[i], p[i] - 2, p[i]);
+            }
+        }
+
+        BigInteger[] result = new BigInteger[length];
+        long[] digits = new long[primes];
+        for (int k = 0; k < length; k++) {
+            for (int i = 0; i < primes; i++) { // mixed-radix digits: x = d0 + p0 * (d1 + p1 * (d2 + ...))
+                long value = residues[i][k];
+                for (int j = 0; j < i; j++) {
+                    value = Math.floorMod(value - digits[j], p[i]) * inverse[j][i] % p[i];
+                }
+                digits[i] = value;
+            }
+            BigInteger x = BigInteger.valueOf(digits[primes - 1]);
+            for (int i = primes - 2; i >= 0; i--) {
+                x = x.multiply(BigInteger.valueOf(p[i])).add(BigInteger.valueOf(digits[i]));
+            }
+            result[k] = x.compareTo(half) > 0 ? x.subtract(modulus) : x;
+        }
+        return result;
+    }
+
+    /**
+     * Reduces coefficients modulo a prime into a zero-padded transform buffer.
+     *
+     * @param values The coefficients.
+     * @param p      The prime.
+     * @param size   The transform length.
+     * @return The residues.
+     */
+    private static long[] reduce(BigInteger[] values, long p, int size) {
+        long[] result = new long[size];
+        BigInteger modulus = BigInteger.valueOf(p);
+        for (int i = 0; i < values.length; i++) {
+            BigInteger value = values[i];
+            result[i] = value.bitLength() < 63 ? Math.floorMod(value.longValue(), p) : value.mod(modulus).longValue();
+        }
+        return result;
+    }
+
+    /**
+     * Runs an in-place iterative NTT modulo a prime. The inverse transform is scaled by 1 / n.
+     *
+     * @param values  The residues, of a power of two length.
+     * @param p       The prime.
+     * @param root    A primitive root modulo p.
+     * @param inverse Whether to run the inverse transform.
+     */
+    private static void transform(long[] values, long p, long root, boolean inverse) {
+        int n = values.length;
+        for (int i = 1, j = 0; i < n; i++) { // bit-reversal permutation
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) j ^= bit;
+            j ^= bit;
+            if (i < j) {
+                long t = values[i]; values[i] = values[j]; values[j] = t;
+            }
+        }
+        for (int length = 2; length <= n; length <<= 1) {
+            long w = power(root, (p - 1) / length, p);
+            if (inverse) w = power(w, p - 2, p);
+            int half = length >> 1;
+            long[] twiddles = new long[half];
+            twiddles[0] = 1;
+            for (int k = 1; k < half; k++) {
+                twiddles[k] = twiddles[k - 1] * w % p;
+            }
+            for (int start = 0; start < n; start += length) {
+                for (int k = 0; k < half; k++) {
+                    int u = start + k, v = u + half;
+                    long x = values[u];
+                    long y = values[v] * twiddles[k] % p;
+                    values[u] = x + y >= p ? x + y - p : x + y;
+                    values[v] = x - y < 0 ? x - y + p : x - y;
+                }
+            }
+        }
+        if (inverse) {
+            long scale = power(n, p - 2, p);
+            for (int i = 0; i < n; i++) {
+                values[i] = values[i] * scale % p;
+            }
+        }
+    }
+
+    /**
+     * Raises a value to a power modulo a prime below 2^31.
+     *
+     * @param base     The value.
+     * @param exponent The exponent.
+     * @param p        The prime.
+     * @return base^exponent mod p.
+     */
+    static long power(long base, long exponent, long p) {
+        long result = 1;
+        base %= p;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) result = result * base % p;
+            base = base * base % p;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the largest bit length among the coefficients.
+     *
+     * @param values The coefficients.
+     * @return The largest bit length.
+     */
+    private static long maxBits(BigInteger[] values) {
+        long bits = 0;
+        for (BigInteger value : values) {
+            bits = Math.max(bits, value.bitLength());
+        }
+        return bits;
+    }
+
+    /**
+     * Finds every prime of the form m * 2^22 + 1 between 2^30 and 2^31, together with a
+     * primitive root for each.
+     *
+     * @return The primes in descending order, each paired with a primitive root.
+     */
+    private static List<long[]> findPrimes() {
+        List<long[]> primes = new ArrayList<>();
+        long step = 1L << MAX_LOG_LENGTH;
+        for (long m = (1L << 31) / step - 1; m * step + 1 > (1L << 30); m--) {
+            long p = m * step + 1;
+            if (!BigInteger.valueOf(p).isProbablePrime(40)) continue;
+            primes.add(new long[]{p, primitiveRoot(p, m)});
+        }
+        return primes;
+    }
+
+    /**
+     * Finds a primitive root modulo a prime p = m * 2^k + 1.
+     *
+     * @param p The prime.
+     * @param m The odd part of p - 1, up to powers of two.
+     * @return The smallest primitive root.
+     */
+    private static long primitiveRoot(long p, long m) {
+        List<Long> factors = new ArrayList<>();
+        factors.add(2L);
+        long rest = m;
+        for (long f = 2; f * f <= rest; f++) {
+            if (rest % f != 0) continue;
+            factors.add(f);
+            while (rest % f == 0) rest /= f;
+        }
+        if (rest > 1) factors.add(rest);
+
+        for (long g = 2; ; g++) {
+            boolean primitive = true;
+            for (long factor : factors) {
+                if (power(g, (p - 1) / factor, p) == 1) {
+                    primitive = false;
+                    break;
+                }
+            }
+            if (primitive) return g;
+        }
+    }
+}
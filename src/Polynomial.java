@@ -2,30 +2,105 @@
  * Represents a polynomial with a list of terms. Each term consists of a coefficient,
  * a literal, and a degree. Provides methods to manipulate polynomials including addition,
  * subtraction, multiplication, division, and evaluation.
+ * <p>
+ * A Polynomial is stored in one of two forms. The sparse form is a list of terms sorted by
+ * descending degree. The dense form is a primitive array of coefficients indexed by degree,
+ * which costs 8 bytes per coefficient. The form is chosen automatically from the ratio of
+ * non-zero terms to the degree, and every operation works against either form.
+ * <p>
+ * The arithmetic operations, evaluate and addTerm are recorded by PolynomialMetrics and
+ * reported to JDK Flight Recorder while PolynomialMetrics is enabled.
  *
  * @author Giovanni M. Leo
  * @since October 5, 2023
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.function.DoubleUnaryOperator;
 
 public class Polynomial {
-    private LinkedList<Term> terms; // data member to reference a
+    private static final int MIN_DENSE_TERMS = 4; // polynomials with fewer terms always stay sparse
+    private static final int EVALUATE_BLOCK = 512; // values per block in the batch evaluation
+    private static volatile double denseThreshold = 0.25; // minimum ratio of non-zero terms to degree + 1 for the dense form
+
+    private LinkedList<Term> terms; // sparse form, terms sorted by descending degree; null while dense
+    private double[] coefficients; // dense form, coefficient of degree i at index i; null while sparse
+    private int degree; // highest degree with a non-zero coefficient in the dense form
+    private int termCount; // number of non-zero coefficients in the dense form
+    private char literal = 'x'; // literal of the dense form
+    private DoubleUnaryOperator compiled; // cached result of compile, cleared on every change
+    private PolynomialCompiler.Scheme compiledScheme; // scheme of the cached compiled form
+    private boolean termsShared; // whether getTerms or setTerms handed the term list to a caller, which keeps it sparse
 
     public Polynomial() {
         terms = new LinkedList<>();
     }
 
+    /**
+     * Creates a Polynomial from coefficients indexed by degree, choosing the dense or sparse form.
+     *
+     * @param coefficients The coefficients, where index i holds the coefficient of degree i.
+     * @param literal      The literal of the Polynomial.
+     * @return The resulting Polynomial.
+     */
+    public static Polynomial fromCoefficients(double[] coefficients, char literal) {
+        return wrap(Arrays.copyOf(coefficients, coefficients.length), literal);
+    }
+
+    /**
+     * Returns the minimum ratio of non-zero terms to degree + 1 at which the dense form is used.
+     *
+     * @return The density threshold.
+     */
+    public static double getDenseThreshold() {
+        return denseThreshold;
+    }
+
+    /**
+     * Sets the minimum ratio of non-zero terms to degree + 1 at which the dense form is used.
+     * A value above 1 keeps every Polynomial in the sparse form.
+     *
+     * @param threshold The density threshold.
+     */
+    public static void setDenseThreshold(double threshold) {
+        if (threshold <= 0) throw new IllegalArgumentException("The density threshold must be positive.");
+        denseThreshold = threshold;
+    }
+
     /**
      * Adds a term to the Polynomial, simplifying it if necessary.
      *
      * @param newTerm The term to add.
      */
     public void addTerm(Term newTerm) {
+        PolynomialOperationEvent event = PolynomialMetrics.begin();
+        insertTerm(newTerm);
+        if (event != null) {
+            PolynomialMetrics.end(event, PolynomialMetrics.Operation.ADD_TERM, getDegree(), getTermCount(),
+                    -1, 1, coefficients != null ? "DENSE" : "SPARSE");
+        }
+    }
+
+    /**
+     * Adds a term to the Polynomial without recording it in PolynomialMetrics.
+     *
+     * @param newTerm The term to add.
+     */
+    private void insertTerm(Term newTerm) {
+        compiled = null;
+
+        if (coefficients != null) {
+            if (addDenseTerm(newTerm.getCoefficient(), newTerm.getDegree())) return;
+            toSparse(); // the term does not fit the dense form
+        }
 
         int indexToInsert = 0; //initial index to insert or at the start
 
-        for (Term term : this.getTerms()) {
+        for (Term term : terms) {
 
             if (newTerm.getDegree() > term.getDegree()) { //found the index where the newTerm will be inserted
                 break;
@@ -43,64 +118,397 @@ public class Polynomial {
         }
 
         terms.add(indexToInsert, newTerm); // insert the newTerm depending on the index
+
+        if (terms.size() >= MIN_DENSE_TERMS && terms.getLast().getDegree() >= 0
+                && isDenseEnough(terms.size(), terms.getFirst().getDegree(), denseThreshold)) {
+            toDense();
+        }
     }
 
 
     /**
-     * Evaluates the Polynomial for a given value.
+     * Evaluates the Polynomial for a given value using Horner's scheme. Gaps between the
+     * degrees of consecutive terms are bridged with a single power of the value.
      *
      * @param value The value at which to evaluate the Polynomial.
      * @return The result of the evaluation.
      */
     public double evaluate(double value) {
+        PolynomialOperationEvent event = PolynomialMetrics.begin();
+        if (event == null) return evaluateAt(value);
+        double result = evaluateAt(value);
+        PolynomialMetrics.end(event, PolynomialMetrics.Operation.EVALUATE, getDegree(), getTermCount(),
+                -1, 1, coefficients != null ? "DENSE" : "SPARSE");
+        return result;
+    }
+
+    /**
+     * Evaluates the Polynomial without recording it in PolynomialMetrics.
+     *
+     * @param value The value at which to evaluate the Polynomial.
+     * @return The result of the evaluation.
+     */
+    private double evaluateAt(double value) {
         double sum = 0;
+        if (coefficients != null) {
+            for (int i = degree; i >= 0; i--) {
+                sum = sum * value + coefficients[i];
+            }
+            return sum;
+        }
+        if (terms == null || terms.isEmpty()) return 0;
+        int previousDegree = terms.getFirst().getDegree();
         for (Term currTerm : terms) {
-            sum += currTerm.getCoefficient() * Math.pow(value, currTerm.getDegree());
+            sum = sum * power(value, previousDegree - currTerm.getDegree()) + currTerm.getCoefficient();
+            previousDegree = currTerm.getDegree();
         }
-        return sum;
+        return sum * power(value, previousDegree); // the lowest degree may be above or below zero
     }
 
 
     /**
-     * Adds another Polynomial to this Polynomial.
+     * Evaluates the Polynomial at many values at once. The values are processed in blocks
+     * small enough to stay in cache, and each Horner step runs across a whole block so the
+     * inner loop is a plain multiply-add over arrays that the JIT compiles to vector code.
+     * The same array may be passed as values and results to evaluate in place.
      *
-     * @param otherPolynomial The Polynomial to add.
-     * @return The resulting Polynomial after addition.
+     * @param values  The values at which to evaluate the Polynomial.
+     * @param results The array receiving the results, at least as long as values.
      */
-    public Polynomial add(Polynomial otherPolynomial) {
-        Polynomial result = new Polynomial();
+    public void evaluate(double[] values, double[] results) {
+        if (results.length < values.length) {
+            throw new IllegalArgumentException("The results array is shorter than the values array.");
+        }
+        PolynomialOperationEvent event = PolynomialMetrics.begin();
+        if (values == results) {
+            evaluateInPlace(values);
+        } else {
+            evaluateBlocks(values, values.length, results);
+        }
+        if (event != null) {
+            PolynomialMetrics.end(event, PolynomialMetrics.Operation.EVALUATE_BATCH, getDegree(), getTermCount(),
+                    -1, values.length, coefficients != null ? "DENSE" : "SPARSE");
+        }
+    }
 
-        for (Term term : this.getTerms()) { // deep copy each terms of the Polynomial that invoked the method to avoid mutations
-            result.getTerms().add(new Term(term.getCoefficient(), term.getLiteral(), term.getDegree()));
+    /**
+     * Replaces values with the values of the Polynomial at them, one block at a time. Each
+     * block is copied out first, since the Horner steps overwrite the results from the start.
+     *
+     * @param values The values at which to evaluate the Polynomial, overwritten by the results.
+     */
+    private void evaluateInPlace(double[] values) {
+        int length = Math.min(values.length, EVALUATE_BLOCK);
+        double[] block = new double[length]; // values of the current block
+        double[] results = new double[length]; // results of the current block
+        for (int start = 0; start < values.length; start += length) {
+            int n = Math.min(length, values.length - start);
+            System.arraycopy(values, start, block, 0, n);
+            evaluateBlocks(block, n, results);
+            System.arraycopy(results, 0, values, start, n);
         }
+    }
 
-        for (Term term : otherPolynomial.getTerms()) { // add all terms together
-            result.addTerm(new Term(term.getCoefficient(), term.getLiteral(), term.getDegree()));
+    /**
+     * Evaluates the Polynomial at many values, block by block.
+     *
+     * @param values  The values at which to evaluate the Polynomial.
+     * @param n       The number of values to evaluate.
+     * @param results The array receiving the results, another array at least n long.
+     */
+    private void evaluateBlocks(double[] values, int n, double[] results) {
+        for (int start = 0; start < n; start += EVALUATE_BLOCK) {
+            int end = Math.min(start + EVALUATE_BLOCK, n);
+            if (coefficients != null) {
+                double lead = coefficients[degree];
+                for (int i = start; i < end; i++) {
+                    results[i] = lead;
+                }
+                for (int k = degree - 1; k >= 0; k--) {
+                    double coef = coefficients[k];
+                    for (int i = start; i < end; i++) {
+                        results[i] = results[i] * values[i] + coef;
+                    }
+                }
+            } else if (terms == null || terms.isEmpty()) {
+                for (int i = start; i < end; i++) {
+                    results[i] = 0;
+                }
+            } else {
+                int previousDegree = terms.getFirst().getDegree();
+                for (int i = start; i < end; i++) {
+                    results[i] = 0;
+                }
+                for (Term currTerm : terms) {
+                    int gap = previousDegree - currTerm.getDegree();
+                    double coef = currTerm.getCoefficient();
+                    if (gap == 1) {
+                        for (int i = start; i < end; i++) {
+                            results[i] = results[i] * values[i] + coef;
+                        }
+                    } else {
+                        for (int i = start; i < end; i++) {
+                            results[i] = results[i] * power(values[i], gap) + coef;
+                        }
+                    }
+                    previousDegree = currTerm.getDegree();
+                }
+                if (previousDegree != 0) {
+                    for (int i = start; i < end; i++) {
+                        results[i] *= power(values[i], previousDegree);
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Compiles the Polynomial into an evaluation function of generated straight-line code, with
+     * the scheme that suits its shape; see PolynomialCompiler. The function is a snapshot: later
+     * changes to the Polynomial do not affect it. It is cached until the Polynomial changes, so
+     * calling compile again is cheap.
+     *
+     * @return The evaluation function.
+     */
+    public DoubleUnaryOperator compile() {
+        return compile(null);
+    }
+
+    /**
+     * Compiles the Polynomial into an evaluation function of generated straight-line code with a
+     * given scheme. The result agrees with evaluate up to rounding; a Horner function of a dense
+     * Polynomial computes exactly the same operations.
+     *
+     * @param scheme The evaluation scheme, or null to choose from the shape of the Polynomial.
+     * @return The evaluation function.
+     */
+    public DoubleUnaryOperator compile(PolynomialCompiler.Scheme scheme) {
+        if (compiled != null && (scheme == null || scheme == compiledScheme)) return compiled;
+        int count = getTermCount();
+        int[] degrees = new int[count];
+        double[] coefs = new double[count];
+        copyTerms(degrees, coefs);
+        if (!isSorted(degrees, count)) {
+            count = PolynomialBuilder.sortAndCombine(degrees.clone(), coefs.clone(), count, degrees, coefs); // a term list was set out of order
+        }
+        int nonZero = 0;
+        for (int i = 0; i < count; i++) {
+            if (coefs[i] == 0) continue;
+            degrees[nonZero] = degrees[i];
+            coefs[nonZero++] = coefs[i];
         }
+        PolynomialCompiler.Scheme chosen = scheme != null ? scheme : PolynomialCompiler.select(degrees, nonZero);
+        DoubleUnaryOperator function = PolynomialCompiler.compile(degrees, coefs, nonZero, chosen);
+        if (termsShared) return function; // the caller may change the terms through the list at any time
+        compiled = function;
+        compiledScheme = chosen;
+        return function;
+    }
+
 
+    /**
+     * Adds another Polynomial to this Polynomial. Sparse operands are merged in one pass over
+     * their sorted terms.
+     *
+     * @param otherPolynomial The Polynomial to add.
+     * @return The resulting Polynomial after addition.
+     */
+    public Polynomial add(Polynomial otherPolynomial) {
+        PolynomialOperationEvent event = PolynomialMetrics.begin();
+        if (event == null) return sum(otherPolynomial);
+        String algorithm = useDenseArithmetic(otherPolynomial) ? "DENSE" : "MERGE";
+        Polynomial result = sum(otherPolynomial);
+        PolynomialMetrics.end(event, PolynomialMetrics.Operation.ADD, this, otherPolynomial, algorithm);
         return result;
     }
 
 
     /**
-     * Subtracts another Polynomial from this Polynomial.
+     * Adds another Polynomial to this Polynomial without recording it in PolynomialMetrics.
+     *
+     * @param otherPolynomial The other operand.
+     * @return The result.
+     */
+    private Polynomial sum(Polynomial otherPolynomial) {
+        if (useDenseArithmetic(otherPolynomial)) {
+            double[] sum = new double[Math.max(this.getDegree(), otherPolynomial.getDegree()) + 1];
+            this.accumulateInto(sum, 1);
+            otherPolynomial.accumulateInto(sum, 1);
+            return wrap(sum, getLiteral());
+        }
+        return merge(otherPolynomial, 1);
+    }
+
+
+    /**
+     * Subtracts another Polynomial from this Polynomial. Sparse operands are merged in one pass
+     * over their sorted terms.
      *
      * @param otherPolynomial The Polynomial to subtract.
      * @return The resulting Polynomial after subtraction.
      */
     public Polynomial subtract(Polynomial otherPolynomial) {
-        Polynomial result = new Polynomial();
+        PolynomialOperationEvent event = PolynomialMetrics.begin();
+        if (event == null) return difference(otherPolynomial);
+        String algorithm = useDenseArithmetic(otherPolynomial) ? "DENSE" : "MERGE";
+        Polynomial result = difference(otherPolynomial);
+        PolynomialMetrics.end(event, PolynomialMetrics.Operation.SUBTRACT, this, otherPolynomial, algorithm);
+        return result;
+    }
+
+
+    /**
+     * Subtracts another Polynomial from this Polynomial without recording it in PolynomialMetrics.
+     *
+     * @param otherPolynomial The other operand.
+     * @return The result.
+     */
+    private Polynomial difference(Polynomial otherPolynomial) {
+        if (useDenseArithmetic(otherPolynomial)) {
+            double[] difference = new double[Math.max(this.getDegree(), otherPolynomial.getDegree()) + 1];
+            this.accumulateInto(difference, 1);
+            otherPolynomial.accumulateInto(difference, -1);
+            return wrap(difference, getLiteral());
+        }
+        return merge(otherPolynomial, -1);
+    }
+
 
+    /**
+     * Adds another Polynomial to this Polynomial in place.
+     *
+     * @param otherPolynomial The Polynomial to add.
+     */
+    public void addInPlace(Polynomial otherPolynomial) {
+        axpy(1, otherPolynomial);
+    }
 
-        for (Term term : this.getTerms()) { // deep copy each terms of the Polynomial that invoked the method to avoid mutations
-            result.getTerms().add(new Term(term.getCoefficient(), term.getLiteral(), term.getDegree()));
+
+    /**
+     * Subtracts another Polynomial from this Polynomial in place.
+     *
+     * @param otherPolynomial The Polynomial to subtract.
+     */
+    public void subtractInPlace(Polynomial otherPolynomial) {
+        axpy(-1, otherPolynomial);
+    }
+
+
+    /**
+     * Adds a multiple of another Polynomial to this Polynomial in place, this += factor * x.
+     * A dense Polynomial accumulates into its own coefficient array and a sparse one merges the
+     * terms into its list with one iterator, so only terms for new degrees are allocated.
+     *
+     * @param factor The factor applied to the other Polynomial.
+     * @param x      The Polynomial to add.
+     */
+    public void axpy(double factor, Polynomial x) {
+        if (factor == 0 || x.getTermCount() == 0) return;
+        compiled = null;
+        if (x == this) {
+            scaleInPlace(1 + factor);
+            return;
+        }
+        if (!termsShared && useDenseArithmetic(x)) {
+            makeDense(x.getDegree() + 1, x.getLiteral());
+            x.accumulateInto(coefficients, factor);
+            recount();
+            return;
         }
+        if (coefficients != null) toSparse();
+        LinkedList<Term> other = x.termList();
+        if (!isSorted(terms) || !isSorted(other)) {
+            for (Term term : other) insertTerm(new Term(factor * term.getCoefficient(), term.getLiteral(), term.getDegree()));
+            return;
+        }
+        ListIterator<Term> it = terms.listIterator();
+        for (Term term : other) {
+            mergeTerm(it, factor * term.getCoefficient(), term.getDegree(), term.getLiteral());
+        }
+        densifyIfNeeded();
+    }
 
-        for (Term term : otherPolynomial.getTerms()) {
-            result.addTerm(new Term(term.getCoefficient() * -1, term.getLiteral(), term.getDegree())); // invert the coefficient
+
+    /**
+     * Adds the product of two Polynomials to this Polynomial in place, this += q * r. When the
+     * product is best computed by schoolbook multiplication, it is accumulated straight into the
+     * coefficient array; otherwise the product is computed into a temporary array or term buffer
+     * and merged without creating a Polynomial for it.
+     *
+     * @param q The first factor.
+     * @param r The second factor.
+     */
+    public void addProduct(Polynomial q, Polynomial r) {
+        int termsQ = q.getTermCount();
+        int termsR = r.getTermCount();
+        if (termsQ == 0 || termsR == 0) return;
+        compiled = null;
+        if (q == this || r == this) {
+            axpy(1, q.multiply(r)); // the product reads the operand being updated
+            return;
         }
+        boolean arrays = q.isDenseCompatible() && r.isDenseCompatible();
+        PolynomialMultiplier.Algorithm algorithm = PolynomialMultiplier.select(
+                q.getDegree() + 1, termsQ, r.getDegree() + 1, termsR, arrays);
+        char productLiteral = r.getLiteral();
 
-        return result;
+        if (algorithm == PolynomialMultiplier.Algorithm.SPARSE) {
+            int[] degreesQ = new int[termsQ];
+            double[] coefsQ = new double[termsQ];
+            int[] degreesR = new int[termsR];
+            double[] coefsR = new double[termsR];
+            q.copyTerms(degreesQ, coefsQ);
+            r.copyTerms(degreesR, coefsR);
+            PolynomialMultiplier.SparseProduct product = PolynomialMultiplier.multiplySparse(
+                    degreesQ, coefsQ, termsQ, degreesR, coefsR, termsR);
+            int[] degrees = product.getDegrees();
+            double[] coefs = product.getCoefficients();
+            int size = product.size();
+            if (size == 0) return;
+            if (coefficients != null && degrees[size - 1] >= 0
+                    && isDenseEnough(termCount + size, Math.max(degree, degrees[0]), denseThreshold)) {
+                makeDense(degrees[0] + 1, productLiteral);
+                for (int i = 0; i < size; i++) coefficients[degrees[i]] += coefs[i];
+                recount();
+                return;
+            }
+            if (coefficients != null) toSparse();
+            if (!isSorted(terms)) {
+                for (int i = 0; i < size; i++) insertTerm(new Term(coefs[i], productLiteral, degrees[i]));
+                return;
+            }
+            ListIterator<Term> it = terms.listIterator();
+            for (int i = 0; i < size; i++) mergeTerm(it, coefs[i], degrees[i], productLiteral);
+            densifyIfNeeded();
+            return;
+        }
+
+        if (termsShared || !isDenseCompatible()) {
+            axpy(1, wrap(PolynomialMultiplier.multiply(q.coefficientArray(), q.getDegree() + 1,
+                    r.coefficientArray(), r.getDegree() + 1, algorithm), productLiteral));
+            return;
+        }
+        int lengthQ = q.getDegree() + 1;
+        int lengthR = r.getDegree() + 1;
+        double[] a = q.coefficientArray();
+        double[] b = r.coefficientArray();
+        makeDense(lengthQ + lengthR - 1, productLiteral);
+        if (algorithm == PolynomialMultiplier.Algorithm.SCHOOLBOOK) {
+            for (int i = 0; i < lengthQ; i++) {
+                double ai = a[i];
+                if (ai == 0) continue;
+                for (int j = 0; j < lengthR; j++) {
+                    coefficients[i + j] += ai * b[j];
+                }
+            }
+        } else {
+            double[] product = PolynomialMultiplier.multiply(a, lengthQ, b, lengthR, algorithm);
+            for (int i = 0; i < product.length; i++) {
+                coefficients[i] += product[i];
+            }
+        }
+        recount();
     }
 
 
@@ -109,29 +517,91 @@ public class Polynomial {
      *
      * @param otherPolynomial The Polynomial to multiply by.
      * @return The resulting Polynomial after multiplication.
+     * @throws ArithmeticException If a degree of the product does not fit in an int.
      */
     public Polynomial multiply(Polynomial otherPolynomial) {
+        PolynomialOperationEvent event = PolynomialMetrics.begin();
+        if (event == null) return product(otherPolynomial);
+        String algorithm = selectMultiplication(otherPolynomial).name();
+        Polynomial result = product(otherPolynomial);
+        PolynomialMetrics.end(event, PolynomialMetrics.Operation.MULTIPLY, this, otherPolynomial, algorithm);
+        return result;
+    }
 
-        Polynomial result = new Polynomial();
-
-        for(Term firstPolyTerm: this.getTerms()) { // loop on each Terms of the Polynomial that invoked the method
 
+    /**
+     * Multiplies this Polynomial by another Polynomial without recording it in PolynomialMetrics.
+     *
+     * @param otherPolynomial The other operand.
+     * @return The result.
+     */
+    private Polynomial product(Polynomial otherPolynomial) {
+        int termsA = this.getTermCount();
+        int termsB = otherPolynomial.getTermCount();
+        if (termsA == 0 || termsB == 0) return new Polynomial();
 
-            //while looping through, multiply the current term on the iteration to the terms of the other polynomial
-            for(Term secondPolyTerm: otherPolynomial.getTerms()) {
-                Term newTerm = new Term();
-                newTerm.setCoefficient(firstPolyTerm.getCoefficient() * secondPolyTerm.getCoefficient());
-                newTerm.setDegree(firstPolyTerm.getDegree() + secondPolyTerm.getDegree());
-                newTerm.setLiteral(secondPolyTerm.getLiteral());
-                result.addTerm(newTerm); // add the term to the result
-            }
+        PolynomialMultiplier.Algorithm algorithm = selectMultiplication(otherPolynomial);
 
+        if (algorithm == PolynomialMultiplier.Algorithm.SPARSE) {
+            int[] degreesA = new int[termsA];
+            double[] coefsA = new double[termsA];
+            int[] degreesB = new int[termsB];
+            double[] coefsB = new double[termsB];
+            this.copyTerms(degreesA, coefsA);
+            otherPolynomial.copyTerms(degreesB, coefsB);
+            PolynomialMultiplier.SparseProduct product = PolynomialMultiplier.multiplySparse(
+                    degreesA, coefsA, termsA, degreesB, coefsB, termsB);
+            return fromSortedTerms(product.getDegrees(), product.getCoefficients(), product.size(),
+                    otherPolynomial.getLiteral());
         }
 
+        double[] product = PolynomialMultiplier.multiply(this.coefficientArray(), this.getDegree() + 1,
+                otherPolynomial.coefficientArray(), otherPolynomial.getDegree() + 1, algorithm);
+        return wrap(product, otherPolynomial.getLiteral());
+    }
+
+
+    /**
+     * Raises this Polynomial to a power by repeated squaring, so only about 2 log2(exponent)
+     * products are formed, each with the algorithm multiply would choose for it.
+     *
+     * @param exponent The exponent.
+     * @return The power, which is the constant 1 for exponent 0.
+     * @throws IllegalArgumentException If the exponent is negative.
+     */
+    public Polynomial pow(int exponent) {
+        if (exponent < 0) throw new IllegalArgumentException("The exponent must not be negative.");
+        Polynomial result = null;
+        Polynomial base = this;
+        while (true) {
+            if ((exponent & 1) != 0) result = result == null ? base : result.product(base);
+            exponent >>>= 1;
+            if (exponent == 0) break;
+            base = base.product(base);
+        }
+        if (result == null) {
+            result = new Polynomial();
+            result.terms.add(new Term(1, getLiteral(), 0));
+        } else if (result == this) {
+            result = result.sum(new Polynomial()); // a copy, as for every other exponent
+        }
         return result;
     }
 
 
+    /**
+     * Chooses the multiplication algorithm for a product with another Polynomial.
+     *
+     * @param otherPolynomial The other factor.
+     * @return The algorithm.
+     */
+    private PolynomialMultiplier.Algorithm selectMultiplication(Polynomial otherPolynomial) {
+        boolean arrays = this.isDenseCompatible() && otherPolynomial.isDenseCompatible();
+        return PolynomialMultiplier.select(this.getDegree() + 1, this.getTermCount(),
+                otherPolynomial.getDegree() + 1, otherPolynomial.getTermCount(), arrays);
+    }
+
+
     /**
      * Divides this Polynomial by another Polynomial and returns the quotient and remainder.
      *
@@ -140,60 +610,203 @@ public class Polynomial {
      */
     public Quotient divide(Polynomial divisor) {
 
-        Quotient result = new Quotient();
+        if (divisor.getTermCount() == 0) throw new ArithmeticException("Division by a zero polynomial.");
+        PolynomialOperationEvent event = PolynomialMetrics.begin();
+        if (event == null) return quotient(divisor);
+        String algorithm;
+        if (!useDenseDivision(divisor)) {
+            algorithm = "SPARSE";
+        } else if (this.getDegree() < divisor.getDegree()) {
+            algorithm = "NONE";
+        } else {
+            algorithm = PolynomialDivider.usesNewton(this.getDegree() + 1, divisor.getDegree() + 1) ? "NEWTON" : "LONG";
+        }
+        Quotient result = quotient(divisor);
+        PolynomialMetrics.end(event, PolynomialMetrics.Operation.DIVIDE, this, divisor, algorithm);
+        return result;
+    }
 
-        Polynomial quotient = new Polynomial();
-        Polynomial remainder = new Polynomial();
 
-        LinkedList<Term> dividend = new LinkedList<>();
-        Term qTerm;
-        Polynomial subtrahend = new Polynomial();
+    /**
+     * Divides this Polynomial by a non-zero Polynomial without recording it in PolynomialMetrics.
+     *
+     * @param divisor The Polynomial to divide by.
+     * @return The quotient and remainder as a Quotient object.
+     */
+    private Quotient quotient(Polynomial divisor) {
 
-        for (int ctr = 0; ctr < this.getTerms().size(); ctr++) {
-            Term currentTerm = this.getTerms().get(ctr);
-            dividend.add(new Term(currentTerm.getCoefficient(), currentTerm.getLiteral(), currentTerm.getDegree()));
-        }
+        Quotient result = new Quotient();
 
-        remainder.setTerms(dividend);
+        Polynomial quotient = new Polynomial();
+        Polynomial remainder = new Polynomial();
 
-        while ( (remainder != null) && (remainder.getTerms().get(0).getDegree() >= divisor.getTerms().get(0).getDegree())) {
-            Term numTerm = remainder.getTerms().get(0);
-            Term divTerm = divisor.getTerms().get(0);
-            qTerm = new Term(numTerm.getCoefficient() / divTerm.getCoefficient(), numTerm.getLiteral(), numTerm.getDegree() - divTerm.getDegree());
-            quotient.addTerm(qTerm);
-            LinkedList<Term> pQTerm = new LinkedList<>();
-            pQTerm.add(qTerm);
-            Polynomial multiplier = new Polynomial();
-            multiplier.setTerms(pQTerm);
-            subtrahend = multiplier.multiply(divisor);
-            remainder = remainder.subtract(subtrahend);
+        if (useDenseDivision(divisor)) {
+            int dividendDegree = this.getDegree();
+            int divisorDegree = divisor.getDegree();
+            double[] r = new double[Math.max(dividendDegree, 0) + 1]; // single remainder buffer, divided in place
+            this.accumulateInto(r, 1);
+            double[] q = new double[Math.max(dividendDegree - divisorDegree, 0) + 1];
+            if (dividendDegree >= divisorDegree) {
+                PolynomialDivider.divideInPlace(r, dividendDegree + 1, divisor.coefficientArray(), divisorDegree + 1, q);
+            }
+            quotient = wrap(q, getLiteral());
+            remainder = wrap(r, getLiteral());
+        } else {
+            LinkedList<Term> dividend = new LinkedList<>();
+            for (Term currentTerm : this.termList()) {
+                dividend.add(new Term(currentTerm.getCoefficient(), currentTerm.getLiteral(), currentTerm.getDegree()));
+            }
+            int count = divisor.getTermCount();
+            int[] degrees = new int[count];
+            double[] coefs = new double[count];
+            divisor.copyTerms(degrees, coefs);
+            PolynomialDivider.divideInPlace(dividend, degrees, coefs, count, quotient.terms);
+            remainder.assignTerms(dividend);
         }
 
-        if (quotient.getTerms().size() == 0) quotient.addTerm(new Term(0, 'x', 0));
+        if (quotient.getTermCount() == 0) quotient.insertTerm(new Term(0, 'x', 0));
         result.setQuotientP(quotient);
-        if (remainder.getTerms().size() == 0) remainder.addTerm(new Term(0, 'x', 0));
+        if (remainder.getTermCount() == 0) remainder.insertTerm(new Term(0, 'x', 0));
         result.setRemainderP(remainder); // Invoke appropriate method to set remainder member of quotient
         return result;
     }
 
 
     /**
-     * Returns the list of terms in the Polynomial.
+     * Substitutes another Polynomial for the variable of this one. The powers of the inner
+     * Polynomial are combined by divide and conquer over fast multiplication, so the cost is
+     * a logarithmic factor above one multiplication of the size of the result. The coefficients
+     * are accurate relative to the largest coefficient of the composition of the polynomials of
+     * absolute coefficients, as detailed in PolynomialComposer.
+     *
+     * @param inner The Polynomial to substitute.
+     * @return The composition this(inner(x)), in the literal of inner unless inner is constant.
+     * @throws IllegalStateException If either Polynomial has a term with a negative degree.
+     */
+    public Polynomial compose(Polynomial inner) {
+        if (!this.isDenseCompatible() || !inner.isDenseCompatible()) {
+            throw new IllegalStateException("The polynomial has a term with a negative degree.");
+        }
+        char resultLiteral = inner.getDegree() > 0 ? inner.getLiteral() : getLiteral();
+        if (getTermCount() == 0) return new Polynomial();
+        double[] result = PolynomialComposer.compose(coefficientArray(), getDegree() + 1,
+                inner.coefficientArray(), inner.getDegree() + 1);
+        return wrap(result, resultLiteral);
+    }
+
+
+    /**
+     * Shifts the variable of this Polynomial by a constant. Short Polynomials are shifted by
+     * repeated synthetic division, whose coefficients are accurate relative to the same
+     * coefficient of |p|(x + |a|); longer ones by composition with x + a, accurate relative to
+     * the largest coefficient of |p|(x + |a|).
+     *
+     * @param a The shift.
+     * @return The Taylor shift this(x + a).
+     * @throws IllegalStateException If the Polynomial has a term with a negative degree.
+     */
+    public Polynomial shift(double a) {
+        if (!isDenseCompatible()) throw new IllegalStateException("The polynomial has a term with a negative degree.");
+        if (getTermCount() == 0) return new Polynomial();
+        return wrap(PolynomialComposer.shift(coefficientArray(), getDegree() + 1, a), getLiteral());
+    }
+
+
+    /**
+     * Returns the live list of terms in the Polynomial. A dense Polynomial is switched to the
+     * sparse form first, so that changes made to the returned list are reflected in the
+     * Polynomial.
+     * <p>
+     * From then on the list stays the storage of the Polynomial: operations keep it in the
+     * sparse form and update the list in place, so the list stays attached until setTerms
+     * replaces it. Such a Polynomial no longer switches to the dense form or caches its
+     * compiled form; copy the list instead if only the terms are needed.
      *
      * @return The list of terms.
      */
     public LinkedList<Term> getTerms() {
+        compiled = null; // the caller may change the terms through the list
+        if (coefficients != null) toSparse();
+        termsShared = true;
         return terms;
     }
 
 
     /**
-     * Sets the list of terms in the Polynomial.
+     * Sets the list of terms in the Polynomial. The list becomes the storage of the Polynomial,
+     * as with getTerms, so later changes to it are reflected in the Polynomial.
      *
      * @param t The list of terms to set.
      */
     public void setTerms(LinkedList<Term> t) {
+        assignTerms(t);
+        termsShared = true;
+    }
+
+    /**
+     * Replaces the terms with a list no caller holds, leaving the Polynomial free to switch forms.
+     *
+     * @param t The list of terms, sorted by descending degree.
+     */
+    void assignTerms(LinkedList<Term> t) {
+        compiled = null;
         terms = t;
+        coefficients = null;
+        termsShared = false;
+    }
+
+    /**
+     * Returns the highest degree among the terms of the Polynomial.
+     *
+     * @return The degree, or -1 if the Polynomial has no terms.
+     */
+    public int getDegree() {
+        if (coefficients != null) return degree;
+        if (terms == null || terms.isEmpty()) return -1;
+        return terms.getFirst().getDegree();
+    }
+
+    /**
+     * Returns the number of terms in the Polynomial.
+     *
+     * @return The number of terms.
+     */
+    public int getTermCount() {
+        if (coefficients != null) return termCount;
+        return terms == null ? 0 : terms.size();
+    }
+
+    /**
+     * Returns the literal of the Polynomial, which is 'x' if the Polynomial has no terms.
+     *
+     * @return The literal.
+     */
+    public char getLiteral() {
+        if (coefficients != null) return literal;
+        if (terms == null || terms.isEmpty()) return 'x';
+        return terms.getFirst().getLiteral();
+    }
+
+    /**
+     * Returns the coefficients of the Polynomial indexed by degree.
+     *
+     * @return A new array where index i holds the coefficient of degree i.
+     * @throws IllegalStateException If the Polynomial has a term with a negative degree.
+     */
+    public double[] getCoefficients() {
+        if (!isDenseCompatible()) throw new IllegalStateException("The polynomial has a term with a negative degree.");
+        double[] result = new double[getDegree() + 1];
+        accumulateInto(result, 1);
+        return result;
+    }
+
+    /**
+     * Returns whether the Polynomial is currently stored in the dense form.
+     *
+     * @return true if the coefficients are stored in an array indexed by degree.
+     */
+    public boolean isDense() {
+        return coefficients != null;
     }
 
     /**
@@ -203,30 +816,510 @@ public class Polynomial {
      */
     public String toString() {
         StringBuilder s = new StringBuilder();
-        if (terms == null) return " ";
-        for (int ctr = 0; ctr < terms.size(); ctr++) {
-            Term currTerm = terms.get(ctr);
+        try {
+            appendTo(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringBuilder does not throw
+        }
+        return s.toString();
+    }
 
-            if (currTerm.getCoefficient() > 0) {
-                if (ctr != 0) {
-                    s.append(" +");
-                }
+    /**
+     * Writes the string representation of the Polynomial to an Appendable, term by term, in
+     * time linear in the number of terms. The text is the same as the one of toString.
+     *
+     * @param out The Appendable to write to.
+     * @throws IOException If the Appendable fails.
+     */
+    public void appendTo(Appendable out) throws IOException {
+        if (coefficients != null) {
+            boolean first = true;
+            for (int i = degree; i >= 0; i--) {
+                if (coefficients[i] == 0) continue;
+                appendTerm(out, coefficients[i], i, literal, first);
+                first = false;
+            }
+            return;
+        }
+        if (terms == null) {
+            out.append(' ');
+            return;
+        }
+        if (terms.isEmpty()) return;
+        char termLiteral = terms.getFirst().getLiteral();
+        boolean first = true;
+        for (Term currTerm : terms) {
+            appendTerm(out, currTerm.getCoefficient(), currTerm.getDegree(), termLiteral, first);
+            first = false;
+        }
+    }
+
+    /**
+     * Appends a single term in the same format used for the sparse form.
+     *
+     * @param out     The Appendable to write to.
+     * @param coef    The coefficient of the term.
+     * @param degree  The degree of the term.
+     * @param literal The literal of the term.
+     * @param first   Whether the term is the first one written.
+     * @throws IOException If the Appendable fails.
+     */
+    private static void appendTerm(Appendable out, double coef, int degree, char literal, boolean first) throws IOException {
+        if (coef > 0) {
+            if (!first) {
+                out.append(" +");
+            }
+        } else {
+            out.append(" -");
+        }
+        if (coef != 1 || degree == 0) {
+            out.append(' ').append(Double.toString(Math.abs(coef)));
+        }
+        switch (degree) {
+            case 0:
+                break;
+            case 1:
+                out.append(literal);
+                break;
+            default:
+                out.append(literal).append('^').append(Integer.toString(degree));
+        }
+    }
+
+    /**
+     * Creates a Polynomial that takes ownership of the given coefficient array.
+     *
+     * @param coefs   The coefficients indexed by degree.
+     * @param literal The literal of the Polynomial.
+     * @return The resulting Polynomial in whichever form suits its density.
+     */
+    static Polynomial wrap(double[] coefs, char literal) {
+        Polynomial result = new Polynomial();
+        int top = coefs.length - 1;
+        while (top >= 0 && coefs[top] == 0) top--;
+        int count = 0;
+        for (int i = 0; i <= top; i++) {
+            if (coefs[i] != 0) count++;
+        }
+        if (count >= MIN_DENSE_TERMS && isDenseEnough(count, top, denseThreshold)) {
+            result.terms = null;
+            result.coefficients = coefs;
+            result.degree = top;
+            result.termCount = count;
+            result.literal = literal;
+        } else {
+            for (int i = top; i >= 0; i--) {
+                if (coefs[i] != 0) result.terms.add(new Term(coefs[i], literal, i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a Polynomial from terms sorted by descending degree with distinct degrees.
+     *
+     * @param degrees The degrees of the terms.
+     * @param coefs   The coefficients of the terms.
+     * @param count   The number of terms to use.
+     * @param literal The literal of the Polynomial.
+     * @return The resulting Polynomial in whichever form suits its density.
+     */
+    static Polynomial fromSortedTerms(int[] degrees, double[] coefs, int count, char literal) {
+        if (count >= MIN_DENSE_TERMS && degrees[count - 1] >= 0 && isDenseEnough(count, degrees[0], denseThreshold)) {
+            double[] dense = new double[degrees[0] + 1];
+            for (int i = 0; i < count; i++) {
+                dense[degrees[i]] += coefs[i];
+            }
+            return wrap(dense, literal);
+        }
+        Polynomial result = new Polynomial();
+        for (int i = 0; i < count; i++) {
+            if (coefs[i] != 0) result.terms.add(new Term(coefs[i], literal, degrees[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Adds or subtracts another Polynomial by merging the two sorted term sequences in one pass.
+     * Falls back to one sort-and-combine pass of PolynomialBuilder when a term list was set out of order.
+     *
+     * @param other The other Polynomial.
+     * @param sign  1 to add, -1 to subtract.
+     * @return The resulting Polynomial.
+     */
+    private Polynomial merge(Polynomial other, double sign) {
+        int countA = this.getTermCount();
+        int countB = other.getTermCount();
+        int[] degreesA = new int[countA];
+        double[] coefsA = new double[countA];
+        int[] degreesB = new int[countB];
+        double[] coefsB = new double[countB];
+        this.copyTerms(degreesA, coefsA);
+        other.copyTerms(degreesB, coefsB);
+        char resultLiteral = countA > 0 ? getLiteral() : other.getLiteral();
+        if (!isSorted(degreesA, countA) || !isSorted(degreesB, countB)) {
+            PolynomialBuilder builder = new PolynomialBuilder(resultLiteral, countA + countB);
+            for (int i = 0; i < countA; i++) builder.addTerm(coefsA[i], degreesA[i]);
+            for (int j = 0; j < countB; j++) builder.addTerm(sign * coefsB[j], degreesB[j]);
+            return builder.build();
+        }
+        int[] degrees = new int[countA + countB];
+        double[] coefs = new double[countA + countB];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < countA || j < countB) {
+            if (j == countB || (i < countA && degreesA[i] > degreesB[j])) {
+                degrees[count] = degreesA[i];
+                coefs[count++] = coefsA[i++];
+            } else if (i == countA || degreesB[j] > degreesA[i]) {
+                degrees[count] = degreesB[j];
+                coefs[count++] = sign * coefsB[j++];
+            } else {
+                degrees[count] = degreesA[i];
+                coefs[count++] = coefsA[i++] + sign * coefsB[j++];
+            }
+        }
+        return fromSortedTerms(degrees, coefs, count, resultLiteral);
+    }
+
+    /**
+     * Merges one term into the sorted term list at or after the position of an iterator, which
+     * is left just past the term so that terms given in descending order are merged in one pass.
+     *
+     * @param it          The iterator over the term list.
+     * @param coef        The coefficient to add.
+     * @param deg         The degree of the term.
+     * @param termLiteral The literal of a new term.
+     */
+    private static void mergeTerm(ListIterator<Term> it, double coef, int deg, char termLiteral) {
+        if (coef == 0) return;
+        Term current = null;
+        while (it.hasNext()) {
+            current = it.next();
+            if (current.getDegree() <= deg) break;
+            current = null;
+        }
+        if (current != null && current.getDegree() == deg) {
+            double updated = current.getCoefficient() + coef;
+            if (updated == 0) {
+                it.remove();
             } else {
-                s.append(" -");
+                current.setCoefficient(updated);
             }
-            if (currTerm.getCoefficient() != 1 || currTerm.getDegree() == 0) {
-                s.append(" ").append(Math.abs(currTerm.getCoefficient()));
+        } else {
+            if (current != null) it.previous(); // insert before the first lower degree
+            it.add(new Term(coef, termLiteral, deg));
+        }
+    }
+
+    /**
+     * Multiplies every coefficient by a factor in place.
+     *
+     * @param factor The factor.
+     */
+    private void scaleInPlace(double factor) {
+        if (factor == 0) {
+            if (coefficients != null) assignTerms(new LinkedList<>());
+            else terms.clear(); // the list may be shared with a caller
+        } else if (coefficients != null) {
+            for (int i = 0; i <= degree; i++) coefficients[i] *= factor;
+            recount(); // a tiny factor may underflow coefficients to zero
+        } else {
+            for (Term term : terms) term.setCoefficient(term.getCoefficient() * factor);
+            terms.removeIf(term -> term.getCoefficient() == 0);
+        }
+    }
+
+    /**
+     * Switches to the dense form, if needed, with room for a number of coefficients. Only valid
+     * when no degree is negative.
+     *
+     * @param length          The number of coefficients needed.
+     * @param fallbackLiteral The literal to use if the Polynomial has no terms.
+     */
+    private void makeDense(int length, char fallbackLiteral) {
+        if (coefficients == null) {
+            char current = terms.isEmpty() ? fallbackLiteral : getLiteral();
+            double[] dense = new double[Math.max(length, getDegree() + 1)];
+            accumulateInto(dense, 1);
+            coefficients = dense;
+            literal = current;
+            terms = null;
+        } else if (coefficients.length < length) {
+            coefficients = Arrays.copyOf(coefficients, Math.max(length, coefficients.length * 2));
+        }
+    }
+
+    /**
+     * Recomputes the degree and the number of terms of the dense form after its array was
+     * updated directly, switching to the sparse form if it became too sparse.
+     */
+    private void recount() {
+        int top = coefficients.length - 1;
+        while (top >= 0 && coefficients[top] == 0) top--;
+        int count = 0;
+        for (int i = 0; i <= top; i++) {
+            if (coefficients[i] != 0) count++;
+        }
+        degree = top;
+        termCount = count;
+        if (termCount == 0) {
+            assignTerms(new LinkedList<>());
+        } else if (!isDenseEnough(termCount, degree, denseThreshold / 2)) {
+            toSparse(); // keep a margin below the threshold so the form does not flip on every update
+        }
+    }
+
+    /**
+     * Switches the sparse form to the dense form when it has become dense enough.
+     */
+    private void densifyIfNeeded() {
+        if (terms.size() >= MIN_DENSE_TERMS && terms.getLast().getDegree() >= 0
+                && isDenseEnough(terms.size(), terms.getFirst().getDegree(), denseThreshold)) {
+            toDense();
+        }
+    }
+
+    /**
+     * Returns whether a term list is sorted by strictly descending degree.
+     *
+     * @param list The term list.
+     * @return true if the list is sorted.
+     */
+    private static boolean isSorted(LinkedList<Term> list) {
+        int previous = Integer.MAX_VALUE;
+        boolean first = true;
+        for (Term term : list) {
+            if (!first && term.getDegree() >= previous) return false;
+            previous = term.getDegree();
+            first = false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether degrees are strictly descending.
+     *
+     * @param degrees The degrees.
+     * @param count   The number of degrees to check.
+     * @return true if the degrees are sorted.
+     */
+    private static boolean isSorted(int[] degrees, int count) {
+        for (int i = 1; i < count; i++) {
+            if (degrees[i] >= degrees[i - 1]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies the terms into arrays of degrees and coefficients, in descending order of degree.
+     *
+     * @param degrees Receives the degrees, at least as long as the number of terms.
+     * @param coefs   Receives the coefficients, at least as long as the number of terms.
+     */
+    void copyTerms(int[] degrees, double[] coefs) {
+        int index = 0;
+        if (coefficients != null) {
+            for (int i = degree; i >= 0; i--) {
+                if (coefficients[i] == 0) continue;
+                degrees[index] = i;
+                coefs[index] = coefficients[i];
+                index++;
             }
-            switch (currTerm.getDegree()) {
-                case 0:
-                    break;
-                case 1:
-                    s.append((terms.get(0)).getLiteral());
-                    break;
-                default:
-                    s.append((terms.get(0)).getLiteral()).append("^").append(currTerm.getDegree());
+            return;
+        }
+        for (Term term : terms) {
+            degrees[index] = term.getDegree();
+            coefs[index] = term.getCoefficient();
+            index++;
+        }
+    }
+
+    /**
+     * Adds a coefficient to the dense form in place.
+     *
+     * @param coef The coefficient to add.
+     * @param deg  The degree of the coefficient.
+     * @return false if the term cannot be kept in the dense form.
+     */
+    private boolean addDenseTerm(double coef, int deg) {
+        if (deg < 0) return false;
+        if (coef == 0) return true;
+        if (deg >= coefficients.length) {
+            if (!isDenseEnough(termCount + 1, deg, denseThreshold / 2)) return false;
+            coefficients = Arrays.copyOf(coefficients, Math.max(deg + 1, coefficients.length * 2));
+        }
+        double old = coefficients[deg];
+        double updated = old + coef;
+        coefficients[deg] = updated;
+        if (old == 0) termCount++;
+        if (updated == 0) termCount--;
+        if (deg > degree) degree = deg;
+        while (degree >= 0 && coefficients[degree] == 0) degree--;
+        if (termCount == 0) {
+            assignTerms(new LinkedList<>());
+        } else if (!isDenseEnough(termCount, degree, denseThreshold / 2)) {
+            toSparse(); // keep a margin below the threshold so the form does not flip on every update
+        }
+        return true;
+    }
+
+    /**
+     * Switches the Polynomial to the sparse form.
+     */
+    private void toSparse() {
+        terms = buildTermList();
+        coefficients = null;
+    }
+
+    /**
+     * Switches the Polynomial to the dense form. Only valid when no degree is negative.
+     */
+    private void toDense() {
+        if (termsShared) return;
+        Polynomial dense = wrap(coefficientArray(), getLiteral());
+        if (dense.coefficients == null) return;
+        coefficients = dense.coefficients;
+        degree = dense.degree;
+        termCount = dense.termCount;
+        literal = dense.literal;
+        terms = null;
+    }
+
+    /**
+     * Builds the sorted term list of the dense form.
+     *
+     * @return A new list of terms sorted by descending degree.
+     */
+    private LinkedList<Term> buildTermList() {
+        LinkedList<Term> list = new LinkedList<>();
+        for (int i = degree; i >= 0; i--) {
+            if (coefficients[i] != 0) list.add(new Term(coefficients[i], literal, i));
+        }
+        return list;
+    }
+
+    /**
+     * Returns the terms without changing the form of the Polynomial. The list must not be modified.
+     *
+     * @return The live term list of the sparse form, or a new list built from the dense form.
+     */
+    private LinkedList<Term> termList() {
+        return coefficients != null ? buildTermList() : terms;
+    }
+
+    /**
+     * Returns the coefficients indexed by degree without copying the dense form.
+     * The array must not be modified and may be longer than the degree + 1.
+     *
+     * @return The coefficient array.
+     */
+    double[] coefficientArray() {
+        if (coefficients != null) return coefficients;
+        double[] result = new double[getDegree() + 1];
+        accumulateInto(result, 1);
+        return result;
+    }
+
+    /**
+     * Adds the coefficients of this Polynomial, multiplied by a factor, into an array indexed by degree.
+     *
+     * @param target The array to add into, long enough to hold every degree.
+     * @param factor The factor applied to each coefficient.
+     */
+    private void accumulateInto(double[] target, double factor) {
+        if (coefficients != null) {
+            for (int i = 0; i <= degree; i++) {
+                target[i] += factor * coefficients[i];
             }
+            return;
         }
-        return s.toString();
+        for (Term term : terms) {
+            target[term.getDegree()] += factor * term.getCoefficient();
+        }
+    }
+
+    /**
+     * Returns whether every degree of the Polynomial is non-negative so it fits an array indexed by degree.
+     *
+     * @return true if the Polynomial can be handled as a coefficient array.
+     */
+    boolean isDenseCompatible() {
+        return coefficients != null || terms.isEmpty() || terms.getLast().getDegree() >= 0;
+    }
+
+    /**
+     * Returns whether an operation with another Polynomial should run on coefficient arrays.
+     * The decision rests on the density of the result, so a dense operand combined with a
+     * sparse one of much higher degree is merged term by term instead of filling an array of
+     * that degree.
+     *
+     * @param other The other operand.
+     * @return true if either operand is dense, both fit an array indexed by degree, and the
+     *         combined term count is dense enough for the higher degree.
+     */
+    private boolean useDenseArithmetic(Polynomial other) {
+        return (this.coefficients != null || other.coefficients != null)
+                && this.isDenseCompatible() && other.isDenseCompatible()
+                && isDenseEnough(this.getTermCount() + other.getTermCount(),
+                Math.max(this.getDegree(), other.getDegree()), denseThreshold);
+    }
+
+    /**
+     * Returns whether a division by another Polynomial should run on coefficient arrays. The
+     * remainder buffer spans the degree of the dividend, so a sparse dividend is divided term by
+     * term however dense the divisor is.
+     *
+     * @param divisor The divisor.
+     * @return true if both operands fit an array indexed by degree and the dividend is dense or
+     *         dense enough for its degree.
+     */
+    private boolean useDenseDivision(Polynomial divisor) {
+        return this.isDenseCompatible() && divisor.isDenseCompatible()
+                && (this.coefficients != null || isDenseEnough(this.getTermCount(), this.getDegree(), denseThreshold));
+    }
+
+    /**
+     * Returns whether a number of non-zero terms is dense enough for a given degree.
+     *
+     * @param count     The number of non-zero terms.
+     * @param deg       The highest degree.
+     * @param threshold The minimum ratio of terms to degree + 1.
+     * @return true if the dense form should be used.
+     */
+    private static boolean isDenseEnough(int count, int deg, double threshold) {
+        return count >= threshold * ((double) deg + 1);
+    }
+
+    /**
+     * Returns whether a Polynomial with the given terms would be stored in the dense form, so
+     * that code keeping polynomials outside of Polynomial chooses its form the same way.
+     *
+     * @param count         The number of non-zero terms.
+     * @param lowestDegree  The lowest degree.
+     * @param highestDegree The highest degree.
+     * @return true if the dense form should be used.
+     */
+    static boolean usesDenseForm(int count, int lowestDegree, int highestDegree) {
+        return count >= MIN_DENSE_TERMS && lowestDegree >= 0 && isDenseEnough(count, highestDegree, denseThreshold);
+    }
+
+    /**
+     * Raises a value to an integer power by repeated squaring.
+     *
+     * @param base     The value to raise.
+     * @param exponent The exponent, which may be negative.
+     * @return The value raised to the exponent.
+     */
+    static double power(double base, int exponent) {
+        if (exponent < 0) return 1 / power(base, -exponent);
+        double result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) result *= base;
+            base *= base;
+            exponent >>>= 1;
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Scanner;
 
 /**
@@ -7,14 +8,41 @@ import java.util.Scanner;
  * <p>
  * Users can choose an option from the menu and perform operations on polynomials. The program handles
  * input validation and displays the results of the operations.
+ * <p>
+ * Started as {@code PolynomialArithmetic --batch [input] [output]}, the program instead runs the
+ * operations listed in a file without the menu; see {@link PolynomialBatchMode}. A missing or "-"
+ * input or output stands for the standard input or output.
+ * <p>
+ * Started as {@code PolynomialArithmetic --server [port]}, the program serves the operations over
+ * HTTP to local clients instead; see {@link PolynomialServer}. The port defaults to 8080.
  *
  * @author Giovanni M. Leo
  * @since October 5, 2023
  */
 public class PolynomialArithmetic {
+    private static final int MAX_INITIAL_TERMS = 1024; // builder capacity reserved up front; it grows as terms are typed
+
     private final Scanner sc = new Scanner(System.in);
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            try {
+                PolynomialBatchMode.run(args.length > 1 ? args[1] : "-", args.length > 2 ? args[2] : "-");
+            } catch (IOException x) {
+                System.err.println("Batch mode failed: " + x.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            try {
+                PolynomialServer.run(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            } catch (IOException | IllegalArgumentException x) {
+                System.err.println("Server failed to start: " + x.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
         PolynomialArithmetic program;
         program = new PolynomialArithmetic();
         program.run();
@@ -136,7 +164,6 @@ public class PolynomialArithmetic {
      * @return The polynomial entered by the user.
      */
     public Polynomial readPolynomial() {
-        Polynomial p = new Polynomial();
         int degree;
         char literalCoefficient;
         System.out.println("The polynomial should involve one variable/literal only.");
@@ -149,11 +176,13 @@ public class PolynomialArithmetic {
         System.out.print("What is the degree of the polynomial? ");
         degree = readInteger(Integer.MIN_VALUE, Integer.MAX_VALUE);
 
+        PolynomialBuilder builder = new PolynomialBuilder(literalCoefficient,
+                (int) Math.min(Math.max(degree + 1L, 0), MAX_INITIAL_TERMS));
         for (int x = degree; x >= 0; x = x - 1) {
             Term term = readTerm(literalCoefficient, x);
-            p.addTerm(term);
+            builder.addTerm(term);
         }
-        return p;
+        return builder.build();
     }
 
     /**
@@ -180,13 +209,13 @@ public class PolynomialArithmetic {
         System.out.println("\nEnter the first polynomial.");
         Polynomial p1 = readPolynomial();
         System.out.println("\nEnter the second polynomial.");
-        System.out.println("Note that the second polynomial should have the same variable/literal as the first polynomial.");
+        System.out.println("If the second polynomial has another variable/literal, the result involves both.");
         Polynomial p2 = readPolynomial();
         System.out.println("\nFirst polynomial : " + p1.toString());
         System.out.println("Second polynomial : " + p2.toString());
 
-        if (p1.getTerms().get(0).getLiteral() != p2.getTerms().get(0).getLiteral()) {
-            System.out.println("\nThe two polynomials cannot be added because they have different literals.");
+        if (p1.getLiteral() != p2.getLiteral()) {
+            doMultivariateOperation(operation, p1, p2);
         } else {
             switch (operation) { // apply proper operation
                 case ADD -> System.out.println("\nSum of the polynomials : " + p1.add(p2));
@@ -200,6 +229,29 @@ public class PolynomialArithmetic {
         sc.nextLine();
     }
 
+    /**
+     * Performs an operation on two polynomials in different variables, whose result is a
+     * polynomial in both variables.
+     *
+     * @param operation The operation to perform.
+     * @param p1        The first polynomial.
+     * @param p2        The second polynomial.
+     */
+    private void doMultivariateOperation(Operations operation, Polynomial p1, Polynomial p2) {
+        try {
+            MultivariatePolynomial m1 = MultivariatePolynomial.of(p1);
+            MultivariatePolynomial m2 = MultivariatePolynomial.of(p2);
+            switch (operation) {
+                case ADD -> System.out.println("\nSum of the polynomials : " + m1.add(m2));
+                case SUBTRACT -> System.out.println("\nDifference of the polynomials : " + m1.subtract(m2));
+                case MULTIPLY -> System.out.println("\nProduct of the polynomials : " + m1.multiply(m2));
+                case DIVIDE -> System.out.println("\nQuotient of the polynomials : " + m1.divide(m2));
+            }
+        } catch (IllegalArgumentException | ArithmeticException x) {
+            System.out.println("\nThe operation cannot be done: " + x.getMessage());
+        }
+    }
+
     /**
      * Constant values for Operations
      * */
@@ -0,0 +1,409 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Holds many polynomials of the same degree bound in struct-of-arrays form: row k holds the
+ * coefficient of degree k of every polynomial, so one operation applied to the whole batch is a
+ * sequence of plain loops over rows, each the same multiply-add on every lane, which the JIT
+ * compiles to vector code. A PolynomialBatch is mutable through setCoefficient, and its
+ * operations return new batches in the same layout.
+ * <p>
+ * The lanes are processed in blocks small enough for the rows of a block to stay in cache.
+ * When a pool is set, batches of at least the parallel threshold spread their blocks over it.
+ * Results are the same whether the batch runs sequentially or in parallel, since each lane is
+ * computed by exactly the same operations.
+ */
+public final class PolynomialBatch {
+    private static final int BLOCK = 1024; // lanes per block
+    private static volatile ForkJoinPool pool = null; // pool for parallel operations, or null to stay sequential
+    private static int parallelThreshold = 1 << 14; // lanes from which operations run in parallel
+
+    private final double[][] rows; // rows[k][i] is the coefficient of degree k of polynomial i
+    private final int count; // number of polynomials
+    private final char literal; // literal of the polynomials
+
+    /**
+     * A range of lanes of an operation.
+     */
+    private interface BlockOperation {
+        /**
+         * Runs the operation on a range of lanes.
+         *
+         * @param from The first lane, inclusive.
+         * @param to   The last lane, exclusive.
+         */
+        void run(int from, int to);
+    }
+
+    /**
+     * Creates a batch of zero polynomials.
+     *
+     * @param count   The number of polynomials.
+     * @param degree  The degree bound shared by the polynomials, at least 0.
+     * @param literal The literal of the polynomials.
+     */
+    public PolynomialBatch(int count, int degree, char literal) {
+        if (count < 0) throw new IllegalArgumentException("The number of polynomials must not be negative.");
+        if (degree < 0) throw new IllegalArgumentException("The degree must not be negative.");
+        this.rows = new double[degree + 1][count];
+        this.count = count;
+        this.literal = literal;
+    }
+
+    /**
+     * Creates a batch that takes ownership of its rows.
+     *
+     * @param rows    The rows, all of the same length.
+     * @param count   The number of polynomials.
+     * @param literal The literal.
+     */
+    private PolynomialBatch(double[][] rows, int count, char literal) {
+        this.rows = rows;
+        this.count = count;
+        this.literal = literal;
+    }
+
+    /**
+     * Creates a batch from Polynomials, padding each to the highest degree among them.
+     *
+     * @param polynomials The Polynomials.
+     * @return The batch, in the literal of the first Polynomial, or x if there is none.
+     * @throws IllegalStateException If a Polynomial has a term with a negative degree.
+     */
+    public static PolynomialBatch of(Polynomial[] polynomials) {
+        int degree = 0;
+        for (Polynomial p : polynomials) {
+            degree = Math.max(degree, p.getDegree());
+        }
+        PolynomialBatch batch = new PolynomialBatch(polynomials.length, degree,
+                polynomials.length > 0 ? polynomials[0].getLiteral() : 'x');
+        for (int i = 0; i < polynomials.length; i++) {
+            double[] coefs = polynomials[i].getCoefficients();
+            for (int k = 0; k < coefs.length; k++) {
+                batch.rows[k][i] = coefs[k];
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Creates a batch from coefficients already in struct-of-arrays form.
+     *
+     * @param rows    The rows, where rows[k][i] is the coefficient of degree k of polynomial i. They are copied.
+     * @param literal The literal.
+     * @return The batch.
+     */
+    public static PolynomialBatch fromRows(double[][] rows, char literal) {
+        if (rows.length == 0) throw new IllegalArgumentException("There must be at least one row.");
+        int count = rows[0].length;
+        double[][] copy = new double[rows.length][];
+        for (int k = 0; k < rows.length; k++) {
+            if (rows[k].length != count) throw new IllegalArgumentException("The rows must have the same length.");
+            copy[k] = rows[k].clone();
+        }
+        return new PolynomialBatch(copy, count, literal);
+    }
+
+    /**
+     * Returns the pool used for parallel operations.
+     *
+     * @return The pool, or null if operations run sequentially.
+     */
+    public static ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the pool used for parallel operations. Passing null turns the parallel mode off.
+     *
+     * @param forkJoinPool The pool, or null.
+     */
+    public static void setPool(ForkJoinPool forkJoinPool) {
+        pool = forkJoinPool;
+    }
+
+    /**
+     * Returns the number of polynomials from which operations run in parallel.
+     *
+     * @return The parallel threshold.
+     */
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the number of polynomials from which operations run in parallel.
+     *
+     * @param threshold The parallel threshold, at least 1.
+     */
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("The parallel threshold must be at least 1.");
+        parallelThreshold = threshold;
+    }
+
+    /**
+     * Returns the number of polynomials.
+     *
+     * @return The number of polynomials.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the degree bound shared by the polynomials. A polynomial of the batch may have a
+     * lower degree, with zero coefficients above it.
+     *
+     * @return The degree bound.
+     */
+    public int getDegree() {
+        return rows.length - 1;
+    }
+
+    /**
+     * Returns the literal of the polynomials.
+     *
+     * @return The literal.
+     */
+    public char getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Returns a coefficient of a polynomial.
+     *
+     * @param index  The index of the polynomial.
+     * @param degree The degree.
+     * @return The coefficient, or 0 above the degree bound.
+     */
+    public double getCoefficient(int index, int degree) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("No polynomial at index " + index + ".");
+        return degree >= 0 && degree < rows.length ? rows[degree][index] : 0;
+    }
+
+    /**
+     * Sets a coefficient of a polynomial.
+     *
+     * @param index  The index of the polynomial.
+     * @param degree The degree, at most the degree bound.
+     * @param value  The coefficient.
+     */
+    public void setCoefficient(int index, int degree, double value) {
+        rows[degree][index] = value;
+    }
+
+    /**
+     * Returns the coefficients of one degree of every polynomial.
+     *
+     * @param degree The degree.
+     * @return A new array where index i holds the coefficient of polynomial i.
+     */
+    public double[] getRow(int degree) {
+        return rows[degree].clone();
+    }
+
+    /**
+     * Copies a polynomial of the batch into a Polynomial.
+     *
+     * @param index The index of the polynomial.
+     * @return The Polynomial.
+     */
+    public Polynomial toPolynomial(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("No polynomial at index " + index + ".");
+        double[] coefs = new double[rows.length];
+        for (int k = 0; k < rows.length; k++) {
+            coefs[k] = rows[k][index];
+        }
+        return Polynomial.wrap(coefs, literal);
+    }
+
+    /**
+     * Copies every polynomial of the batch into a Polynomial.
+     *
+     * @return The Polynomials.
+     */
+    public Polynomial[] toPolynomials() {
+        Polynomial[] result = new Polynomial[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = toPolynomial(i);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the polynomials of another batch pairwise.
+     *
+     * @param other The other batch, with as many polynomials.
+     * @return The sums, with the higher degree bound.
+     */
+    public PolynomialBatch add(PolynomialBatch other) {
+        return combine(other, 1);
+    }
+
+    /**
+     * Subtracts the polynomials of another batch pairwise.
+     *
+     * @param other The other batch, with as many polynomials.
+     * @return The differences, with the higher degree bound.
+     */
+    public PolynomialBatch subtract(PolynomialBatch other) {
+        return combine(other, -1);
+    }
+
+    /**
+     * Multiplies every polynomial of the batch by the same Polynomial. Each term of the factor
+     * adds one scaled row into one row of the result.
+     *
+     * @param factor The factor.
+     * @return The products, with the sum of the degree bounds, in the literal of the factor.
+     * @throws IllegalStateException If the factor has a term with a negative degree.
+     */
+    public PolynomialBatch multiply(Polynomial factor) {
+        double[] f = factor.getCoefficients();
+        if (f.length == 0) return new PolynomialBatch(count, 0, factor.getLiteral());
+        double[][] out = new double[rows.length + f.length - 1][count];
+        forEachBlock((from, to) -> {
+            for (int k = 0; k < rows.length; k++) {
+                double[] in = rows[k];
+                for (int j = 0; j < f.length; j++) {
+                    double c = f[j];
+                    if (c == 0) continue;
+                    double[] target = out[k + j];
+                    for (int i = from; i < to; i++) {
+                        target[i] += c * in[i];
+                    }
+                }
+            }
+        });
+        return new PolynomialBatch(out, count, factor.getLiteral());
+    }
+
+    /**
+     * Multiplies the polynomials of another batch pairwise by schoolbook multiplication across
+     * the lanes.
+     *
+     * @param other The other batch, with as many polynomials.
+     * @return The products, with the sum of the degree bounds, in the literal of other.
+     */
+    public PolynomialBatch multiply(PolynomialBatch other) {
+        checkCount(other);
+        double[][] out = new double[rows.length + other.rows.length - 1][count];
+        forEachBlock((from, to) -> {
+            for (int k = 0; k < rows.length; k++) {
+                double[] a = rows[k];
+                for (int j = 0; j < other.rows.length; j++) {
+                    double[] b = other.rows[j];
+                    double[] target = out[k + j];
+                    for (int i = from; i < to; i++) {
+                        target[i] += a[i] * b[i];
+                    }
+                }
+            }
+        });
+        return new PolynomialBatch(out, count, other.literal);
+    }
+
+    /**
+     * Evaluates each polynomial at its own value with Horner's scheme across the lanes.
+     *
+     * @param values The value of each polynomial.
+     * @return A new array holding the value of each polynomial.
+     */
+    public double[] evaluate(double[] values) {
+        if (values.length != count) throw new IllegalArgumentException("There must be one value per polynomial.");
+        double[] results = new double[count];
+        forEachBlock((from, to) -> {
+            for (int k = rows.length - 1; k >= 0; k--) {
+                double[] row = rows[k];
+                for (int i = from; i < to; i++) {
+                    results[i] = results[i] * values[i] + row[i];
+                }
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Evaluates every polynomial at the same value.
+     *
+     * @param value The value.
+     * @return A new array holding the value of each polynomial.
+     */
+    public double[] evaluate(double value) {
+        double[] results = new double[count];
+        forEachBlock((from, to) -> {
+            for (int k = rows.length - 1; k >= 0; k--) {
+                double[] row = rows[k];
+                for (int i = from; i < to; i++) {
+                    results[i] = results[i] * value + row[i];
+                }
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Adds or subtracts another batch pairwise.
+     *
+     * @param other The other batch.
+     * @param sign  1 to add, -1 to subtract.
+     * @return The result.
+     */
+    private PolynomialBatch combine(PolynomialBatch other, double sign) {
+        checkCount(other);
+        double[][] out = new double[Math.max(rows.length, other.rows.length)][count];
+        forEachBlock((from, to) -> {
+            for (int k = 0; k < out.length; k++) {
+                double[] target = out[k];
+                if (k < rows.length) {
+                    double[] a = rows[k];
+                    for (int i = from; i < to; i++) {
+                        target[i] = a[i];
+                    }
+                }
+                if (k < other.rows.length) {
+                    double[] b = other.rows[k];
+                    for (int i = from; i < to; i++) {
+                        target[i] += sign * b[i];
+                    }
+                }
+            }
+        });
+        return new PolynomialBatch(out, count, literal);
+    }
+
+    /**
+     * Checks that another batch has as many polynomials.
+     *
+     * @param other The other batch.
+     */
+    private void checkCount(PolynomialBatch other) {
+        if (other.count != count) {
+            throw new IllegalArgumentException("The batches hold " + count + " and " + other.count + " polynomials.");
+        }
+    }
+
+    /**
+     * Runs an operation on every block of lanes, spread over the pool when the batch is large enough.
+     *
+     * @param operation The operation.
+     */
+    private void forEachBlock(BlockOperation operation) {
+        ForkJoinPool forkJoinPool = pool;
+        if (forkJoinPool == null || count < parallelThreshold) {
+            for (int lo = 0; lo < count; lo += BLOCK) {
+                operation.run(lo, Math.min(lo + BLOCK, count));
+            }
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int lo = 0; lo < count; lo += BLOCK) {
+            int from = lo;
+            int to = Math.min(lo + BLOCK, count);
+            tasks.add(ForkJoinTask.adapt(() -> operation.run(from, to)));
+        }
+        forkJoinPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Runs polynomial operations read from a stream, one per line, without the interactive menu.
+ * Each line holds an operation name followed by its operands separated by ';', such as
+ * <pre>
+ * ADD 3x^2 - 2x + 1 ; x^5 - 4
+ * EVALUATE 3x^2 - 2x + 1 ; 2.5
+ * </pre>
+ * The supported operations are ADD, SUBTRACT, MULTIPLY, DIVIDE and EVALUATE. Blank lines and
+ * lines starting with '#' are skipped. Operands in different literals give a result in both,
+ * computed with MultivariatePolynomial. One result line is written per operation, or a line
+ * starting with "ERROR" when the operation cannot be done. Lines are cut directly out of a
+ * reusable character buffer and parsed in place, so no String is created per input line.
+ */
+public class PolynomialBatchMode {
+    private static final int BUFFER_SIZE = 1 << 16; // characters read from the input at a time
+
+    private final PolynomialParser parser = new PolynomialParser();
+    private char[] buffer = new char[BUFFER_SIZE];
+    private CharBuffer view = CharBuffer.wrap(buffer); // CharSequence view of the buffer, for the parser
+    private final StringBuilder result = new StringBuilder(); // reusable text of the current result
+
+    /**
+     * Runs the operations of a file or of the standard input.
+     *
+     * @param inputPath  The input file, or "-" for the standard input.
+     * @param outputPath The output file, or "-" for the standard output.
+     * @return The number of operations processed.
+     * @throws IOException If reading or writing fails.
+     */
+    public static long run(String inputPath, String outputPath) throws IOException {
+        InputStream input = inputPath.equals("-") ? System.in : new FileInputStream(inputPath);
+        OutputStream output = outputPath.equals("-") ? System.out : new FileOutputStream(outputPath);
+        try (Reader in = new InputStreamReader(input, StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            return new PolynomialBatchMode().run(in, out);
+        }
+    }
+
+    /**
+     * Runs every operation read from a reader and writes the results to a writer.
+     *
+     * @param in  The reader supplying one operation per line.
+     * @param out The writer receiving one result per line.
+     * @return The number of operations processed.
+     * @throws IOException If reading or writing fails.
+     */
+    public long run(Reader in, Writer out) throws IOException {
+        long operations = 0;
+        int start = 0; // start of the current line in the buffer
+        int limit = 0; // number of valid characters in the buffer
+        boolean eof = false;
+        while (true) {
+            int newline = -1;
+            for (int i = start; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    newline = i;
+                    break;
+                }
+            }
+            if (newline < 0 && !eof) { // the line continues past the buffer, so read more
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, limit - start);
+                    limit -= start;
+                    start = 0;
+                }
+                if (limit == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    view = CharBuffer.wrap(buffer);
+                }
+                int read = in.read(buffer, limit, buffer.length - limit);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    limit += read;
+                }
+                continue;
+            }
+            int end = newline < 0 ? limit : newline;
+            if (end > start && buffer[end - 1] == '\r') end--;
+            if (processLine(start, end, out)) operations++;
+            if (newline < 0) break;
+            start = newline + 1;
+        }
+        out.flush();
+        return operations;
+    }
+
+    /**
+     * Runs the operation on one line of the buffer.
+     *
+     * @param start The start of the line.
+     * @param end   The end of the line, without the line terminator.
+     * @param out   The writer receiving the result.
+     * @return true if the line held an operation.
+     * @throws IOException If writing fails.
+     */
+    private boolean processLine(int start, int end, Writer out) throws IOException {
+        while (start < end && Character.isWhitespace(buffer[start])) start++;
+        if (start == end || buffer[start] == '#') return false;
+
+        int nameEnd = start;
+        while (nameEnd < end && Character.isLetter(buffer[nameEnd])) nameEnd++;
+        int separator = nameEnd;
+        while (separator < end && buffer[separator] != ';') separator++;
+
+        try {
+            if (separator == end) throw new IllegalArgumentException("Expected two operands separated by ';'.");
+            result.setLength(0);
+            Polynomial first = parser.parse(view, nameEnd, separator);
+            if (matches(start, nameEnd, "EVALUATE")) {
+                out.write(Double.toString(first.evaluate(parser.parseNumber(view, separator + 1, end))));
+            } else {
+                Polynomial second = parser.parse(view, separator + 1, end);
+                if (first.getLiteral() != second.getLiteral() && !isConstant(first) && !isConstant(second)) {
+                    multivariate(start, nameEnd, MultivariatePolynomial.of(first), MultivariatePolynomial.of(second));
+                    write(out);
+                } else if (matches(start, nameEnd, "ADD")) {
+                    first.add(second).appendTo(result);
+                    write(out);
+                } else if (matches(start, nameEnd, "SUBTRACT")) {
+                    first.subtract(second).appendTo(result);
+                    write(out);
+                } else if (matches(start, nameEnd, "MULTIPLY")) {
+                    first.multiply(second).appendTo(result);
+                    write(out);
+                } else if (matches(start, nameEnd, "DIVIDE")) {
+                    first.divide(second).appendTo(result);
+                    write(out);
+                } else {
+                    throw new IllegalArgumentException("Unknown operation '" + new String(buffer, start, nameEnd - start) + "'.");
+                }
+            }
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            out.write("ERROR ");
+            out.write(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        }
+        out.write('\n');
+        return true;
+    }
+
+    /**
+     * Runs an operation on polynomials in different literals into the current result.
+     *
+     * @param start  The start of the operation name.
+     * @param end    The end of the operation name.
+     * @param first  The first operand.
+     * @param second The second operand.
+     * @throws IOException If writing fails.
+     */
+    private void multivariate(int start, int end, MultivariatePolynomial first, MultivariatePolynomial second) throws IOException {
+        if (matches(start, end, "ADD")) {
+            first.add(second).appendTo(result);
+        } else if (matches(start, end, "SUBTRACT")) {
+            first.subtract(second).appendTo(result);
+        } else if (matches(start, end, "MULTIPLY")) {
+            first.multiply(second).appendTo(result);
+        } else if (matches(start, end, "DIVIDE")) {
+            first.divide(second).appendTo(result);
+        } else {
+            throw new IllegalArgumentException("Unknown operation '" + new String(buffer, start, end - start) + "'.");
+        }
+    }
+
+    /**
+     * Writes the current result without the leading blank that toString puts before a positive
+     * first term.
+     *
+     * @param out The writer.
+     * @throws IOException If writing fails.
+     */
+    private void write(Writer out) throws IOException {
+        int offset = result.length() > 0 && result.charAt(0) == ' ' ? 1 : 0;
+        if (result.length() == offset) {
+            out.write("0");
+        } else {
+            out.append(result, offset, result.length());
+        }
+    }
+
+    /**
+     * Returns whether a Polynomial has no term involving its literal.
+     *
+     * @param p The Polynomial.
+     * @return true if the Polynomial is zero or a single constant term.
+     */
+    private static boolean isConstant(Polynomial p) {
+        return p.getTermCount() == 0 || (p.getTermCount() == 1 && p.getDegree() == 0);
+    }
+
+    /**
+     * Returns whether a range of the buffer holds an operation name, ignoring case.
+     *
+     * @param start The start of the range.
+     * @param end   The end of the range.
+     * @param name  The operation name in upper case.
+     * @return true if the range holds the name.
+     */
+    private boolean matches(int start, int end, String name) {
+        if (end - start != name.length()) return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toUpperCase(buffer[start + i]) != name.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * Builds a Polynomial from terms given in any order. The terms are collected in primitive
+ * arrays, and build combines them in one pass instead of inserting each into a sorted list, so
+ * building n terms costs O(n log n) rather than O(n^2):
+ * <ul>
+ * <li>terms already in strictly descending degree order are taken as they are;</li>
+ * <li>terms with non-negative degrees not spread too far apart are summed in one array indexed
+ * by degree;</li>
+ * <li>other terms are sorted once by degree, and like degrees are combined in the order they
+ * were added.</li>
+ * </ul>
+ * Zero coefficients, given or from cancellation, are dropped. A builder keeps its arrays when
+ * it is cleared, so one builder can build many polynomials with few allocations. A builder is
+ * not thread-safe.
+ */
+public class PolynomialBuilder {
+    private int[] degrees; // degrees of the terms added so far
+    private double[] coefs; // coefficients of the terms added so far
+    private int count; // number of terms added so far
+    private char literal; // literal of the polynomials built
+
+    /**
+     * Creates a builder for polynomials in x.
+     */
+    public PolynomialBuilder() {
+        this('x', 16);
+    }
+
+    /**
+     * Creates a builder for polynomials in a literal.
+     *
+     * @param literal The literal.
+     */
+    public PolynomialBuilder(char literal) {
+        this(literal, 16);
+    }
+
+    /**
+     * Creates a builder for polynomials in a literal with room for a number of terms.
+     *
+     * @param literal       The literal.
+     * @param expectedTerms The number of terms expected, to size the arrays.
+     */
+    public PolynomialBuilder(char literal, int expectedTerms) {
+        if (expectedTerms < 0) throw new IllegalArgumentException("The expected number of terms must not be negative.");
+        this.literal = literal;
+        degrees = new int[Math.max(expectedTerms, 1)];
+        coefs = new double[Math.max(expectedTerms, 1)];
+    }
+
+    /**
+     * Returns the literal of the polynomials built.
+     *
+     * @return The literal.
+     */
+    public char getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Sets the literal of the polynomials built.
+     *
+     * @param literal The literal.
+     * @return This builder.
+     */
+    public PolynomialBuilder setLiteral(char literal) {
+        this.literal = literal;
+        return this;
+    }
+
+    /**
+     * Returns the number of terms added since the builder was created or cleared, before
+     * like degrees are combined.
+     *
+     * @return The number of terms.
+     */
+    public int getTermCount() {
+        return count;
+    }
+
+    /**
+     * Adds a term.
+     *
+     * @param coef   The coefficient.
+     * @param degree The degree.
+     * @return This builder.
+     */
+    public PolynomialBuilder addTerm(double coef, int degree) {
+        if (count == degrees.length) {
+            degrees = Arrays.copyOf(degrees, count * 2);
+            coefs = Arrays.copyOf(coefs, count * 2);
+        }
+        degrees[count] = degree;
+        coefs[count] = coef;
+        count++;
+        return this;
+    }
+
+    /**
+     * Adds the coefficient and degree of a term. The literal of the term is not checked.
+     *
+     * @param term The term.
+     * @return This builder.
+     */
+    public PolynomialBuilder addTerm(Term term) {
+        return addTerm(term.getCoefficient(), term.getDegree());
+    }
+
+    /**
+     * Removes every term, keeping the arrays for the next polynomial.
+     *
+     * @return This builder.
+     */
+    public PolynomialBuilder clear() {
+        count = 0;
+        return this;
+    }
+
+    /**
+     * Builds the Polynomial of the terms added so far. The terms stay in the builder.
+     *
+     * @return The Polynomial, in whichever form suits its density.
+     */
+    public Polynomial build() {
+        if (count == 0) return new Polynomial();
+        boolean descending = true;
+        int min = degrees[0];
+        int max = degrees[0];
+        for (int i = 1; i < count; i++) {
+            if (degrees[i] >= degrees[i - 1]) descending = false;
+            min = Math.min(min, degrees[i]);
+            max = Math.max(max, degrees[i]);
+        }
+        if (descending) return Polynomial.fromSortedTerms(degrees, coefs, count, literal);
+        if (min >= 0 && max < 4L * count + 64) {
+            double[] dense = new double[max + 1];
+            for (int i = 0; i < count; i++) {
+                dense[degrees[i]] += coefs[i];
+            }
+            return Polynomial.wrap(dense, literal);
+        }
+        int[] sortedDegrees = new int[count];
+        double[] sortedCoefs = new double[count];
+        int size = sortAndCombine(degrees, coefs, count, sortedDegrees, sortedCoefs);
+        return Polynomial.fromSortedTerms(sortedDegrees, sortedCoefs, size, literal);
+    }
+
+    /**
+     * Sorts terms by descending degree with one primitive sort, combines like degrees in their
+     * original order and drops zero sums.
+     *
+     * @param degrees         The degrees of the terms.
+     * @param coefs           The coefficients of the terms.
+     * @param count           The number of terms, below 2^31.
+     * @param outDegrees      Receives the distinct degrees in descending order, of length count.
+     * @param outCoefficients Receives the combined coefficients, of length count.
+     * @return The number of non-zero terms.
+     */
+    static int sortAndCombine(int[] degrees, double[] coefs, int count, int[] outDegrees, double[] outCoefficients) {
+        long[] keys = new long[count]; // degree in the high half, term index in the low half
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) degrees[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int size = 0;
+        int k = count - 1;
+        while (k >= 0) { // walk from the highest degree, combining like degrees
+            int deg = (int) (keys[k] >> 32);
+            int first = k;
+            while (k > 0 && (int) (keys[k - 1] >> 32) == deg) k--;
+            double sum = 0;
+            for (int j = k; j <= first; j++) { // ascending index, the order the terms were added
+                sum += coefs[(int) keys[j]];
+            }
+            k--;
+            if (sum != 0) {
+                outDegrees[size] = deg;
+                outCoefficients[size] = sum;
+                size++;
+            }
+        }
+        return size;
+    }
+}
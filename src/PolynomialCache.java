@@ -0,0 +1,262 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Memoizes the products, quotients and powers of ImmutablePolynomials. Entries are keyed by
+ * the identity of the operands, so lookups never compare coefficients; interning the operands
+ * makes equal values share entries. The cache is bounded by the estimated memory of its
+ * entries, counting both the results and the operands each key holds on to, and evicts the
+ * least recently used entries when it grows past that bound. An operand used by several
+ * entries is counted once per entry, so the estimate errs on the large side.
+ * <p>
+ * Lookups take no lock and write no shared state: the clock only advances when a result is
+ * stored, and a hit copies its current value into the entry, skipping the write when the
+ * entry already holds it. Recency is therefore tracked between stores, which is all eviction
+ * needs since it only runs on a store. Results are computed outside any lock, so two threads
+ * missing on the same key at once may both compute it. Only eviction is serialized, and a
+ * thread that finds another one evicting leaves the work to it.
+ */
+public class PolynomialCache {
+    private static final int ENTRY_OVERHEAD = 96; // estimated bytes of an entry besides its result terms
+    private static final int TERM_SIZE = 12; // bytes of one term in the packed arrays of a result or an operand
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>(); // cached results
+    private final long maxBytes; // estimated size above which entries are evicted
+    private final AtomicLong bytes = new AtomicLong(); // estimated size of the cached results
+    private final AtomicLong clock = new AtomicLong(); // source of access times, advanced on every store
+    private final ReentrantLock evictionLock = new ReentrantLock(); // held by the thread evicting
+    private final LongAdder hits = new LongAdder(); // lookups answered from the cache
+    private final LongAdder misses = new LongAdder(); // lookups that had to compute
+
+    /**
+     * The kinds of cached results.
+     */
+    private enum Operation {
+        MULTIPLY, DIVIDE, POW
+    }
+
+    /**
+     * Identifies a cached result by its operation and the identity of its operands.
+     */
+    private static final class Key {
+        private final Operation operation;
+        private final ImmutablePolynomial left;
+        private final ImmutablePolynomial right; // null for a power
+        private final int exponent; // zero unless the operation is a power
+
+        Key(Operation operation, ImmutablePolynomial left, ImmutablePolynomial right, int exponent) {
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+            this.exponent = exponent;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key that = (Key) other;
+            return operation == that.operation && left == that.left && right == that.right && exponent == that.exponent;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 31 * operation.hashCode() + System.identityHashCode(left);
+            return 31 * (31 * h + System.identityHashCode(right)) + exponent;
+        }
+    }
+
+    /**
+     * A cached result with its estimated size and last access time.
+     */
+    private static final class Entry {
+        private final Object value; // an ImmutablePolynomial or an ImmutableQuotient
+        private final long size; // estimated bytes
+        private volatile long lastAccess; // clock value at the latest hit, shared by the hits between two stores
+
+        Entry(Object value, long size, long lastAccess) {
+            this.value = value;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Creates a cache holding results up to an estimated memory size.
+     *
+     * @param maxBytes The estimated number of bytes the cached results may take.
+     */
+    public PolynomialCache(long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("The cache size must be positive.");
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the product of two ImmutablePolynomials, computing it on a miss.
+     *
+     * @param a The first factor.
+     * @param b The second factor.
+     * @return The product.
+     */
+    public ImmutablePolynomial multiply(ImmutablePolynomial a, ImmutablePolynomial b) {
+        Key key = new Key(Operation.MULTIPLY, a, b, 0);
+        ImmutablePolynomial cached = (ImmutablePolynomial) lookup(key);
+        if (cached != null) return cached;
+        ImmutablePolynomial product = a.multiply(b);
+        store(key, product, product.getTermCount() + a.getTermCount() + b.getTermCount());
+        return product;
+    }
+
+    /**
+     * Returns the quotient and remainder of two ImmutablePolynomials, computing them on a miss.
+     *
+     * @param a       The dividend.
+     * @param divisor The divisor.
+     * @return The quotient and remainder.
+     * @throws ArithmeticException If the divisor is zero.
+     */
+    public ImmutableQuotient divide(ImmutablePolynomial a, ImmutablePolynomial divisor) {
+        Key key = new Key(Operation.DIVIDE, a, divisor, 0);
+        ImmutableQuotient cached = (ImmutableQuotient) lookup(key);
+        if (cached != null) return cached;
+        ImmutableQuotient quotient = a.divide(divisor);
+        store(key, quotient, quotient.getQuotientP().getTermCount() + quotient.getRemainderP().getTermCount()
+                + a.getTermCount() + divisor.getTermCount());
+        return quotient;
+    }
+
+    /**
+     * Returns an ImmutablePolynomial raised to a power, computing it on a miss.
+     *
+     * @param a        The base.
+     * @param exponent The non-negative exponent.
+     * @return The power.
+     */
+    public ImmutablePolynomial pow(ImmutablePolynomial a, int exponent) {
+        Key key = new Key(Operation.POW, a, null, exponent);
+        ImmutablePolynomial cached = (ImmutablePolynomial) lookup(key);
+        if (cached != null) return cached;
+        ImmutablePolynomial power = a.pow(exponent);
+        store(key, power, power.getTermCount() + a.getTermCount());
+        return power;
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated memory taken by the cached results.
+     *
+     * @return The estimated number of bytes.
+     */
+    public long getEstimatedBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to compute their result.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (Key key : entries.keySet()) {
+                Entry entry = entries.remove(key);
+                if (entry != null) bytes.addAndGet(-entry.size);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Looks up a result and records the access.
+     *
+     * @param key The key of the result.
+     * @return The cached result, or null on a miss.
+     */
+    private Object lookup(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        long now = clock.get();
+        if (entry.lastAccess != now) entry.lastAccess = now; // hot entries are only written once per store
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Stores a computed result, evicting old entries if the cache is over its size.
+     *
+     * @param key   The key of the result.
+     * @param value The result.
+     * @param terms The number of terms the result and the operands of the key hold.
+     */
+    private void store(Key key, Object value, int terms) {
+        long size = ENTRY_OVERHEAD + (long) TERM_SIZE * terms;
+        if (size > maxBytes) return; // would evict everything else for one result
+        Entry entry = new Entry(value, size, clock.incrementAndGet());
+        if (entries.putIfAbsent(key, entry) != null) return; // another thread stored it first
+        if (bytes.addAndGet(size) > maxBytes) evict();
+    }
+
+    /**
+     * Removes the least recently used entries until the cache is back to three quarters of its
+     * size, so evictions happen in batches rather than on every store.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) return; // another thread is already evicting
+        try {
+            if (bytes.get() <= maxBytes) return;
+            List<Map.Entry<Key, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            long[] times = new long[candidates.size()]; // snapshot, as hits keep updating the entries
+            Integer[] byAge = new Integer[candidates.size()];
+            for (int i = 0; i < byAge.length; i++) {
+                times[i] = candidates.get(i).getValue().lastAccess;
+                byAge[i] = i;
+            }
+            Arrays.sort(byAge, Comparator.comparingLong(i -> times[i]));
+            long target = maxBytes - maxBytes / 4;
+            for (int i : byAge) {
+                if (bytes.get() <= target) break;
+                Map.Entry<Key, Entry> candidate = candidates.get(i);
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    bytes.addAndGet(-candidate.getValue().size);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
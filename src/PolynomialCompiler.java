@@ -0,0 +1,439 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Specializes a polynomial into a DoubleUnaryOperator whose applyAsDouble method is generated
+ * straight-line bytecode, with the coefficients as constants of the class. The generated class
+ * is defined as a hidden class, so it can be unloaded once the operator is unreachable, and the
+ * JIT compiles its method like hand-written code: no loop, no array load, no term list.
+ * <p>
+ * Two evaluation schemes can be generated. Horner's scheme does one multiplication and one
+ * addition per coefficient, but every step waits for the previous one. Estrin's scheme splits
+ * the polynomial into halves evaluated independently and joined with a power x^(2^k), so the
+ * processor can overlap the multiplications of both halves at the cost of a few more of them.
+ * Gaps between the degrees of sparse polynomials are bridged with the powers x^(2^k), which are
+ * computed once per call. Polynomials with more than MAX_GENERATED_TERMS terms, whose code would
+ * approach the size limit of a method, get an operator that runs Horner's scheme over arrays.
+ */
+public final class PolynomialCompiler {
+    /**
+     * The evaluation schemes that can be generated.
+     */
+    public enum Scheme {
+        HORNER, ESTRIN
+    }
+
+    static final int MAX_GENERATED_TERMS = 2048; // largest number of terms compiled to bytecode
+    private static final int ESTRIN_MIN_DEGREE = 8; // degree from which compile picks Estrin's scheme for dense polynomials
+    private static final String CLASS_NAME = "CompiledPolynomial"; // internal name of the generated classes
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private PolynomialCompiler() {
+    }
+
+    /**
+     * Chooses the scheme for terms: Estrin's for polynomials of a high enough degree with no
+     * negative degree and at least one term per four degrees, Horner's otherwise.
+     *
+     * @param degrees The degrees in descending order.
+     * @param count   The number of terms.
+     * @return The scheme.
+     */
+    static Scheme select(int[] degrees, int count) {
+        if (count == 0 || degrees[count - 1] < 0 || degrees[0] < ESTRIN_MIN_DEGREE) return Scheme.HORNER;
+        return 4L * count > degrees[0] ? Scheme.ESTRIN : Scheme.HORNER;
+    }
+
+    /**
+     * Compiles terms into an evaluation function.
+     *
+     * @param degrees The degrees in strictly descending order.
+     * @param coefs   The non-zero coefficients.
+     * @param count   The number of terms.
+     * @param scheme  The scheme; Estrin's is replaced by Horner's when a degree is negative.
+     * @return The evaluation function.
+     */
+    static DoubleUnaryOperator compile(int[] degrees, double[] coefs, int count, Scheme scheme) {
+        if (count == 0) return x -> 0;
+        if (count > MAX_GENERATED_TERMS) return interpreter(degrees, coefs, count);
+        boolean estrin = scheme == Scheme.ESTRIN && degrees[count - 1] >= 0;
+        byte[] bytes = new ClassBuilder(degrees, coefs, count, estrin).build();
+        try {
+            return (DoubleUnaryOperator) LOOKUP.defineHiddenClass(bytes, true).lookupClass()
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            return interpreter(degrees, coefs, count); // the generated class was rejected
+        }
+    }
+
+    /**
+     * Returns an evaluation function that runs Horner's scheme over copies of the terms, as
+     * Polynomial.evaluate does for the sparse form.
+     *
+     * @param degrees The degrees in descending order.
+     * @param coefs   The coefficients.
+     * @param count   The number of terms.
+     * @return The evaluation function.
+     */
+    private static DoubleUnaryOperator interpreter(int[] degrees, double[] coefs, int count) {
+        int[] d = Arrays.copyOf(degrees, count);
+        double[] c = Arrays.copyOf(coefs, count);
+        return x -> {
+            double sum = c[0];
+            for (int i = 1; i < d.length; i++) {
+                int gap = d[i - 1] - d[i];
+                sum = sum * (gap == 1 ? x : Polynomial.power(x, gap)) + c[i];
+            }
+            int last = d[d.length - 1];
+            return last == 0 ? sum : sum * Polynomial.power(x, last);
+        };
+    }
+
+    /**
+     * Writes the class file of one compiled polynomial. The class has a public no-argument
+     * constructor and an applyAsDouble method, and needs no stack map since the code does not
+     * branch.
+     */
+    private static final class ClassBuilder {
+        private static final int DCONST_0 = 0x0e, DCONST_1 = 0x0f, LDC2_W = 0x14, DLOAD = 0x18, DLOAD_1 = 0x27,
+                ALOAD_0 = 0x2a, DSTORE = 0x39, DADD = 0x63, DMUL = 0x6b, DDIV = 0x6f, DRETURN = 0xaf,
+                RETURN = 0xb1, INVOKESPECIAL = 0xb7;
+
+        private final int[] degrees; // degrees in descending order
+        private final double[] coefs; // coefficients of the degrees
+        private final int count; // number of terms
+        private final boolean estrin; // whether to generate Estrin's scheme
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream(); // constant pool entries
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private final Map<Object, Integer> constants = new HashMap<>(); // index of each constant already written
+        private int poolSize = 1; // next constant pool index
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream(); // bytecode of applyAsDouble
+        private int powers; // number of powers x^(2^k), k >= 1, held in locals
+
+        /**
+         * Creates the builder of a class.
+         *
+         * @param degrees The degrees in descending order.
+         * @param coefs   The coefficients.
+         * @param count   The number of terms.
+         * @param estrin  Whether to generate Estrin's scheme.
+         */
+        ClassBuilder(int[] degrees, double[] coefs, int count, boolean estrin) {
+            this.degrees = degrees;
+            this.coefs = coefs;
+            this.count = count;
+            this.estrin = estrin;
+        }
+
+        /**
+         * Builds the class file.
+         *
+         * @return The bytes of the class file.
+         */
+        byte[] build() {
+            try {
+                int thisClass = classEntry(CLASS_NAME);
+                int superClass = classEntry("java/lang/Object");
+                int operator = classEntry("java/util/function/DoubleUnaryOperator");
+                int init = utf8("<init>");
+                int voidDescriptor = utf8("()V");
+                int codeName = utf8("Code");
+                int apply = utf8("applyAsDouble");
+                int applyDescriptor = utf8("(D)D");
+                int objectInit = entry(10, superClass, entry(12, init, voidDescriptor)); // Methodref of Object.<init>
+
+                int maxStack = estrin ? generateEstrin() : generateHorner();
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(52); // class file version of Java 8; code without branches needs no stack map
+                out.writeShort(poolSize);
+                pool.writeTo(out);
+                out.writeShort(0x0001 | 0x0010 | 0x1000); // public final synthetic
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(operator);
+                out.writeShort(0); // no fields
+                out.writeShort(2);
+
+                out.writeShort(0x0001); // public <init>()
+                out.writeShort(init);
+                out.writeShort(voidDescriptor);
+                out.writeShort(1);
+                byte[] constructor = {(byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit, (byte) RETURN};
+                writeCode(out, codeName, 1, 1, constructor);
+
+                out.writeShort(0x0001 | 0x0010); // public final applyAsDouble(double)
+                out.writeShort(apply);
+                out.writeShort(applyDescriptor);
+                out.writeShort(1);
+                writeCode(out, codeName, maxStack, 3 + 2 * powers, code.toByteArray());
+
+                out.writeShort(0); // no class attributes
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // a ByteArrayOutputStream does not throw
+            }
+        }
+
+        /**
+         * Generates Horner's scheme, multiplying by x^gap between consecutive terms.
+         *
+         * @return The maximum stack size.
+         * @throws IOException If writing fails.
+         */
+        private int generateHorner() throws IOException {
+            int largest = Math.abs(degrees[count - 1]);
+            for (int i = 1; i < count; i++) {
+                largest = Math.max(largest, degrees[i - 1] - degrees[i]);
+            }
+            computePowers(31 - Integer.numberOfLeadingZeros(Math.max(largest, 1)));
+            pushConstant(coefs[0]);
+            for (int i = 1; i < count; i++) {
+                multiplyPower(degrees[i - 1] - degrees[i]);
+                pushConstant(coefs[i]);
+                code.write(DADD);
+            }
+            int last = degrees[count - 1];
+            if (last > 0) {
+                multiplyPower(last);
+            } else if (last < 0) {
+                pushPower(-last);
+                code.write(DDIV);
+            }
+            code.write(DRETURN);
+            return 6;
+        }
+
+        /**
+         * Generates Estrin's scheme over the degrees from 0 to the next power of two above the
+         * highest degree. Ranges without terms generate no code.
+         *
+         * @return The maximum stack size.
+         * @throws IOException If writing fails.
+         */
+        private int generateEstrin() throws IOException {
+            int levels = 32 - Integer.numberOfLeadingZeros(degrees[0]); // 2^levels > highest degree
+            computePowers(levels - 1);
+            int[] ascending = new int[count];
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                ascending[i] = degrees[count - 1 - i];
+                values[i] = coefs[count - 1 - i];
+            }
+            estrin(ascending, values, 0, count, 0, levels);
+            code.write(DRETURN);
+            return 2 * (levels + 2);
+        }
+
+        /**
+         * Generates the code pushing the sum of the terms in a range of degrees, relative to the
+         * start of the range: the lower half plus the upper half times x^(half length).
+         *
+         * @param ascending The degrees in ascending order.
+         * @param values    Their coefficients.
+         * @param first     The first term in the range.
+         * @param last      The end of the terms in the range.
+         * @param low       The first degree of the range.
+         * @param level     The range covers 2^level degrees.
+         * @return false if the range has no terms and no code was generated.
+         * @throws IOException If writing fails.
+         */
+        private boolean estrin(int[] ascending, double[] values, int first, int last, long low, int level) throws IOException {
+            if (first == last) return false;
+            if (level == 0) {
+                pushConstant(values[first]);
+                return true;
+            }
+            long middle = low + (1L << (level - 1));
+            int split = first;
+            while (split < last && ascending[split] < middle) split++;
+            boolean lower = estrin(ascending, values, first, split, low, level - 1);
+            if (estrin(ascending, values, split, last, middle, level - 1)) {
+                loadPower(level - 1);
+                code.write(DMUL);
+                if (lower) code.write(DADD);
+            }
+            return true;
+        }
+
+        /**
+         * Generates the code storing x^(2^k) for k from 1 to a maximum in consecutive locals.
+         *
+         * @param maximum The largest k.
+         * @throws IOException If writing fails.
+         */
+        private void computePowers(int maximum) throws IOException {
+            for (int k = 1; k <= maximum; k++) {
+                loadPower(k - 1);
+                loadPower(k - 1);
+                code.write(DMUL);
+                code.write(DSTORE);
+                code.write(local(k));
+            }
+            powers = Math.max(maximum, 0);
+        }
+
+        /**
+         * Generates the code multiplying the top of the stack by x^exponent.
+         *
+         * @param exponent The positive exponent.
+         * @throws IOException If writing fails.
+         */
+        private void multiplyPower(int exponent) throws IOException {
+            for (int k = 0; k < 31; k++) {
+                if ((exponent & (1 << k)) == 0) continue;
+                loadPower(k);
+                code.write(DMUL);
+            }
+        }
+
+        /**
+         * Generates the code pushing x^exponent.
+         *
+         * @param exponent The positive exponent.
+         * @throws IOException If writing fails.
+         */
+        private void pushPower(int exponent) throws IOException {
+            int lowest = Integer.numberOfTrailingZeros(exponent);
+            loadPower(lowest);
+            multiplyPower(exponent & ~(1 << lowest));
+        }
+
+        /**
+         * Generates the code pushing x^(2^k).
+         *
+         * @param k The logarithm of the exponent.
+         */
+        private void loadPower(int k) {
+            if (k == 0) {
+                code.write(DLOAD_1);
+            } else {
+                code.write(DLOAD);
+                code.write(local(k));
+            }
+        }
+
+        /**
+         * Returns the local holding x^(2^k), after this and x.
+         *
+         * @param k The logarithm of the exponent, at least 1.
+         * @return The local index.
+         */
+        private static int local(int k) {
+            return 3 + 2 * (k - 1);
+        }
+
+        /**
+         * Generates the code pushing a double constant.
+         *
+         * @param value The constant.
+         * @throws IOException If writing fails.
+         */
+        private void pushConstant(double value) throws IOException {
+            if (Double.doubleToRawLongBits(value) == 0) {
+                code.write(DCONST_0);
+            } else if (value == 1) {
+                code.write(DCONST_1);
+            } else {
+                int index = doubleEntry(value);
+                code.write(LDC2_W);
+                code.write(index >> 8);
+                code.write(index);
+            }
+        }
+
+        /**
+         * Writes a Code attribute.
+         *
+         * @param out       The class file.
+         * @param name      The index of "Code".
+         * @param maxStack  The maximum stack size.
+         * @param maxLocals The number of locals.
+         * @param bytecode  The instructions.
+         * @throws IOException If writing fails.
+         */
+        private static void writeCode(DataOutputStream out, int name, int maxStack, int maxLocals, byte[] bytecode) throws IOException {
+            out.writeShort(name);
+            out.writeInt(12 + bytecode.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(bytecode.length);
+            out.write(bytecode);
+            out.writeShort(0); // no exception table
+            out.writeShort(0); // no attributes
+        }
+
+        /**
+         * Returns the index of a UTF-8 constant, writing it if needed.
+         *
+         * @param value The string.
+         * @return The index.
+         * @throws IOException If writing fails.
+         */
+        private int utf8(String value) throws IOException {
+            Integer index = constants.get(value);
+            if (index != null) return index;
+            poolOut.writeByte(1);
+            poolOut.writeUTF(value);
+            constants.put(value, poolSize);
+            return poolSize++;
+        }
+
+        /**
+         * Writes a class constant.
+         *
+         * @param name The internal name of the class.
+         * @return The index.
+         * @throws IOException If writing fails.
+         */
+        private int classEntry(String name) throws IOException {
+            return entry(7, utf8(name));
+        }
+
+        /**
+         * Returns the index of a double constant, writing it if needed.
+         *
+         * @param value The double.
+         * @return The index.
+         * @throws IOException If writing fails.
+         */
+        private int doubleEntry(double value) throws IOException {
+            Long key = Double.doubleToRawLongBits(value);
+            Integer index = constants.get(key);
+            if (index != null) return index;
+            poolOut.writeByte(6);
+            poolOut.writeDouble(value);
+            constants.put(key, poolSize);
+            int result = poolSize;
+            poolSize += 2; // a double takes two constant pool slots
+            return result;
+        }
+
+        /**
+         * Writes a constant pool entry made of a tag and 16-bit references.
+         *
+         * @param tag        The entry tag.
+         * @param references The referenced indexes.
+         * @return The index of the entry.
+         * @throws IOException If writing fails.
+         */
+        private int entry(int tag, int... references) throws IOException {
+            poolOut.writeByte(tag);
+            for (int reference : references) {
+                poolOut.writeShort(reference);
+            }
+            return poolSize++;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.Arrays;
+
+/**
+ * Composes polynomials given as coefficient arrays indexed by degree. Composition p(q) splits
+ * p into halves, p = low + x^h high with h a power of two, so that p(q) = low(q) + q^h high(q):
+ * the powers q^(2^k) are computed once by squaring, and every level of the recursion costs a
+ * few fast multiplications of PolynomialMultiplier. The Taylor shift p(x + a) is the composition
+ * with x + a, except for short polynomials, which are shifted in place by repeated synthetic
+ * division.
+ * <p>
+ * Precision: the products are rounded as a whole rather than coefficient by coefficient, so the
+ * error bound is normwise. Each coefficient of p(q) is accurate to a small multiple of
+ * n log n unit roundoffs times the largest coefficient of |p|(|q|), the composition of the
+ * polynomials of absolute coefficients, where n is the length of the result. A coefficient
+ * much smaller than that largest one, from cancellation or because it is small in |p|(|q|) as
+ * well, may have no correct digit. Synthetic division keeps the stronger bound of about n unit
+ * roundoffs times the same coefficient of |p|(x + |a|).
+ */
+final class PolynomialComposer {
+    private static final int LEAF_LENGTH = 16; // length of the blocks of p composed by Horner's scheme
+    private static final int SYNTHETIC_LENGTH = 64; // length up to which shifts use synthetic division
+
+    private PolynomialComposer() {
+    }
+
+    /**
+     * Computes the composition p(q).
+     *
+     * @param p       The outer polynomial.
+     * @param lengthP The number of coefficients of p.
+     * @param q       The inner polynomial.
+     * @param lengthQ The number of coefficients of q.
+     * @return The coefficients of p(q), of length (lengthP - 1) (lengthQ - 1) + 1, or empty if p is empty.
+     */
+    static double[] compose(double[] p, int lengthP, double[] q, int lengthQ) {
+        if (lengthP == 0) return new double[0];
+        if (lengthQ <= 1) { // a constant inner polynomial
+            double value = lengthQ == 0 ? 0 : q[0];
+            double sum = 0;
+            for (int i = lengthP - 1; i >= 0; i--) {
+                sum = sum * value + p[i];
+            }
+            return new double[]{sum};
+        }
+        int top = Integer.highestOneBit(Math.max(lengthP - 1, 1)) << 1; // smallest power of two >= lengthP
+        int levels = Integer.numberOfTrailingZeros(top);
+        double[][] powers = new double[levels][]; // powers[k] = q^(2^k)
+        powers[0] = Arrays.copyOf(q, lengthQ);
+        for (int k = 1; k < levels && (1 << k) < lengthP; k++) {
+            powers[k] = PolynomialMultiplier.multiply(powers[k - 1], powers[k - 1].length, powers[k - 1], powers[k - 1].length);
+        }
+        return compose(p, 0, Math.min(top, lengthP), levels, q, lengthQ, powers);
+    }
+
+    /**
+     * Computes the composition of a block of coefficients of p, relative to its first degree.
+     *
+     * @param p       The outer polynomial.
+     * @param offset  The first degree of the block.
+     * @param length  The number of coefficients of the block, at most 2^level.
+     * @param level   The logarithm of the length of a full block at this depth.
+     * @param q       The inner polynomial.
+     * @param lengthQ The number of coefficients of q.
+     * @param powers  The powers q^(2^k).
+     * @return The composition of the block.
+     */
+    private static double[] compose(double[] p, int offset, int length, int level, double[] q, int lengthQ, double[][] powers) {
+        if (length <= LEAF_LENGTH) {
+            double[] result = {p[offset + length - 1]};
+            for (int i = length - 2; i >= 0; i--) {
+                result = PolynomialMultiplier.multiply(result, result.length, q, lengthQ);
+                result[0] += p[offset + i];
+            }
+            return result;
+        }
+        int half = 1 << (level - 1);
+        if (length <= half) return compose(p, offset, length, level - 1, q, lengthQ, powers);
+        double[] low = compose(p, offset, half, level - 1, q, lengthQ, powers);
+        double[] high = compose(p, offset + half, length - half, level - 1, q, lengthQ, powers);
+        double[] result = PolynomialMultiplier.multiply(high, high.length, powers[level - 1], powers[level - 1].length);
+        for (int i = 0; i < low.length; i++) {
+            result[i] += low[i];
+        }
+        return result;
+    }
+
+    /**
+     * Computes the Taylor shift p(x + a).
+     *
+     * @param p      The polynomial.
+     * @param length The number of coefficients of p.
+     * @param a      The shift.
+     * @return The coefficients of p(x + a), of the given length.
+     */
+    static double[] shift(double[] p, int length, double a) {
+        if (length > SYNTHETIC_LENGTH && a != 0) return compose(p, length, new double[]{a, 1}, 2);
+        double[] result = Arrays.copyOf(p, length);
+        if (a == 0) return result;
+        for (int i = 0; i < length - 1; i++) { // divide by x - (-a) once per coefficient, keeping the remainders
+            for (int j = length - 2; j >= i; j--) {
+                result[j] += a * result[j + 1];
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,211 @@
+import java.util.LinkedList;
+import java.util.ListIterator;
+
+/**
+ * Divides polynomials given as coefficient arrays indexed by degree, or as sorted term lists.
+ * Both forms work on a single remainder buffer that is updated in place. Large divisions of
+ * coefficient arrays use the reversed reciprocal of the divisor, computed by Newton iteration,
+ * so that their cost is a few fast multiplications instead of one pass per quotient term.
+ */
+public class PolynomialDivider {
+    private static int newtonThreshold = 1536; // quotient and divisor length from which Newton division is used
+
+    private PolynomialDivider() {
+    }
+
+    /**
+     * Returns the quotient and divisor length from which Newton division is used.
+     *
+     * @return The Newton threshold.
+     */
+    public static int getNewtonThreshold() {
+        return newtonThreshold;
+    }
+
+    /**
+     * Sets the quotient and divisor length from which Newton division is used.
+     *
+     * @param threshold The Newton threshold, at least 1.
+     */
+    public static void setNewtonThreshold(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("The Newton threshold must be at least 1.");
+        newtonThreshold = threshold;
+    }
+
+    /**
+     * Returns whether a division of coefficient arrays uses Newton division.
+     *
+     * @param lengthR The number of coefficients of the dividend, at least lengthB.
+     * @param lengthB The number of coefficients of the divisor.
+     * @return true if the reversed reciprocal of the divisor is used.
+     */
+    static boolean usesNewton(int lengthR, int lengthB) {
+        return Math.min(lengthR - lengthB + 1, lengthB) >= newtonThreshold;
+    }
+
+    /**
+     * Divides a coefficient array in place. On entry the remainder buffer holds the dividend; on
+     * exit it holds the remainder, with every coefficient from the degree of the divisor upwards
+     * set to zero.
+     *
+     * @param remainder The dividend, replaced by the remainder.
+     * @param lengthR   The number of coefficients of the dividend, at least lengthB.
+     * @param divisor   The divisor coefficients indexed by degree, with a non-zero leading coefficient.
+     * @param lengthB   The number of coefficients of the divisor.
+     * @param quotient  Receives the quotient, at least lengthR - lengthB + 1 long.
+     */
+    public static void divideInPlace(double[] remainder, int lengthR, double[] divisor, int lengthB, double[] quotient) {
+        if (usesNewton(lengthR, lengthB)) {
+            newtonDivide(remainder, lengthR, divisor, lengthB, quotient);
+        } else {
+            longDivide(remainder, lengthR, divisor, lengthB, quotient);
+        }
+    }
+
+    /**
+     * Divides a sorted term list in place by long division. On entry the remainder list holds the
+     * dividend; on exit it holds the remainder. Each step merges the scaled divisor into the list
+     * with one iterator, so only terms for new degrees are allocated.
+     *
+     * @param remainder The dividend terms sorted by descending degree, replaced by the remainder.
+     * @param degrees   The divisor degrees in descending order.
+     * @param coefs     The divisor coefficients, with a non-zero first coefficient.
+     * @param count     The number of divisor terms.
+     * @param quotient  Receives the quotient terms in descending order of degree.
+     */
+    public static void divideInPlace(LinkedList<Term> remainder, int[] degrees, double[] coefs, int count,
+                                     LinkedList<Term> quotient) {
+        int leadDegree = degrees[0];
+        double lead = coefs[0];
+        while (!remainder.isEmpty() && remainder.getFirst().getDegree() >= leadDegree) {
+            Term numTerm = remainder.removeFirst(); // the leading term is eliminated exactly
+            double coef = numTerm.getCoefficient() / lead;
+            int shift = numTerm.getDegree() - leadDegree;
+            if (coef == 0) continue;
+            quotient.add(new Term(coef, numTerm.getLiteral(), shift));
+
+            ListIterator<Term> it = remainder.listIterator();
+            for (int j = 1; j < count; j++) {
+                int deg = degrees[j] + shift;
+                double value = -coef * coefs[j];
+                Term current = null;
+                while (it.hasNext()) {
+                    current = it.next();
+                    if (current.getDegree() <= deg) break;
+                    current = null;
+                }
+                if (current != null && current.getDegree() == deg) {
+                    double updated = current.getCoefficient() + value;
+                    if (updated == 0) {
+                        it.remove();
+                    } else {
+                        current.setCoefficient(updated);
+                    }
+                } else {
+                    if (current != null) it.previous(); // insert before the first lower degree
+                    it.add(new Term(value, numTerm.getLiteral(), deg));
+                }
+            }
+        }
+    }
+
+    /**
+     * Divides by long division, eliminating the highest remaining degree on each step.
+     *
+     * @param r        The dividend, replaced by the remainder.
+     * @param lengthR  The number of coefficients of the dividend.
+     * @param b        The divisor.
+     * @param lengthB  The number of coefficients of the divisor.
+     * @param q        Receives the quotient.
+     */
+    private static void longDivide(double[] r, int lengthR, double[] b, int lengthB, double[] q) {
+        int divisorDegree = lengthB - 1;
+        double lead = b[divisorDegree];
+        int nonZero = 0;
+        for (int j = 0; j < divisorDegree; j++) {
+            if (b[j] != 0) nonZero++;
+        }
+        int[] index = new int[nonZero]; // only the non-zero lower coefficients of the divisor are applied
+        nonZero = 0;
+        for (int j = 0; j < divisorDegree; j++) {
+            if (b[j] != 0) index[nonZero++] = j;
+        }
+
+        for (int i = lengthR - lengthB; i >= 0; i--) {
+            double coef = r[i + divisorDegree] / lead;
+            q[i] = coef;
+            r[i + divisorDegree] = 0;
+            if (coef == 0) continue;
+            for (int j : index) {
+                r[i + j] -= coef * b[j];
+            }
+        }
+    }
+
+    /**
+     * Divides through the reversed reciprocal of the divisor. With rev(p) the coefficients of p in
+     * reverse order and k the quotient length, rev(q) = rev(a) * rev(b)^-1 mod x^k.
+     *
+     * @param r       The dividend, replaced by the remainder.
+     * @param lengthR The number of coefficients of the dividend.
+     * @param b       The divisor.
+     * @param lengthB The number of coefficients of the divisor.
+     * @param q       Receives the quotient.
+     */
+    private static void newtonDivide(double[] r, int lengthR, double[] b, int lengthB, double[] q) {
+        int k = lengthR - lengthB + 1;
+        double[] reversedB = new double[Math.min(lengthB, k)];
+        for (int i = 0; i < reversedB.length; i++) {
+            reversedB[i] = b[lengthB - 1 - i];
+        }
+        double[] inverse = reciprocal(reversedB, k);
+
+        double[] reversedA = new double[k];
+        for (int i = 0; i < k; i++) {
+            reversedA[i] = r[lengthR - 1 - i];
+        }
+        double[] reversedQ = PolynomialMultiplier.multiply(reversedA, k, inverse, k);
+        for (int i = 0; i < k; i++) {
+            q[i] = reversedQ[k - 1 - i];
+        }
+
+        double[] product = PolynomialMultiplier.multiply(q, k, b, lengthB);
+        for (int i = 0; i < lengthB - 1; i++) {
+            r[i] -= product[i];
+        }
+        for (int i = lengthB - 1; i < lengthR; i++) {
+            r[i] = 0;
+        }
+    }
+
+    /**
+     * Computes the power series reciprocal of f modulo x^n by Newton iteration, doubling the
+     * precision on each step with g = g - g * (f * g - 1).
+     *
+     * @param f The series, with a non-zero constant term. Coefficients past n are ignored.
+     * @param n The number of coefficients wanted.
+     * @return The first n coefficients of 1 / f.
+     */
+    public static double[] reciprocal(double[] f, int n) {
+        double[] g = new double[n];
+        g[0] = 1 / f[0];
+        int length = 1;
+        while (length < n) {
+            int next = Math.min(2 * length, n);
+            int lengthF = Math.min(f.length, next);
+            double[] fg = PolynomialMultiplier.multiply(f, lengthF, g, length);
+            // f * g - 1 vanishes below degree length, so only the coefficients from length to next are used
+            int lengthE = Math.min(next, fg.length) - length;
+            if (lengthE > 0) {
+                double[] error = new double[lengthE];
+                System.arraycopy(fg, length, error, 0, lengthE);
+                double[] correction = PolynomialMultiplier.multiply(g, length, error, lengthE);
+                for (int i = 0; i < next - length && i < correction.length; i++) {
+                    g[length + i] = -correction[i];
+                }
+            }
+            length = next;
+        }
+        return g;
+    }
+}
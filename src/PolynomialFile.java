@@ -0,0 +1,286 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Stores many polynomials in a compact binary file and reads them back through a memory
+ * mapping, so a large result set can be reloaded without parsing text. The file is opened
+ * with a single read-only mapping, and each polynomial is decoded only when it is asked for.
+ * evaluate reads the coefficients directly from the mapping without copying them.
+ * <p>
+ * The file is little-endian. It starts with a 16-byte header: the magic number "POLY", the
+ * format version, the number of polynomials and a reserved zero. The header is followed by
+ * the offset of each record as a long. Each record is aligned on 8 bytes and starts with the
+ * literal as a char, the form as a byte, a padding byte and the length n as an int. A dense
+ * record then holds n coefficients indexed by degree. A sparse record holds the n
+ * coefficients in term order followed by their n degrees.
+ */
+public class PolynomialFile {
+    static final int MAGIC = 0x504F4C59; // "POLY" read as a big-endian int
+    static final int VERSION = 1; // version of the layout
+    static final int HEADER_SIZE = 16; // bytes before the record offsets
+    static final int RECORD_HEADER_SIZE = 8; // bytes before the arrays of a record
+    static final byte SPARSE = 0; // form of a record holding coefficients and degrees
+    static final byte DENSE = 1; // form of a record holding coefficients indexed by degree
+    private static final int WRITE_BUFFER_SIZE = 1 << 16; // bytes written to the channel at a time
+
+    private final ByteBuffer data; // read-only mapping of the whole file
+    private final int count; // number of polynomials in the file
+
+    /**
+     * Wraps a buffer holding a file in this format.
+     *
+     * @param data The buffer, positioned anywhere; its byte order is set to little-endian.
+     * @throws IOException If the buffer does not start with a valid header.
+     */
+    private PolynomialFile(ByteBuffer data) throws IOException {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) throw new IOException("Not a polynomial file.");
+        if (data.getInt(4) != VERSION) throw new IOException("Unsupported polynomial file version " + data.getInt(4) + ".");
+        count = data.getInt(8);
+        if (count < 0 || HEADER_SIZE + 8L * count > data.limit()) throw new IOException("The polynomial file is truncated.");
+    }
+
+    /**
+     * Writes polynomials to a file, replacing its content. Dense polynomials are stored as
+     * their coefficient arrays and sparse ones as their terms, so each reads back in the same form.
+     *
+     * @param path        The file to write.
+     * @param polynomials The polynomials to store.
+     * @throws IOException If writing fails.
+     */
+    public static void write(Path path, List<Polynomial> polynomials) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(polynomials.size()).putInt(0);
+            long offset = HEADER_SIZE + 8L * polynomials.size();
+            for (Polynomial p : polynomials) {
+                reserve(channel, buffer, 8);
+                buffer.putLong(offset);
+                offset += recordSize(p);
+            }
+            for (Polynomial p : polynomials) {
+                writeRecord(channel, buffer, p);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * Opens a file written by write and maps it into memory.
+     *
+     * @param path The file to open.
+     * @return The opened file.
+     * @throws IOException If the file cannot be read, is larger than 2 GB or is not in this format.
+     */
+    public static PolynomialFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("The polynomial file is too large to map.");
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new PolynomialFile(mapped); // the mapping stays valid after the channel is closed
+        }
+    }
+
+    /**
+     * Returns the number of polynomials in the file.
+     *
+     * @return The number of polynomials.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Decodes a polynomial of the file.
+     *
+     * @param index The position of the polynomial in the file.
+     * @return A new Polynomial in the form it was written in.
+     */
+    public Polynomial get(int index) {
+        return decode(data, recordOffset(index));
+    }
+
+    /**
+     * Returns the literal of a polynomial of the file.
+     *
+     * @param index The position of the polynomial in the file.
+     * @return The literal.
+     */
+    public char getLiteral(int index) {
+        return data.getChar(recordOffset(index));
+    }
+
+    /**
+     * Returns the highest degree of a polynomial of the file.
+     *
+     * @param index The position of the polynomial in the file.
+     * @return The degree, or -1 if the polynomial has no terms.
+     */
+    public int getDegree(int index) {
+        return degree(data, recordOffset(index));
+    }
+
+    /**
+     * Evaluates a polynomial of the file directly from the mapping with Horner's scheme,
+     * without decoding it.
+     *
+     * @param index The position of the polynomial in the file.
+     * @param value The value at which to evaluate the polynomial.
+     * @return The result of the evaluation.
+     */
+    public double evaluate(int index, double value) {
+        return evaluate(data, recordOffset(index), value);
+    }
+
+    /**
+     * Decodes a record into a Polynomial.
+     *
+     * @param data   The little-endian buffer holding the record.
+     * @param record The offset of the record.
+     * @return A new Polynomial in the form of the record.
+     */
+    static Polynomial decode(ByteBuffer data, int record) {
+        char literal = data.getChar(record);
+        int n = data.getInt(record + 4);
+        double[] coefs = new double[n];
+        data.slice(record + RECORD_HEADER_SIZE, 8 * n).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(coefs);
+        if (data.get(record + 2) == DENSE) return Polynomial.wrap(coefs, literal);
+
+        int degrees = record + RECORD_HEADER_SIZE + 8 * n;
+        LinkedList<Term> terms = new LinkedList<>();
+        for (int i = 0; i < n; i++) {
+            terms.add(new Term(coefs[i], literal, data.getInt(degrees + 4 * i)));
+        }
+        Polynomial result = new Polynomial();
+        result.assignTerms(terms);
+        return result;
+    }
+
+    /**
+     * Returns the highest degree of a record.
+     *
+     * @param data   The little-endian buffer holding the record.
+     * @param record The offset of the record.
+     * @return The degree, or -1 if the record has no terms.
+     */
+    static int degree(ByteBuffer data, int record) {
+        int n = data.getInt(record + 4);
+        if (n == 0) return -1;
+        if (data.get(record + 2) == DENSE) return n - 1;
+        return data.getInt(record + RECORD_HEADER_SIZE + 8 * n); // the first term has the highest degree
+    }
+
+    /**
+     * Evaluates a record in place with Horner's scheme.
+     *
+     * @param data   The little-endian buffer holding the record.
+     * @param record The offset of the record.
+     * @param value  The value at which to evaluate the polynomial.
+     * @return The result of the evaluation.
+     */
+    static double evaluate(ByteBuffer data, int record, double value) {
+        int n = data.getInt(record + 4);
+        int coefs = record + RECORD_HEADER_SIZE;
+        double sum = 0;
+        if (data.get(record + 2) == DENSE) {
+            for (int i = n - 1; i >= 0; i--) {
+                sum = sum * value + data.getDouble(coefs + 8 * i);
+            }
+            return sum;
+        }
+        if (n == 0) return 0;
+        int degrees = coefs + 8 * n;
+        int previousDegree = data.getInt(degrees);
+        for (int i = 0; i < n; i++) {
+            int degree = data.getInt(degrees + 4 * i);
+            sum = sum * Polynomial.power(value, previousDegree - degree) + data.getDouble(coefs + 8 * i);
+            previousDegree = degree;
+        }
+        return sum * Polynomial.power(value, previousDegree);
+    }
+
+    /**
+     * Returns the offset of a record, checking the index.
+     *
+     * @param index The position of the polynomial in the file.
+     * @return The offset of its record.
+     */
+    private int recordOffset(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("No polynomial at index " + index + ".");
+        return (int) data.getLong(HEADER_SIZE + 8 * index);
+    }
+
+    /**
+     * Returns the number of bytes a Polynomial takes in the file, padding included.
+     *
+     * @param p The Polynomial.
+     * @return The size of its record.
+     */
+    static long recordSize(Polynomial p) {
+        if (p.isDense()) return RECORD_HEADER_SIZE + 8L * (p.getDegree() + 1);
+        long n = p.getTermCount();
+        return RECORD_HEADER_SIZE + ((12 * n + 7) & ~7L);
+    }
+
+    /**
+     * Writes the record of a Polynomial through the buffer.
+     *
+     * @param channel The channel receiving full buffers.
+     * @param buffer  The buffer being filled.
+     * @param p       The Polynomial.
+     * @throws IOException If writing fails.
+     */
+    private static void writeRecord(FileChannel channel, ByteBuffer buffer, Polynomial p) throws IOException {
+        reserve(channel, buffer, RECORD_HEADER_SIZE);
+        if (p.isDense()) {
+            int n = p.getDegree() + 1;
+            double[] coefs = p.coefficientArray();
+            buffer.putChar(p.getLiteral()).put(DENSE).put((byte) 0).putInt(n);
+            for (int i = 0; i < n; i++) {
+                reserve(channel, buffer, 8);
+                buffer.putDouble(coefs[i]);
+            }
+            return;
+        }
+        int n = p.getTermCount();
+        int[] degrees = new int[n];
+        double[] coefs = new double[n];
+        p.copyTerms(degrees, coefs);
+        buffer.putChar(p.getLiteral()).put(SPARSE).put((byte) 0).putInt(n);
+        for (int i = 0; i < n; i++) {
+            reserve(channel, buffer, 8);
+            buffer.putDouble(coefs[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            reserve(channel, buffer, 4);
+            buffer.putInt(degrees[i]);
+        }
+        if ((n & 1) != 0) {
+            reserve(channel, buffer, 4);
+            buffer.putInt(0); // pads the record to 8 bytes
+        }
+    }
+
+    /**
+     * Makes room for a number of bytes, writing the buffer to the channel when it is full.
+     *
+     * @param channel The channel receiving full buffers.
+     * @param buffer  The buffer being filled.
+     * @param bytes   The number of bytes needed.
+     * @throws IOException If writing fails.
+     */
+    private static void reserve(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
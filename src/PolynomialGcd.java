@@ -0,0 +1,501 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Computes greatest common divisors of polynomials. Polynomials whose coefficients are all
+ * integers take an exact path: their gcd is computed modulo several primes, where the half-GCD
+ * algorithm makes each modular gcd quasi-linear, and the results are recombined with the
+ * Chinese remainder theorem until a candidate divides both operands. Other polynomials take the
+ * Euclidean algorithm on double coefficients. There, a remainder coefficient counts as zero
+ * when it is within a tolerance of the size of the operands, so a gcd is found even when
+ * rounding leaves tiny remainders. Both paths return the gcd as a monic Polynomial.
+ */
+public class PolynomialGcd {
+    private static double defaultTolerance = 1e-10; // remainder size, relative to the operands, treated as zero
+
+    private PolynomialGcd() {
+    }
+
+    /**
+     * Returns the tolerance used when none is given.
+     *
+     * @return The default tolerance.
+     */
+    public static double getDefaultTolerance() {
+        return defaultTolerance;
+    }
+
+    /**
+     * Sets the tolerance used when none is given.
+     *
+     * @param tolerance The default tolerance, not negative.
+     */
+    public static void setDefaultTolerance(double tolerance) {
+        if (!(tolerance >= 0)) throw new IllegalArgumentException("The tolerance must not be negative.");
+        defaultTolerance = tolerance;
+    }
+
+    /**
+     * Returns the degree from which modular gcds use the half-GCD algorithm.
+     *
+     * @return The half-GCD threshold.
+     */
+    public static int getHalfGcdThreshold() {
+        return ModularPolynomials.getHalfGcdThreshold();
+    }
+
+    /**
+     * Sets the degree from which modular gcds use the half-GCD algorithm.
+     *
+     * @param threshold The half-GCD threshold, at least 2.
+     */
+    public static void setHalfGcdThreshold(int threshold) {
+        ModularPolynomials.setHalfGcdThreshold(threshold);
+    }
+
+    /**
+     * Returns the monic greatest common divisor of two Polynomials with the default tolerance.
+     *
+     * @param a The first Polynomial.
+     * @param b The second Polynomial.
+     * @return The monic gcd, or the zero Polynomial if both are zero.
+     * @throws IllegalStateException If a Polynomial has a term with a negative degree.
+     */
+    public static Polynomial gcd(Polynomial a, Polynomial b) {
+        return gcd(a, b, defaultTolerance);
+    }
+
+    /**
+     * Returns the monic greatest common divisor of two Polynomials. The tolerance only applies
+     * when a coefficient is not an integer.
+     *
+     * @param a         The first Polynomial.
+     * @param b         The second Polynomial.
+     * @param tolerance The size of a remainder coefficient, relative to the operands, treated as zero.
+     * @return The monic gcd, or the zero Polynomial if both are zero.
+     * @throws IllegalStateException If a Polynomial has a term with a negative degree.
+     */
+    public static Polynomial gcd(Polynomial a, Polynomial b, double tolerance) {
+        char literal = a.getTermCount() > 0 ? a.getLiteral() : b.getLiteral();
+        double[] x = coefficients(a);
+        double[] y = coefficients(b);
+        if (isIntegral(x) && isIntegral(y)) {
+            ExactPolynomial g = gcd(ExactPolynomial.fromPolynomial(a), ExactPolynomial.fromPolynomial(b));
+            double[] coefs = new double[g.getDegree() + 1];
+            for (int i = 0; i < coefs.length; i++) {
+                coefs[i] = g.getCoefficient(i).doubleValue();
+            }
+            return Polynomial.wrap(monic(coefs, coefs.length), literal);
+        }
+        return extendedGcd(x, y, tolerance, false, literal).getGcd();
+    }
+
+    /**
+     * Returns the monic greatest common divisor of two Polynomials with cofactors, using the
+     * default tolerance.
+     *
+     * @param a The first Polynomial.
+     * @param b The second Polynomial.
+     * @return The gcd g and cofactors s and t with s * a + t * b = g.
+     * @throws IllegalStateException If a Polynomial has a term with a negative degree.
+     */
+    public static ExtendedGcd extendedGcd(Polynomial a, Polynomial b) {
+        return extendedGcd(a, b, defaultTolerance);
+    }
+
+    /**
+     * Returns the monic greatest common divisor of two Polynomials with cofactors. The
+     * cofactors of integer polynomials are rational in general, so this always runs the
+     * Euclidean algorithm on double coefficients.
+     *
+     * @param a         The first Polynomial.
+     * @param b         The second Polynomial.
+     * @param tolerance The size of a remainder coefficient, relative to the operands, treated as zero.
+     * @return The gcd g and cofactors s and t with s * a + t * b = g.
+     * @throws IllegalStateException If a Polynomial has a term with a negative degree.
+     */
+    public static ExtendedGcd extendedGcd(Polynomial a, Polynomial b, double tolerance) {
+        char literal = a.getTermCount() > 0 ? a.getLiteral() : b.getLiteral();
+        return extendedGcd(coefficients(a), coefficients(b), tolerance, true, literal);
+    }
+
+    /**
+     * Returns the greatest common divisor of two ExactPolynomials: the content gcd times the
+     * primitive gcd, with a positive leading coefficient.
+     *
+     * @param a The first ExactPolynomial.
+     * @param b The second ExactPolynomial.
+     * @return The gcd, or the zero polynomial if both are zero.
+     */
+    public static ExactPolynomial gcd(ExactPolynomial a, ExactPolynomial b) {
+        char literal = a.getDegree() >= 0 ? a.getLiteral() : b.getLiteral();
+        if (a.getDegree() < 0) return positive(b.getCoefficients(), literal);
+        if (b.getDegree() < 0) return positive(a.getCoefficients(), literal);
+
+        BigInteger[] x = a.getCoefficients();
+        BigInteger[] y = b.getCoefficients();
+        BigInteger contentX = content(x);
+        BigInteger contentY = content(y);
+        BigInteger content = contentX.gcd(contentY);
+        x = divide(x, contentX);
+        y = divide(y, contentY);
+        if (x.length == 1 || y.length == 1) return new ExactPolynomial(new BigInteger[]{content}, literal);
+
+        BigInteger[] g = modularGcd(x, y);
+        if (g == null) g = primitiveEuclid(x, y);
+        for (int i = 0; i < g.length; i++) {
+            g[i] = g[i].multiply(content);
+        }
+        return new ExactPolynomial(g, literal);
+    }
+
+    /**
+     * Computes the gcd of two primitive integer polynomials modulo successive primes. Primes
+     * dividing a leading coefficient are skipped, and primes giving a gcd of higher degree than
+     * another prime are unlucky and dropped. The modular gcds, scaled to the gcd of the leading
+     * coefficients, are recombined until the recombination stops changing and its primitive
+     * part divides both operands.
+     *
+     * @param x The first primitive polynomial, of degree at least 1.
+     * @param y The second primitive polynomial, of degree at least 1.
+     * @return The primitive gcd with a positive leading coefficient, or null if the primes ran out.
+     */
+    private static BigInteger[] modularGcd(BigInteger[] x, BigInteger[] y) {
+        BigInteger leadX = x[x.length - 1];
+        BigInteger leadY = y[y.length - 1];
+        BigInteger lead = leadX.gcd(leadY);
+        BigInteger modulus = null;
+        BigInteger[] combined = null;
+        int degree = Integer.MAX_VALUE;
+
+        for (int i = 0; i < NttMultiplier.primeCount(); i++) {
+            ModularPolynomials field = new ModularPolynomials(i);
+            long p = field.prime();
+            BigInteger prime = BigInteger.valueOf(p);
+            if (leadX.mod(prime).signum() == 0 || leadY.mod(prime).signum() == 0) continue;
+            long[] g = field.gcd(field.reduce(x), field.reduce(y));
+            int d = g.length - 1;
+            if (d == 0) return new BigInteger[]{BigInteger.ONE};
+            if (d > degree) continue;
+            long scale = lead.mod(prime).longValue();
+            for (int k = 0; k < g.length; k++) {
+                g[k] = g[k] * scale % p;
+            }
+
+            BigInteger[] previous = combined;
+            if (d < degree) { // every earlier prime was unlucky
+                degree = d;
+                modulus = prime;
+                combined = new BigInteger[d + 1];
+                previous = null;
+                for (int k = 0; k <= d; k++) {
+                    combined[k] = symmetric(BigInteger.valueOf(g[k]), modulus);
+                }
+            } else {
+                combined = crt(combined, modulus, g, p);
+                modulus = modulus.multiply(prime);
+            }
+            if (previous == null || !Arrays.equals(previous, combined)) continue;
+
+            BigInteger[] candidate = divide(combined, content(combined));
+            if (candidate[candidate.length - 1].signum() < 0) candidate = negate(candidate);
+            if (divides(candidate, x) && divides(candidate, y)) return candidate;
+        }
+        return null;
+    }
+
+    /**
+     * Computes the gcd of two primitive integer polynomials with the primitive remainder
+     * sequence. This exact fallback takes quadratic time and more.
+     *
+     * @param x The first primitive polynomial.
+     * @param y The second primitive polynomial.
+     * @return The primitive gcd with a positive leading coefficient.
+     */
+    private static BigInteger[] primitiveEuclid(BigInteger[] x, BigInteger[] y) {
+        if (x.length < y.length) {
+            BigInteger[] t = x; x = y; y = t;
+        }
+        while (y.length > 0) {
+            BigInteger[] r = x.clone(); // pseudo-remainder: r = lc(y) r - lc(r) x^k y until deg r < deg y
+            int length = r.length;
+            BigInteger lead = y[y.length - 1];
+            while (length >= y.length) {
+                BigInteger top = r[length - 1];
+                int offset = length - y.length;
+                for (int k = 0; k < length; k++) {
+                    r[k] = r[k].multiply(lead);
+                }
+                for (int k = 0; k < y.length; k++) {
+                    r[offset + k] = r[offset + k].subtract(top.multiply(y[k]));
+                }
+                length--;
+                while (length > 0 && r[length - 1].signum() == 0) length--;
+            }
+            r = Arrays.copyOf(r, length);
+            x = y;
+            y = r.length == 0 ? r : divide(r, content(r));
+        }
+        return x[x.length - 1].signum() < 0 ? negate(x) : x;
+    }
+
+    /**
+     * Runs the Euclidean algorithm on double coefficients. Both operands are scaled to a largest
+     * coefficient of 1, and so is every remainder once its leading coefficients within the
+     * tolerance are dropped. The division works in place on two buffers, so the remainder
+     * sequence itself allocates nothing. The cofactors are tracked under the same scaling only
+     * when asked for.
+     *
+     * @param a         The first operand, indexed by degree.
+     * @param b         The second operand, indexed by degree.
+     * @param tolerance The size of a remainder coefficient treated as zero.
+     * @param cofactors Whether to compute the cofactors.
+     * @param literal   The literal of the results.
+     * @return The monic gcd, with cofactors or zero polynomials in their place.
+     */
+    private static ExtendedGcd extendedGcd(double[] a, double[] b, double tolerance, boolean cofactors, char literal) {
+        double[] r0 = a.clone();
+        double[] r1 = b.clone();
+        int length0 = r0.length;
+        int length1 = r1.length;
+        double[] s0 = {scale(r0, length0)};
+        double[] t0 = {};
+        double[] s1 = {};
+        double[] t1 = {scale(r1, length1)};
+        if (length0 < length1) {
+            double[] t = r0; r0 = r1; r1 = t;
+            int l = length0; length0 = length1; length1 = l;
+            t = s0; s0 = s1; s1 = t;
+            t = t0; t0 = t1; t1 = t;
+        }
+        if (length0 == 0) return new ExtendedGcd(new Polynomial(), new Polynomial(), new Polynomial());
+
+        double[] q = new double[length0];
+        while (length1 > 0) {
+            int lengthQ = length0 - length1 + 1;
+            PolynomialDivider.divideInPlace(r0, length0, r1, length1, q);
+            double size = 1; // the operands are scaled to 1, so rounding grows with the quotient
+            for (int i = 0; i < lengthQ; i++) {
+                size = Math.max(size, Math.abs(q[i]));
+            }
+            int length = length1 - 1;
+            while (length > 0 && Math.abs(r0[length - 1]) <= tolerance * size) length--;
+            Arrays.fill(r0, length, length0, 0);
+
+            double factor = length == 0 ? 1 : scale(r0, length);
+            if (cofactors) {
+                double[] s = combine(s0, s1, q, lengthQ, factor);
+                double[] t = combine(t0, t1, q, lengthQ, factor);
+                s0 = s1;
+                s1 = s;
+                t0 = t1;
+                t1 = t;
+            }
+            double[] r = r0; // the remainder becomes the next divisor
+            r0 = r1;
+            r1 = r;
+            length0 = length1;
+            length1 = length;
+        }
+
+        double lead = r0[length0 - 1];
+        Polynomial gcd = Polynomial.wrap(monic(r0, length0), literal);
+        if (!cofactors) return new ExtendedGcd(gcd, new Polynomial(), new Polynomial());
+        for (int i = 0; i < s0.length; i++) s0[i] /= lead;
+        for (int i = 0; i < t0.length; i++) t0[i] /= lead;
+        return new ExtendedGcd(gcd, Polynomial.wrap(s0, literal), Polynomial.wrap(t0, literal));
+    }
+
+    /**
+     * Computes the next cofactor (previous - q * current) * factor.
+     *
+     * @param previous The cofactor two steps back.
+     * @param current  The cofactor one step back.
+     * @param q        The quotient of the step.
+     * @param lengthQ  The number of quotient coefficients.
+     * @param factor   The scaling applied to the remainder of the step.
+     * @return The next cofactor.
+     */
+    private static double[] combine(double[] previous, double[] current, double[] q, int lengthQ, double factor) {
+        double[] product = current.length == 0 ? new double[0] : PolynomialMultiplier.multiply(q, lengthQ, current, current.length);
+        double[] result = new double[Math.max(previous.length, product.length)];
+        for (int i = 0; i < result.length; i++) {
+            double x = i < previous.length ? previous[i] : 0;
+            double y = i < product.length ? product[i] : 0;
+            result[i] = (x - y) * factor;
+        }
+        return result;
+    }
+
+    /**
+     * Scales coefficients so that the largest one is 1 in magnitude.
+     *
+     * @param coefs  The coefficients, scaled in place.
+     * @param length The number of coefficients to use.
+     * @return The factor applied.
+     */
+    private static double scale(double[] coefs, int length) {
+        double max = 0;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, Math.abs(coefs[i]));
+        }
+        if (max == 0) return 1;
+        double factor = 1 / max;
+        for (int i = 0; i < length; i++) {
+            coefs[i] *= factor;
+        }
+        return factor;
+    }
+
+    /**
+     * Returns coefficients divided by the leading one.
+     *
+     * @param coefs  The coefficients.
+     * @param length The number of coefficients to use, the last one being non-zero.
+     * @return A new monic coefficient array.
+     */
+    private static double[] monic(double[] coefs, int length) {
+        double[] result = new double[length];
+        if (length == 0) return result;
+        double lead = coefs[length - 1];
+        for (int i = 0; i < length - 1; i++) {
+            result[i] = coefs[i] / lead;
+        }
+        result[length - 1] = 1;
+        return result;
+    }
+
+    /**
+     * Returns the coefficients of a Polynomial, empty for the zero Polynomial.
+     *
+     * @param p The Polynomial.
+     * @return The coefficients indexed by degree.
+     */
+    private static double[] coefficients(Polynomial p) {
+        if (p.getTermCount() == 0) return new double[0];
+        double[] coefs = p.getCoefficients();
+        int length = coefs.length;
+        while (length > 0 && coefs[length - 1] == 0) length--;
+        return length == coefs.length ? coefs : Arrays.copyOf(coefs, length);
+    }
+
+    /**
+     * Returns whether every coefficient is an integer.
+     *
+     * @param coefs The coefficients.
+     * @return true if every coefficient is a finite integer.
+     */
+    private static boolean isIntegral(double[] coefs) {
+        for (double c : coefs) {
+            if (c != Math.rint(c) || Double.isInfinite(c)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Combines residues modulo a new prime with coefficients known modulo the product of the
+     * earlier primes.
+     *
+     * @param combined The coefficients in the symmetric range of the modulus.
+     * @param modulus  The product of the earlier primes.
+     * @param residues The coefficients modulo the new prime.
+     * @param p        The new prime.
+     * @return The coefficients in the symmetric range of modulus * p.
+     */
+    private static BigInteger[] crt(BigInteger[] combined, BigInteger modulus, long[] residues, long p) {
+        BigInteger prime = BigInteger.valueOf(p);
+        BigInteger product = modulus.multiply(prime);
+        long inverse = NttMultiplier.power(modulus.mod(prime).longValue(), p - 2, p);
+        BigInteger[] result = new BigInteger[combined.length];
+        for (int k = 0; k < combined.length; k++) {
+            long current = combined[k].mod(prime).longValue();
+            long delta = Math.floorMod(residues[k] - current, p) * inverse % p;
+            result[k] = symmetric(combined[k].add(modulus.multiply(BigInteger.valueOf(delta))), product);
+        }
+        return result;
+    }
+
+    /**
+     * Maps a value to the symmetric range (-m/2, m/2] of a modulus.
+     *
+     * @param value   The value.
+     * @param modulus The modulus.
+     * @return The representative in the symmetric range.
+     */
+    private static BigInteger symmetric(BigInteger value, BigInteger modulus) {
+        BigInteger r = value.mod(modulus);
+        return r.compareTo(modulus.shiftRight(1)) > 0 ? r.subtract(modulus) : r;
+    }
+
+    /**
+     * Returns whether a polynomial divides another exactly.
+     *
+     * @param divisor  The candidate divisor.
+     * @param dividend The dividend.
+     * @return true if the remainder is zero.
+     */
+    private static boolean divides(BigInteger[] divisor, BigInteger[] dividend) {
+        try {
+            ExactQuotient quotient = new ExactPolynomial(dividend, 'x').divide(new ExactPolynomial(divisor, 'x'));
+            return quotient.getRemainderP().getDegree() < 0;
+        } catch (ArithmeticException e) {
+            return false; // a quotient coefficient is not an integer
+        }
+    }
+
+    /**
+     * Returns the gcd of the coefficients.
+     *
+     * @param coefs The coefficients, not all zero.
+     * @return The positive content.
+     */
+    private static BigInteger content(BigInteger[] coefs) {
+        BigInteger g = BigInteger.ZERO;
+        for (BigInteger c : coefs) {
+            g = g.gcd(c);
+            if (g.equals(BigInteger.ONE)) break;
+        }
+        return g;
+    }
+
+    /**
+     * Divides every coefficient exactly by a value.
+     *
+     * @param coefs   The coefficients.
+     * @param divisor The divisor of every coefficient.
+     * @return The quotients.
+     */
+    private static BigInteger[] divide(BigInteger[] coefs, BigInteger divisor) {
+        BigInteger[] result = new BigInteger[coefs.length];
+        for (int i = 0; i < coefs.length; i++) {
+            result[i] = coefs[i].divide(divisor);
+        }
+        return result;
+    }
+
+    /**
+     * Negates every coefficient.
+     *
+     * @param coefs The coefficients.
+     * @return The negated coefficients.
+     */
+    private static BigInteger[] negate(BigInteger[] coefs) {
+        BigInteger[] result = new BigInteger[coefs.length];
+        for (int i = 0; i < coefs.length; i++) {
+            result[i] = coefs[i].negate();
+        }
+        return result;
+    }
+
+    /**
+     * Creates an ExactPolynomial with a positive leading coefficient.
+     *
+     * @param coefs   The coefficients.
+     * @param literal The literal.
+     * @return The ExactPolynomial, negated if its leading coefficient was negative.
+     */
+    private static ExactPolynomial positive(BigInteger[] coefs, char literal) {
+        if (coefs.length > 0 && coefs[coefs.length - 1].signum() < 0) coefs = negate(coefs);
+        return new ExactPolynomial(coefs, literal);
+    }
+}
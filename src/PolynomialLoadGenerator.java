@@ -0,0 +1,112 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures the throughput and latency of a PolynomialServer. A number of clients send requests
+ * one after the other for a fixed time, each on its own virtual thread when the runtime has
+ * them, and the latency of every request is kept to report its percentiles. Run as
+ * <pre>
+ * PolynomialLoadGenerator [url] [clients] [seconds] [evaluate|compute]
+ * </pre>
+ * with the defaults http://localhost:8080, 64 clients, 10 seconds and evaluate. Evaluate
+ * requests all use the same polynomial, so the server can batch them.
+ */
+public class PolynomialLoadGenerator {
+    private static final String POLYNOMIAL = "0.5x^8 - 3x^7 + 2x^5 - x^4 + 7x^3 - 0.25x^2 + x - 9"; // polynomial evaluated by every client
+
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        boolean evaluate = args.length <= 3 || args[3].equalsIgnoreCase("evaluate");
+        System.out.println(run(base, clients, seconds * 1_000_000_000L, evaluate));
+    }
+
+    /**
+     * Sends requests from several clients for a fixed time.
+     *
+     * @param base     The base URI of the server.
+     * @param clients  The number of concurrent clients.
+     * @param nanos    The duration of the run in nanoseconds.
+     * @param evaluate true to send evaluate requests, false to send compute requests.
+     * @return A summary of the throughput and latencies.
+     * @throws Exception If a client fails to run.
+     */
+    public static String run(URI base, int clients, long nanos, boolean evaluate) throws Exception {
+        if (clients < 1) throw new IllegalArgumentException("There must be at least one client.");
+        ExecutorService executor = PolynomialServer.newExecutor();
+        HttpClient http = HttpClient.newBuilder().executor(executor).build();
+        URI target = base.resolve(evaluate ? "/evaluate" : "/compute");
+        long start = System.nanoTime();
+        long deadline = start + nanos;
+        List<Future<long[]>> results = new ArrayList<>();
+        int[] errors = new int[clients];
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            results.add(executor.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String body = evaluate
+                            ? POLYNOMIAL + " ; " + random.nextDouble(-2, 2)
+                            : "MULTIPLY " + POLYNOMIAL + " ; x^3 - " + random.nextInt(100) + "x + 1";
+                    HttpRequest request = HttpRequest.newBuilder(target)
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+                    long sent = System.nanoTime();
+                    HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                    long latency = System.nanoTime() - sent;
+                    if (response.statusCode() != 200) {
+                        errors[client]++;
+                        continue;
+                    }
+                    if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                    latencies[count++] = latency;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        long[][] perClient = new long[clients][];
+        int total = 0;
+        for (int c = 0; c < clients; c++) {
+            perClient[c] = results.get(c).get();
+            total += perClient[c].length;
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        long[] all = new long[total];
+        int offset = 0;
+        int failed = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(perClient[c], 0, all, offset, perClient[c].length);
+            offset += perClient[c].length;
+            failed += errors[c];
+        }
+        Arrays.sort(all);
+        return String.format("%d clients, %d requests, %d errors, %.0f requests/s, latency p50 %s p99 %s p99.9 %s max %s",
+                clients, total, failed, total * 1e9 / elapsed, millis(all, 0.5), millis(all, 0.99),
+                millis(all, 0.999), millis(all, 1));
+    }
+
+    /**
+     * Formats a percentile of sorted latencies in milliseconds.
+     *
+     * @param sorted   The latencies in nanoseconds, sorted.
+     * @param fraction The fraction of requests.
+     * @return The percentile, or "-" if there is no latency.
+     */
+    private static String millis(long[] sorted, double fraction) {
+        if (sorted.length == 0) return "-";
+        int index = (int) Math.min(sorted.length - 1, Math.max(0, Math.ceil(fraction * sorted.length) - 1));
+        return String.format("%.3fms", sorted[index] / 1e6);
+    }
+}
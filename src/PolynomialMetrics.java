@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects counts, latencies and operand sizes of Polynomial operations, and emits a
+ * PolynomialOperationEvent for each one to JDK Flight Recorder. Recording is off by default:
+ * an instrumented operation then only reads one volatile static field, so that turning
+ * recording on or off from one thread is seen by the others. While it is on, every update is
+ * a LongAdder increment, so threads recording concurrently do not contend on a lock or on a
+ * single counter.
+ * <p>
+ * Latencies and operand sizes are kept in histograms with power-of-two buckets: bucket i counts
+ * the values v with 2^i <= v + 1 < 2^(i + 1), so bucket 0 holds only 0, bucket 1 holds 1 and 2,
+ * and so on. The operand size is the number of terms of the larger operand.
+ */
+public final class PolynomialMetrics {
+    /**
+     * The instrumented operations.
+     */
+    public enum Operation {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, EVALUATE, EVALUATE_BATCH, ADD_TERM
+    }
+
+    private static final int BUCKETS = 64; // histogram buckets, enough for any long
+
+    private static volatile boolean enabled; // whether operations are recorded
+    private static final Stats[] STATS = new Stats[Operation.values().length];
+
+    static {
+        for (int i = 0; i < STATS.length; i++) {
+            STATS[i] = new Stats();
+        }
+    }
+
+    private PolynomialMetrics() {
+    }
+
+    /**
+     * Returns whether operations are recorded.
+     *
+     * @return true if recording is on.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns the recording of operations on or off. Operations already running when recording
+     * is turned on are not recorded.
+     *
+     * @param on Whether to record operations.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Starts recording an operation.
+     *
+     * @return The event of the operation, or null if recording is off.
+     */
+    static PolynomialOperationEvent begin() {
+        if (!enabled) return null;
+        PolynomialOperationEvent event = new PolynomialOperationEvent();
+        event.begin();
+        event.start = System.nanoTime();
+        return event;
+    }
+
+    /**
+     * Finishes recording an operation on two Polynomials.
+     *
+     * @param event     The event returned by begin.
+     * @param operation The operation.
+     * @param left      The Polynomial the operation was invoked on.
+     * @param right     The other operand.
+     * @param algorithm The algorithm or form chosen.
+     */
+    static void end(PolynomialOperationEvent event, Operation operation, Polynomial left, Polynomial right, String algorithm) {
+        end(event, operation, left.getDegree(), left.getTermCount(), right.getDegree(), right.getTermCount(), algorithm);
+    }
+
+    /**
+     * Finishes recording an operation.
+     *
+     * @param event       The event returned by begin.
+     * @param operation   The operation.
+     * @param leftDegree  The degree of the Polynomial the operation was invoked on.
+     * @param leftTerms   The number of terms of that Polynomial.
+     * @param rightDegree The degree of the other operand, or -1 if there is none.
+     * @param rightTerms  The number of terms of the other operand, or of values evaluated at.
+     * @param algorithm   The algorithm or form chosen.
+     */
+    static void end(PolynomialOperationEvent event, Operation operation, int leftDegree, int leftTerms,
+                    int rightDegree, int rightTerms, String algorithm) {
+        long nanos = System.nanoTime() - event.start;
+        Stats stats = STATS[operation.ordinal()];
+        stats.count.increment();
+        stats.nanos.add(nanos);
+        stats.latency[bucket(nanos)].increment();
+        stats.sizes[bucket(Math.max(leftTerms, rightTerms))].increment();
+        stats.algorithms.computeIfAbsent(algorithm, a -> new LongAdder()).increment();
+        if (event.shouldCommit()) {
+            event.operation = operation.name();
+            event.algorithm = algorithm;
+            event.leftDegree = leftDegree;
+            event.leftTerms = leftTerms;
+            event.rightDegree = rightDegree;
+            event.rightTerms = rightTerms;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the number of recorded operations.
+     *
+     * @param operation The operation.
+     * @return The count.
+     */
+    public static long getCount(Operation operation) {
+        return STATS[operation.ordinal()].count.sum();
+    }
+
+    /**
+     * Returns the total time spent in recorded operations.
+     *
+     * @param operation The operation.
+     * @return The total in nanoseconds.
+     */
+    public static long getTotalNanos(Operation operation) {
+        return STATS[operation.ordinal()].nanos.sum();
+    }
+
+    /**
+     * Returns the latency histogram of an operation.
+     *
+     * @param operation The operation.
+     * @return The count of each power-of-two bucket of nanoseconds.
+     */
+    public static long[] getLatencyHistogram(Operation operation) {
+        return snapshot(STATS[operation.ordinal()].latency);
+    }
+
+    /**
+     * Returns the operand size histogram of an operation.
+     *
+     * @param operation The operation.
+     * @return The count of each power-of-two bucket of term counts.
+     */
+    public static long[] getSizeHistogram(Operation operation) {
+        return snapshot(STATS[operation.ordinal()].sizes);
+    }
+
+    /**
+     * Returns how often each algorithm was chosen for an operation.
+     *
+     * @param operation The operation.
+     * @return The count of each algorithm, sorted by name.
+     */
+    public static Map<String, Long> getAlgorithmCounts(Operation operation) {
+        Map<String, Long> result = new TreeMap<>();
+        STATS[operation.ordinal()].algorithms.forEach((name, count) -> result.put(name, count.sum()));
+        return result;
+    }
+
+    /**
+     * Returns an upper bound of a latency percentile, read from the histogram.
+     *
+     * @param operation The operation.
+     * @param fraction  The fraction of operations, from 0 to 1.
+     * @return The upper bound of the bucket holding the percentile, in nanoseconds, or 0 if nothing was recorded.
+     */
+    public static long getLatencyPercentile(Operation operation, double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) throw new IllegalArgumentException("The fraction must be from 0 to 1.");
+        long[] histogram = getLatencyHistogram(operation);
+        long total = 0;
+        for (long count : histogram) total += count;
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) return i >= 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 2;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Clears every count and histogram.
+     */
+    public static void reset() {
+        for (Stats stats : STATS) {
+            stats.count.reset();
+            stats.nanos.reset();
+            for (LongAdder bucket : stats.latency) bucket.reset();
+            for (LongAdder bucket : stats.sizes) bucket.reset();
+            stats.algorithms.clear();
+        }
+    }
+
+    /**
+     * Writes a summary line for every operation that was recorded: count, mean, median and
+     * 99th percentile latency, and the algorithms chosen.
+     *
+     * @param out The Appendable to write to.
+     * @throws IOException If the Appendable fails.
+     */
+    public static void dump(Appendable out) throws IOException {
+        for (Operation operation : Operation.values()) {
+            long count = getCount(operation);
+            if (count == 0) continue;
+            out.append(operation.name())
+                    .append(" count=").append(Long.toString(count))
+                    .append(" mean=").append(Long.toString(getTotalNanos(operation) / count)).append("ns")
+                    .append(" p50<=").append(Long.toString(getLatencyPercentile(operation, 0.5))).append("ns")
+                    .append(" p99<=").append(Long.toString(getLatencyPercentile(operation, 0.99))).append("ns")
+                    .append(" algorithms=").append(getAlgorithmCounts(operation).toString())
+                    .append('\n');
+        }
+    }
+
+    /**
+     * Returns the histogram bucket of a non-negative value.
+     *
+     * @param value The value.
+     * @return The bucket index.
+     */
+    private static int bucket(long value) {
+        return Math.min(63 - Long.numberOfLeadingZeros(Math.max(value, 0) + 1), BUCKETS - 1);
+    }
+
+    /**
+     * Reads the buckets of a histogram.
+     *
+     * @param buckets The buckets.
+     * @return The counts.
+     */
+    private static long[] snapshot(LongAdder[] buckets) {
+        long[] result = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            result[i] = buckets[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * The counters of one operation.
+     */
+    private static final class Stats {
+        private final LongAdder count = new LongAdder(); // number of operations
+        private final LongAdder nanos = new LongAdder(); // total duration
+        private final LongAdder[] latency = newBuckets(); // duration histogram
+        private final LongAdder[] sizes = newBuckets(); // operand size histogram
+        private final Map<String, LongAdder> algorithms = new ConcurrentHashMap<>(); // count per algorithm
+
+        /**
+         * Creates the buckets of a histogram.
+         *
+         * @return The buckets.
+         */
+        private static LongAdder[] newBuckets() {
+            LongAdder[] buckets = new LongAdder[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+            return buckets;
+        }
+    }
+}
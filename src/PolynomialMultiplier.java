@@ -0,0 +1,635 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Multiplies polynomials given as coefficient arrays indexed by degree, or as sparse lists of
+ * degrees and coefficients. The algorithm is chosen from the sizes and densities of the operands:
+ * schoolbook multiplication for small or sparse operands, Karatsuba for medium ones, and a
+ * floating-point FFT convolution for large ones.
+ * <p>
+ * The FFT result carries a rounding error that grows with the operand length and the size of the
+ * coefficients, while schoolbook and Karatsuba round about as much as the plain nested loop.
+ * <p>
+ * When a pool is set, schoolbook and Karatsuba products whose shorter operand reaches the
+ * parallel threshold are split across it: schoolbook products by blocks of output degrees, and
+ * Karatsuba products by their recursive subproducts. Smaller products stay on the calling thread.
+ */
+public class PolynomialMultiplier {
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8; // longest product array the algorithms allocate
+    private static int karatsubaThreshold = 32; // shorter operand length from which Karatsuba is used
+    private static int fftThreshold = 1024; // shorter operand length from which the FFT is used
+    private static volatile ForkJoinPool pool = null; // pool for parallel products, or null to stay sequential
+    private static int parallelThreshold = 2048; // shorter operand length from which products run in parallel
+
+    /**
+     * The algorithms that can compute a product.
+     */
+    public enum Algorithm {
+        SPARSE, SCHOOLBOOK, KARATSUBA, FFT
+    }
+
+    private PolynomialMultiplier() {
+    }
+
+    /**
+     * Returns the shorter operand length from which Karatsuba multiplication is used.
+     *
+     * @return The Karatsuba threshold.
+     */
+    public static int getKaratsubaThreshold() {
+        return karatsubaThreshold;
+    }
+
+    /**
+     * Sets the shorter operand length from which Karatsuba multiplication is used.
+     *
+     * @param threshold The Karatsuba threshold, at least 2.
+     */
+    public static void setKaratsubaThreshold(int threshold) {
+        if (threshold < 2) throw new IllegalArgumentException("The Karatsuba threshold must be at least 2.");
+        karatsubaThreshold = threshold;
+    }
+
+    /**
+     * Returns the shorter operand length from which FFT multiplication is used.
+     *
+     * @return The FFT threshold.
+     */
+    public static int getFftThreshold() {
+        return fftThreshold;
+    }
+
+    /**
+     * Sets the shorter operand length from which FFT multiplication is used.
+     *
+     * @param threshold The FFT threshold, at least 1.
+     */
+    public static void setFftThreshold(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("The FFT threshold must be at least 1.");
+        fftThreshold = threshold;
+    }
+
+    /**
+     * Returns the pool used for parallel products.
+     *
+     * @return The pool, or null if products run sequentially.
+     */
+    public static ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the pool used for parallel products. Passing null turns the parallel mode off.
+     *
+     * @param forkJoinPool The pool, or null.
+     */
+    public static void setPool(ForkJoinPool forkJoinPool) {
+        pool = forkJoinPool;
+    }
+
+    /**
+     * Returns the shorter operand length from which products run in parallel.
+     *
+     * @return The parallel threshold.
+     */
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the shorter operand length from which products run in parallel.
+     *
+     * @param threshold The parallel threshold, at least 2.
+     */
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 2) throw new IllegalArgumentException("The parallel threshold must be at least 2.");
+        parallelThreshold = threshold;
+    }
+
+    /**
+     * Chooses the algorithm with the lowest estimated cost for two operands. The array
+     * algorithms are charged for laying both operands out by degree and for the product array
+     * of lengthA + lengthB - 1 coefficients, so the product of operands with few terms spread
+     * over a high degree stays sparse.
+     *
+     * @param lengthA     The degree + 1 of the first operand.
+     * @param termsA      The number of non-zero terms of the first operand.
+     * @param lengthB     The degree + 1 of the second operand.
+     * @param termsB      The number of non-zero terms of the second operand.
+     * @param allowArrays Whether the operands can be handled as coefficient arrays.
+     * @return The chosen algorithm.
+     */
+    public static Algorithm select(int lengthA, int termsA, int lengthB, int termsB, boolean allowArrays) {
+        double products = (double) termsA * termsB;
+        double sparseCost = products * log2(products + 2);
+        if (!allowArrays || (long) lengthA + lengthB - 1 > MAX_ARRAY_LENGTH) return Algorithm.SPARSE;
+
+        int shorter = Math.min(lengthA, lengthB);
+        int longer = Math.max(lengthA, lengthB);
+        double arrayCost = 2 * ((double) lengthA + lengthB); // operand arrays and the product array
+        double schoolbookCost = Math.min((double) termsA * lengthB, (double) termsB * lengthA);
+        Algorithm fast = Algorithm.SCHOOLBOOK;
+        double fastCost = schoolbookCost;
+        if (shorter >= fftThreshold) {
+            double size = Integer.highestOneBit(lengthA + lengthB - 1) * 2.0;
+            fast = Algorithm.FFT;
+            fastCost = 6 * size * log2(size);
+        } else if (shorter >= karatsubaThreshold) {
+            fast = Algorithm.KARATSUBA;
+            fastCost = ((double) longer / shorter) * Math.pow(shorter, 1.585);
+        }
+
+        ForkJoinPool parallelPool = parallelPool(shorter);
+        if (parallelPool != null) { // the FFT stays sequential, the other array algorithms share the work
+            int workers = parallelPool.getParallelism();
+            schoolbookCost /= workers;
+            double karatsubaCost = ((double) longer / shorter) * Math.pow(shorter, 1.585) / workers;
+            if (fast == Algorithm.KARATSUBA || karatsubaCost < fastCost) {
+                fast = Algorithm.KARATSUBA;
+                fastCost = karatsubaCost;
+            }
+        }
+
+        schoolbookCost += arrayCost;
+        fastCost += arrayCost;
+        if (sparseCost < schoolbookCost && sparseCost < fastCost) return Algorithm.SPARSE;
+        return schoolbookCost <= fastCost ? Algorithm.SCHOOLBOOK : fast;
+    }
+
+    /**
+     * Multiplies two coefficient arrays with the array algorithm of lowest estimated cost.
+     *
+     * @param a       The coefficients of the first operand indexed by degree.
+     * @param lengthA The number of coefficients of a to use.
+     * @param b       The coefficients of the second operand indexed by degree.
+     * @param lengthB The number of coefficients of b to use.
+     * @return The product coefficients, of length lengthA + lengthB - 1.
+     */
+    public static double[] multiply(double[] a, int lengthA, double[] b, int lengthB) {
+        Algorithm algorithm = select(lengthA, countNonZero(a, 0, lengthA), lengthB, countNonZero(b, 0, lengthB), true);
+        if (algorithm == Algorithm.SPARSE) algorithm = Algorithm.SCHOOLBOOK; // schoolbook already skips zeros
+        return multiply(a, lengthA, b, lengthB, algorithm);
+    }
+
+    /**
+     * Multiplies two coefficient arrays with the given algorithm.
+     *
+     * @param a         The coefficients of the first operand indexed by degree.
+     * @param lengthA   The number of coefficients of a to use.
+     * @param b         The coefficients of the second operand indexed by degree.
+     * @param lengthB   The number of coefficients of b to use.
+     * @param algorithm The algorithm to use, one of SCHOOLBOOK, KARATSUBA or FFT.
+     * @return The product coefficients, of length lengthA + lengthB - 1.
+     */
+    public static double[] multiply(double[] a, int lengthA, double[] b, int lengthB, Algorithm algorithm) {
+        double[] product = new double[lengthA + lengthB - 1];
+        ForkJoinPool parallelPool = parallelPool(Math.min(lengthA, lengthB));
+        switch (algorithm) {
+            case FFT -> fft(a, lengthA, b, lengthB, product);
+            case KARATSUBA -> {
+                if (parallelPool != null) {
+                    parallelPool.invoke(ForkJoinTask.adapt(() -> karatsuba(a, lengthA, b, lengthB, product, true)));
+                } else {
+                    karatsuba(a, lengthA, b, lengthB, product, false);
+                }
+            }
+            default -> {
+                if (parallelPool != null) {
+                    parallelSchoolbook(parallelPool, a, lengthA, b, lengthB, product);
+                } else {
+                    schoolbook(a, 0, lengthA, b, 0, lengthB, product, 0);
+                }
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Multiplies two sparse operands by merging the rows of partial products, one per term of
+     * the operand with fewer terms, through a heap that holds the next product of each row that
+     * has been started. The products come out by descending degree, so like degrees are summed
+     * as they meet and no more than one product per row is held at a time. Operands not in
+     * descending degree order are sorted first.
+     *
+     * @param degreesA      The degrees of the first operand.
+     * @param coefficientsA The coefficients of the first operand.
+     * @param termsA        The number of terms of the first operand.
+     * @param degreesB      The degrees of the second operand.
+     * @param coefficientsB The coefficients of the second operand.
+     * @param termsB        The number of terms of the second operand.
+     * @return The non-zero terms of the product, by descending degree.
+     * @throws ArithmeticException If a degree of the product does not fit in an int.
+     */
+    public static SparseProduct multiplySparse(int[] degreesA, double[] coefficientsA, int termsA,
+                                               int[] degreesB, double[] coefficientsB, int termsB) {
+        if (!isDescending(degreesA, termsA)) {
+            int[] sortedDegrees = new int[termsA];
+            double[] sortedCoefficients = new double[termsA];
+            termsA = PolynomialBuilder.sortAndCombine(degreesA, coefficientsA, termsA, sortedDegrees, sortedCoefficients);
+            degreesA = sortedDegrees;
+            coefficientsA = sortedCoefficients;
+        }
+        if (!isDescending(degreesB, termsB)) {
+            int[] sortedDegrees = new int[termsB];
+            double[] sortedCoefficients = new double[termsB];
+            termsB = PolynomialBuilder.sortAndCombine(degreesB, coefficientsB, termsB, sortedDegrees, sortedCoefficients);
+            degreesB = sortedDegrees;
+            coefficientsB = sortedCoefficients;
+        }
+        if (termsA > termsB) { // one row per term of the operand with fewer terms
+            int[] d = degreesA; degreesA = degreesB; degreesB = d;
+            double[] c = coefficientsA; coefficientsA = coefficientsB; coefficientsB = c;
+            int t = termsA; termsA = termsB; termsB = t;
+        }
+        SparseProduct product = new SparseProduct(termsA + termsB);
+        if (termsA == 0) return product;
+        ProductHeap heap = new ProductHeap(termsA);
+        heap.push((long) degreesA[0] + degreesB[0], 0, 0);
+        while (heap.size() > 0) {
+            long degree = heap.topKey();
+            double sum = 0;
+            do {
+                int i = heap.topRow();
+                int j = heap.topColumn();
+                heap.pop();
+                sum += coefficientsA[i] * coefficientsB[j];
+                if (j + 1 < termsB) heap.push((long) degreesA[i] + degreesB[j + 1], i, j + 1);
+                if (j == 0 && i + 1 < termsA) heap.push((long) degreesA[i + 1] + degreesB[0], i + 1, 0);
+            } while (heap.size() > 0 && heap.topKey() == degree);
+            product.append(Math.toIntExact(degree), sum);
+        }
+        return product;
+    }
+
+    /**
+     * The terms of a sparse product, by descending degree.
+     */
+    public static final class SparseProduct {
+        private int[] degrees; // degrees of the terms
+        private double[] coefficients; // coefficients of the terms
+        private int size; // number of terms
+
+        /**
+         * Creates an empty product.
+         *
+         * @param capacity The initial capacity.
+         */
+        private SparseProduct(int capacity) {
+            degrees = new int[Math.max(capacity, 1)];
+            coefficients = new double[degrees.length];
+        }
+
+        /**
+         * Appends a term of lower degree than the previous ones, unless its coefficient is zero.
+         *
+         * @param degree      The degree.
+         * @param coefficient The coefficient.
+         */
+        private void append(int degree, double coefficient) {
+            if (coefficient == 0) return;
+            if (size == degrees.length) {
+                int capacity = (int) Math.min(2L * size, Integer.MAX_VALUE - 8);
+                if (capacity == size) throw new OutOfMemoryError("The product has too many terms for an array.");
+                degrees = Arrays.copyOf(degrees, capacity);
+                coefficients = Arrays.copyOf(coefficients, capacity);
+            }
+            degrees[size] = degree;
+            coefficients[size] = coefficient;
+            size++;
+        }
+
+        /**
+         * Returns the degrees of the terms. Only the first size entries are used.
+         *
+         * @return The degrees, in descending order.
+         */
+        public int[] getDegrees() {
+            return degrees;
+        }
+
+        /**
+         * Returns the coefficients of the terms. Only the first size entries are used.
+         *
+         * @return The coefficients, matching the degrees.
+         */
+        public double[] getCoefficients() {
+            return coefficients;
+        }
+
+        /**
+         * Returns the number of non-zero terms.
+         *
+         * @return The number of terms.
+         */
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Adds the product of two coefficient ranges into a target array, skipping zero coefficients
+     * of the first operand.
+     *
+     * @param a       The first operand.
+     * @param aOff    The offset of the first operand.
+     * @param lengthA The length of the first operand.
+     * @param b       The second operand.
+     * @param bOff    The offset of the second operand.
+     * @param lengthB The length of the second operand.
+     * @param out     The array receiving the product.
+     * @param outOff  The offset in out of the degree 0 coefficient of the product.
+     */
+    static void schoolbook(double[] a, int aOff, int lengthA, double[] b, int bOff, int lengthB, double[] out, int outOff) {
+        if (countNonZero(a, aOff, lengthA) * (long) lengthB > countNonZero(b, bOff, lengthB) * (long) lengthA) {
+            double[] t = a; a = b; b = t; // loop over the sparser operand
+            int tOff = aOff; aOff = bOff; bOff = tOff;
+            int tLength = lengthA; lengthA = lengthB; lengthB = tLength;
+        }
+        for (int i = 0; i < lengthA; i++) {
+            double coef = a[aOff + i];
+            if (coef == 0) continue;
+            int base = outOff + i;
+            for (int j = 0; j < lengthB; j++) {
+                out[base + j] += coef * b[bOff + j];
+            }
+        }
+    }
+
+    /**
+     * Computes a schoolbook product in a pool. Each task owns a block of output degrees, so the
+     * tasks never write to the same coefficient.
+     *
+     * @param forkJoinPool The pool.
+     * @param a            The first operand.
+     * @param lengthA      The length of the first operand.
+     * @param b            The second operand.
+     * @param lengthB      The length of the second operand.
+     * @param out          The array receiving the product, initially zero.
+     */
+    private static void parallelSchoolbook(ForkJoinPool forkJoinPool, double[] a, int lengthA, double[] b, int lengthB, double[] out) {
+        int blocks = forkJoinPool.getParallelism() * 4;
+        int blockSize = Math.max((out.length + blocks - 1) / blocks, 1);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int lo = 0; lo < out.length; lo += blockSize) {
+            int from = lo;
+            int to = Math.min(lo + blockSize, out.length);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                for (int i = Math.max(0, from - lengthB + 1); i < lengthA && i < to; i++) {
+                    double coef = a[i];
+                    if (coef == 0) continue;
+                    int jEnd = Math.min(lengthB, to - i);
+                    for (int j = Math.max(0, from - i); j < jEnd; j++) {
+                        out[i + j] += coef * b[j];
+                    }
+                }
+            }));
+        }
+        forkJoinPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    /**
+     * Computes a product with Karatsuba multiplication. The longer operand is cut into blocks as
+     * long as the shorter one, and each block is multiplied recursively.
+     *
+     * @param a       The first operand.
+     * @param lengthA The length of the first operand.
+     * @param b       The second operand.
+     * @param lengthB The length of the second operand.
+     * @param out      The array receiving the product, initially zero.
+     * @param parallel Whether to fork the blocks and subproducts, when called inside the pool.
+     */
+    private static void karatsuba(double[] a, int lengthA, double[] b, int lengthB, double[] out, boolean parallel) {
+        if (lengthA < lengthB) {
+            double[] t = a; a = b; b = t;
+            int tLength = lengthA; lengthA = lengthB; lengthB = tLength;
+        }
+        int blocks = (lengthA + lengthB - 1) / lengthB;
+        double[][] partials = new double[blocks][];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int blockIndex = 0; blockIndex < blocks; blockIndex++) {
+            int start = blockIndex * lengthB;
+            int length = Math.min(lengthB, lengthA - start);
+            double[] piece = a;
+            int pieceOff = start;
+            if (length < lengthB) { // pad the last block to the length of the shorter operand
+                piece = new double[lengthB];
+                System.arraycopy(a, start, piece, 0, length);
+                pieceOff = 0;
+            }
+            double[] partial = new double[2 * lengthB - 1];
+            partials[blockIndex] = partial;
+            double[] blockPiece = piece;
+            int blockOff = pieceOff;
+            double[] other = b;
+            int n = lengthB;
+            if (parallel) {
+                tasks.add(ForkJoinTask.adapt(() -> karatsubaRecursive(blockPiece, blockOff, other, 0, n, partial, 0, true)));
+            } else {
+                karatsubaRecursive(blockPiece, blockOff, other, 0, n, partial, 0, false);
+            }
+        }
+        if (parallel) ForkJoinTask.invokeAll(tasks);
+        for (int blockIndex = 0; blockIndex < blocks; blockIndex++) { // blocks overlap, so they are summed afterwards
+            int start = blockIndex * lengthB;
+            double[] partial = partials[blockIndex];
+            int limit = Math.min(partial.length, out.length - start);
+            for (int i = 0; i < limit; i++) {
+                out[start + i] += partial[i];
+            }
+        }
+    }
+
+    /**
+     * Adds the product of two operands of equal length into a target array.
+     *
+     * @param a      The first operand.
+     * @param aOff   The offset of the first operand.
+     * @param b      The second operand.
+     * @param bOff   The offset of the second operand.
+     * @param n      The length of both operands.
+     * @param out    The array receiving the product.
+     * @param outOff The offset in out of the degree 0 coefficient of the product.
+     * @param parallel Whether to fork the subproducts that reach the parallel threshold.
+     */
+    static void karatsubaRecursive(double[] a, int aOff, double[] b, int bOff, int n, double[] out, int outOff,
+                                   boolean parallel) {
+        if (n < karatsubaThreshold || n < 2) {
+            schoolbook(a, aOff, n, b, bOff, n, out, outOff);
+            return;
+        }
+        int low = n / 2; // a = a0 + x^low * a1, with a0 of length low and a1 of length high
+        int high = n - low;
+
+        double[] z0 = new double[2 * low - 1];
+        double[] z2 = new double[2 * high - 1];
+        double[] z1 = new double[2 * high - 1];
+        double[] sumA = new double[high];
+        double[] sumB = new double[high];
+        for (int i = 0; i < high; i++) {
+            sumA[i] = a[aOff + low + i];
+            sumB[i] = b[bOff + low + i];
+        }
+        for (int i = 0; i < low; i++) {
+            sumA[i] += a[aOff + i];
+            sumB[i] += b[bOff + i];
+        }
+
+        if (parallel && n >= parallelThreshold) {
+            ForkJoinTask.invokeAll(
+                    ForkJoinTask.adapt(() -> karatsubaRecursive(a, aOff, b, bOff, low, z0, 0, true)),
+                    ForkJoinTask.adapt(() -> karatsubaRecursive(a, aOff + low, b, bOff + low, high, z2, 0, true)),
+                    ForkJoinTask.adapt(() -> karatsubaRecursive(sumA, 0, sumB, 0, high, z1, 0, true)));
+        } else {
+            karatsubaRecursive(a, aOff, b, bOff, low, z0, 0, false);
+            karatsubaRecursive(a, aOff + low, b, bOff + low, high, z2, 0, false);
+            karatsubaRecursive(sumA, 0, sumB, 0, high, z1, 0, false);
+        }
+
+        for (int i = 0; i < z0.length; i++) {
+            out[outOff + i] += z0[i];
+            z1[i] -= z0[i];
+        }
+        for (int i = 0; i < z2.length; i++) {
+            out[outOff + 2 * low + i] += z2[i];
+            z1[i] -= z2[i];
+        }
+        for (int i = 0; i < z1.length; i++) {
+            out[outOff + low + i] += z1[i];
+        }
+    }
+
+    /**
+     * Computes a product with a complex FFT. Both real operands are packed into one complex
+     * sequence, so a single forward and a single inverse transform are needed.
+     *
+     * @param a       The first operand.
+     * @param lengthA The length of the first operand.
+     * @param b       The second operand.
+     * @param lengthB The length of the second operand.
+     * @param out     The array receiving the product.
+     */
+    private static void fft(double[] a, int lengthA, double[] b, int lengthB, double[] out) {
+        int size = 1;
+        while (size < out.length) size <<= 1;
+        double[] re = new double[size];
+        double[] im = new double[size];
+        System.arraycopy(a, 0, re, 0, lengthA);
+        System.arraycopy(b, 0, im, 0, lengthB);
+        transform(re, im, false);
+
+        // with z = a + ib, the spectrum of a * b is (Z[k]^2 - conj(Z[-k])^2) / 4i
+        double[] productRe = new double[size];
+        double[] productIm = new double[size];
+        for (int k = 0; k < size; k++) {
+            int mirror = (size - k) & (size - 1);
+            double zr = re[k], zi = im[k];
+            double wr = re[mirror], wi = -im[mirror];
+            double dr = (zr * zr - zi * zi) - (wr * wr - wi * wi);
+            double di = 2 * (zr * zi - wr * wi);
+            productRe[k] = di / 4;
+            productIm[k] = -dr / 4;
+        }
+        transform(productRe, productIm, true);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = productRe[i] / size;
+        }
+    }
+
+    /**
+     * Runs an in-place iterative radix-2 FFT. The inverse transform is not scaled.
+     *
+     * @param re      The real parts, of a power of two length.
+     * @param im      The imaginary parts.
+     * @param inverse Whether to run the inverse transform.
+     */
+    static void transform(double[] re, double[] im, boolean inverse) {
+        int n = re.length;
+        for (int i = 1, j = 0; i < n; i++) { // bit-reversal permutation
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) j ^= bit;
+            j ^= bit;
+            if (i < j) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+        double[] cos = new double[n / 2];
+        double[] sin = new double[n / 2];
+        for (int i = 0; i < n / 2; i++) { // twiddles computed directly so the error does not accumulate
+            double angle = 2 * Math.PI * i / n;
+            cos[i] = Math.cos(angle);
+            sin[i] = inverse ? Math.sin(angle) : -Math.sin(angle);
+        }
+        for (int length = 2; length <= n; length <<= 1) {
+            int half = length >> 1;
+            int step = n / length;
+            for (int start = 0; start < n; start += length) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * step], wi = sin[k * step];
+                    int u = start + k, v = u + half;
+                    double xr = re[v] * wr - im[v] * wi;
+                    double xi = re[v] * wi + im[v] * wr;
+                    re[v] = re[u] - xr;
+                    im[v] = im[u] - xi;
+                    re[u] += xr;
+                    im[u] += xi;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether degrees are in strictly descending order.
+     *
+     * @param degrees The degrees.
+     * @param count   The number of degrees to check.
+     * @return true if every degree is above the next one.
+     */
+    private static boolean isDescending(int[] degrees, int count) {
+        for (int i = 1; i < count; i++) {
+            if (degrees[i] >= degrees[i - 1]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the pool a product with the given shorter operand length runs in, read once so
+     * that a concurrent setPool cannot change it halfway through the product.
+     *
+     * @param shorter The length of the shorter operand.
+     * @return The pool, or null if the product runs sequentially.
+     */
+    private static ForkJoinPool parallelPool(int shorter) {
+        ForkJoinPool forkJoinPool = pool;
+        return forkJoinPool != null && shorter >= parallelThreshold ? forkJoinPool : null;
+    }
+
+    /**
+     * Counts the non-zero values in a range of an array.
+     *
+     * @param values The array.
+     * @param off    The start of the range.
+     * @param length The length of the range.
+     * @return The number of non-zero values.
+     */
+    private static int countNonZero(double[] values, int off, int length) {
+        int count = 0;
+        for (int i = off; i < off + length; i++) {
+            if (values[i] != 0) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the base-2 logarithm of a value.
+     *
+     * @param value The value.
+     * @return The logarithm.
+     */
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
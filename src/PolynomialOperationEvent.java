@@ -0,0 +1,38 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for one Polynomial operation, emitted by PolynomialMetrics while
+ * it is enabled and a recording has the event turned on. The duration of the event is the time
+ * spent in the operation.
+ */
+@Name("polynomial.Operation")
+@Label("Polynomial Operation")
+@Category("Polynomial")
+@Description("An arithmetic operation or evaluation on a Polynomial")
+@StackTrace(false)
+final class PolynomialOperationEvent extends Event {
+    @Label("Operation")
+    String operation; // name of the operation
+
+    @Label("Algorithm")
+    String algorithm; // algorithm or form chosen for the operation
+
+    @Label("Left Degree")
+    int leftDegree; // degree of the Polynomial the operation was invoked on
+
+    @Label("Left Terms")
+    int leftTerms; // number of terms of the Polynomial the operation was invoked on
+
+    @Label("Right Degree")
+    int rightDegree; // degree of the other operand, or -1 if there is none
+
+    @Label("Right Terms")
+    int rightTerms; // number of terms of the other operand, or of values evaluated at
+
+    transient long start; // System.nanoTime when the operation started, not recorded
+}
@@ -0,0 +1,230 @@
+/**
+ * Parses polynomials written as text, such as "3x^2 - 2x + 1" or "-x^5 + 4.5". The parser
+ * reads characters directly from a CharSequence range and collects the terms in a
+ * PolynomialBuilder that is reused from one call to the next, so parsing a line allocates little
+ * more than the resulting Polynomial. A parser instance is not thread-safe.
+ * <p>
+ * Coefficients may be written in exponent notation. An e or E right after the digits of a
+ * number, followed by an optional sign and at least one digit, is read as a power of ten, so
+ * "2e-3" is the constant 0.002 and "2e+3" is 2000, not a polynomial in the literal e. To use e
+ * as the literal in such a case, separate it from the sign, as in "2e - 3", or give its degree,
+ * as in "2e^1 - 3". An e not followed by a digit, as in "2e^2" or "2e", is always the literal.
+ */
+public class PolynomialParser {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final PolynomialBuilder builder = new PolynomialBuilder(); // terms read so far, reused from one call to the next
+    private CharSequence text; // text being parsed
+    private int pos; // position of the next character to read
+    private int end; // end of the range being parsed
+    private int rangeStart; // start of the range being parsed, for error positions
+
+    /**
+     * Parses a whole character sequence as a polynomial.
+     *
+     * @param text The text to parse.
+     * @return The parsed Polynomial.
+     * @throws IllegalArgumentException If the text is not a valid polynomial.
+     */
+    public Polynomial parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses a range of a character sequence as a polynomial.
+     *
+     * @param text  The text to parse.
+     * @param start The start of the range, inclusive.
+     * @param end   The end of the range, exclusive.
+     * @return The parsed Polynomial.
+     * @throws IllegalArgumentException If the range is not a valid polynomial.
+     */
+    public Polynomial parse(CharSequence text, int start, int end) {
+        this.text = text;
+        this.pos = start;
+        this.end = end;
+        this.rangeStart = start;
+        builder.clear();
+        char literal = 0;
+
+        skipSpaces();
+        if (pos == end) throw new IllegalArgumentException("The polynomial is empty.");
+        boolean first = true;
+        while (pos < end) {
+            double sign = 1;
+            char c = text.charAt(pos);
+            if (c == '+' || c == '-') {
+                sign = c == '-' ? -1 : 1;
+                pos++;
+                skipSpaces();
+            } else if (!first) {
+                throw error("Expected '+' or '-'");
+            }
+            first = false;
+
+            double coef = 1;
+            boolean hasCoefficient = false;
+            if (pos < end && (isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                coef = readNumber();
+                hasCoefficient = true;
+                skipSpaces();
+                if (pos < end && text.charAt(pos) == '*') {
+                    pos++;
+                    skipSpaces();
+                }
+            }
+
+            int degree = 0;
+            if (pos < end && Character.isLetter(text.charAt(pos))) {
+                char termLiteral = text.charAt(pos);
+                if (literal == 0) {
+                    literal = termLiteral;
+                } else if (literal != termLiteral) {
+                    throw error("The polynomial should involve one literal only");
+                }
+                pos++;
+                degree = 1;
+                skipSpaces();
+                if (pos < end && text.charAt(pos) == '^') {
+                    pos++;
+                    skipSpaces();
+                    degree = readExponent();
+                }
+            } else if (!hasCoefficient) {
+                throw error("Expected a coefficient or a literal");
+            }
+            builder.addTerm(sign * coef, degree);
+            skipSpaces();
+        }
+        return builder.setLiteral(literal == 0 ? 'x' : literal).build();
+    }
+
+    /**
+     * Parses a range of a character sequence as a single number.
+     *
+     * @param text  The text to parse.
+     * @param start The start of the range, inclusive.
+     * @param end   The end of the range, exclusive.
+     * @return The parsed number.
+     * @throws IllegalArgumentException If the range is not a valid number.
+     */
+    public double parseNumber(CharSequence text, int start, int end) {
+        this.text = text;
+        this.pos = start;
+        this.end = end;
+        this.rangeStart = start;
+        skipSpaces();
+        double sign = 1;
+        if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+            sign = text.charAt(pos) == '-' ? -1 : 1;
+            pos++;
+        }
+        if (pos == end) throw error("Expected a number");
+        double value = readNumber();
+        skipSpaces();
+        if (pos != end) throw error("Unexpected character '" + text.charAt(pos) + "'");
+        return sign * value;
+    }
+
+    /**
+     * Reads an unsigned decimal number, with an optional exponent written as e or E, an optional
+     * sign and digits, such as 1.5e-3. An e not followed by such an exponent is left for the
+     * literal. Numbers with at most 15 significant digits whose power of ten is at most 22 in
+     * magnitude are converted exactly without creating a String.
+     *
+     * @return The number.
+     */
+    private double readNumber() {
+        int start = pos;
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (isDigit(c)) {
+                if (digits < 18) mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction >= 0) fraction++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        if (digits == 0) throw error("Expected a number");
+        long exponent = 0;
+        if (pos < end && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            int digit = pos + 1;
+            if (digit < end && (text.charAt(digit) == '+' || text.charAt(digit) == '-')) digit++;
+            if (digit < end && isDigit(text.charAt(digit))) {
+                boolean negative = text.charAt(pos + 1) == '-';
+                pos = digit;
+                while (pos < end && isDigit(text.charAt(pos))) {
+                    if (exponent < 100_000) exponent = exponent * 10 + (text.charAt(pos) - '0'); // beyond any double
+                    pos++;
+                }
+                if (negative) exponent = -exponent;
+            }
+        }
+        long scale = Math.max(fraction, 0) - exponent;
+        if (digits <= 15 && scale >= 0 && scale < POWERS_OF_TEN.length) {
+            return mantissa / POWERS_OF_TEN[(int) scale];
+        }
+        if (digits <= 15 && scale < 0 && -scale < POWERS_OF_TEN.length) {
+            return mantissa * POWERS_OF_TEN[(int) -scale];
+        }
+        return Double.parseDouble(text.subSequence(start, pos).toString());
+    }
+
+    /**
+     * Reads a non-negative integer exponent, or a negative one written with a leading '-'.
+     *
+     * @return The exponent.
+     */
+    private int readExponent() {
+        boolean negative = false;
+        if (pos < end && text.charAt(pos) == '-') {
+            negative = true;
+            pos++;
+        }
+        if (pos == end || !isDigit(text.charAt(pos))) throw error("Expected an exponent");
+        long value = 0;
+        while (pos < end && isDigit(text.charAt(pos))) {
+            value = value * 10 + (text.charAt(pos) - '0');
+            if (value > Integer.MAX_VALUE) throw error("The exponent is too large");
+            pos++;
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Skips blank characters.
+     */
+    private void skipSpaces() {
+        while (pos < end && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    /**
+     * Returns whether a character is an ASCII digit.
+     *
+     * @param c The character.
+     * @return true if the character is a digit.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Creates an exception for the current position.
+     *
+     * @param message The description of the problem.
+     * @return The exception.
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at column " + (pos - rangeStart + 1) + ".");
+    }
+}
@@ -0,0 +1,424 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Finds all complex roots of polynomials with real coefficients by the Aberth-Ehrlich
+ * iteration. Every root approximation z_i moves by w = N / (1 - N S), where N = p(z_i) / p'(z_i)
+ * is the Newton correction and S is the sum of 1 / (z_i - z_j) over the other roots, so the roots
+ * repel each other and converge together, cubically near simple roots. The starting points lie
+ * on a circle whose radius is the geometric mean of the root moduli.
+ * <p>
+ * p and p' are evaluated together by Horner's scheme, on the reversed polynomial at 1 / z when
+ * |z| > 1 so that high degrees do not overflow. A root stops moving once |p(z)| is within the
+ * rounding error of Horner's scheme, about 4n unit roundoffs of the sum of |a_k| |z|^k, which
+ * makes it an exact root of a polynomial with coefficients that close to the given ones. Each
+ * root tracks its own convergence, and the iteration ends when every root has converged or
+ * after the maximum number of iterations. Multiple and clustered roots converge linearly and
+ * only to about the n-th root of the unit roundoff, as their conditioning allows.
+ * <p>
+ * When a pool is set, the roots of one polynomial whose degree reaches the parallel threshold
+ * are updated in parallel, by blocks of roots, in total-step (Jacobi) order so that every update
+ * of an iteration reads the same approximations. Smaller polynomials update their roots one
+ * after the other, each update reading the newest approximations, which converges in fewer
+ * iterations. The batch methods spread whole polynomials over the pool instead.
+ */
+public class PolynomialRootFinder {
+    private static final double UNIT_ROUNDOFF = 0x1p-53; // relative rounding error of a double operation
+    private static final double START_ANGLE = 0.4; // angle of the first starting point, off the real axis
+    private static final int BATCH_BLOCK = 256; // polynomials solved by one task of a batch
+
+    private static int maxIterations = 100; // iterations after which the unconverged roots are returned as they are
+    private static volatile ForkJoinPool pool = null; // pool for parallel solving, or null to stay sequential
+    private static int parallelThreshold = 512; // degree from which the roots of one polynomial are updated in parallel
+
+    private PolynomialRootFinder() {
+    }
+
+    /**
+     * Returns the number of iterations after which the unconverged roots are returned as they are.
+     *
+     * @return The iteration limit.
+     */
+    public static int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Sets the number of iterations after which the unconverged roots are returned as they are.
+     *
+     * @param iterations The iteration limit, at least 1.
+     */
+    public static void setMaxIterations(int iterations) {
+        if (iterations < 1) throw new IllegalArgumentException("The iteration limit must be at least 1.");
+        maxIterations = iterations;
+    }
+
+    /**
+     * Returns the pool used for parallel solving.
+     *
+     * @return The pool, or null if polynomials are solved sequentially.
+     */
+    public static ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the pool used for parallel solving. Passing null turns the parallel mode off.
+     *
+     * @param forkJoinPool The pool, or null.
+     */
+    public static void setPool(ForkJoinPool forkJoinPool) {
+        pool = forkJoinPool;
+    }
+
+    /**
+     * Returns the degree from which the roots of one polynomial are updated in parallel.
+     *
+     * @return The parallel threshold.
+     */
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the degree from which the roots of one polynomial are updated in parallel.
+     *
+     * @param threshold The parallel threshold, at least 2.
+     */
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 2) throw new IllegalArgumentException("The parallel threshold must be at least 2.");
+        parallelThreshold = threshold;
+    }
+
+    /**
+     * Finds the roots of a Polynomial.
+     *
+     * @param polynomial The Polynomial.
+     * @return The roots, as many as the degree.
+     * @throws IllegalArgumentException If the Polynomial is zero.
+     * @throws IllegalStateException    If the Polynomial has a term with a negative degree.
+     */
+    public static PolynomialRoots findRoots(Polynomial polynomial) {
+        return findRoots(polynomial.getCoefficients(), pool);
+    }
+
+    /**
+     * Finds the roots of a polynomial given as coefficients.
+     *
+     * @param coefficients The coefficients indexed by degree. Zero coefficients of the highest degrees are ignored.
+     * @return The roots, as many as the degree.
+     * @throws IllegalArgumentException If every coefficient is zero.
+     */
+    public static PolynomialRoots findRoots(double[] coefficients) {
+        return findRoots(coefficients, pool);
+    }
+
+    /**
+     * Finds the roots of many Polynomials, spreading them over the pool when one is set.
+     *
+     * @param polynomials The Polynomials.
+     * @return The roots of each Polynomial, in the same order.
+     * @throws IllegalArgumentException If a Polynomial is zero.
+     * @throws IllegalStateException    If a Polynomial has a term with a negative degree.
+     */
+    public static PolynomialRoots[] findRoots(Polynomial[] polynomials) {
+        double[][] coefficients = new double[polynomials.length][];
+        for (int i = 0; i < polynomials.length; i++) {
+            coefficients[i] = polynomials[i].getCoefficients();
+        }
+        return findRoots(coefficients);
+    }
+
+    /**
+     * Finds the roots of many polynomials given as coefficients, spreading them over the pool
+     * when one is set. Each polynomial is solved sequentially by a single thread, so the batch
+     * scales with the number of polynomials rather than with their degrees.
+     *
+     * @param coefficients The coefficients of each polynomial indexed by degree.
+     * @return The roots of each polynomial, in the same order.
+     * @throws IllegalArgumentException If every coefficient of a polynomial is zero.
+     */
+    public static PolynomialRoots[] findRoots(double[][] coefficients) {
+        PolynomialRoots[] results = new PolynomialRoots[coefficients.length];
+        ForkJoinPool forkJoinPool = pool;
+        if (forkJoinPool == null || coefficients.length <= BATCH_BLOCK) {
+            for (int i = 0; i < coefficients.length; i++) {
+                results[i] = findRoots(coefficients[i], null);
+            }
+            return results;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int lo = 0; lo < coefficients.length; lo += BATCH_BLOCK) {
+            int from = lo;
+            int to = Math.min(lo + BATCH_BLOCK, coefficients.length);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = findRoots(coefficients[i], null);
+                }
+            }));
+        }
+        forkJoinPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        return results;
+    }
+
+    /**
+     * Finds the roots of a polynomial given as coefficients.
+     *
+     * @param coefficients The coefficients indexed by degree.
+     * @param forkJoinPool The pool for parallel updates, or null.
+     * @return The roots.
+     */
+    private static PolynomialRoots findRoots(double[] coefficients, ForkJoinPool forkJoinPool) {
+        int top = coefficients.length - 1;
+        while (top >= 0 && coefficients[top] == 0) top--;
+        if (top < 0) throw new IllegalArgumentException("The zero polynomial has no finite set of roots.");
+        int zeros = 0; // roots at zero, one per vanishing low coefficient
+        while (coefficients[zeros] == 0) zeros++;
+        int n = top - zeros;
+        double[] a = new double[n + 1];
+        System.arraycopy(coefficients, zeros, a, 0, n + 1);
+
+        double[] re = new double[top];
+        double[] im = new double[top];
+        boolean[] converged = new boolean[top];
+        for (int i = n; i < top; i++) {
+            converged[i] = true;
+        }
+        int iterations = 0;
+        if (n > 0) {
+            double[] zr = new double[n];
+            double[] zi = new double[n];
+            boolean[] done = new boolean[n];
+            start(a, n, zr, zi);
+            iterations = forkJoinPool != null && n >= parallelThreshold
+                    ? iterateParallel(a, n, zr, zi, done, forkJoinPool)
+                    : iterate(a, n, zr, zi, done);
+            System.arraycopy(zr, 0, re, 0, n);
+            System.arraycopy(zi, 0, im, 0, n);
+            System.arraycopy(done, 0, converged, 0, n);
+        }
+        return new PolynomialRoots(re, im, converged, iterations);
+    }
+
+    /**
+     * Places the starting points on a circle whose radius is the geometric mean of the root
+     * moduli, |a_0 / a_n|^(1/n), at angles evenly spaced from START_ANGLE.
+     *
+     * @param a  The coefficients, with non-zero a_0 and a_n.
+     * @param n  The degree.
+     * @param zr Receives the real parts.
+     * @param zi Receives the imaginary parts.
+     */
+    private static void start(double[] a, int n, double[] zr, double[] zi) {
+        double radius = Math.exp((Math.log(Math.abs(a[0])) - Math.log(Math.abs(a[n]))) / n);
+        for (int k = 0; k < n; k++) {
+            double angle = 2 * Math.PI * k / n + START_ANGLE;
+            zr[k] = radius * Math.cos(angle);
+            zi[k] = radius * Math.sin(angle);
+        }
+    }
+
+    /**
+     * Runs the iteration updating one root after the other in place.
+     *
+     * @param a    The coefficients.
+     * @param n    The degree.
+     * @param zr   The real parts of the approximations, updated in place.
+     * @param zi   The imaginary parts of the approximations, updated in place.
+     * @param done Whether each root has converged, updated in place.
+     * @return The number of iterations run.
+     */
+    private static int iterate(double[] a, int n, double[] zr, double[] zi, boolean[] done) {
+        double[] update = new double[3];
+        int remaining = n;
+        int iteration = 0;
+        while (remaining > 0 && iteration < maxIterations) {
+            iteration++;
+            for (int i = 0; i < n; i++) {
+                if (done[i]) continue;
+                boolean converged = step(a, n, zr, zi, i, update);
+                zr[i] = update[0];
+                zi[i] = update[1];
+                if (converged) {
+                    done[i] = true;
+                    remaining--;
+                }
+            }
+        }
+        return iteration;
+    }
+
+    /**
+     * Runs the iteration updating blocks of roots in parallel, each iteration reading the
+     * approximations of the previous one.
+     *
+     * @param a            The coefficients.
+     * @param n            The degree.
+     * @param zr           The real parts of the approximations, updated in place.
+     * @param zi           The imaginary parts of the approximations, updated in place.
+     * @param done         Whether each root has converged, updated in place.
+     * @param forkJoinPool The pool.
+     * @return The number of iterations run.
+     */
+    private static int iterateParallel(double[] a, int n, double[] zr, double[] zi, boolean[] done, ForkJoinPool forkJoinPool) {
+        double[][] current = {zr, zi};
+        double[][] next = {new double[n], new double[n]};
+        int blocks = forkJoinPool.getParallelism() * 4;
+        int blockSize = Math.max((n + blocks - 1) / blocks, 1);
+        int iteration = 0;
+        boolean remaining = true;
+        while (remaining && iteration < maxIterations) {
+            iteration++;
+            double[] fromR = current[0];
+            double[] fromI = current[1];
+            double[] toR = next[0];
+            double[] toI = next[1];
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int lo = 0; lo < n; lo += blockSize) {
+                int from = lo;
+                int to = Math.min(lo + blockSize, n);
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    double[] update = new double[3];
+                    for (int i = from; i < to; i++) {
+                        if (done[i]) {
+                            toR[i] = fromR[i];
+                            toI[i] = fromI[i];
+                            continue;
+                        }
+                        done[i] = step(a, n, fromR, fromI, i, update);
+                        toR[i] = update[0];
+                        toI[i] = update[1];
+                    }
+                }));
+            }
+            forkJoinPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            current = next;
+            next = new double[][]{fromR, fromI};
+            remaining = false;
+            for (int i = 0; i < n && !remaining; i++) {
+                remaining = !done[i];
+            }
+        }
+        if (current[0] != zr) {
+            System.arraycopy(current[0], 0, zr, 0, n);
+            System.arraycopy(current[1], 0, zi, 0, n);
+        }
+        return iteration;
+    }
+
+    /**
+     * Computes the Aberth-Ehrlich update of one root.
+     *
+     * @param a      The coefficients.
+     * @param n      The degree.
+     * @param zr     The real parts of the approximations.
+     * @param zi     The imaginary parts of the approximations.
+     * @param i      The index of the root to update.
+     * @param update Receives the real and imaginary parts of the updated root.
+     * @return true if the root has converged.
+     */
+    private static boolean step(double[] a, int n, double[] zr, double[] zi, int i, double[] update) {
+        double xr = zr[i];
+        double xi = zi[i];
+        boolean small = newtonCorrection(a, n, xr, xi, update);
+        double nr = update[0];
+        double ni = update[1];
+        if (small) {
+            update[0] = xr;
+            update[1] = xi;
+            return true;
+        }
+        double sr = 0; // sum of 1 / (z_i - z_j) over the other roots
+        double si = 0;
+        for (int j = 0; j < n; j++) {
+            if (j == i) continue;
+            double dr = xr - zr[j];
+            double di = xi - zi[j];
+            double norm = dr * dr + di * di;
+            if (norm == 0) continue; // coincident approximations, separated by the next Newton step
+            double inverse = 1 / norm;
+            sr += dr * inverse;
+            si -= di * inverse;
+        }
+        // w = N / (1 - N S)
+        double denomR = 1 - (nr * sr - ni * si);
+        double denomI = -(nr * si + ni * sr);
+        double norm = denomR * denomR + denomI * denomI;
+        double wr = nr;
+        double wi = ni;
+        if (norm != 0) {
+            wr = (nr * denomR + ni * denomI) / norm;
+            wi = (ni * denomR - nr * denomI) / norm;
+        }
+        update[0] = xr - wr;
+        update[1] = xi - wi;
+        return Math.abs(wr) + Math.abs(wi) <= UNIT_ROUNDOFF * (Math.abs(xr) + Math.abs(xi));
+    }
+
+    /**
+     * Computes the Newton correction p(z) / p'(z) by Horner's scheme, on the reversed
+     * polynomial at 1 / z when |z| > 1, and whether |p(z)| is within its rounding error.
+     *
+     * @param a      The coefficients.
+     * @param n      The degree.
+     * @param xr     The real part of z.
+     * @param xi     The imaginary part of z.
+     * @param update Receives the real and imaginary parts of the correction.
+     * @return true if |p(z)| is within the rounding error of its evaluation.
+     */
+    private static boolean newtonCorrection(double[] a, int n, double xr, double xi, double[] update) {
+        double modulus = Math.sqrt(xr * xr + xi * xi); // Math.hypot guards against overflow, but is several times slower
+        boolean reversed = modulus > 1;
+        double wr = xr;
+        double wi = xi;
+        if (reversed) { // w = 1 / z
+            double norm = xr * xr + xi * xi;
+            wr = xr / norm;
+            wi = -xi / norm;
+        }
+        double absW = reversed ? 1 / modulus : modulus;
+        double pr = reversed ? a[0] : a[n];
+        double pi = 0;
+        double dr = 0;
+        double di = 0;
+        double bound = Math.abs(pr); // sum of |a_k| |w|^k, for the rounding error of Horner's scheme
+        for (int k = 1; k <= n; k++) {
+            double coef = reversed ? a[k] : a[n - k];
+            double t = dr * wr - di * wi + pr;
+            di = dr * wi + di * wr + pi;
+            dr = t;
+            t = pr * wr - pi * wi + coef;
+            pi = pr * wi + pi * wr;
+            pr = t;
+            bound = bound * absW + Math.abs(coef);
+        }
+        double error = 4 * n * UNIT_ROUNDOFF * bound;
+        if (pr * pr + pi * pi <= error * error) {
+            update[0] = 0;
+            update[1] = 0;
+            return true;
+        }
+        double ratioR; // p' / p, or q' / q on the reversed polynomial q
+        double ratioI;
+        double norm = pr * pr + pi * pi;
+        ratioR = (dr * pr + di * pi) / norm;
+        ratioI = (di * pr - dr * pi) / norm;
+        if (reversed) { // p' / p = w (n - w q' / q)
+            double tr = n - (wr * ratioR - wi * ratioI);
+            double ti = -(wr * ratioI + wi * ratioR);
+            ratioR = wr * tr - wi * ti;
+            ratioI = wr * ti + wi * tr;
+        }
+        norm = ratioR * ratioR + ratioI * ratioI;
+        if (norm == 0 || Double.isInfinite(norm)) {
+            update[0] = UNIT_ROUNDOFF * (1 + modulus); // a stationary point, leave it by a small step
+            update[1] = 0;
+            return false;
+        }
+        update[0] = ratioR / norm;
+        update[1] = -ratioI / norm;
+        return false;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Represents the complex roots of a polynomial found by PolynomialRootFinder, repeated by
+ * multiplicity, with whether each of them met the stopping criterion.
+ */
+public final class PolynomialRoots {
+    private final double[] real; // real part of each root
+    private final double[] imaginary; // imaginary part of each root
+    private final boolean[] converged; // whether each root met the stopping criterion
+    private final int iterations; // iterations run until every root converged or the limit was reached
+
+    /**
+     * Initializes a PolynomialRoots that takes ownership of the given arrays.
+     *
+     * @param real       The real parts.
+     * @param imaginary  The imaginary parts.
+     * @param converged  Whether each root converged.
+     * @param iterations The number of iterations run.
+     */
+    PolynomialRoots(double[] real, double[] imaginary, boolean[] converged, int iterations) {
+        this.real = real;
+        this.imaginary = imaginary;
+        this.converged = converged;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Returns the number of roots, which is the degree of the polynomial.
+     *
+     * @return The number of roots.
+     */
+    public int getRootCount() {
+        return real.length;
+    }
+
+    /**
+     * Returns the real part of a root.
+     *
+     * @param index The index of the root.
+     * @return The real part.
+     */
+    public double getReal(int index) {
+        return real[index];
+    }
+
+    /**
+     * Returns the imaginary part of a root.
+     *
+     * @param index The index of the root.
+     * @return The imaginary part.
+     */
+    public double getImaginary(int index) {
+        return imaginary[index];
+    }
+
+    /**
+     * Returns the real parts of the roots.
+     *
+     * @return A new array holding the real part of each root.
+     */
+    public double[] getRealParts() {
+        return real.clone();
+    }
+
+    /**
+     * Returns the imaginary parts of the roots.
+     *
+     * @return A new array holding the imaginary part of each root.
+     */
+    public double[] getImaginaryParts() {
+        return imaginary.clone();
+    }
+
+    /**
+     * Returns whether a root met the stopping criterion.
+     *
+     * @param index The index of the root.
+     * @return true if the root converged.
+     */
+    public boolean isConverged(int index) {
+        return converged[index];
+    }
+
+    /**
+     * Returns whether every root met the stopping criterion.
+     *
+     * @return true if every root converged.
+     */
+    public boolean isConverged() {
+        for (boolean c : converged) {
+            if (!c) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of iterations run.
+     *
+     * @return The iteration count.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns a string representation of the roots, such as "[1.0, -0.5 + 2.0i, -0.5 - 2.0i]".
+     *
+     * @return The roots in brackets, separated by commas.
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("[");
+        for (int i = 0; i < real.length; i++) {
+            if (i > 0) s.append(", ");
+            s.append(real[i]);
+            if (imaginary[i] > 0) s.append(" + ").append(imaginary[i]).append('i');
+            else if (imaginary[i] < 0) s.append(" - ").append(-imaginary[i]).append('i');
+        }
+        return s.append(']').toString();
+    }
+}
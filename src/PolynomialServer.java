@@ -0,0 +1,342 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves polynomial arithmetic over HTTP on the loopback interface, with the JDK's built-in
+ * server. Each exchange runs on a virtual thread when the runtime has them, and on a thread of
+ * a cached pool otherwise. Two endpoints accept POST requests with a UTF-8 text body:
+ * <ul>
+ * <li>/compute takes lines in the format of PolynomialBatchMode, such as
+ * "MULTIPLY 3x^2 - 2x + 1 ; x - 4", and answers one result line per operation.</li>
+ * <li>/evaluate takes one polynomial and one value separated by ';', such as "3x^2 - 2x + 1 ; 2.5",
+ * and answers the value of the polynomial.</li>
+ * </ul>
+ * Evaluate requests for the same polynomial text are batched: the polynomial is parsed once and
+ * kept, and while one request evaluates it, the values of the requests arriving meanwhile are
+ * queued. The request that finds no evaluation running evaluates the whole queue with one bulk
+ * evaluate call, so the batches grow with the load without adding a delay when it is light.
+ * Malformed requests are answered with status 400 and a line starting with "ERROR", request
+ * bodies longer than 4 MB with status 413, and failures of the server itself with status 500.
+ */
+public class PolynomialServer {
+    private static final int MAX_BATCH = 4096; // values evaluated in one bulk call
+    private static final int MAX_POLYNOMIALS = 1024; // polynomials kept for batching before the cache is cleared
+    private static final int MAX_BODY = 1 << 22; // bytes of the longest request body accepted
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, EvaluationBatch> batches = new ConcurrentHashMap<>(); // batch of each polynomial text
+
+    /**
+     * Creates a server on a port of the loopback interface. The server does not accept
+     * requests until it is started.
+     *
+     * @param port The port, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public PolynomialServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/evaluate", this::handleEvaluate);
+        server.createContext("/compute", this::handleCompute);
+    }
+
+    /**
+     * Starts a server and keeps it running until the process ends.
+     *
+     * @param port The port, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void run(int port) throws IOException {
+        PolynomialServer server = new PolynomialServer(port);
+        server.start();
+        System.out.println("Serving polynomial arithmetic on http://localhost:" + server.getPort()
+                + "/ (/evaluate, /compute)");
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and releases the threads.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread, or on a cached pool of
+     * platform threads if the runtime has no virtual threads. The virtual thread executor is
+     * looked up by reflection so that the code also runs on runtimes before Java 21.
+     *
+     * @return The executor.
+     */
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Answers an evaluate request through the batch of its polynomial.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the exchange fails.
+     */
+    private void handleEvaluate(HttpExchange exchange) throws IOException {
+        if (!checkMethod(exchange)) return;
+        String body = readBody(exchange);
+        if (body == null) {
+            respondTooLarge(exchange);
+            return;
+        }
+        int separator = body.indexOf(';');
+        try {
+            if (separator < 0) throw new IllegalArgumentException("Expected a polynomial and a value separated by ';'.");
+            String text = body.substring(0, separator).trim();
+            double value = new PolynomialParser().parseNumber(body, separator + 1, body.length());
+            EvaluationBatch batch = batches.get(text);
+            if (batch == null) {
+                if (batches.size() >= MAX_POLYNOMIALS) batches.clear();
+                batch = batches.computeIfAbsent(text, t -> new EvaluationBatch(new PolynomialParser().parse(t)));
+            }
+            respond(exchange, 200, Double.toString(batch.evaluate(value)) + '\n');
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "ERROR " + message(e) + '\n');
+        } catch (RuntimeException e) {
+            respond(exchange, 500, "ERROR " + message(e) + '\n');
+        }
+    }
+
+    /**
+     * Answers a compute request by running its lines through PolynomialBatchMode.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the exchange fails.
+     */
+    private void handleCompute(HttpExchange exchange) throws IOException {
+        if (!checkMethod(exchange)) return;
+        String body = readBody(exchange);
+        if (body == null) {
+            respondTooLarge(exchange);
+            return;
+        }
+        StringWriter out = new StringWriter();
+        try {
+            new PolynomialBatchMode().run(new StringReader(body), out);
+        } catch (RuntimeException e) {
+            respond(exchange, 500, "ERROR " + message(e) + '\n');
+            return;
+        }
+        respond(exchange, 200, out.toString());
+    }
+
+    /**
+     * Rejects requests other than POST.
+     *
+     * @param exchange The exchange.
+     * @return true if the request is a POST.
+     * @throws IOException If the exchange fails.
+     */
+    private static boolean checkMethod(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestMethod().equals("POST")) return true;
+        exchange.getResponseHeaders().set("Allow", "POST");
+        respond(exchange, 405, "ERROR Only POST is supported.\n");
+        return false;
+    }
+
+    /**
+     * Reads the whole request body as UTF-8, unless it is longer than MAX_BODY bytes. A body
+     * whose declared length is too long is not read at all, and a body sent in chunks is read
+     * up to one byte past the limit.
+     *
+     * @param exchange The exchange.
+     * @return The body, or null if it is too long.
+     * @throws IOException If reading fails.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (length != null && length.length() > 0 && Long.parseLong(length.trim()) > MAX_BODY) return null;
+            byte[] body = in.readNBytes(MAX_BODY + 1);
+            if (body.length > MAX_BODY) return null;
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Answers a request whose body is longer than MAX_BODY bytes.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If writing fails.
+     */
+    private static void respondTooLarge(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Connection", "close"); // the rest of the body is not read
+        respond(exchange, 413, "ERROR The request body is longer than " + MAX_BODY + " bytes.\n");
+    }
+
+    /**
+     * Returns the message of an exception, or its class name if it has none.
+     *
+     * @param e The exception.
+     * @return The text to report.
+     */
+    private static String message(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+    }
+
+    /**
+     * Sends a text response and closes the exchange.
+     *
+     * @param exchange The exchange.
+     * @param status   The status code.
+     * @param text     The response body.
+     * @throws IOException If writing fails.
+     */
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * The pending evaluations of one polynomial. Any thread may become the evaluating one, so
+     * the batch needs no thread of its own.
+     */
+    private static final class EvaluationBatch {
+        private final Polynomial polynomial; // the parsed polynomial, only read
+        private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>(); // values waiting
+        private final AtomicBoolean running = new AtomicBoolean(); // whether a thread is evaluating
+        private final Pending[] taken = new Pending[MAX_BATCH]; // requests of the current bulk call
+
+        /**
+         * Creates the batch of a polynomial.
+         *
+         * @param polynomial The polynomial.
+         */
+        EvaluationBatch(Polynomial polynomial) {
+            this.polynomial = polynomial;
+        }
+
+        /**
+         * Evaluates the polynomial at a value, together with the values of concurrent requests.
+         *
+         * @param value The value.
+         * @return The value of the polynomial.
+         */
+        double evaluate(double value) {
+            Pending pending = new Pending(value);
+            queue.add(pending);
+            while (!queue.isEmpty() && running.compareAndSet(false, true)) {
+                try {
+                    drain();
+                } finally {
+                    running.set(false);
+                }
+            } // checking the queue again after releasing serves a request whose own attempt found running set
+            try {
+                return pending.result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the evaluation.");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("The evaluation failed.", e.getCause());
+            }
+        }
+
+        /**
+         * Evaluates the queued values in bulk calls until the queue is empty. Only called by the
+         * thread that set running. A failed bulk call completes its requests with the failure,
+         * so that each waiting request reports it in its own thread, and draining goes on.
+         */
+        private void drain() {
+            while (true) {
+                int count = 0;
+                Pending next;
+                while (count < MAX_BATCH && (next = queue.poll()) != null) {
+                    taken[count++] = next;
+                }
+                if (count == 0) return;
+                try {
+                    double[] values = new double[count];
+                    double[] results = new double[count];
+                    for (int i = 0; i < count; i++) {
+                        values[i] = taken[i].value;
+                    }
+                    if (count == 1) {
+                        results[0] = polynomial.evaluate(values[0]);
+                    } else {
+                        polynomial.evaluate(values, results);
+                    }
+                    for (int i = 0; i < count; i++) {
+                        taken[i].result.complete(results[i]);
+                    }
+                } catch (RuntimeException e) {
+                    for (int i = 0; i < count; i++) {
+                        taken[i].result.completeExceptionally(e);
+                    }
+                } finally {
+                    for (int i = 0; i < count; i++) { // an Error escapes the catch; never leave a request waiting
+                        if (!taken[i].result.isDone()) {
+                            taken[i].result.completeExceptionally(new IllegalStateException("The evaluation was abandoned."));
+                        }
+                        taken[i] = null;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One value waiting to be evaluated.
+     */
+    private static final class Pending {
+        private final double value; // the value to evaluate at
+        private final CompletableFuture<Double> result = new CompletableFuture<>(); // the value of the polynomial
+
+        /**
+         * Creates a pending evaluation.
+         *
+         * @param value The value.
+         */
+        Pending(double value) {
+            this.value = value;
+        }
+    }
+}
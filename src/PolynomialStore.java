@@ -0,0 +1,541 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps many polynomials outside of the Java heap, in direct buffers allocated in large chunks.
+ * Each polynomial is one record in the layout of PolynomialFile: a dense record holds its
+ * coefficients indexed by degree and a sparse record its coefficients followed by its degrees,
+ * both contiguous, so a stored polynomial costs 8 or 12 bytes per term and no object at all.
+ * The heap only holds the chunk buffers and one long per polynomial locating its record, which
+ * keeps millions of polynomials out of the garbage collector's reach.
+ * <p>
+ * Polynomials are added once and then read by index: evaluate runs on the record in place,
+ * PolynomialView reads one record at a time through a reusable flyweight, and get decodes a
+ * record into a new Polynomial. add and multiply combine two stored polynomials into a new
+ * record, choosing the dense or sparse form as Polynomial would. Their operands are copied from
+ * the records into temporary primitive arrays so that the multiplication algorithms of
+ * PolynomialMultiplier apply, and the result is written straight into a new record.
+ * <p>
+ * The chunks count against the JVM's limit on direct memory, which is set with
+ * -XX:MaxDirectMemorySize and defaults to the maximum heap size, so a store on a small heap
+ * needs the flag to grow beyond it. When the limit is reached, allocating a chunk throws an
+ * OutOfMemoryError naming the flag.
+ * <p>
+ * Closing the store frees its chunks at once, through the buffer cleaner of the JDK where it is
+ * accessible, and otherwise when the garbage collector reclaims the buffers. Every later call
+ * on the store or on a view of it throws an IllegalStateException. A store is not thread-safe
+ * while polynomials are being added, and must not be closed while another thread reads it.
+ */
+public class PolynomialStore implements AutoCloseable {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 26; // bytes of each chunk, 64 MB
+    private static final int MAX_RECORD_SIZE = Integer.MAX_VALUE - 7; // largest record a single buffer can hold
+    private static final Object UNSAFE; // sun.misc.Unsafe instance freeing direct buffers, or null if inaccessible
+    private static final Method INVOKE_CLEANER; // Unsafe.invokeCleaner, or null if inaccessible
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null; // closed chunks are then freed by the garbage collector
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final int chunkSize; // bytes of each chunk, unless a record needs more
+    private final List<ByteBuffer> chunks = new ArrayList<>(); // little-endian direct buffers holding the records
+    private ByteBuffer current; // chunk receiving new records, or null before the first one
+    private int position; // offset of the next record in the current chunk
+    private long[] locations = new long[1024]; // chunk index in the high half and record offset in the low half
+    private int count; // number of polynomials stored
+    private long allocated; // bytes of the chunks
+    private volatile boolean closed; // whether the chunks were released
+
+    /**
+     * Creates an empty store with chunks of 64 MB.
+     */
+    public PolynomialStore() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an empty store.
+     *
+     * @param chunkSize The size of each chunk in bytes, at least 4096. Larger records get a chunk of their own.
+     */
+    public PolynomialStore(int chunkSize) {
+        if (chunkSize < 4096) throw new IllegalArgumentException("The chunk size must be at least 4096 bytes.");
+        this.chunkSize = chunkSize & ~7;
+    }
+
+    /**
+     * Returns the number of polynomials stored.
+     *
+     * @return The number of polynomials.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the off-heap memory held by the store.
+     *
+     * @return The total size of the chunks in bytes.
+     */
+    public long getAllocatedBytes() {
+        return allocated;
+    }
+
+    /**
+     * Stores a copy of a Polynomial.
+     *
+     * @param p The Polynomial.
+     * @return The index of the stored polynomial.
+     */
+    public int add(Polynomial p) {
+        if (p.isDense()) return appendDense(p.coefficientArray(), p.getDegree() + 1, p.getLiteral());
+        int n = p.getTermCount();
+        int[] degrees = new int[n];
+        double[] coefs = new double[n];
+        p.copyTerms(degrees, coefs);
+        for (int i = 1; i < n; i++) {
+            if (degrees[i] >= degrees[i - 1]) { // a term list was set out of order
+                n = PolynomialBuilder.sortAndCombine(degrees.clone(), coefs.clone(), n, degrees, coefs);
+                break;
+            }
+        }
+        return appendTerms(degrees, coefs, n, p.getLiteral());
+    }
+
+    /**
+     * Decodes a stored polynomial.
+     *
+     * @param index The index of the polynomial.
+     * @return A new Polynomial in the form of its record.
+     */
+    public Polynomial get(int index) {
+        long location = locate(index);
+        return PolynomialFile.decode(chunk(location), offset(location));
+    }
+
+    /**
+     * Returns a flyweight view of a stored polynomial.
+     *
+     * @param index The index of the polynomial.
+     * @return The view, which can be moved to other polynomials of the store.
+     */
+    public PolynomialView view(int index) {
+        return new PolynomialView(this, index);
+    }
+
+    /**
+     * Returns the literal of a stored polynomial.
+     *
+     * @param index The index of the polynomial.
+     * @return The literal.
+     */
+    public char getLiteral(int index) {
+        long location = locate(index);
+        return chunk(location).getChar(offset(location));
+    }
+
+    /**
+     * Returns the highest degree of a stored polynomial.
+     *
+     * @param index The index of the polynomial.
+     * @return The degree, or -1 if the polynomial has no terms.
+     */
+    public int getDegree(int index) {
+        long location = locate(index);
+        return PolynomialFile.degree(chunk(location), offset(location));
+    }
+
+    /**
+     * Evaluates a stored polynomial in place with Horner's scheme.
+     *
+     * @param index The index of the polynomial.
+     * @param value The value at which to evaluate the polynomial.
+     * @return The result of the evaluation.
+     */
+    public double evaluate(int index, double value) {
+        long location = locate(index);
+        return PolynomialFile.evaluate(chunk(location), offset(location), value);
+    }
+
+    /**
+     * Stores the sum of two stored polynomials. Dense operands are summed coefficient by
+     * coefficient, and others by merging their terms in descending degree order.
+     *
+     * @param first  The index of the first polynomial.
+     * @param second The index of the second polynomial.
+     * @return The index of the sum.
+     */
+    public int add(int first, int second) {
+        long locationA = locate(first);
+        long locationB = locate(second);
+        ByteBuffer a = chunk(locationA);
+        ByteBuffer b = chunk(locationB);
+        int recordA = offset(locationA);
+        int recordB = offset(locationB);
+        int countA = a.getInt(recordA + 4);
+        char literal = countA > 0 ? a.getChar(recordA) : b.getChar(recordB);
+        if (a.get(recordA + 2) == PolynomialFile.DENSE && b.get(recordB + 2) == PolynomialFile.DENSE) {
+            int countB = b.getInt(recordB + 4);
+            double[] sum = readCoefficients(a, recordA, Math.max(countA, countB));
+            for (int i = 0; i < countB; i++) {
+                sum[i] += b.getDouble(recordB + PolynomialFile.RECORD_HEADER_SIZE + 8 * i);
+            }
+            return appendDense(sum, sum.length, literal);
+        }
+        int[] degreesA = readDegrees(a, recordA);
+        double[] coefsA = readTermCoefficients(a, recordA);
+        int[] degreesB = readDegrees(b, recordB);
+        double[] coefsB = readTermCoefficients(b, recordB);
+        int[] degrees = new int[degreesA.length + degreesB.length];
+        double[] coefs = new double[degrees.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < degreesA.length || j < degreesB.length) {
+            if (j == degreesB.length || (i < degreesA.length && degreesA[i] > degreesB[j])) {
+                degrees[size] = degreesA[i];
+                coefs[size++] = coefsA[i++];
+            } else if (i == degreesA.length || degreesB[j] > degreesA[i]) {
+                degrees[size] = degreesB[j];
+                coefs[size++] = coefsB[j++];
+            } else {
+                degrees[size] = degreesA[i];
+                coefs[size++] = coefsA[i++] + coefsB[j++];
+            }
+        }
+        return appendTerms(degrees, coefs, size, literal);
+    }
+
+    /**
+     * Stores the product of two stored polynomials, computed with the algorithm multiply
+     * would choose for them.
+     *
+     * @param first  The index of the first polynomial.
+     * @param second The index of the second polynomial.
+     * @return The index of the product.
+     */
+    public int multiply(int first, int second) {
+        long locationA = locate(first);
+        long locationB = locate(second);
+        ByteBuffer a = chunk(locationA);
+        ByteBuffer b = chunk(locationB);
+        int recordA = offset(locationA);
+        int recordB = offset(locationB);
+        char literal = b.getChar(recordB);
+        int[] degreesA = readDegrees(a, recordA);
+        int[] degreesB = readDegrees(b, recordB);
+        int termsA = countNonZero(a, recordA);
+        int termsB = countNonZero(b, recordB);
+        if (termsA == 0 || termsB == 0) return appendTerms(new int[0], new double[0], 0, literal);
+        int lengthA = degreesA[0] + 1;
+        int lengthB = degreesB[0] + 1;
+        boolean arrays = degreesA[degreesA.length - 1] >= 0 && degreesB[degreesB.length - 1] >= 0;
+        PolynomialMultiplier.Algorithm algorithm = PolynomialMultiplier.select(lengthA, termsA, lengthB, termsB, arrays);
+        if (algorithm == PolynomialMultiplier.Algorithm.SPARSE) {
+            double[] coefsA = readTermCoefficients(a, recordA);
+            double[] coefsB = readTermCoefficients(b, recordB);
+            PolynomialMultiplier.SparseProduct product = PolynomialMultiplier.multiplySparse(
+                    degreesA, coefsA, coefsA.length, degreesB, coefsB, coefsB.length);
+            return appendTerms(product.getDegrees(), product.getCoefficients(), product.size(), literal);
+        }
+        double[] product = PolynomialMultiplier.multiply(readCoefficients(a, recordA, lengthA), lengthA,
+                readCoefficients(b, recordB, lengthB), lengthB, algorithm);
+        return appendDense(product, product.length, literal);
+    }
+
+    /**
+     * Frees the chunks. Every later call on the store or on its views fails.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (ByteBuffer chunk : chunks) {
+            free(chunk);
+        }
+        chunks.clear();
+        current = null;
+        locations = new long[0];
+        count = 0;
+        allocated = 0;
+    }
+
+    /**
+     * Returns whether the store was closed.
+     *
+     * @return true if the chunks were freed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Frees the memory of a direct buffer through its cleaner, if the JDK makes it accessible.
+     *
+     * @param buffer The buffer, which must not be read afterwards.
+     */
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // left to the garbage collector
+        }
+    }
+
+    /**
+     * Returns the location of a record, checking the index.
+     *
+     * @param index The index of the polynomial.
+     * @return The chunk index in the high half and the record offset in the low half.
+     */
+    long locate(int index) {
+        if (closed) throw new IllegalStateException("The store is closed.");
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("No polynomial at index " + index + ".");
+        return locations[index];
+    }
+
+    /**
+     * Returns the chunk of a location.
+     *
+     * @param location The location.
+     * @return The chunk.
+     */
+    ByteBuffer chunk(long location) {
+        return chunks.get((int) (location >>> 32));
+    }
+
+    /**
+     * Returns the record offset of a location.
+     *
+     * @param location The location.
+     * @return The offset of the record in its chunk.
+     */
+    static int offset(long location) {
+        return (int) location;
+    }
+
+    /**
+     * Reads the coefficients of a record indexed by degree.
+     *
+     * @param data   The chunk.
+     * @param record The offset of the record.
+     * @param length The length of the array, at least the degree + 1.
+     * @return The coefficients.
+     */
+    private static double[] readCoefficients(ByteBuffer data, int record, int length) {
+        int n = data.getInt(record + 4);
+        int coefs = record + PolynomialFile.RECORD_HEADER_SIZE;
+        double[] result = new double[length];
+        if (data.get(record + 2) == PolynomialFile.DENSE) {
+            data.slice(coefs, 8 * n).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(result, 0, n);
+            return result;
+        }
+        int degrees = coefs + 8 * n;
+        for (int i = 0; i < n; i++) {
+            result[data.getInt(degrees + 4 * i)] += data.getDouble(coefs + 8 * i);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the degrees of the terms of a record in descending order. The degrees of a dense
+     * record include those with zero coefficients.
+     *
+     * @param data   The chunk.
+     * @param record The offset of the record.
+     * @return The degrees.
+     */
+    private static int[] readDegrees(ByteBuffer data, int record) {
+        int n = data.getInt(record + 4);
+        int[] result = new int[n];
+        if (data.get(record + 2) == PolynomialFile.DENSE) {
+            for (int i = 0; i < n; i++) {
+                result[i] = n - 1 - i;
+            }
+            return result;
+        }
+        data.slice(record + PolynomialFile.RECORD_HEADER_SIZE + 8 * n, 4 * n)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * Reads the coefficients of the terms of a record in the order of readDegrees.
+     *
+     * @param data   The chunk.
+     * @param record The offset of the record.
+     * @return The coefficients.
+     */
+    private static double[] readTermCoefficients(ByteBuffer data, int record) {
+        int n = data.getInt(record + 4);
+        double[] result = new double[n];
+        data.slice(record + PolynomialFile.RECORD_HEADER_SIZE, 8 * n).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(result);
+        if (data.get(record + 2) == PolynomialFile.DENSE) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                double t = result[i];
+                result[i] = result[j];
+                result[j] = t;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the non-zero coefficients of a record.
+     *
+     * @param data   The chunk.
+     * @param record The offset of the record.
+     * @return The number of non-zero terms.
+     */
+    static int countNonZero(ByteBuffer data, int record) {
+        int n = data.getInt(record + 4);
+        int coefs = record + PolynomialFile.RECORD_HEADER_SIZE;
+        int result = 0;
+        for (int i = 0; i < n; i++) {
+            if (data.getDouble(coefs + 8 * i) != 0) result++;
+        }
+        return result;
+    }
+
+    /**
+     * Stores a polynomial given as coefficients indexed by degree.
+     *
+     * @param coefs   The coefficients.
+     * @param length  The number of coefficients to use.
+     * @param literal The literal.
+     * @return The index of the stored polynomial.
+     */
+    private int appendDense(double[] coefs, int length, char literal) {
+        int top = length - 1;
+        while (top >= 0 && coefs[top] == 0) top--;
+        int nonZero = 0;
+        for (int i = 0; i <= top; i++) {
+            if (coefs[i] != 0) nonZero++;
+        }
+        if (Polynomial.usesDenseForm(nonZero, 0, top)) {
+            int record = allocate(PolynomialFile.RECORD_HEADER_SIZE + 8L * (top + 1));
+            writeHeader(record, literal, PolynomialFile.DENSE, top + 1);
+            current.slice(record + PolynomialFile.RECORD_HEADER_SIZE, 8 * (top + 1))
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().put(coefs, 0, top + 1);
+            return count - 1;
+        }
+        int[] degrees = new int[nonZero];
+        double[] terms = new double[nonZero];
+        int size = 0;
+        for (int i = top; i >= 0; i--) {
+            if (coefs[i] == 0) continue;
+            degrees[size] = i;
+            terms[size++] = coefs[i];
+        }
+        return appendSparse(degrees, terms, size, literal);
+    }
+
+    /**
+     * Stores a polynomial given as terms in strictly descending degree order, dropping zero
+     * coefficients.
+     *
+     * @param degrees The degrees.
+     * @param coefs   The coefficients.
+     * @param n       The number of terms to use.
+     * @param literal The literal.
+     * @return The index of the stored polynomial.
+     */
+    private int appendTerms(int[] degrees, double[] coefs, int n, char literal) {
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (coefs[i] == 0) continue;
+            degrees[size] = degrees[i];
+            coefs[size++] = coefs[i];
+        }
+        if (size > 0 && Polynomial.usesDenseForm(size, degrees[size - 1], degrees[0])) {
+            double[] dense = new double[degrees[0] + 1];
+            for (int i = 0; i < size; i++) {
+                dense[degrees[i]] = coefs[i];
+            }
+            return appendDense(dense, dense.length, literal);
+        }
+        return appendSparse(degrees, coefs, size, literal);
+    }
+
+    /**
+     * Writes a sparse record.
+     *
+     * @param degrees The degrees, in strictly descending order.
+     * @param coefs   The non-zero coefficients.
+     * @param n       The number of terms.
+     * @param literal The literal.
+     * @return The index of the stored polynomial.
+     */
+    private int appendSparse(int[] degrees, double[] coefs, int n, char literal) {
+        int record = allocate(PolynomialFile.RECORD_HEADER_SIZE + ((12L * n + 7) & ~7L));
+        writeHeader(record, literal, PolynomialFile.SPARSE, n);
+        int start = record + PolynomialFile.RECORD_HEADER_SIZE;
+        current.slice(start, 8 * n).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().put(coefs, 0, n);
+        current.slice(start + 8 * n, 4 * n).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(degrees, 0, n);
+        return count - 1;
+    }
+
+    /**
+     * Writes the header of a record.
+     *
+     * @param record  The offset of the record in the current chunk.
+     * @param literal The literal.
+     * @param form    DENSE or SPARSE.
+     * @param n       The number of coefficients.
+     */
+    private void writeHeader(int record, char literal, byte form, int n) {
+        current.putChar(record, literal);
+        current.put(record + 2, form);
+        current.put(record + 3, (byte) 0);
+        current.putInt(record + 4, n);
+    }
+
+    /**
+     * Reserves room for a new record, starting a new chunk when the current one is full, and
+     * assigns the next index to it.
+     *
+     * @param size The size of the record in bytes, a multiple of 8.
+     * @return The offset of the record in the current chunk.
+     */
+    private int allocate(long size) {
+        if (closed) throw new IllegalStateException("The store is closed.");
+        if (size > MAX_RECORD_SIZE) throw new IllegalArgumentException("The polynomial is too large for one record.");
+        if (current == null || current.capacity() - position < size) {
+            int capacity = (int) Math.max(chunkSize, size);
+            try {
+                current = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            } catch (OutOfMemoryError e) {
+                OutOfMemoryError error = new OutOfMemoryError("Cannot allocate a chunk of " + capacity
+                        + " bytes with " + allocated + " bytes in use; raise -XX:MaxDirectMemorySize.");
+                error.initCause(e);
+                throw error;
+            }
+            chunks.add(current);
+            position = 0;
+            allocated += capacity;
+        }
+        int record = position;
+        position += (int) size;
+        if (count == locations.length) locations = Arrays.copyOf(locations, count * 2);
+        locations[count++] = ((long) (chunks.size() - 1) << 32) | record;
+        return record;
+    }
+}
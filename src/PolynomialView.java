@@ -0,0 +1,149 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only view of one polynomial of a PolynomialStore, reading its record in place. A view
+ * is a flyweight: moveTo points it at another polynomial of the same store without allocating,
+ * so a single view can walk millions of stored polynomials. toPolynomial copies the record into
+ * a Polynomial for the operations a view does not offer. Once the store is closed, every call on
+ * the view throws an IllegalStateException instead of reading freed memory.
+ */
+public final class PolynomialView {
+    private final PolynomialStore store; // the store holding the records
+    private ByteBuffer data; // chunk of the current record
+    private int record; // offset of the current record in its chunk
+    private int index; // index of the current polynomial
+
+    /**
+     * Creates a view of a stored polynomial.
+     *
+     * @param store The store.
+     * @param index The index of the polynomial.
+     */
+    PolynomialView(PolynomialStore store, int index) {
+        this.store = store;
+        moveTo(index);
+    }
+
+    /**
+     * Points the view at another polynomial of the store.
+     *
+     * @param index The index of the polynomial.
+     * @return This view.
+     */
+    public PolynomialView moveTo(int index) {
+        long location = store.locate(index);
+        this.data = store.chunk(location);
+        this.record = PolynomialStore.offset(location);
+        this.index = index;
+        return this;
+    }
+
+    /**
+     * Returns the index of the polynomial in the store.
+     *
+     * @return The index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the literal of the polynomial.
+     *
+     * @return The literal.
+     */
+    public char getLiteral() {
+        return data().getChar(record);
+    }
+
+    /**
+     * Returns whether the record holds coefficients indexed by degree.
+     *
+     * @return true if the record is dense.
+     */
+    public boolean isDense() {
+        return data().get(record + 2) == PolynomialFile.DENSE;
+    }
+
+    /**
+     * Returns the highest degree of the polynomial.
+     *
+     * @return The degree, or -1 if the polynomial has no terms.
+     */
+    public int getDegree() {
+        return PolynomialFile.degree(data(), record);
+    }
+
+    /**
+     * Returns the number of non-zero terms of the polynomial.
+     *
+     * @return The number of terms.
+     */
+    public int getTermCount() {
+        ByteBuffer buffer = data();
+        return isDense() ? PolynomialStore.countNonZero(buffer, record) : buffer.getInt(record + 4);
+    }
+
+    /**
+     * Returns the coefficient of a degree, found by binary search in a sparse record.
+     *
+     * @param degree The degree.
+     * @return The coefficient, or 0 if the polynomial has no term of that degree.
+     */
+    public double getCoefficient(int degree) {
+        ByteBuffer buffer = data();
+        int n = buffer.getInt(record + 4);
+        int coefs = record + PolynomialFile.RECORD_HEADER_SIZE;
+        if (isDense()) return degree >= 0 && degree < n ? buffer.getDouble(coefs + 8 * degree) : 0;
+        int degrees = coefs + 8 * n;
+        int lo = 0;
+        int hi = n - 1;
+        while (lo <= hi) { // degrees are in descending order
+            int mid = (lo + hi) >>> 1;
+            int d = buffer.getInt(degrees + 4 * mid);
+            if (d == degree) return buffer.getDouble(coefs + 8 * mid);
+            if (d > degree) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Evaluates the polynomial in place with Horner's scheme.
+     *
+     * @param value The value at which to evaluate the polynomial.
+     * @return The result of the evaluation.
+     */
+    public double evaluate(double value) {
+        return PolynomialFile.evaluate(data(), record, value);
+    }
+
+    /**
+     * Copies the polynomial into a new Polynomial.
+     *
+     * @return The Polynomial.
+     */
+    public Polynomial toPolynomial() {
+        return PolynomialFile.decode(data(), record);
+    }
+
+    /**
+     * Returns a string representation of the polynomial, the same as the one of its Polynomial.
+     *
+     * @return A string representation of the polynomial.
+     */
+    @Override
+    public String toString() {
+        return toPolynomial().toString();
+    }
+
+    /**
+     * Returns the chunk of the current record, checking that the store is still open.
+     *
+     * @return The chunk.
+     */
+    private ByteBuffer data() {
+        if (store.isClosed()) throw new IllegalStateException("The store is closed.");
+        return data;
+    }
+}
@@ -0,0 +1,322 @@
+import java.util.Arrays;
+
+/**
+ * Represents a truncated power series: the first coefficients of a series, known modulo x^n
+ * where n is the precision. A PowerSeries is immutable. Sums and products keep the lower
+ * precision of their operands.
+ * <p>
+ * The inverse, square root, logarithm and exponential are computed by Newton iteration, which
+ * doubles the number of correct coefficients on each step. Every step costs a few products of
+ * the current precision, so the whole computation costs a constant number of multiplications of
+ * the final precision, with the algorithms of PolynomialMultiplier. LazyPowerSeries computes
+ * the same operations coefficient by coefficient when the precision is not known in advance.
+ */
+public final class PowerSeries {
+    private final double[] coefficients; // coefficient of degree i at index i, length is the precision
+    private final char literal; // literal used when converting to a Polynomial
+
+    /**
+     * Creates the power series of a Polynomial, truncated to a precision.
+     *
+     * @param polynomial The Polynomial.
+     * @param precision  The number of coefficients to keep.
+     * @throws IllegalArgumentException If the precision is negative.
+     * @throws IllegalStateException    If the Polynomial has a term with a negative degree.
+     */
+    public PowerSeries(Polynomial polynomial, int precision) {
+        if (precision < 0) throw new IllegalArgumentException("The precision must not be negative.");
+        this.coefficients = Arrays.copyOf(polynomial.getCoefficients(), precision);
+        this.literal = polynomial.getLiteral();
+    }
+
+    /**
+     * Creates a power series that takes ownership of its coefficient array.
+     *
+     * @param coefficients The coefficients indexed by degree, as many as the precision.
+     * @param literal      The literal.
+     */
+    private PowerSeries(double[] coefficients, char literal) {
+        this.coefficients = coefficients;
+        this.literal = literal;
+    }
+
+    /**
+     * Creates a power series from coefficients indexed by degree.
+     *
+     * @param coefficients The coefficients, whose length is the precision.
+     * @param literal      The literal.
+     * @return The power series.
+     */
+    public static PowerSeries fromCoefficients(double[] coefficients, char literal) {
+        return new PowerSeries(coefficients.clone(), literal);
+    }
+
+    /**
+     * Returns the number of known coefficients.
+     *
+     * @return The precision.
+     */
+    public int getPrecision() {
+        return coefficients.length;
+    }
+
+    /**
+     * Returns the literal of the series.
+     *
+     * @return The literal.
+     */
+    public char getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Returns a coefficient of the series.
+     *
+     * @param degree The degree, below the precision.
+     * @return The coefficient.
+     * @throws IllegalArgumentException If the degree is negative or not below the precision.
+     */
+    public double getCoefficient(int degree) {
+        if (degree < 0 || degree >= coefficients.length) {
+            throw new IllegalArgumentException("The degree " + degree + " is outside the precision " + coefficients.length + ".");
+        }
+        return coefficients[degree];
+    }
+
+    /**
+     * Returns the coefficients of the series.
+     *
+     * @return A new array where index i holds the coefficient of degree i.
+     */
+    public double[] getCoefficients() {
+        return coefficients.clone();
+    }
+
+    /**
+     * Returns the known coefficients as a Polynomial.
+     *
+     * @return The Polynomial.
+     */
+    public Polynomial toPolynomial() {
+        return Polynomial.fromCoefficients(coefficients, literal);
+    }
+
+    /**
+     * Lowers the precision of the series.
+     *
+     * @param precision The new precision, at most the current one.
+     * @return The truncated series.
+     */
+    public PowerSeries truncate(int precision) {
+        if (precision < 0 || precision > coefficients.length) {
+            throw new IllegalArgumentException("The precision must be from 0 to " + coefficients.length + ".");
+        }
+        return new PowerSeries(Arrays.copyOf(coefficients, precision), literal);
+    }
+
+    /**
+     * Adds another series.
+     *
+     * @param other The other series.
+     * @return The sum, at the lower precision.
+     */
+    public PowerSeries add(PowerSeries other) {
+        double[] result = Arrays.copyOf(coefficients, Math.min(getPrecision(), other.getPrecision()));
+        for (int i = 0; i < result.length; i++) {
+            result[i] += other.coefficients[i];
+        }
+        return new PowerSeries(result, literal);
+    }
+
+    /**
+     * Subtracts another series.
+     *
+     * @param other The other series.
+     * @return The difference, at the lower precision.
+     */
+    public PowerSeries subtract(PowerSeries other) {
+        double[] result = Arrays.copyOf(coefficients, Math.min(getPrecision(), other.getPrecision()));
+        for (int i = 0; i < result.length; i++) {
+            result[i] -= other.coefficients[i];
+        }
+        return new PowerSeries(result, literal);
+    }
+
+    /**
+     * Multiplies by another series.
+     *
+     * @param other The other series.
+     * @return The product, at the lower precision.
+     */
+    public PowerSeries multiply(PowerSeries other) {
+        int n = Math.min(getPrecision(), other.getPrecision());
+        return new PowerSeries(multiply(coefficients, other.coefficients, n), literal);
+    }
+
+    /**
+     * Returns the derivative of the series. The coefficient of the highest degree is lost, so
+     * the precision drops by one.
+     *
+     * @return The derivative.
+     */
+    public PowerSeries derivative() {
+        return new PowerSeries(derivative(coefficients, Math.max(getPrecision() - 1, 0)), literal);
+    }
+
+    /**
+     * Returns the integral of the series with a zero constant term. The precision grows by one.
+     *
+     * @return The integral.
+     */
+    public PowerSeries integral() {
+        return new PowerSeries(integral(coefficients, getPrecision() + 1), literal);
+    }
+
+    /**
+     * Returns the multiplicative inverse of the series.
+     *
+     * @return The inverse, at the same precision.
+     * @throws ArithmeticException If the constant term is zero.
+     */
+    public PowerSeries inverse() {
+        if (getPrecision() == 0) return this;
+        if (coefficients[0] == 0) throw new ArithmeticException("The series has no inverse: its constant term is zero.");
+        return new PowerSeries(PolynomialDivider.reciprocal(coefficients, getPrecision()), literal);
+    }
+
+    /**
+     * Returns the square root of the series with a positive constant term, by the Newton
+     * iteration g = (g + f / g) / 2.
+     *
+     * @return The square root, at the same precision.
+     * @throws ArithmeticException If the constant term is not positive.
+     */
+    public PowerSeries sqrt() {
+        int n = getPrecision();
+        if (n == 0) return this;
+        if (!(coefficients[0] > 0)) throw new ArithmeticException("The square root needs a positive constant term.");
+        double[] g = new double[n];
+        g[0] = Math.sqrt(coefficients[0]);
+        for (int length = 1; length < n; ) {
+            int next = Math.min(2 * length, n);
+            double[] quotient = multiply(coefficients, PolynomialDivider.reciprocal(g, next), next);
+            for (int i = 0; i < next; i++) {
+                g[i] = (g[i] + quotient[i]) / 2;
+            }
+            length = next;
+        }
+        return new PowerSeries(g, literal);
+    }
+
+    /**
+     * Returns the natural logarithm of the series with a positive constant term, as
+     * log f0 plus the integral of f' / f.
+     *
+     * @return The logarithm, at the same precision.
+     * @throws ArithmeticException If the constant term is not positive.
+     */
+    public PowerSeries log() {
+        return new PowerSeries(log(coefficients, getPrecision()), literal);
+    }
+
+    /**
+     * Returns the exponential of the series, by the Newton iteration g = g (1 + f - log g)
+     * on the series without its constant term, scaled by the exponential of that term.
+     *
+     * @return The exponential, at the same precision.
+     */
+    public PowerSeries exp() {
+        int n = getPrecision();
+        if (n == 0) return this;
+        double[] g = {1};
+        for (int length = 1; length < n; ) {
+            int next = Math.min(2 * length, n);
+            double[] step = log(Arrays.copyOf(g, next), next);
+            for (int i = 1; i < next; i++) {
+                step[i] = coefficients[i] - step[i];
+            }
+            step[0] = 1;
+            g = multiply(g, step, next);
+            length = next;
+        }
+        double scale = Math.exp(coefficients[0]);
+        for (int i = 0; i < n; i++) {
+            g[i] *= scale;
+        }
+        return new PowerSeries(g, literal);
+    }
+
+    /**
+     * Returns a string representation of the series, with the order of the first unknown coefficient.
+     *
+     * @return A string such as "1 + x + 0.5x^2 + O(x^3)".
+     */
+    @Override
+    public String toString() {
+        String known = toPolynomial().toString();
+        String order = "O(" + literal + (getPrecision() == 1 ? "" : "^" + getPrecision()) + ")";
+        return known.isEmpty() || known.equals("0") ? order : known + " + " + order;
+    }
+
+    /**
+     * Multiplies two series modulo x^n.
+     *
+     * @param a The first series, of any length.
+     * @param b The second series, of any length.
+     * @param n The number of coefficients wanted.
+     * @return The first n coefficients of the product.
+     */
+    static double[] multiply(double[] a, double[] b, int n) {
+        int lengthA = Math.min(a.length, n);
+        int lengthB = Math.min(b.length, n);
+        if (lengthA == 0 || lengthB == 0) return new double[n];
+        return Arrays.copyOf(PolynomialMultiplier.multiply(a, lengthA, b, lengthB), n);
+    }
+
+    /**
+     * Differentiates a series.
+     *
+     * @param f The series.
+     * @param n The number of coefficients wanted, at most f.length - 1.
+     * @return The first n coefficients of the derivative.
+     */
+    private static double[] derivative(double[] f, int n) {
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = (i + 1) * f[i + 1];
+        }
+        return result;
+    }
+
+    /**
+     * Integrates a series with a zero constant term.
+     *
+     * @param f The series.
+     * @param n The number of coefficients wanted, at most f.length + 1.
+     * @return The first n coefficients of the integral.
+     */
+    private static double[] integral(double[] f, int n) {
+        double[] result = new double[n];
+        for (int i = 1; i < n; i++) {
+            result[i] = f[i - 1] / i;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the logarithm of a series with a positive constant term.
+     *
+     * @param f The series.
+     * @param n The number of coefficients wanted, at most f.length.
+     * @return The first n coefficients of the logarithm.
+     * @throws ArithmeticException If the constant term is not positive.
+     */
+    private static double[] log(double[] f, int n) {
+        if (n == 0) return new double[0];
+        if (!(f[0] > 0)) throw new ArithmeticException("The logarithm needs a positive constant term.");
+        double[] result = n == 1 ? new double[1]
+                : integral(multiply(derivative(f, n - 1), PolynomialDivider.reciprocal(f, n - 1), n - 1), n);
+        result[0] = Math.log(f[0]);
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.Arrays;
+
+/**
+ * A binary max-heap of partial products for the heap merges of sparse multiplication and
+ * division. Each entry is keyed by a long, the degree of a univariate term or a packed
+ * monomial, and tagged with the row and column of the product it comes from. The entries are
+ * kept in parallel primitive arrays, so pushing and popping allocates nothing once the heap
+ * has grown.
+ */
+final class ProductHeap {
+    private long[] keys; // keys, the largest at index 0
+    private int[] rows; // row of each entry
+    private int[] columns; // column of each entry
+    private int size; // number of entries
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity The initial capacity.
+     */
+    ProductHeap(int capacity) {
+        keys = new long[Math.max(capacity, 1)];
+        rows = new int[keys.length];
+        columns = new int[keys.length];
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of entries.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Pushes an entry.
+     *
+     * @param key    The key.
+     * @param row    The row.
+     * @param column The column.
+     */
+    void push(long key, int row, int column) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            rows = Arrays.copyOf(rows, size * 2);
+            columns = Arrays.copyOf(columns, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] >= key) break;
+            keys[i] = keys[parent];
+            rows[i] = rows[parent];
+            columns[i] = columns[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        rows[i] = row;
+        columns[i] = column;
+    }
+
+    /**
+     * Removes the entry with the largest key.
+     */
+    void pop() {
+        size--;
+        long key = keys[size];
+        int row = rows[size];
+        int column = columns[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[child + 1] > keys[child]) child++;
+            if (keys[child] <= key) break;
+            keys[i] = keys[child];
+            rows[i] = rows[child];
+            columns[i] = columns[child];
+            i = child;
+        }
+        keys[i] = key;
+        rows[i] = row;
+        columns[i] = column;
+    }
+
+    /**
+     * Returns the largest key.
+     *
+     * @return The key of the top entry.
+     */
+    long topKey() {
+        return keys[0];
+    }
+
+    /**
+     * Returns the row of the entry with the largest key.
+     *
+     * @return The row of the top entry.
+     */
+    int topRow() {
+        return rows[0];
+    }
+
+    /**
+     * Returns the column of the entry with the largest key.
+     *
+     * @return The column of the top entry.
+     */
+    int topColumn() {
+        return columns[0];
+    }
+}
@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * Represents the quotient and remainder of a polynomial division operation.
  */
@@ -55,6 +58,26 @@ public class Quotient {
      * @return A string representation of the Quotient object.
      */
     public String toString() {
-        return (" Quotient: " + quotientP.toString() + " Remainder: " + remainderP.toString());
+        StringBuilder s = new StringBuilder();
+        try {
+            appendTo(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringBuilder does not throw
+        }
+        return s.toString();
+    }
+
+    /**
+     * Writes the string representation of the Quotient object to an Appendable, streaming the
+     * terms of both Polynomials instead of building intermediate strings.
+     *
+     * @param out The Appendable to write to.
+     * @throws IOException If the Appendable fails.
+     */
+    public void appendTo(Appendable out) throws IOException {
+        out.append(" Quotient: ");
+        quotientP.appendTo(out);
+        out.append(" Remainder: ");
+        remainderP.appendTo(out);
     }
 }
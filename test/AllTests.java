@@ -0,0 +1,69 @@
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs every test of this directory: each static no-argument method whose name starts with
+ * "test" in the classes whose name ends with "Test", found next to this class in the compiled
+ * output. A test passes if it returns and fails if it throws. The process exits with status 1
+ * if any test failed, so a build script can stop on it.
+ */
+public final class AllTests {
+    private AllTests() {
+    }
+
+    /**
+     * Runs the tests and prints one line per failure and a summary.
+     *
+     * @param args Ignored.
+     * @throws ReflectiveOperationException If a test class cannot be loaded or a test method is not accessible.
+     * @throws URISyntaxException           If the location of the compiled classes is not a valid path.
+     */
+    public static void main(String[] args) throws ReflectiveOperationException, URISyntaxException {
+        int run = 0;
+        int failed = 0;
+        for (Class<?> type : testClasses()) {
+            Method[] methods = type.getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName)); // a stable order between runs
+            for (Method method : methods) {
+                if (!method.getName().startsWith("test") || !Modifier.isStatic(method.getModifiers())
+                        || method.getParameterCount() != 0) continue;
+                run++;
+                try {
+                    method.setAccessible(true);
+                    method.invoke(null);
+                } catch (InvocationTargetException e) {
+                    failed++;
+                    System.out.println("FAILED " + type.getName() + "." + method.getName() + ": " + e.getCause());
+                }
+            }
+        }
+        System.out.println(run + " tests, " + failed + " failed");
+        if (failed > 0) System.exit(1);
+    }
+
+    /**
+     * Finds the test classes in the directory this class was loaded from.
+     *
+     * @return The test classes, sorted by name.
+     * @throws ReflectiveOperationException If a test class cannot be loaded.
+     * @throws URISyntaxException           If the location of the compiled classes is not a valid path.
+     */
+    private static List<Class<?>> testClasses() throws ReflectiveOperationException, URISyntaxException {
+        File directory = new File(AllTests.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        String[] names = directory.list((dir, name) -> name.endsWith("Test.class"));
+        List<Class<?>> classes = new ArrayList<>();
+        if (names == null) return classes;
+        Arrays.sort(names);
+        for (String name : names) {
+            classes.add(Class.forName(name.substring(0, name.length() - ".class".length())));
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Assertions for the tests in this directory. The project has no test framework on its class
+ * path, so a failed check throws an AssertionError that AllTests reports with its message.
+ */
+final class Check {
+    private Check() {
+    }
+
+    /**
+     * Checks that a condition holds.
+     *
+     * @param condition The condition.
+     * @param message   The message of the failure.
+     */
+    static void isTrue(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    /**
+     * Checks that two objects are equal.
+     *
+     * @param expected The expected object.
+     * @param actual   The actual object.
+     * @param message  The message of the failure.
+     */
+    static void equal(Object expected, Object actual, String message) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    /**
+     * Checks that two numbers differ by at most a tolerance relative to the larger magnitude,
+     * or to 1 for numbers below 1.
+     *
+     * @param expected  The expected number.
+     * @param actual    The actual number.
+     * @param tolerance The relative tolerance.
+     * @param message   The message of the failure.
+     */
+    static void close(double expected, double actual, double tolerance, String message) {
+        if (expected == actual) return; // also covers infinities
+        double scale = Math.max(1, Math.max(Math.abs(expected), Math.abs(actual)));
+        if (!(Math.abs(expected - actual) <= tolerance * scale)) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    /**
+     * Checks that a task throws an exception of a type.
+     *
+     * @param type    The type of the exception.
+     * @param task    The task.
+     * @param message The message of the failure.
+     */
+    static void fails(Class<? extends Throwable> type, Runnable task, String message) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            if (type.isInstance(e)) return;
+            throw new AssertionError(message + ": threw " + e, e);
+        }
+        throw new AssertionError(message + ": nothing was thrown");
+    }
+}
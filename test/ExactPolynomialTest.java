@@ -0,0 +1,48 @@
+import java.math.BigInteger;
+
+/**
+ * Tests of ExactPolynomial: conversions from and to Polynomial, exact arithmetic and the text
+ * format shared with Polynomial.
+ */
+final class ExactPolynomialTest {
+    private ExactPolynomialTest() {
+    }
+
+    static void testConversions() {
+        Polynomial p = Polynomial.fromCoefficients(new double[]{-4, 0, 3, 1e15}, 't');
+        ExactPolynomial exact = ExactPolynomial.fromPolynomial(p);
+        Check.equal(3, exact.getDegree(), "wrong degree");
+        Check.equal(BigInteger.valueOf(1_000_000_000_000_000L), exact.getCoefficient(3), "wrong coefficient");
+        Check.equal(p.toString(), exact.toPolynomial().toString(), "wrong round trip");
+        Check.equal(0, ExactPolynomial.fromPolynomial(new Polynomial()).getDegree() + 1, "the zero polynomial has terms");
+
+        Polynomial fraction = Polynomial.fromCoefficients(new double[]{0.5, 1}, 'x');
+        Check.fails(ArithmeticException.class, () -> ExactPolynomial.fromPolynomial(fraction), "a fraction was accepted");
+        Polynomial negative = new Polynomial();
+        negative.addTerm(new Term(2, 'x', -1));
+        negative.addTerm(new Term(1, 'x', 1));
+        Check.fails(ArithmeticException.class, () -> ExactPolynomial.fromPolynomial(negative), "a negative degree was accepted");
+    }
+
+    static void testArithmetic() {
+        // (x^2 - 1)(x + 1)^2 divided by x + 1, with coefficients beyond any double
+        BigInteger big = BigInteger.TEN.pow(40);
+        ExactPolynomial a = new ExactPolynomial(new BigInteger[]{big.negate(), BigInteger.ZERO, big}, 'x');
+        ExactPolynomial b = new ExactPolynomial(new BigInteger[]{BigInteger.ONE, BigInteger.ONE}, 'x');
+        ExactPolynomial product = a.multiply(b).multiply(b);
+        ExactQuotient quotient = product.divide(b);
+        Check.equal(a.multiply(b), quotient.getQuotientP(), "wrong quotient");
+        Check.equal(0, quotient.getRemainderP().getDegree() + 1, "wrong remainder");
+        Check.equal(a, product.subtract(a.multiply(b).multiply(b)).add(a), "wrong sum");
+        Check.equal(BigInteger.ZERO, product.evaluate(BigInteger.ONE), "wrong value at a root");
+    }
+
+    static void testText() {
+        ExactPolynomial p = new ExactPolynomial(new BigInteger[]{BigInteger.valueOf(-1), BigInteger.ONE,
+                BigInteger.ZERO, BigInteger.valueOf(-12)}, 'x');
+        Check.equal(" - 12x^3 +x - 1", p.toString(), "wrong text");
+        Check.equal("", new ExactPolynomial(new BigInteger[0], 'x').toString(), "wrong text of the zero polynomial");
+        Check.equal(new Polynomial().toString(), ExactPolynomial.fromPolynomial(new Polynomial()).toString(),
+                "the zero polynomial is printed differently from Polynomial");
+    }
+}
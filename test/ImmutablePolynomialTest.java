@@ -0,0 +1,41 @@
+/**
+ * Tests of ImmutablePolynomial and of the memoizing PolynomialCache built on it.
+ */
+final class ImmutablePolynomialTest {
+    private ImmutablePolynomialTest() {
+    }
+
+    static void testValueSemantics() {
+        Polynomial p = Polynomial.fromCoefficients(new double[]{1, -2, 0, 4}, 'y');
+        ImmutablePolynomial a = ImmutablePolynomial.of(p);
+        p.addTerm(new Term(5, 'y', 7));
+        Check.equal(3, a.getDegree(), "a change to the source Polynomial leaked in");
+        ImmutablePolynomial b = ImmutablePolynomial.fromCoefficients(new double[]{1, -2, 0, 4}, 'y');
+        Check.equal(a, b, "equal values are not equal");
+        Check.equal(a.hashCode(), b.hashCode(), "equal values hash differently");
+        Check.isTrue(a.intern() == b.intern(), "equal values were interned apart");
+        Check.equal(ImmutablePolynomial.zero(), a.subtract(b), "a - a is not zero");
+    }
+
+    static void testPow() {
+        Polynomial p = Polynomial.fromCoefficients(new double[]{0.5, -1, 2}, 'z');
+        ImmutablePolynomial a = ImmutablePolynomial.of(p);
+        for (int k = 0; k <= 9; k++) {
+            Check.equal(ImmutablePolynomial.of(p.pow(k)), a.pow(k), "wrong power " + k);
+        }
+        Check.equal(" 1.0", ImmutablePolynomial.zero().pow(0).toString(), "0^0 is not 1");
+        Check.fails(IllegalArgumentException.class, () -> a.pow(-1), "a negative exponent was accepted");
+    }
+
+    static void testCache() {
+        PolynomialCache cache = new PolynomialCache(1 << 20);
+        ImmutablePolynomial a = ImmutablePolynomial.fromCoefficients(new double[]{1, 1}, 'x');
+        ImmutablePolynomial b = ImmutablePolynomial.fromCoefficients(new double[]{-1, 1}, 'x');
+        ImmutablePolynomial product = cache.multiply(a, b);
+        Check.equal(a.multiply(b), product, "wrong cached product");
+        Check.isTrue(product == cache.multiply(a, b), "a repeated product was recomputed");
+        Check.equal(a.pow(5), cache.pow(a, 5), "wrong cached power");
+        Check.equal(2L, cache.getMisses(), "wrong number of misses");
+        Check.equal(1L, cache.getHits(), "wrong number of hits");
+    }
+}
@@ -0,0 +1,128 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests of the modular half-GCD algorithm of ModularPolynomials and of the exact GCD of
+ * PolynomialGcd built on it. The half-GCD results are checked against plain Euclid, obtained
+ * by raising the threshold above the degrees of the operands.
+ */
+final class ModularPolynomialsTest {
+    private ModularPolynomialsTest() {
+    }
+
+    static void testHalfGcdMatchesEuclid() {
+        Random random = new Random(13);
+        ModularPolynomials field = new ModularPolynomials(0);
+        long p = field.prime();
+        int saved = ModularPolynomials.getHalfGcdThreshold();
+        try {
+            for (int[] degrees : new int[][]{{40, 39, 0}, {100, 60, 25}, {301, 300, 150}, {700, 350, 1}}) {
+                long[] g = randomPolynomial(random, degrees[2], p);
+                long[] a = NttMultiplier.multiplyModulo(randomPolynomial(random, degrees[0] - degrees[2], p), g, 0);
+                long[] b = NttMultiplier.multiplyModulo(randomPolynomial(random, degrees[1] - degrees[2], p), g, 0);
+                ModularPolynomials.setHalfGcdThreshold(Integer.MAX_VALUE);
+                long[] euclid = field.gcd(a, b);
+                for (int threshold : new int[]{2, 3, 16, 64}) {
+                    ModularPolynomials.setHalfGcdThreshold(threshold);
+                    Check.isTrue(Arrays.equals(euclid, field.gcd(a, b)),
+                            "half-GCD at threshold " + threshold + " differs from Euclid for " + Arrays.toString(degrees));
+                }
+                Check.isTrue(euclid.length - 1 >= degrees[2], "the gcd misses the common factor");
+                Check.equal(0, field.divide(euclid, field.monic(g))[1].length, "the common factor does not divide the gcd");
+            }
+        } finally {
+            ModularPolynomials.setHalfGcdThreshold(saved);
+        }
+    }
+
+    static void testHalfGcdMatrixReachesHalfDegree() {
+        Random random = new Random(14);
+        ModularPolynomials field = new ModularPolynomials(1);
+        long p = field.prime();
+        int saved = ModularPolynomials.getHalfGcdThreshold();
+        try {
+            ModularPolynomials.setHalfGcdThreshold(4);
+            long[] a = randomPolynomial(random, 200, p);
+            long[] b = randomPolynomial(random, 170, p);
+            long[][] m = field.halfGcd(a, b);
+            long[] c = ModularPolynomials.trim(add(NttMultiplier.multiplyModulo(m[0], a, 1), NttMultiplier.multiplyModulo(m[1], b, 1), p));
+            long[] d = ModularPolynomials.trim(add(NttMultiplier.multiplyModulo(m[2], a, 1), NttMultiplier.multiplyModulo(m[3], b, 1), p));
+            Check.isTrue(c.length - 1 >= 100 && d.length - 1 < 100,
+                    "degrees " + (c.length - 1) + " and " + (d.length - 1) + " do not straddle 100");
+            Check.isTrue(Arrays.equals(field.gcd(a, b), field.gcd(c, d)), "the matrix changed the gcd");
+        } finally {
+            ModularPolynomials.setHalfGcdThreshold(saved);
+        }
+    }
+
+    static void testDivisionIsExact() {
+        Random random = new Random(15);
+        ModularPolynomials field = new ModularPolynomials(2);
+        long p = field.prime();
+        for (int[] degrees : new int[][]{{10, 3}, {600, 300}, {2000, 700}}) { // the larger ones use Newton division
+            long[] a = randomPolynomial(random, degrees[0], p);
+            long[] b = randomPolynomial(random, degrees[1], p);
+            long[][] division = field.divide(a, b);
+            Check.isTrue(division[1].length < b.length, "the remainder is not smaller than the divisor");
+            long[] back = ModularPolynomials.trim(add(NttMultiplier.multiplyModulo(division[0], b, 2), division[1], p));
+            Check.isTrue(Arrays.equals(a, back), "q b + r differs from a for " + Arrays.toString(degrees));
+        }
+    }
+
+    static void testExactGcdOfLargePolynomials() {
+        Random random = new Random(16);
+        int saved = PolynomialGcd.getHalfGcdThreshold();
+        try {
+            PolynomialGcd.setHalfGcdThreshold(8);
+            ExactPolynomial g = exact(NttMultiplierTest.randomCoefficients(random, 61, 40));
+            ExactPolynomial a = g.multiply(exact(NttMultiplierTest.randomCoefficients(random, 90, 40)));
+            ExactPolynomial b = g.multiply(exact(NttMultiplierTest.randomCoefficients(random, 70, 40)));
+            ExactPolynomial gcd = PolynomialGcd.gcd(a, b);
+            Check.equal(g.getDegree(), gcd.getDegree(), "wrong degree of the gcd");
+            Check.isTrue(a.divide(gcd).getRemainderP().getDegree() < 0, "the gcd does not divide a");
+            Check.isTrue(b.divide(gcd).getRemainderP().getDegree() < 0, "the gcd does not divide b");
+            ExactQuotient byFactor = gcd.divide(g); // the content of the gcd is a multiple of the one of g
+            Check.isTrue(byFactor.getRemainderP().getDegree() < 0 && byFactor.getQuotientP().getDegree() == 0,
+                    "the gcd is not a multiple of the common factor");
+        } finally {
+            PolynomialGcd.setHalfGcdThreshold(saved);
+        }
+    }
+
+    static void testExactGcdOfCoprimePolynomials() {
+        BigInteger[] x = {BigInteger.ZERO, BigInteger.ONE};
+        BigInteger[] xPlusOne = {BigInteger.ONE, BigInteger.ONE};
+        Check.equal(0, PolynomialGcd.gcd(exact(x), exact(xPlusOne)).getDegree(), "x and x + 1 have a common factor");
+    }
+
+    static void testThresholdIsValidated() {
+        Check.fails(IllegalArgumentException.class, () -> ModularPolynomials.setHalfGcdThreshold(1), "threshold 1 was accepted");
+    }
+
+    /**
+     * Returns a random polynomial modulo a prime with a non-zero leading coefficient.
+     *
+     * @param random The source of randomness.
+     * @param degree The degree.
+     * @param p      The prime.
+     * @return The coefficients indexed by degree.
+     */
+    private static long[] randomPolynomial(Random random, int degree, long p) {
+        long[] a = new long[degree + 1];
+        for (int i = 0; i < degree; i++) a[i] = Math.floorMod(random.nextLong(), p);
+        a[degree] = 1 + Math.floorMod(random.nextLong(), p - 1);
+        return a;
+    }
+
+    private static long[] add(long[] a, long[] b, long p) {
+        long[] sum = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) sum[i] = (sum[i] + b[i]) % p;
+        return sum;
+    }
+
+    private static ExactPolynomial exact(BigInteger[] coefficients) {
+        if (coefficients[coefficients.length - 1].signum() == 0) coefficients[coefficients.length - 1] = BigInteger.ONE;
+        return new ExactPolynomial(coefficients, 'x');
+    }
+}
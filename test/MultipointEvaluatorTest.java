@@ -0,0 +1,157 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+/**
+ * Tests of MultipointEvaluator against Horner's scheme, within its normwise precision contract:
+ * the error at x is bounded by a small multiple of the sum of the absolute coefficients, times
+ * |x|^degree beyond [-1, 1].
+ */
+final class MultipointEvaluatorTest {
+    private static final double TOLERANCE = 1e-12; // accepted error relative to the normwise bound
+
+    private MultipointEvaluatorTest() {
+    }
+
+    static void testMatchesHornerAtManyPoints() {
+        Random random = new Random(11);
+        int n = 32768;
+        double[] coefficients = random(random, n);
+        double[] points = new double[20000];
+        for (int i = 0; i < points.length; i++) {
+            double u = random.nextDouble();
+            switch (i % 4) {
+                case 0 -> points[i] = 2 * u - 1;
+                case 1 -> points[i] = Math.cos(Math.PI * u); // clustered near 1 and -1
+                case 2 -> points[i] = (i % 8 == 2 ? 1 : -1) * (1 - Math.pow(10, -16 * u)); // within a few ulps of 1 and -1
+                default -> points[i] = Math.round(20 * u - 10) / 10.0; // repeated points
+            }
+        }
+        points[0] = 1;
+        points[1] = -1;
+        points[2] = 0;
+        points[3] = Double.MIN_VALUE;
+        MultipointEvaluator evaluator = new MultipointEvaluator(points);
+        double[] fast = evaluator.evaluateFast(coefficients);
+        Check.isTrue(fast != null, "the fast method failed its check");
+        checkClose(coefficients, points, fast, "inner points");
+
+        Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+        Check.isTrue((long) p.getTermCount() * points.length >= (long) MultipointEvaluator.getFastThreshold() * (n + points.length),
+                "the test polynomial is below the fast threshold");
+        double[] values = evaluator.evaluate(p);
+        for (int i = 0; i < points.length; i++) {
+            Check.equal(fast[i], values[i], "evaluate did not take the fast method at point " + i);
+        }
+    }
+
+    static void testPointsBeyondTheUnitInterval() {
+        Random random = new Random(12);
+        int n = 5000;
+        double[] coefficients = random(random, n);
+        double[] points = new double[6000];
+        for (int i = 0; i < points.length; i++) {
+            double u = random.nextDouble();
+            points[i] = i % 3 == 0 ? 2 * u - 1 : (i % 2 == 0 ? 1 : -1) * (1 + 0.1 * u); // |x|^(n - 1) stays in range
+        }
+        points[1] = 1.0000000000000002;
+        points[2] = -1.0000000000000002;
+        double[] fast = new MultipointEvaluator(points).evaluateFast(coefficients);
+        Check.isTrue(fast != null, "the fast method failed its check");
+        checkClose(coefficients, points, fast, "points beyond [-1, 1]");
+
+        double[] overflow = {0.5, 2, -3, 1e300}; // the values at 2, -3 and 1e300 are beyond double
+        double[] results = new MultipointEvaluator(overflow).evaluateFast(coefficients);
+        Check.isTrue(results != null, "the fast method failed its check where the values overflow");
+        Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+        for (int i = 0; i < overflow.length; i++) {
+            Check.close(p.evaluate(overflow[i]), results[i], 1e-9, "wrong value at " + overflow[i]);
+        }
+    }
+
+    static void testSmallInputsAndSparsePolynomials() {
+        double[] points = {-2, -1, -0.5, 0, 0.25, 1, 3};
+        MultipointEvaluator evaluator = new MultipointEvaluator(points);
+        Check.equal(points.length, evaluator.size(), "wrong number of points");
+        double[] copy = evaluator.getPoints();
+        copy[0] = 42;
+        Check.equal(-2.0, evaluator.getPoints()[0], "the points were exposed");
+
+        for (double value : evaluator.evaluate(new Polynomial())) {
+            Check.equal(0.0, value, "the zero polynomial was not zero");
+        }
+        Check.equal(0, new MultipointEvaluator(new double[0]).evaluate(new double[]{1, 2}).length, "no points gave values");
+
+        Polynomial negative = Polynomial.fromCoefficients(new double[]{0, 1}, 'x'); // x + 1/x
+        negative.addTerm(new Term(1, 'x', -1));
+        double[] values = new MultipointEvaluator(new double[]{-2, 0.5, 4}).evaluate(negative);
+        Check.close(-2.5, values[0], 1e-15, "wrong value with a negative degree");
+        Check.close(2.5, values[1], 1e-15, "wrong value with a negative degree");
+        Check.close(4.25, values[2], 1e-15, "wrong value with a negative degree");
+
+        double[] small = evaluator.evaluate(new double[]{1, -2, 0, 1}); // x^3 - 2x + 1
+        for (int i = 0; i < points.length; i++) {
+            double x = points[i];
+            Check.close(x * x * x - 2 * x + 1, small[i], 1e-15, "wrong value at " + x);
+        }
+        double[] fast = evaluator.evaluateFast(new double[]{1, -2, 0, 1});
+        Check.isTrue(fast != null, "the fast method failed its check on a cubic");
+        checkClose(new double[]{1, -2, 0, 1}, points, fast, "a cubic");
+
+        Check.fails(IllegalArgumentException.class, () -> new MultipointEvaluator(new double[]{1, Double.NaN}), "a NaN point was accepted");
+        Check.fails(IllegalArgumentException.class, () -> MultipointEvaluator.setFastThreshold(0), "a zero threshold was accepted");
+    }
+
+    static void testSparseHighDegreeIsNotDensified() {
+        Polynomial p = new Polynomial();
+        p.addTerm(new Term(1, 'x', 100000000));
+        p.addTerm(new Term(1, 'x', 0));
+        double[] points = new double[50000];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = -1 + 2.0 * i / points.length;
+        }
+        MultipointEvaluator evaluator = new MultipointEvaluator(points);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long before = allocated(threads);
+        double[] values = evaluator.evaluate(p);
+        long after = allocated(threads);
+        if (before >= 0 && after >= 0) {
+            Check.isTrue(after - before < 10_000_000, "evaluating x^100000000 + 1 allocated " + (after - before) + " bytes");
+        }
+        for (int i = 0; i < points.length; i += 997) {
+            Check.close(Math.pow(points[i], 100000000) + 1, values[i], 1e-12, "wrong value at " + points[i]);
+        }
+    }
+
+    private static long allocated(ThreadMXBean threads) {
+        if (!(threads instanceof com.sun.management.ThreadMXBean bean)) return -1; // the allocation counter is a HotSpot extension
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static double[] random(Random random, int n) {
+        double[] coefficients = new double[n];
+        for (int i = 0; i < n; i++) coefficients[i] = random.nextGaussian();
+        return coefficients;
+    }
+
+    /**
+     * Checks values against Horner's scheme within the normwise contract.
+     *
+     * @param coefficients The coefficients indexed by degree.
+     * @param points       The points.
+     * @param values       The values to check.
+     * @param what         The description of the points for the failure message.
+     */
+    private static void checkClose(double[] coefficients, double[] points, double[] values, String what) {
+        double norm = 0;
+        for (double c : coefficients) norm += Math.abs(c);
+        Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+        double[] expected = new double[points.length];
+        p.evaluate(points, expected);
+        for (int i = 0; i < points.length; i++) {
+            double bound = norm * Math.max(1, Math.pow(Math.abs(points[i]), coefficients.length - 1));
+            Check.isTrue(Math.abs(expected[i] - values[i]) <= TOLERANCE * bound,
+                    "wrong value at " + points[i] + " for " + what + ": expected " + expected[i] + " but was " + values[i]);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Random;
+
+/**
+ * Tests of the heap-based multivariate division of MultivariatePolynomial. With a single
+ * divisor, the quotient and remainder whose terms the leading monomial of the divisor does not
+ * divide are unique, so dividing q g + r must give back exactly q and r.
+ */
+final class MultivariatePolynomialTest {
+    private MultivariatePolynomialTest() {
+    }
+
+    static void testTextbookDivision() {
+        // x^2y + xy^2 + y^2 = (x + y)(xy - 1) + x + y^2 + y in lexicographic order with x > y
+        MultivariatePolynomial f = MultivariatePolynomial.monomial(1, "xy", 2, 1)
+                .add(MultivariatePolynomial.monomial(1, "xy", 1, 2))
+                .add(MultivariatePolynomial.monomial(1, "y", 2));
+        MultivariatePolynomial g = MultivariatePolynomial.monomial(1, "xy", 1, 1).subtract(MultivariatePolynomial.constant(1));
+        MultivariateQuotient result = f.divide(g);
+        Check.equal(MultivariatePolynomial.monomial(1, "x", 1).add(MultivariatePolynomial.monomial(1, "y", 1)),
+                result.getQuotientP(), "wrong quotient");
+        Check.equal(MultivariatePolynomial.monomial(1, "x", 1).add(MultivariatePolynomial.monomial(1, "y", 2))
+                .add(MultivariatePolynomial.monomial(1, "y", 1)), result.getRemainderP(), "wrong remainder");
+    }
+
+    static void testExactDivision() {
+        Random random = new Random(14);
+        for (int round = 0; round < 20; round++) {
+            MultivariatePolynomial g = random(random, "xyz", 6, 5);
+            MultivariatePolynomial h = random(random, "xyz", 8, 6);
+            MultivariateQuotient result = g.multiply(h).divide(g);
+            Check.equal(h, result.getQuotientP(), "wrong quotient of an exact division");
+            Check.equal(MultivariatePolynomial.zero(), result.getRemainderP(), "non-zero remainder of an exact division");
+        }
+    }
+
+    static void testDivisionWithRemainder() {
+        Random random = new Random(15);
+        // leading monomial x^2y: a remainder term has an x exponent below 2 or no y
+        MultivariatePolynomial g = MultivariatePolynomial.monomial(3, "xy", 2, 1)
+                .add(MultivariatePolynomial.monomial(-2, "xy", 1, 3))
+                .add(MultivariatePolynomial.monomial(1, "z", 4))
+                .subtract(MultivariatePolynomial.constant(5));
+        for (int round = 0; round < 20; round++) {
+            MultivariatePolynomial q = random(random, "xyz", 10, 12);
+            MultivariatePolynomial r = MultivariatePolynomial.zero();
+            for (int t = 0; t < 10; t++) {
+                int x = random.nextInt(12);
+                int y = x < 2 ? random.nextInt(12) : 0;
+                r = r.add(MultivariatePolynomial.monomial(random.nextInt(19) - 9, "xyz", x, y, random.nextInt(12)));
+            }
+            MultivariateQuotient result = q.multiply(g).add(r).divide(g);
+            Check.equal(q, result.getQuotientP(), "wrong quotient");
+            Check.equal(r, result.getRemainderP(), "wrong remainder");
+        }
+    }
+
+    static void testLargeExponentsWidenTheFields() {
+        MultivariatePolynomial g = MultivariatePolynomial.monomial(1, "xy", 5000, 1).add(MultivariatePolynomial.monomial(1, "y", 3));
+        MultivariatePolynomial q = MultivariatePolynomial.monomial(2, "xy", 70000, 9).subtract(MultivariatePolynomial.constant(1));
+        MultivariateQuotient result = q.multiply(g).divide(g);
+        Check.equal(q, result.getQuotientP(), "wrong quotient with large exponents");
+        Check.equal(MultivariatePolynomial.zero(), result.getRemainderP(), "non-zero remainder with large exponents");
+    }
+
+    static void testDivisionByConstantAndZero() {
+        MultivariatePolynomial f = MultivariatePolynomial.monomial(4, "xy", 1, 2).add(MultivariatePolynomial.constant(2));
+        MultivariateQuotient result = f.divide(MultivariatePolynomial.constant(2));
+        Check.equal(MultivariatePolynomial.monomial(2, "xy", 1, 2).add(MultivariatePolynomial.constant(1)),
+                result.getQuotientP(), "wrong quotient by a constant");
+        Check.fails(ArithmeticException.class, () -> f.divide(MultivariatePolynomial.zero()), "division by zero was accepted");
+    }
+
+    /**
+     * Returns a random polynomial with small integer coefficients, so that products and
+     * quotients are exact in doubles.
+     *
+     * @param random      The source of randomness.
+     * @param variables   The variables.
+     * @param terms       The number of terms added.
+     * @param maxExponent The exclusive bound of the exponents.
+     * @return The polynomial.
+     */
+    private static MultivariatePolynomial random(Random random, String variables, int terms, int maxExponent) {
+        MultivariatePolynomial p = MultivariatePolynomial.monomial(1 + random.nextInt(5), variables,
+                maxExponent, 0, 0); // a fixed leading term keeps the polynomial non-zero
+        for (int t = 0; t < terms; t++) {
+            int[] exponents = new int[variables.length()];
+            for (int v = 0; v < exponents.length; v++) exponents[v] = random.nextInt(maxExponent);
+            p = p.add(MultivariatePolynomial.monomial(random.nextInt(11) - 5, variables, exponents));
+        }
+        return p;
+    }
+}
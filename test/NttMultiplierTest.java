@@ -0,0 +1,105 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests of NttMultiplier: the transforms modulo each prime and the recombination of the
+ * residues by the Chinese remainder theorem, checked against schoolbook multiplication.
+ */
+final class NttMultiplierTest {
+    private NttMultiplierTest() {
+    }
+
+    static void testPrimesSupportLongTransforms() {
+        Check.isTrue(NttMultiplier.primeCount() > 0, "no prime was found");
+        for (int i = 0; i < NttMultiplier.primeCount(); i++) {
+            long p = NttMultiplier.prime(i);
+            Check.isTrue(p > 1L << 30 && p < 1L << 31, "prime " + p + " is out of range");
+            Check.isTrue((p - 1) % (1 << 22) == 0, "prime " + p + " does not support 2^22 points");
+            Check.isTrue(BigInteger.valueOf(p).isProbablePrime(50), p + " is not prime");
+        }
+    }
+
+    static void testProductMatchesSchoolbook() {
+        Random random = new Random(6);
+        for (int bits : new int[]{1, 20, 62, 200, 1000}) {
+            for (int[] lengths : new int[][]{{32, 32}, {33, 100}, {257, 64}, {500, 499}}) {
+                BigInteger[] a = randomCoefficients(random, lengths[0], bits);
+                BigInteger[] b = randomCoefficients(random, lengths[1], bits);
+                Check.isTrue(Arrays.equals(NttMultiplier.schoolbook(a, b), NttMultiplier.multiply(a, b)),
+                        "wrong product of lengths " + Arrays.toString(lengths) + " with " + bits + "-bit coefficients");
+            }
+        }
+    }
+
+    static void testExtremeCoefficientsRecombine() {
+        // every coefficient of the product reaches the bound the number of primes is chosen for
+        int n = 64;
+        for (BigInteger value : new BigInteger[]{BigInteger.ONE.shiftLeft(300).subtract(BigInteger.ONE),
+                BigInteger.ONE.shiftLeft(300).negate()}) {
+            BigInteger[] a = new BigInteger[n];
+            Arrays.fill(a, value);
+            BigInteger[] product = NttMultiplier.multiply(a, a);
+            Check.isTrue(Arrays.equals(NttMultiplier.schoolbook(a, a), product), "wrong product of " + value);
+            Check.equal(value.multiply(value).multiply(BigInteger.valueOf(n)), product[n - 1], "wrong middle coefficient");
+        }
+    }
+
+    static void testTooLargeCoefficientsFallBackToSchoolbook() {
+        Random random = new Random(7);
+        int bits = 31 * 512; // more than all the m * 2^22 + 1 primes below 2^31 can represent
+        BigInteger[] a = randomCoefficients(random, 40, bits);
+        BigInteger[] b = randomCoefficients(random, 40, bits);
+        Check.isTrue(Arrays.equals(NttMultiplier.schoolbook(a, b), NttMultiplier.multiply(a, b)),
+                "wrong product of " + bits + "-bit coefficients");
+    }
+
+    static void testShortOperands() {
+        BigInteger[] a = {BigInteger.valueOf(-3)};
+        BigInteger[] b = {BigInteger.ONE, BigInteger.TWO, BigInteger.TEN};
+        BigInteger[] expected = {BigInteger.valueOf(-3), BigInteger.valueOf(-6), BigInteger.valueOf(-30)};
+        Check.isTrue(Arrays.equals(expected, NttMultiplier.multiply(a, b)), "wrong product by a constant");
+        Check.isTrue(Arrays.equals(expected, NttMultiplier.multiply(b, a)), "wrong product of a constant");
+    }
+
+    static void testModularProductMatchesSchoolbook() {
+        Random random = new Random(8);
+        for (int index = 0; index < NttMultiplier.primeCount(); index++) {
+            long p = NttMultiplier.prime(index);
+            long[] a = new long[300];
+            long[] b = new long[77];
+            for (int i = 0; i < a.length; i++) a[i] = Math.floorMod(random.nextLong(), p);
+            for (int i = 0; i < b.length; i++) b[i] = Math.floorMod(random.nextLong(), p);
+            long[] expected = new long[a.length + b.length - 1];
+            for (int i = 0; i < a.length; i++) {
+                for (int j = 0; j < b.length; j++) {
+                    expected[i + j] = (expected[i + j] + a[i] * b[j]) % p;
+                }
+            }
+            Check.isTrue(Arrays.equals(expected, NttMultiplier.multiplyModulo(a, b, index)),
+                    "wrong product modulo " + p);
+        }
+        Check.equal(0, NttMultiplier.multiplyModulo(new long[0], new long[]{1}, 0).length, "product by zero is not empty");
+    }
+
+    static void testThresholdIsValidated() {
+        Check.fails(IllegalArgumentException.class, () -> NttMultiplier.setNttThreshold(0), "threshold 0 was accepted");
+    }
+
+    /**
+     * Returns random coefficients of either sign.
+     *
+     * @param random The source of randomness.
+     * @param length The number of coefficients.
+     * @param bits   The largest bit length of a coefficient.
+     * @return The coefficients.
+     */
+    static BigInteger[] randomCoefficients(Random random, int length, int bits) {
+        BigInteger[] values = new BigInteger[length];
+        for (int i = 0; i < length; i++) {
+            BigInteger value = new BigInteger(bits, random);
+            values[i] = random.nextBoolean() ? value.negate() : value;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests of PolynomialBatch against the same operations on each Polynomial, sequentially and in
+ * parallel.
+ */
+final class PolynomialBatchTest {
+    private PolynomialBatchTest() {
+    }
+
+    static void testLayout() {
+        Polynomial[] polynomials = {
+                Polynomial.fromCoefficients(new double[]{1, 2, 3}, 'y'),
+                new Polynomial(),
+                Polynomial.fromCoefficients(new double[]{0, 0, 0, 0, -1}, 'y'),
+        };
+        PolynomialBatch batch = PolynomialBatch.of(polynomials);
+        Check.equal(3, batch.getCount(), "wrong count");
+        Check.equal(4, batch.getDegree(), "wrong degree bound");
+        Check.equal('y', batch.getLiteral(), "wrong literal");
+        Check.equal(3.0, batch.getCoefficient(0, 2), "wrong coefficient");
+        Check.equal(-1.0, batch.getRow(4)[2], "wrong row");
+        batch.setCoefficient(1, 1, 7);
+        Check.equal(" 7.0y", batch.toPolynomial(1).toString(), "wrong polynomial after a change");
+        Check.equal(polynomials[2].toString(), batch.toPolynomials()[2].toString(), "wrong polynomial");
+
+        double[][] rows = {{1, 2}, {3, 4}};
+        PolynomialBatch fromRows = PolynomialBatch.fromRows(rows, 'x');
+        rows[0][0] = 100;
+        Check.equal(1.0, fromRows.getCoefficient(0, 0), "the rows were not copied");
+        Check.fails(IllegalArgumentException.class, () -> PolynomialBatch.fromRows(new double[][]{{1}, {1, 2}}, 'x'),
+                "ragged rows were accepted");
+        Check.fails(IllegalArgumentException.class, () -> new PolynomialBatch(1, -1, 'x'), "a negative degree was accepted");
+    }
+
+    static void testOperationsSequential() {
+        checkOperations(200);
+    }
+
+    static void testOperationsParallel() {
+        ForkJoinPool previousPool = PolynomialBatch.getPool();
+        int previousThreshold = PolynomialBatch.getParallelThreshold();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            PolynomialBatch.setPool(pool);
+            PolynomialBatch.setParallelThreshold(64);
+            checkOperations(5000);
+        } finally {
+            PolynomialBatch.setPool(previousPool);
+            PolynomialBatch.setParallelThreshold(previousThreshold);
+            pool.shutdown();
+        }
+    }
+
+    private static void checkOperations(int count) {
+        Random random = new Random(count);
+        Polynomial[] a = new Polynomial[count];
+        Polynomial[] b = new Polynomial[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            a[i] = random(random, random.nextInt(12));
+            b[i] = random(random, random.nextInt(5));
+            values[i] = 2 * random.nextDouble() - 1;
+        }
+        Polynomial factor = random(random, 6);
+        PolynomialBatch batchA = PolynomialBatch.of(a);
+        PolynomialBatch batchB = PolynomialBatch.of(b);
+        PolynomialBatch sum = batchA.add(batchB);
+        PolynomialBatch difference = batchA.subtract(batchB);
+        PolynomialBatch product = batchA.multiply(batchB);
+        PolynomialBatch scaled = batchA.multiply(factor);
+        double[] atValues = batchA.evaluate(values);
+        double[] atHalf = batchA.evaluate(0.5);
+        for (int i = 0; i < count; i++) {
+            double x = values[i];
+            double pa = a[i].evaluate(x);
+            double pb = b[i].evaluate(x);
+            double scale = (1 + Math.abs(pa)) * (1 + Math.abs(pb)) * (1 + Math.abs(factor.evaluate(x)));
+            Check.close(pa, atValues[i], 1e-13 * scale, "wrong value " + i);
+            Check.close(a[i].evaluate(0.5), atHalf[i], 1e-13 * scale, "wrong value at 0.5 " + i);
+            Check.close(pa + pb, sum.toPolynomial(i).evaluate(x), 1e-13 * scale, "wrong sum " + i);
+            Check.close(pa - pb, difference.toPolynomial(i).evaluate(x), 1e-13 * scale, "wrong difference " + i);
+            Check.close(pa * pb, product.toPolynomial(i).evaluate(x), 1e-12 * scale, "wrong product " + i);
+            Check.close(pa * factor.evaluate(x), scaled.toPolynomial(i).evaluate(x), 1e-12 * scale,
+                    "wrong scaled polynomial " + i);
+        }
+        Check.fails(IllegalArgumentException.class, () -> batchA.evaluate(new double[count + 1]),
+                "a wrong number of values was accepted");
+    }
+
+    private static Polynomial random(Random random, int degree) {
+        double[] coefs = new double[degree + 1];
+        for (int i = 0; i <= degree; i++) coefs[i] = random.nextGaussian();
+        return Polynomial.fromCoefficients(coefs, 'x');
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Tests of PolynomialBuilder on each of its build paths against terms combined in a sorted map.
+ */
+final class PolynomialBuilderTest {
+    private PolynomialBuilderTest() {
+    }
+
+    static void testDescendingTerms() {
+        Terms terms = new Terms('t');
+        for (int d = 1000; d >= -10; d -= 7) terms.add(d + 0.5, d);
+        terms.check("descending terms");
+        Check.equal('t', terms.builder.build().getLiteral(), "wrong literal");
+    }
+
+    static void testDenseTerms() {
+        Random random = new Random(22);
+        Terms terms = new Terms('x');
+        for (int i = 0; i < 5000; i++) terms.add(random.nextInt(7) - 3, random.nextInt(2000));
+        terms.check("dense terms");
+        Check.equal(5000, terms.builder.getTermCount(), "the builder lost terms");
+    }
+
+    static void testSparseTerms() {
+        Random random = new Random(23);
+        Terms terms = new Terms('z');
+        for (int i = 0; i < 5000; i++) terms.add(random.nextInt(5) - 2, random.nextInt(200) * 1000003 - 100000000);
+        terms.check("sparse terms");
+    }
+
+    static void testCancellationAndReuse() {
+        PolynomialBuilder builder = new PolynomialBuilder();
+        builder.addTerm(2, 5).addTerm(new Term(1, 'x', 3)).addTerm(-2, 5).addTerm(-1, 3);
+        Check.equal(0, builder.build().getTermCount(), "cancelled terms were kept");
+        Check.equal("", builder.build().toString(), "wrong text of the empty polynomial");
+        builder.clear().setLiteral('y').addTerm(1, 0).addTerm(3, 2);
+        Check.equal(" 3.0y^2 + 1.0", builder.build().toString(), "wrong polynomial after clear");
+        Check.equal(0, new PolynomialBuilder().build().getTermCount(), "an empty builder built terms");
+    }
+
+    /**
+     * Terms added both to a builder and to a map combining them by degree.
+     */
+    private static final class Terms {
+        private final PolynomialBuilder builder; // builder under test
+        private final TreeMap<Integer, Double> sums = new TreeMap<>(); // expected coefficient of each degree
+        private final char literal; // literal of the terms
+
+        private Terms(char literal) {
+            this.builder = new PolynomialBuilder(literal, 16);
+            this.literal = literal;
+        }
+
+        private void add(double coef, int degree) {
+            builder.addTerm(coef, degree);
+            sums.merge(degree, coef, Double::sum);
+        }
+
+        private void check(String message) {
+            LinkedList<Term> terms = new LinkedList<>();
+            for (Map.Entry<Integer, Double> e : sums.descendingMap().entrySet()) {
+                if (e.getValue() != 0) terms.add(new Term(e.getValue(), literal, e.getKey()));
+            }
+            Polynomial expected = new Polynomial();
+            expected.setTerms(terms);
+            Polynomial actual = builder.build();
+            Check.equal(terms.size(), actual.getTermCount(), message + ": wrong number of terms");
+            Check.equal(expected.toString(), actual.toString(), message + ": wrong polynomial");
+            Check.equal(expected.toString(), builder.build().toString(), message + ": build changed the builder");
+        }
+    }
+}
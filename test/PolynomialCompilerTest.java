@@ -0,0 +1,112 @@
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Tests of the bytecode generated by PolynomialCompiler, checked against Polynomial.evaluate
+ * for dense and sparse polynomials, negative degrees and both schemes.
+ */
+final class PolynomialCompilerTest {
+    private static final double[] POINTS = {0, 1, -1, 0.5, -0.75, 1.1, -1.3, 2, 1e-3, 7.5};
+
+    private PolynomialCompilerTest() {
+    }
+
+    static void testDenseHornerIsExact() {
+        Random random = new Random(16);
+        double[] coefficients = new double[21];
+        for (int i = 0; i < coefficients.length; i++) coefficients[i] = random.nextGaussian();
+        Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+        DoubleUnaryOperator f = p.compile(PolynomialCompiler.Scheme.HORNER);
+        Check.isTrue(isGenerated(f), "the operator is not a generated class");
+        for (double x : POINTS) {
+            Check.equal(p.evaluate(x), f.applyAsDouble(x), "Horner code differs from evaluate at " + x);
+        }
+    }
+
+    static void testEstrinAgreesWithEvaluate() {
+        Random random = new Random(17);
+        for (int degree : new int[]{8, 9, 15, 16, 33, 100}) {
+            double[] coefficients = new double[degree + 1];
+            for (int i = 0; i < coefficients.length; i++) coefficients[i] = random.nextGaussian();
+            Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+            Check.equal(PolynomialCompiler.Scheme.ESTRIN, PolynomialCompiler.select(degreesOf(p), p.getTermCount()),
+                    "Estrin's scheme was not chosen for degree " + degree);
+            DoubleUnaryOperator f = p.compile();
+            for (double x : POINTS) {
+                Check.close(p.evaluate(x), f.applyAsDouble(x), 1e-12 * bound(p, x), "Estrin code differs at " + x + " for degree " + degree);
+            }
+        }
+    }
+
+    static void testSparseAndNegativeDegrees() {
+        Polynomial p = new Polynomial();
+        p.addTerm(new Term(2.5, 'x', 1000));
+        p.addTerm(new Term(-3, 'x', 37));
+        p.addTerm(new Term(1, 'x', 4));
+        p.addTerm(new Term(0.25, 'x', -3));
+        Check.equal(PolynomialCompiler.Scheme.HORNER, PolynomialCompiler.select(degreesOf(p), p.getTermCount()),
+                "Horner's scheme was not chosen for negative degrees");
+        for (PolynomialCompiler.Scheme scheme : PolynomialCompiler.Scheme.values()) {
+            DoubleUnaryOperator f = p.compile(scheme);
+            for (double x : POINTS) {
+                if (x == 0) continue;
+                Check.close(p.evaluate(x), f.applyAsDouble(x), 1e-12 * bound(p, x), scheme + " code differs at " + x);
+            }
+        }
+    }
+
+    static void testManyTermsUseTheInterpreter() {
+        Random random = new Random(18);
+        int n = PolynomialCompiler.MAX_GENERATED_TERMS + 100;
+        double[] coefficients = new double[n];
+        for (int i = 0; i < n; i++) coefficients[i] = random.nextGaussian();
+        Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+        DoubleUnaryOperator f = p.compile();
+        Check.isTrue(!isGenerated(f), "code was generated past MAX_GENERATED_TERMS");
+        for (double x : new double[]{0.5, -0.999, 1}) {
+            Check.close(p.evaluate(x), f.applyAsDouble(x), 1e-11 * bound(p, x), "the interpreter differs at " + x);
+        }
+    }
+
+    static void testCompiledFormIsCachedUntilChanged() {
+        Polynomial p = Polynomial.fromCoefficients(new double[]{1, 2, 3}, 'x');
+        DoubleUnaryOperator first = p.compile();
+        Check.isTrue(first == p.compile(), "compile did not return the cached form");
+        p.addTerm(new Term(1, 'x', 5));
+        DoubleUnaryOperator second = p.compile();
+        Check.isTrue(first != second, "the cached form survived a change");
+        Check.equal(6.0, first.applyAsDouble(1), "the snapshot changed with the Polynomial");
+        Check.equal(7.0, second.applyAsDouble(1), "the new form misses the added term");
+    }
+
+    static void testZeroPolynomial() {
+        Check.equal(0.0, new Polynomial().compile().applyAsDouble(3), "the zero polynomial is not zero");
+    }
+
+    private static boolean isGenerated(DoubleUnaryOperator f) {
+        return f.getClass().isHidden() && f.getClass().getName().startsWith("CompiledPolynomial"); // lambdas are hidden classes too
+    }
+
+    private static int[] degreesOf(Polynomial p) {
+        int[] degrees = new int[p.getTermCount()];
+        p.copyTerms(degrees, new double[degrees.length]);
+        return degrees;
+    }
+
+    /**
+     * Returns the sum of |a_k| |x|^k, the scale of the rounding error of an evaluation.
+     *
+     * @param p The Polynomial.
+     * @param x The point.
+     * @return The bound.
+     */
+    private static double bound(Polynomial p, double x) {
+        int n = p.getTermCount();
+        int[] degrees = new int[n];
+        double[] coefs = new double[n];
+        p.copyTerms(degrees, coefs);
+        double sum = 0;
+        for (int i = 0; i < n; i++) sum += Math.abs(coefs[i]) * Math.pow(Math.abs(x), degrees[i]);
+        return Math.max(sum, 1);
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.Random;
+
+/**
+ * Tests of Polynomial.compose and Polynomial.shift against expansions with multiply and add,
+ * within the precision contract of PolynomialComposer.
+ */
+final class PolynomialComposerTest {
+    private PolynomialComposerTest() {
+    }
+
+    static void testComposeMatchesExpansion() {
+        Random random = new Random(19);
+        for (int[] degrees : new int[][]{{0, 3}, {1, 1}, {5, 3}, {17, 4}, {64, 3}, {150, 2}}) {
+            Polynomial p = random(random, degrees[0]);
+            Polynomial q = random(random, degrees[1]);
+            Polynomial expected = new Polynomial();
+            for (int k = degrees[0]; k >= 0; k--) { // Horner's scheme on polynomials
+                expected = expected.multiply(q).add(Polynomial.fromCoefficients(new double[]{p.getCoefficients()[k]}, 'x'));
+            }
+            checkClose(expected, p.compose(q), composeScale(p, q), "p(q) for degrees " + degrees[0] + " and " + degrees[1]);
+        }
+    }
+
+    static void testShiftMatchesBinomialExpansion() {
+        Random random = new Random(20);
+        for (int degree : new int[]{0, 1, 7, 40, 300}) {
+            Polynomial p = random(random, degree);
+            for (double a : new double[]{0, 0.5, -1.25}) {
+                Polynomial inner = Polynomial.fromCoefficients(new double[]{a, 1}, 'x');
+                checkClose(p.compose(inner), p.shift(a), composeScale(p, inner), "p(x + " + a + ") of degree " + degree);
+            }
+        }
+        Polynomial p = Polynomial.fromCoefficients(new double[]{1, 2, 1}, 'x'); // (x + 1)^2, shifted to x^2
+        double[] shifted = p.shift(-1).getCoefficients();
+        Check.equal(0.0, shifted[0], "wrong constant of (x + 1)^2 shifted by -1");
+        Check.equal(0.0, shifted[1], "wrong linear coefficient of (x + 1)^2 shifted by -1");
+        Check.equal(1.0, shifted[2], "wrong leading coefficient of (x + 1)^2 shifted by -1");
+    }
+
+    static void testLiteralsAndNegativeDegrees() {
+        Polynomial p = Polynomial.fromCoefficients(new double[]{1, 1}, 'x');
+        Check.equal('t', p.compose(Polynomial.fromCoefficients(new double[]{0, 2}, 't')).getLiteral(), "wrong literal of the composition");
+        Check.equal('x', p.compose(Polynomial.fromCoefficients(new double[]{3}, 't')).getLiteral(), "wrong literal of a constant composition");
+        Polynomial negative = new Polynomial();
+        negative.addTerm(new Term(1, 'x', -1));
+        Check.fails(IllegalStateException.class, () -> negative.compose(p), "a negative degree was composed");
+        Check.fails(IllegalStateException.class, () -> negative.shift(1), "a negative degree was shifted");
+    }
+
+    private static Polynomial random(Random random, int degree) {
+        double[] coefficients = new double[degree + 1];
+        for (int i = 0; i <= degree; i++) coefficients[i] = random.nextGaussian();
+        if (coefficients[degree] == 0) coefficients[degree] = 1;
+        return Polynomial.fromCoefficients(coefficients, 'x');
+    }
+
+    /**
+     * Returns the largest coefficient of |p|(|q|), the scale of the precision contract.
+     *
+     * @param p The outer Polynomial.
+     * @param q The inner Polynomial.
+     * @return The scale.
+     */
+    private static double composeScale(Polynomial p, Polynomial q) {
+        double[] absP = p.getCoefficients();
+        double[] absQ = q.getCoefficients();
+        for (int i = 0; i < absP.length; i++) absP[i] = Math.abs(absP[i]);
+        for (int i = 0; i < absQ.length; i++) absQ[i] = Math.abs(absQ[i]);
+        double scale = 0;
+        for (double c : Polynomial.fromCoefficients(absP, 'x').compose(Polynomial.fromCoefficients(absQ, 'x')).getCoefficients()) {
+            scale = Math.max(scale, c);
+        }
+        return Math.max(scale, 1);
+    }
+
+    private static void checkClose(Polynomial expected, Polynomial actual, double scale, String message) {
+        double[] e = expected.getCoefficients();
+        double[] a = actual.getCoefficients();
+        for (int i = 0; i < Math.max(e.length, a.length); i++) {
+            double x = i < e.length ? e[i] : 0;
+            double y = i < a.length ? a[i] : 0;
+            Check.isTrue(Math.abs(x - y) <= 1e-12 * scale, message + ": coefficient " + i + " is " + y + " instead of " + x);
+        }
+    }
+}
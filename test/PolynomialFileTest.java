@@ -0,0 +1,89 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests of the binary format of PolynomialFile and of the linear-time text formatting of
+ * Polynomial and Quotient.
+ */
+final class PolynomialFileTest {
+    private PolynomialFileTest() {
+    }
+
+    static void testRoundTrip() throws IOException {
+        Random random = new Random(9);
+        List<Polynomial> polynomials = new ArrayList<>();
+        double[] dense = new double[500];
+        for (int i = 0; i < dense.length; i++) dense[i] = random.nextGaussian();
+        polynomials.add(Polynomial.fromCoefficients(dense, 'x'));
+        Polynomial sparse = new Polynomial();
+        sparse.addTerm(new Term(4, 'y', 1_000_000));
+        sparse.addTerm(new Term(-0.5, 'y', 7));
+        sparse.addTerm(new Term(3, 'y', -2));
+        polynomials.add(sparse);
+        polynomials.add(new Polynomial());
+
+        Path path = Files.createTempFile("polynomials", ".bin");
+        try {
+            PolynomialFile.write(path, polynomials);
+            PolynomialFile file = PolynomialFile.open(path);
+            Check.equal(polynomials.size(), file.size(), "wrong number of polynomials");
+            for (int i = 0; i < polynomials.size(); i++) {
+                Polynomial expected = polynomials.get(i);
+                Polynomial actual = file.get(i);
+                Check.equal(expected.toString(), actual.toString(), "polynomial " + i + " changed");
+                Check.equal(expected.isDense(), actual.isDense(), "polynomial " + i + " changed form");
+                Check.equal(expected.getDegree(), file.getDegree(i), "wrong degree of polynomial " + i);
+                if (expected.getTermCount() > 0) {
+                    Check.equal(expected.getLiteral(), file.getLiteral(i), "wrong literal of polynomial " + i);
+                }
+                for (double x : new double[]{0.5, -1, 1.0001}) {
+                    Check.equal(expected.evaluate(x), file.evaluate(i, x), "polynomial " + i + " evaluates differently at " + x);
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    static void testRejectsOtherFiles() throws IOException {
+        Path path = Files.createTempFile("polynomials", ".txt");
+        try {
+            Files.writeString(path, "3x^2 + 1, not a polynomial file");
+            Check.fails(IllegalStateException.class, () -> {
+                try {
+                    PolynomialFile.open(path);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, "a text file was opened");
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    static void testTextOfLargePolynomials() throws IOException {
+        int n = 200_000;
+        double[] coefficients = new double[2 * n + 1];
+        for (int k = 1; k <= n; k++) coefficients[2 * k] = k % 2 == 0 ? 2 : -3;
+        Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+        long start = System.nanoTime();
+        String text = p.toString();
+        Check.isTrue(System.nanoTime() - start < 5_000_000_000L, "formatting " + n + " terms took over 5 s");
+        Check.isTrue(text.startsWith(" 2.0x^400000 - 3.0x^399998 + 2.0x^399996"), "wrong start of " + text.substring(0, 60));
+        StringBuilder expected = new StringBuilder();
+        p.appendTo(expected);
+        Check.equal(text, expected.toString(), "appendTo differs from toString");
+
+        Quotient q = new Quotient();
+        q.setQuotientP(p);
+        q.setRemainderP(Polynomial.fromCoefficients(new double[]{1}, 'x'));
+        StringBuilder quotient = new StringBuilder();
+        q.appendTo(quotient);
+        Check.equal(q.toString(), quotient.toString(), "the quotient appends differently");
+        Check.isTrue(quotient.indexOf(text) >= 0, "the quotient text misses the quotient");
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.Random;
+
+/**
+ * Tests of PolynomialInterpolator and of the incremental refits of NewtonInterpolator, at
+ * sizes where the monomial basis can still represent the interpolant accurately.
+ */
+final class PolynomialInterpolatorTest {
+    private PolynomialInterpolatorTest() {
+    }
+
+    static void testRecoversPolynomial() {
+        Random random = new Random(12);
+        for (int n : new int[]{1, 2, 5, 16, 24}) {
+            double[] coefficients = new double[n];
+            for (int i = 0; i < n; i++) coefficients[i] = random.nextGaussian();
+            Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = Math.cos(Math.PI * (i + 0.5) / n); // Chebyshev points keep the problem well conditioned
+                ys[i] = p.evaluate(xs[i]);
+            }
+            Polynomial q = PolynomialInterpolator.interpolate(xs, ys, 't');
+            Check.equal('t', q.getLiteral(), "wrong literal");
+            double[] recovered = q.getCoefficients();
+            for (int i = 0; i < n; i++) {
+                Check.close(coefficients[i], i < recovered.length ? recovered[i] : 0, 1e-6, "wrong coefficient " + i + " for " + n + " points");
+            }
+            for (int i = 0; i < n; i++) {
+                Check.close(ys[i], q.evaluate(xs[i]), 1e-12, "the interpolant misses sample " + i);
+            }
+        }
+    }
+
+    static void testFewDozenPoints() {
+        Random random = new Random(48);
+        int n = 48; // near the largest size at which the monomial basis holds the interpolant
+        double[] coefficients = new double[n];
+        double norm = 0;
+        for (int i = 0; i < n; i++) {
+            coefficients[i] = random.nextGaussian();
+            norm += Math.abs(coefficients[i]);
+        }
+        Polynomial p = Polynomial.fromCoefficients(coefficients, 'x');
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = Math.cos(Math.PI * (i + 0.5) / n);
+            ys[i] = p.evaluate(xs[i]);
+        }
+        Polynomial q = PolynomialInterpolator.interpolate(xs, ys);
+        Check.isTrue(q.getDegree() < n, "the interpolant has degree " + q.getDegree());
+        for (int i = 0; i < n; i++) {
+            Check.close(ys[i], q.evaluate(xs[i]), 1e-12 * norm, "the interpolant misses sample " + i);
+        }
+    }
+
+    static void testIncrementalRefit() {
+        NewtonInterpolator interpolator = new NewtonInterpolator();
+        double[] xs = {0, 1, -1, 2, -2, 0.5};
+        for (int i = 0; i < xs.length; i++) {
+            interpolator.add(xs[i], Math.exp(xs[i]));
+            Check.equal(i + 1, interpolator.size(), "wrong number of samples");
+            for (int j = 0; j <= i; j++) {
+                Check.close(Math.exp(xs[j]), interpolator.evaluate(xs[j]), 1e-13, "the refit misses sample " + j);
+            }
+            Polynomial p = interpolator.toPolynomial();
+            Check.isTrue(p.getDegree() <= i, "the refit has degree " + p.getDegree() + " after " + (i + 1) + " samples");
+            Check.close(interpolator.evaluate(0.25), p.evaluate(0.25), 1e-13, "the Newton and monomial forms differ");
+        }
+    }
+
+    static void testInvalidSamples() {
+        Check.fails(IllegalArgumentException.class, () -> PolynomialInterpolator.interpolate(new double[]{1, 2}, new double[]{1}),
+                "arrays of different lengths were accepted");
+        Check.fails(IllegalArgumentException.class, () -> PolynomialInterpolator.interpolate(new double[]{1, 2, 1}, new double[]{1, 2, 3}),
+                "a repeated point was accepted");
+        Check.equal(0, PolynomialInterpolator.interpolate(new double[0], new double[0]).getTermCount(), "no samples gave a non-zero polynomial");
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests of PolynomialRootFinder on polynomials with known roots. The roots come in no
+ * particular order, so each expected root is matched with the nearest root found.
+ */
+final class PolynomialRootFinderTest {
+    private PolynomialRootFinderTest() {
+    }
+
+    static void testRealRoots() {
+        // (x - 1)(x - 2)(x - 3) = x^3 - 6x^2 + 11x - 6
+        PolynomialRoots roots = PolynomialRootFinder.findRoots(new double[]{-6, 11, -6, 1});
+        Check.isTrue(roots.isConverged(), "the roots did not converge");
+        checkRoots(roots, new double[]{1, 2, 3}, new double[3], 1e-12);
+    }
+
+    static void testComplexRoots() {
+        // (x^2 + 1)(x^2 - 2x + 5) has roots +-i and 1 +- 2i
+        PolynomialRoots roots = PolynomialRootFinder.findRoots(new double[]{5, -2, 6, -2, 1});
+        Check.isTrue(roots.isConverged(), "the roots did not converge");
+        checkRoots(roots, new double[]{0, 0, 1, 1}, new double[]{1, -1, 2, -2}, 1e-12);
+    }
+
+    static void testZeroRootsAndLeadingZeros() {
+        // x^2 (x - 4), with zero coefficients above the degree
+        PolynomialRoots roots = PolynomialRootFinder.findRoots(new double[]{0, 0, -4, 1, 0, 0});
+        Check.equal(3, roots.getRootCount(), "wrong number of roots");
+        checkRoots(roots, new double[]{0, 0, 4}, new double[3], 1e-12);
+        Check.fails(IllegalArgumentException.class, () -> PolynomialRootFinder.findRoots(new double[]{0, 0}),
+                "the zero polynomial was accepted");
+    }
+
+    static void testWilkinsonPolynomial() {
+        // the roots 1..12 of a product whose coefficients are exact in doubles; the middle roots
+        // are ill-conditioned, so a backward-stable finder only gets them to a few millionths
+        double[] coefficients = {1};
+        double[] expected = new double[12];
+        for (int k = 1; k <= 12; k++) {
+            double[] next = new double[coefficients.length + 1];
+            for (int i = 0; i < coefficients.length; i++) {
+                next[i + 1] += coefficients[i];
+                next[i] -= k * coefficients[i];
+            }
+            coefficients = next;
+            expected[k - 1] = k;
+        }
+        PolynomialRoots roots = PolynomialRootFinder.findRoots(coefficients);
+        checkRoots(roots, expected, new double[12], 1e-4);
+    }
+
+    static void testHighDegreeInParallel() {
+        // x^n - 1 has the n-th roots of unity, and a degree past the threshold runs in parallel
+        int n = 600;
+        double[] coefficients = new double[n + 1];
+        coefficients[0] = -1;
+        coefficients[n] = 1;
+        double[] re = new double[n];
+        double[] im = new double[n];
+        for (int k = 0; k < n; k++) {
+            re[k] = Math.cos(2 * Math.PI * k / n);
+            im[k] = Math.sin(2 * Math.PI * k / n);
+        }
+        ForkJoinPool saved = PolynomialRootFinder.getPool();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            PolynomialRootFinder.setPool(pool);
+            PolynomialRoots roots = PolynomialRootFinder.findRoots(coefficients);
+            Check.isTrue(roots.isConverged(), "the roots did not converge");
+            checkRoots(roots, re, im, 1e-9);
+        } finally {
+            PolynomialRootFinder.setPool(saved);
+            pool.shutdown();
+        }
+    }
+
+    static void testBatchMatchesSingle() {
+        double[][] coefficients = new double[300][];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = new double[]{-i, 0, 1}; // x^2 - i
+        }
+        ForkJoinPool saved = PolynomialRootFinder.getPool();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            PolynomialRootFinder.setPool(pool);
+            PolynomialRoots[] batch = PolynomialRootFinder.findRoots(coefficients);
+            PolynomialRootFinder.setPool(null);
+            for (int i = 0; i < coefficients.length; i++) {
+                PolynomialRoots single = PolynomialRootFinder.findRoots(coefficients[i]);
+                for (int k = 0; k < 2; k++) {
+                    Check.equal(single.getReal(k), batch[i].getReal(k), "the batch differs for x^2 - " + i);
+                    Check.equal(single.getImaginary(k), batch[i].getImaginary(k), "the batch differs for x^2 - " + i);
+                }
+            }
+        } finally {
+            PolynomialRootFinder.setPool(saved);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Checks that the roots found match the expected ones, each to a distinct root found.
+     *
+     * @param roots     The roots found.
+     * @param re        The real parts of the expected roots.
+     * @param im        The imaginary parts of the expected roots.
+     * @param tolerance The largest distance between an expected root and its match.
+     */
+    private static void checkRoots(PolynomialRoots roots, double[] re, double[] im, double tolerance) {
+        Check.equal(re.length, roots.getRootCount(), "wrong number of roots");
+        boolean[] used = new boolean[re.length];
+        for (int i = 0; i < re.length; i++) {
+            int best = -1;
+            double distance = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < re.length; j++) {
+                double d = Math.hypot(roots.getReal(j) - re[i], roots.getImaginary(j) - im[i]);
+                if (!used[j] && d < distance) {
+                    best = j;
+                    distance = d;
+                }
+            }
+            Check.isTrue(distance <= tolerance, "no root found near " + re[i] + " + " + im[i] + "i, nearest at " + distance);
+            used[best] = true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Tests of PolynomialServer over HTTP on an ephemeral loopback port.
+ */
+final class PolynomialServerTest {
+    private PolynomialServerTest() {
+    }
+
+    static void testEndpoints() throws IOException {
+        PolynomialServer server = new PolynomialServer(0);
+        server.start();
+        try {
+            Response value = post(server, "/evaluate", "3x^2 - 2x + 1 ; 2.5", false);
+            Check.equal(200, value.status, "wrong status of an evaluation");
+            Check.equal("14.75\n", value.body, "wrong value");
+            Response compute = post(server, "/compute", "ADD x + 1 ; x - 1\nMULTIPLY x + 1 ; x - 1\n", false);
+            Check.equal(200, compute.status, "wrong status of a computation");
+            Check.equal(2, compute.body.split("\n").length, "wrong number of result lines");
+            Response malformed = post(server, "/evaluate", "3x^2 - 2x + 1", false);
+            Check.equal(400, malformed.status, "wrong status of a malformed request");
+            Check.isTrue(malformed.body.startsWith("ERROR "), "a malformed request was not answered with an error");
+
+            HttpURLConnection get = (HttpURLConnection) url(server, "/evaluate").openConnection();
+            Check.equal(405, get.getResponseCode(), "a GET request was accepted");
+            get.disconnect();
+        } finally {
+            server.stop();
+        }
+    }
+
+    static void testBodyLimit() throws IOException {
+        PolynomialServer server = new PolynomialServer(0);
+        server.start();
+        try {
+            char[] terms = new char[(1 << 22) + 1];
+            Arrays.fill(terms, ' ');
+            String tooLong = new String(terms);
+            for (boolean chunked : new boolean[]{false, true}) {
+                for (String path : new String[]{"/evaluate", "/compute"}) {
+                    Response response = post(server, path, tooLong, chunked);
+                    Check.equal(413, response.status, "wrong status of a long body to " + path + (chunked ? " in chunks" : ""));
+                }
+            }
+            Check.equal(200, post(server, "/evaluate", "x ; 1", false).status, "the server stopped answering");
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * The status and body of a response.
+     */
+    private static final class Response {
+        private final int status; // status code
+        private final String body; // response body
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static Response post(PolynomialServer server, String path, String body, boolean chunked) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url(server, path).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            if (chunked) {
+                connection.setChunkedStreamingMode(1 << 16);
+            } else {
+                connection.setFixedLengthStreamingMode(bytes.length);
+            }
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            } catch (IOException e) {
+                // the server may answer and close before the whole body is sent
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            String text = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return new Response(status, text);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static URL url(PolynomialServer server, String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getPort() + path);
+    }
+}
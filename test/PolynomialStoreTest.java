@@ -0,0 +1,87 @@
+import java.util.Random;
+
+/**
+ * Tests of PolynomialStore and its views against the same operations on Polynomials.
+ */
+final class PolynomialStoreTest {
+    private PolynomialStoreTest() {
+    }
+
+    static void testStoredPolynomials() {
+        Polynomial[] polynomials = samples();
+        try (PolynomialStore store = new PolynomialStore(4096)) {
+            for (int i = 0; i < polynomials.length; i++) {
+                Check.equal(i, store.add(polynomials[i]), "wrong index");
+            }
+            Check.equal(polynomials.length, store.size(), "wrong size");
+            Check.isTrue(store.getAllocatedBytes() > 2 * 4096, "the records did not spill into more chunks");
+            PolynomialView view = store.view(0);
+            for (int i = 0; i < polynomials.length; i++) {
+                Polynomial p = polynomials[i];
+                Check.equal(p.toString(), store.get(i).toString(), "wrong polynomial " + i);
+                Check.equal(p.getDegree(), store.getDegree(i), "wrong degree of polynomial " + i);
+                Check.equal(p.getLiteral(), store.getLiteral(i), "wrong literal of polynomial " + i);
+                Check.equal(p.evaluate(0.75), store.evaluate(i, 0.75), "wrong value of polynomial " + i);
+                view.moveTo(i);
+                Check.equal(i, view.getIndex(), "the view did not move");
+                Check.equal(p.getTermCount(), view.getTermCount(), "wrong term count of view " + i);
+                Check.equal(p.toString(), view.toString(), "wrong text of view " + i);
+                Check.equal(p.evaluate(-1.25), view.evaluate(-1.25), "wrong value of view " + i);
+                Check.equal(p.toString(), view.toPolynomial().toString(), "wrong polynomial of view " + i);
+            }
+        }
+    }
+
+    static void testStoredArithmetic() {
+        Polynomial[] polynomials = samples();
+        try (PolynomialStore store = new PolynomialStore()) {
+            for (Polynomial p : polynomials) store.add(p);
+            for (int i = 0; i < polynomials.length; i++) {
+                for (int j = 0; j < polynomials.length; j++) {
+                    Polynomial a = polynomials[i];
+                    Polynomial b = polynomials[j];
+                    double x = 0.9;
+                    double sum = store.evaluate(store.add(i, j), x);
+                    double product = store.evaluate(store.multiply(i, j), x);
+                    double scale = Math.abs(a.evaluate(x)) + Math.abs(b.evaluate(x)) + 1;
+                    Check.close(a.evaluate(x) + b.evaluate(x), sum, 1e-12 * scale, "wrong sum " + i + " + " + j);
+                    Check.close(a.evaluate(x) * b.evaluate(x), product, 1e-11 * scale * scale,
+                            "wrong product " + i + " * " + j);
+                }
+            }
+        }
+    }
+
+    static void testClose() {
+        PolynomialStore store = new PolynomialStore();
+        int index = store.add(Polynomial.fromCoefficients(new double[]{1, 2, 3}, 'x'));
+        PolynomialView view = store.view(index);
+        store.close();
+        store.close();
+        Check.isTrue(store.isClosed(), "the store is not closed");
+        Check.equal(0L, store.getAllocatedBytes(), "the chunks were kept");
+        Check.fails(IllegalStateException.class, () -> store.get(index), "a closed store was read");
+        Check.fails(IllegalStateException.class, () -> store.add(new Polynomial()), "a closed store was written");
+        Check.fails(IllegalStateException.class, () -> view.evaluate(1), "a view of a closed store was read");
+        Check.fails(IllegalStateException.class, view::getDegree, "a view of a closed store was read");
+        Check.fails(IllegalArgumentException.class, () -> new PolynomialStore(100), "a tiny chunk was accepted");
+    }
+
+    private static Polynomial[] samples() {
+        Random random = new Random(23);
+        Polynomial[] samples = new Polynomial[8];
+        double[] dense = new double[600]; // larger than a 4096 byte chunk
+        for (int i = 0; i < dense.length; i++) dense[i] = random.nextGaussian();
+        samples[0] = Polynomial.fromCoefficients(dense, 'x');
+        samples[1] = Polynomial.fromCoefficients(new double[]{2, -1}, 'x');
+        samples[2] = new Polynomial();
+        PolynomialBuilder builder = new PolynomialBuilder('x');
+        for (int i = 0; i < 50; i++) builder.addTerm(random.nextGaussian(), random.nextInt(100000));
+        samples[3] = builder.build();
+        samples[4] = builder.clear().addTerm(1, 3).addTerm(-2, -2).build();
+        samples[5] = Polynomial.fromCoefficients(new double[]{0, 0, 0, 4}, 'x');
+        samples[6] = builder.clear().addTerm(1, 1000000).addTerm(1, 0).build();
+        samples[7] = Polynomial.fromCoefficients(new double[]{5}, 'x');
+        return samples;
+    }
+}
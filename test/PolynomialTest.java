@@ -0,0 +1,176 @@
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * Tests of the sparse paths of Polynomial arithmetic, of the term list, of batch evaluation
+ * and of number parsing. Sparse operands of huge degrees must stay sparse, since a dense
+ * intermediate of their degree would not fit in memory.
+ */
+final class PolynomialTest {
+    private static final int HUGE = 1_000_000_000; // a degree no dense array could hold
+
+    private PolynomialTest() {
+    }
+
+    static void testSparseSumStaysSparse() {
+        Polynomial sum = sparse(1, HUGE).add(sparse(2, 1));
+        Check.isTrue(!sum.isDense(), "the sum of sparse operands became dense");
+        Check.equal(2, sum.getTermCount(), "wrong number of terms");
+        Check.equal(HUGE, sum.getDegree(), "wrong degree");
+
+        Polynomial p = sparse(1, HUGE);
+        p.axpy(-2, sparse(1, 3));
+        p.addProduct(sparse(1, HUGE / 2), sparse(1, HUGE / 2 - 1));
+        Check.isTrue(!p.isDense(), "the in-place result became dense");
+        checkTerms(p, new int[]{HUGE, HUGE - 1, 3}, new double[]{1, 1, -2});
+    }
+
+    static void testSparseProduct() {
+        // (x^h + 1)(x^h - 1) = x^2h - 1, and random sparse products against a direct expansion
+        Polynomial a = sparse(1, HUGE / 2);
+        a.addTerm(new Term(1, 'x', 0));
+        Polynomial b = sparse(1, HUGE / 2);
+        b.addTerm(new Term(-1, 'x', 0));
+        checkTerms(a.multiply(b), new int[]{HUGE, 0}, new double[]{1, -1});
+
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            int[] degreesA = randomDegrees(random, 30);
+            int[] degreesB = randomDegrees(random, 40);
+            PolynomialBuilder x = new PolynomialBuilder();
+            PolynomialBuilder y = new PolynomialBuilder();
+            PolynomialBuilder expected = new PolynomialBuilder();
+            for (int i = 0; i < degreesA.length; i++) x.addTerm(i + 1, degreesA[i]);
+            for (int j = 0; j < degreesB.length; j++) y.addTerm(j - 20.5, degreesB[j]);
+            for (int i = 0; i < degreesA.length; i++) {
+                for (int j = 0; j < degreesB.length; j++) expected.addTerm((i + 1) * (j - 20.5), degreesA[i] + degreesB[j]);
+            }
+            Polynomial product = x.build().multiply(y.build());
+            Check.isTrue(!product.isDense(), "the sparse product became dense");
+            checkSame(expected.build(), product);
+        }
+    }
+
+    static void testSparseProductDegreeOverflow() {
+        Polynomial p = sparse(1, HUGE);
+        p.addTerm(new Term(1, 'x', 0));
+        Check.fails(ArithmeticException.class, () -> p.multiply(sparse(1, Integer.MAX_VALUE - 10)),
+                "a product degree above Integer.MAX_VALUE was wrapped around");
+    }
+
+    static void testSparseDivision() {
+        // (x^h + 1) / (x^1000 - 1): the quotient has one term per thousand degrees
+        int h = 10_000_000;
+        Polynomial f = sparse(1, h);
+        f.addTerm(new Term(1, 'x', 0));
+        Polynomial g = sparse(1, 1000);
+        g.addTerm(new Term(-1, 'x', 0));
+        Quotient result = f.divide(g);
+        Check.isTrue(!result.getQuotientP().isDense(), "the sparse quotient became dense");
+        Check.equal(h / 1000, result.getQuotientP().getTermCount(), "wrong number of quotient terms");
+        checkTerms(result.getRemainderP(), new int[]{0}, new double[]{2});
+        Polynomial back = result.getQuotientP().multiply(g).add(result.getRemainderP());
+        checkSame(f, back);
+    }
+
+    static void testEvaluateInPlace() {
+        Random random = new Random(2);
+        double[] coefs = new double[30];
+        for (int i = 0; i < coefs.length; i++) coefs[i] = random.nextGaussian();
+        PolynomialBuilder builder = new PolynomialBuilder();
+        for (int i = 0; i < 10; i++) builder.addTerm(random.nextGaussian(), random.nextInt(1000) - 10);
+        for (Polynomial p : new Polynomial[]{Polynomial.fromCoefficients(coefs, 'x'), builder.build(), new Polynomial()}) {
+            double[] values = new double[1500]; // several blocks
+            for (int i = 0; i < values.length; i++) values[i] = 2 * random.nextDouble() - 0.5;
+            double[] expected = new double[values.length];
+            p.evaluate(values, expected);
+            p.evaluate(values, values);
+            for (int i = 0; i < values.length; i++) {
+                Check.equal(expected[i], values[i], "wrong value " + i + " evaluated in place");
+            }
+        }
+    }
+
+    static void testParseExponents() {
+        PolynomialParser parser = new PolynomialParser();
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            String text = random.nextInt(100000) + "." + random.nextInt(1000) + "e" + (random.nextInt(700) - 350);
+            Check.equal(Double.parseDouble(text), parser.parseNumber(text, 0, text.length()), "wrong value of " + text);
+        }
+        Check.equal(1500.0, parser.parseNumber("1.5E+3", 0, 6), "wrong value of 1.5E+3");
+        Check.equal(2.5e-7, parser.parseNumber("25e-8", 0, 5), "wrong value of 25e-8");
+        Polynomial p = parser.parse("2e^3 + 1");
+        Check.equal('e', p.getLiteral(), "an e without digits was not taken as the literal");
+        Check.equal(3, p.getDegree(), "wrong degree of 2e^3 + 1");
+
+        // an e between digits is an exponent even where a polynomial in e was meant
+        Polynomial constant = parser.parse("2e-3");
+        Check.equal(0, constant.getDegree(), "2e-3 was not read as a constant");
+        Check.equal(0.002, constant.evaluate(0), "wrong value of 2e-3");
+        Check.equal(2000.0, parser.parse("2e+3").evaluate(0), "wrong value of 2e+3");
+        for (String text : new String[]{"2e - 3", "2e^1 - 3", "2e -3"}) {
+            Polynomial linear = parser.parse(text);
+            Check.equal('e', linear.getLiteral(), "wrong literal of " + text);
+            Check.equal(-1.0, linear.evaluate(1), "wrong value of " + text);
+        }
+    }
+
+    static void testTermListStaysAttached() {
+        double[] coefs = new double[20];
+        for (int i = 0; i < coefs.length; i++) coefs[i] = i + 1;
+        Polynomial p = Polynomial.fromCoefficients(coefs, 'x');
+        Polynomial q = Polynomial.fromCoefficients(coefs, 'x');
+        LinkedList<Term> terms = p.getTerms();
+        p.addTerm(new Term(1, 'x', 3));
+        p.axpy(2, q);
+        p.addProduct(q, q);
+        Check.equal(terms.size(), p.getTermCount(), "the list was detached by an operation");
+        double before = p.evaluate(0.5);
+        Check.equal(before, p.compile().applyAsDouble(0.5), "wrong compiled value");
+        terms.getFirst().setCoefficient(terms.getFirst().getCoefficient() + 1);
+        double expected = before + Math.pow(0.5, terms.getFirst().getDegree());
+        Check.close(expected, p.evaluate(0.5), 1e-15, "a change through the list was lost");
+        Check.close(expected, p.compile().applyAsDouble(0.5), 1e-15, "the compiled form is stale");
+
+        LinkedList<Term> set = new LinkedList<>();
+        Polynomial r = new Polynomial();
+        r.setTerms(set);
+        for (int d = 10; d >= 0; d--) set.add(new Term(1, 'x', d));
+        r.axpy(2, r);
+        Check.equal(11, set.size(), "the list passed to setTerms was detached");
+        Check.equal(33.0, r.evaluate(1), "a change through the list passed to setTerms was lost");
+    }
+
+    private static Polynomial sparse(double coef, int degree) {
+        Polynomial p = new Polynomial();
+        p.addTerm(new Term(coef, 'x', degree));
+        return p;
+    }
+
+    private static int[] randomDegrees(Random random, int count) {
+        int[] degrees = new int[count];
+        for (int i = 0; i < count; i++) degrees[i] = random.nextInt(HUGE / 2);
+        return degrees;
+    }
+
+    private static void checkTerms(Polynomial p, int[] degrees, double[] coefs) {
+        int n = p.getTermCount();
+        int[] actualDegrees = new int[n];
+        double[] actualCoefs = new double[n];
+        p.copyTerms(actualDegrees, actualCoefs);
+        Check.equal(degrees.length, n, "wrong number of terms of " + p);
+        for (int i = 0; i < n; i++) {
+            Check.equal(degrees[i], actualDegrees[i], "wrong degree of term " + i);
+            Check.equal(coefs[i], actualCoefs[i], "wrong coefficient of term " + i);
+        }
+    }
+
+    private static void checkSame(Polynomial expected, Polynomial actual) {
+        int n = expected.getTermCount();
+        int[] degrees = new int[n];
+        double[] coefs = new double[n];
+        expected.copyTerms(degrees, coefs);
+        checkTerms(actual, degrees, coefs);
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.Random;
+
+/**
+ * Tests of Polynomial.pow and of the truncated power series, computed eagerly by Newton
+ * iteration in PowerSeries and on demand in LazyPowerSeries, against known series.
+ */
+final class PowerSeriesTest {
+    private static final int PRECISION = 200;
+
+    private PowerSeriesTest() {
+    }
+
+    static void testPowMatchesRepeatedProducts() {
+        Polynomial p = Polynomial.fromCoefficients(new double[]{1, -1, 0.5}, 'x');
+        Polynomial expected = Polynomial.fromCoefficients(new double[]{1}, 'x');
+        for (int k = 0; k <= 13; k++) {
+            double[] e = expected.getCoefficients();
+            double[] a = p.pow(k).getCoefficients();
+            Check.equal(e.length, a.length, "wrong degree of p^" + k);
+            for (int i = 0; i < e.length; i++) Check.close(e[i], a[i], 1e-12, "wrong coefficient " + i + " of p^" + k);
+            expected = expected.multiply(p);
+        }
+        Polynomial binomial = Polynomial.fromCoefficients(new double[]{1, 1}, 'y').pow(20);
+        Check.equal(184756.0, binomial.getCoefficients()[10], "wrong middle coefficient of (1 + y)^20");
+        Check.equal('y', binomial.getLiteral(), "wrong literal of the power");
+        Check.fails(IllegalArgumentException.class, () -> p.pow(-1), "a negative exponent was accepted");
+    }
+
+    static void testNewtonIterations() {
+        // 1 / (1 - x) = sum x^k, log(1 + x) = sum (-1)^(k+1) x^k / k, exp(x) = sum x^k / k!
+        PowerSeries oneMinusX = new PowerSeries(Polynomial.fromCoefficients(new double[]{1, -1}, 'x'), PRECISION);
+        PowerSeries geometric = oneMinusX.inverse();
+        PowerSeries onePlusX = new PowerSeries(Polynomial.fromCoefficients(new double[]{1, 1}, 'x'), PRECISION);
+        PowerSeries log = onePlusX.log();
+        PowerSeries exp = new PowerSeries(Polynomial.fromCoefficients(new double[]{0, 1}, 'x'), PRECISION).exp();
+        double factorial = 1;
+        for (int k = 0; k < PRECISION; k++) {
+            if (k > 0) factorial *= k;
+            Check.close(1, geometric.getCoefficient(k), 1e-13, "wrong coefficient " + k + " of 1 / (1 - x)");
+            Check.close(k == 0 ? 0 : (k % 2 == 1 ? 1.0 : -1.0) / k, log.getCoefficient(k), 1e-13, "wrong coefficient " + k + " of log(1 + x)");
+            Check.close(1 / factorial, exp.getCoefficient(k), 1e-13, "wrong coefficient " + k + " of exp(x)");
+        }
+    }
+
+    static void testIdentities() {
+        Random random = new Random(20);
+        double[] coefficients = new double[PRECISION];
+        coefficients[0] = 2;
+        for (int i = 1; i < 30; i++) coefficients[i] = random.nextGaussian() / (i * i);
+        PowerSeries f = PowerSeries.fromCoefficients(coefficients, 'x');
+        checkClose(one(), f.multiply(f.inverse()), "f / f");
+        PowerSeries root = f.sqrt();
+        checkClose(f, root.multiply(root), "sqrt(f)^2");
+        checkClose(f, f.log().exp(), "exp(log f)");
+        checkClose(f.truncate(PRECISION - 1), f.integral().derivative().truncate(PRECISION - 1), "the derivative of the integral");
+        Check.equal(PRECISION - 1, f.derivative().getPrecision(), "the derivative kept its precision");
+        Check.fails(ArithmeticException.class, () -> PowerSeries.fromCoefficients(new double[]{0, 1}, 'x').inverse(),
+                "a series without constant term was inverted");
+    }
+
+    static void testLazySeriesMatchesEager() {
+        PowerSeries eager = PowerSeries.fromCoefficients(new double[]{1, 1}, 'x').truncate(2);
+        LazyPowerSeries f = LazyPowerSeries.of(Polynomial.fromCoefficients(new double[]{1, 1}, 'x'));
+        LazyPowerSeries g = f.inverse().multiply(f.exp()).add(f.sqrt().log());
+        Check.equal(0, g.getComputedCount(), "coefficients were computed before they were asked for");
+        PowerSeries lazy = g.toPowerSeries(50);
+        Check.equal(50, g.getComputedCount(), "more coefficients were computed than asked for");
+        PowerSeries h = new PowerSeries(eager.toPolynomial(), 50);
+        PowerSeries expected = h.inverse().multiply(h.exp()).add(h.sqrt().log());
+        checkClose(expected, lazy, "the lazy series");
+
+        int[] calls = new int[1];
+        LazyPowerSeries counted = LazyPowerSeries.of(n -> {
+            calls[0]++;
+            return 1.0 / (n + 1);
+        }, 'x');
+        counted.getCoefficient(9);
+        counted.getCoefficient(4);
+        Check.equal(10, calls[0], "coefficients were computed more than once");
+    }
+
+    private static PowerSeries one() {
+        double[] coefficients = new double[PRECISION];
+        coefficients[0] = 1;
+        return PowerSeries.fromCoefficients(coefficients, 'x');
+    }
+
+    private static void checkClose(PowerSeries expected, PowerSeries actual, String message) {
+        Check.equal(expected.getPrecision(), actual.getPrecision(), message + ": wrong precision");
+        for (int i = 0; i < expected.getPrecision(); i++) {
+            Check.close(expected.getCoefficient(i), actual.getCoefficient(i), 1e-11, message + ": wrong coefficient " + i);
+        }
+    }
+}